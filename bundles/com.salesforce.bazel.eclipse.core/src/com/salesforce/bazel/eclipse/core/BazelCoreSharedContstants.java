@@ -20,6 +20,9 @@ public interface BazelCoreSharedContstants {
     /** Classpath Container related Bazel problem */
     String CLASSPATH_CONTAINER_PROBLEM_MARKER = PLUGIN_ID + ".container_problem";
 
+    /** Problems reported by the Bazel project builder (eg., compile errors) */
+    String BUILD_PROBLEM_MARKER = PLUGIN_ID + ".build_problem";
+
     /** transient Bazel problems, i.e. not persisted across restarts */
     String TRANSIENT_PROBLEM_MARKER = PLUGIN_ID + ".transient_problem";
 
@@ -1,17 +1,362 @@
 package com.salesforce.bazel.eclipse.core.builder;
 
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BUILD_PROBLEM_MARKER;
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.MARKER_SOURCE_ID;
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.PLUGIN_ID;
+import static com.salesforce.bazel.eclipse.preferences.BazelCorePreferenceKeys.PREF_KEY_PROJECT_BUILDER_ENABLED;
+import static com.salesforce.bazel.sdk.command.querylight.BazelRuleAttribute.SRCS;
+import static java.lang.String.format;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.SubMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.eclipse.core.BazelCore;
+import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelTarget;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspaceBlazeInfo;
+import com.salesforce.bazel.sdk.command.BazelBuildCommand;
+import com.salesforce.bazel.sdk.command.BuildDiagnostic;
+import com.salesforce.bazel.sdk.command.BuildDiagnosticsCollector;
+import com.salesforce.bazel.sdk.model.BazelLabel;
 
+/**
+ * Builds the targets of a Bazel project with Bazel and reports compiler diagnostics as problem markers.
+ * <p>
+ * For incremental builds only the targets owning changed Java source files are built. A change to the project's
+ * <code>BUILD</code> file, a full build or a missing delta builds all targets of the project. Compiler diagnostics are
+ * collected from the build event protocol and reported as Bazel build problem markers. The markers remember the
+ * target reporting them so that only markers of rebuilt targets are replaced.
+ * </p>
+ * <p>
+ * The builder does nothing for the workspace project or when disabled in the preferences (the default).
+ * </p>
+ */
 public class BazelProjectBuilder extends IncrementalProjectBuilder {
 
+    private static Logger LOG = LoggerFactory.getLogger(BazelProjectBuilder.class);
+
+    /** marker attribute storing the label of the target reporting a problem */
+    static final String MARKER_ATTRIBUTE_BAZEL_TARGET = "bazelTarget";
+
+    static final Set<String> BUILD_FILE_NAMES = Set.of("BUILD", "BUILD.bazel");
+
+    /** the builder is opt-in because it runs a Bazel build on every Eclipse build */
+    public static final boolean DEFAULT_PROJECT_BUILDER_ENABLED = false;
+
+    /**
+     * Changes of a resource delta relevant for selecting the targets to build.
+     *
+     * @param buildFileChanged
+     *            <code>true</code> if a <code>BUILD</code> file was added, changed or removed
+     * @param javaFiles
+     *            locations of added, changed or removed Java files
+     */
+    static record Changes(boolean buildFileChanged, List<IPath> javaFiles) {
+    }
+
+    /**
+     * The sources of a target for mapping changed files to targets.
+     *
+     * @param target
+     *            the target
+     * @param packageLocation
+     *            the location of the target's package
+     * @param srcs
+     *            the <code>srcs</code> attribute (maybe <code>null</code>)
+     */
+    static record TargetSources(BazelTarget target, IPath packageLocation, List<String> srcs) {
+
+        static TargetSources of(BazelTarget target) throws CoreException {
+            return new TargetSources(
+                    target,
+                    target.getBazelPackage().getLocation(),
+                    target.getRuleAttributes().getStringList(SRCS));
+        }
+    }
+
+    /**
+     * Collects the changes relevant for selecting targets from a resource delta.
+     * <p>
+     * Removed Java files are included because the targets owning them need to be rebuilt as well.
+     * </p>
+     */
+    static Changes collectChanges(IResourceDelta delta) throws CoreException {
+        List<IPath> javaFiles = new ArrayList<>();
+        var buildFileChanged = new boolean[1];
+        delta.accept(d -> {
+            if ((d.getResource().getType() != IResource.FILE) || d.getResource().isDerived()) {
+                return true;
+            }
+            var file = (IFile) d.getResource();
+            if (BUILD_FILE_NAMES.contains(file.getName())) {
+                buildFileChanged[0] = true;
+            } else if ("java".equals(file.getFileExtension()) && (file.getLocation() != null)) {
+                javaFiles.add(file.getLocation());
+            }
+            return true;
+        });
+        return new Changes(buildFileChanged[0], javaFiles);
+    }
+
+    private static List<BazelTarget> findOwningTargets(IPath location, List<TargetSources> projectTargets) {
+        List<BazelTarget> result = new ArrayList<>();
+        for (TargetSources targetSources : projectTargets) {
+            var packageLocation = targetSources.packageLocation();
+            if (!packageLocation.isPrefixOf(location)) {
+                continue;
+            }
+            var packageRelativePath = location.makeRelativeTo(packageLocation).toString();
+            if (isSourceOfTarget(packageRelativePath, targetSources.target().getLabel(), targetSources.srcs())) {
+                result.add(targetSources.target());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a target lists a file (given relative to the target's package) in its <code>srcs</code>.
+     */
+    static boolean isSourceOfTarget(String packageRelativePath, BazelLabel targetLabel, List<String> srcs) {
+        if (srcs == null) {
+            return false;
+        }
+        var labelSuffix = "//" + targetLabel.getPackagePath() + ":" + packageRelativePath;
+        for (String src : srcs) {
+            if (src.equals(packageRelativePath) || src.equals(":" + packageRelativePath) || src.endsWith(labelSuffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the label without an explicit main repository prefix (<code>@@//</code> or <code>@//</code>)}
+     */
+    static String normalizeLabel(String label) {
+        if (label.startsWith("@@//")) {
+            return label.substring(2);
+        }
+        if (label.startsWith("@//")) {
+            return label.substring(1);
+        }
+        return label;
+    }
+
+    private static void addMarker(IResource resource, BuildDiagnostic diagnostic, String messagePrefix)
+            throws CoreException {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(
+            IMarker.MESSAGE,
+            messagePrefix != null ? messagePrefix + diagnostic.message() : diagnostic.message());
+        attributes.put(IMarker.SEVERITY, diagnostic.error() ? IMarker.SEVERITY_ERROR : IMarker.SEVERITY_WARNING);
+        attributes.put(IMarker.SOURCE_ID, MARKER_SOURCE_ID);
+        if ((messagePrefix == null) && (diagnostic.line() > 0)) {
+            attributes.put(IMarker.LINE_NUMBER, diagnostic.line());
+        }
+        if (diagnostic.label() != null) {
+            attributes.put(MARKER_ATTRIBUTE_BAZEL_TARGET, normalizeLabel(diagnostic.label()));
+        }
+        resource.createMarker(BUILD_PROBLEM_MARKER, attributes);
+    }
+
+    /**
+     * Selects the targets to build for the given changes.
+     * <p>
+     * Changed Java files are mapped to targets using the targets' <code>srcs</code> attribute. If a file cannot be
+     * mapped (eg., because <code>srcs</code> uses a <code>filegroup</code>) or a <code>BUILD</code> file changed, all
+     * project targets are returned.
+     * </p>
+     */
+    static List<BazelTarget> selectAffectedTargets(Changes changes, List<TargetSources> projectTargets) {
+        var allTargets = projectTargets.stream().map(TargetSources::target).toList();
+        if (changes.buildFileChanged()) {
+            return allTargets;
+        }
+
+        Set<BazelTarget> result = new LinkedHashSet<>();
+        for (IPath file : changes.javaFiles()) {
+            var owners = findOwningTargets(file, projectTargets);
+            if (owners.isEmpty()) {
+                LOG.debug("Unable to map '{}' to a target. Building all targets of project.", file);
+                return allTargets;
+            }
+            result.addAll(owners);
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * Replaces the problem markers of built targets with the collected diagnostics.
+     * <p>
+     * Markers of other targets are kept. Markers not associated with a target are always replaced.
+     * </p>
+     *
+     * @param project
+     *            the project to report problems on (directly if a file is not found in the project)
+     * @param workspaceRoot
+     *            the workspace root for resolving relative file names of diagnostics
+     * @param builtTargets
+     *            the labels of the built targets
+     * @param diagnostics
+     *            the collected diagnostics
+     * @param failure
+     *            the build failure (maybe <code>null</code>)
+     */
+    static void replaceMarkers(IProject project, Path workspaceRoot, Collection<String> builtTargets,
+            List<BuildDiagnostic> diagnostics, CoreException failure) throws CoreException {
+        deleteMarkersOfTargets(project, builtTargets);
+        for (BuildDiagnostic diagnostic : diagnostics) {
+            var file = findFile(project, workspaceRoot, diagnostic.file());
+            if (file != null) {
+                addMarker(file, diagnostic, null);
+            } else {
+                addMarker(project, diagnostic, format("%s:%d: ", diagnostic.file(), diagnostic.line()));
+            }
+        }
+        if ((failure != null) && diagnostics.isEmpty()) {
+            LOG.warn("Bazel build of project '{}' failed: {}", project.getName(), failure.getMessage(), failure);
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put(IMarker.MESSAGE, format("Bazel build failed: %s", failure.getStatus().getMessage()));
+            attributes.put(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+            attributes.put(IMarker.SOURCE_ID, MARKER_SOURCE_ID);
+            project.createMarker(BUILD_PROBLEM_MARKER, attributes);
+        }
+    }
+
     @Override
     protected IProject[] build(int kind, Map<String, String> args, IProgressMonitor monitor) throws CoreException {
-        return new IProject[0];
+        if (!isEnabled() || !BazelProject.isBazelProject(getProject())) {
+            return null;
+        }
+
+        var bazelProject = BazelCore.create(getProject());
+        if (bazelProject.isWorkspaceProject()) {
+            return null;
+        }
+
+        var projectTargets = getProjectTargets(bazelProject);
+        if (projectTargets.isEmpty()) {
+            return null;
+        }
+
+        var delta = kind != FULL_BUILD ? getDelta(getProject()) : null;
+        var targetsToBuild = delta != null ? findAffectedTargets(delta, projectTargets) : projectTargets;
+        if (targetsToBuild.isEmpty()) {
+            return null;
+        }
+
+        buildTargets(bazelProject, targetsToBuild, monitor);
+        return null;
     }
 
+    private void buildTargets(BazelProject bazelProject, List<BazelTarget> targets, IProgressMonitor progress)
+            throws CoreException {
+        var monitor = SubMonitor.convert(progress, format("Building %s", bazelProject.getName()), 2);
+        var workspace = bazelProject.getBazelWorkspace();
+
+        var labels = targets.stream().map(BazelTarget::getLabel).toList();
+        var command = new BazelBuildCommand(
+                labels,
+                workspace.getLocation().toPath(),
+                new BazelWorkspaceBlazeInfo(workspace),
+                true /* keep going */,
+                format("Building %d targets of project '%s'", labels.size(), bazelProject.getName()));
+        var collector = new BuildDiagnosticsCollector();
+        command.setDiagnosticsCollector(collector);
+
+        CoreException failure = null;
+        try {
+            workspace.getCommandExecutor()
+                    .runDirectlyWithinExistingWorkspaceLock(command, List.of(), monitor.split(1));
+        } catch (CoreException e) {
+            // still report what was collected
+            failure = e;
+        }
+
+        monitor.subTask("Updating problem markers");
+        replaceMarkers(
+            getProject(),
+            workspace.getLocation().toPath(),
+            labels.stream().map(BazelLabel::toString).toList(),
+            collector.getDiagnostics(),
+            failure);
+        monitor.done();
+    }
+
+    @Override
+    protected void clean(IProgressMonitor monitor) throws CoreException {
+        getProject().deleteMarkers(BUILD_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+    }
+
+    private static void deleteMarkersOfTargets(IProject project, Collection<String> labels) throws CoreException {
+        for (IMarker marker : project.findMarkers(BUILD_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE)) {
+            var target = marker.getAttribute(MARKER_ATTRIBUTE_BAZEL_TARGET, null);
+            if ((target == null) || labels.contains(target)) {
+                marker.delete();
+            }
+        }
+    }
+
+    private List<BazelTarget> findAffectedTargets(IResourceDelta delta, List<BazelTarget> projectTargets)
+            throws CoreException {
+        var changes = collectChanges(delta);
+        if (changes.buildFileChanged()) {
+            return projectTargets;
+        }
+        List<TargetSources> targetSources = new ArrayList<>();
+        for (BazelTarget target : projectTargets) {
+            targetSources.add(TargetSources.of(target));
+        }
+        return selectAffectedTargets(changes, targetSources);
+    }
+
+    /**
+     * Markers are only placed in the built project because only its markers are cleared on the next build.
+     */
+    private static IFile findFile(IProject project, Path workspaceRoot, Path file) {
+        var location = file.isAbsolute() ? file : workspaceRoot.resolve(file);
+        var files = project.getWorkspace().getRoot().findFilesForLocationURI(location.normalize().toUri());
+        for (IFile candidate : files) {
+            if (candidate.isAccessible() && project.equals(candidate.getProject())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private List<BazelTarget> getProjectTargets(BazelProject bazelProject) throws CoreException {
+        if (bazelProject.isTargetProject()) {
+            return List.of(bazelProject.getBazelTarget());
+        }
+        if (bazelProject.isPackageProject()) {
+            return bazelProject.getBazelTargets();
+        }
+        return List.of();
+    }
+
+    private boolean isEnabled() {
+        return Platform.getPreferencesService()
+                .getBoolean(PLUGIN_ID, PREF_KEY_PROJECT_BUILDER_ENABLED, DEFAULT_PROJECT_BUILDER_ENABLED, null);
+    }
 }
@@ -14,9 +14,11 @@
 package com.salesforce.bazel.eclipse.core.classpath;
 
 import static com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope.DEFAULT_CLASSPATH;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Predicate.not;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.eclipse.core.runtime.SubMonitor.SUPPRESS_ALL_LABELS;
 
 import java.io.BufferedInputStream;
@@ -28,13 +30,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectStreamException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
@@ -57,10 +65,13 @@ import com.salesforce.bazel.eclipse.core.model.BazelModelManager;
 import com.salesforce.bazel.eclipse.core.model.BazelPackage;
 import com.salesforce.bazel.eclipse.core.model.BazelProject;
 import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.discovery.BazelDependencyGraphCache;
 import com.salesforce.bazel.eclipse.core.model.discovery.TargetDiscoveryAndProvisioningExtensionLookup;
 import com.salesforce.bazel.eclipse.core.model.discovery.TargetProvisioningStrategy;
 import com.salesforce.bazel.eclipse.core.model.discovery.WorkspaceClasspathStrategy;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.index.TypeIndex;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.index.TypeIndexWriter;
 import com.salesforce.bazel.eclipse.core.util.trace.TracingSubMonitor;
 
 /**
@@ -80,12 +91,95 @@ public class BazelClasspathManager {
 
     private final File stateLocationDirectory;
     private final BazelModelManager bazelModelManager;
+    private final Map<IPath, TypeIndex> typeIndexByWorkspaceLocation = new ConcurrentHashMap<>();
+    private final Map<IPath, BazelDependencyGraphCache> dependencyGraphCacheByWorkspaceLocation =
+            new ConcurrentHashMap<>();
+
+    private volatile ClasspathRefreshScheduler refreshScheduler;
+    private volatile TypeIndexUpdateJob typeIndexUpdateJob;
+
+    /** guards read-modify-write of the on-demand workspace libraries files */
+    private final Object onDemandWorkspaceLibrariesLock = new Object();
 
     public BazelClasspathManager(File stateLocationDirectory, BazelModelManager bazelModelManager) {
         this.bazelModelManager = bazelModelManager;
         this.stateLocationDirectory = requireNonNull(stateLocationDirectory);
     }
 
+    /**
+     * Adds libraries to the classpath container of the workspace project.
+     * <p>
+     * This is used when <code>discover_workspace_jars_on_demand</code> is enabled for materializing libraries which
+     * were discovered but left off the classpath (eg., after a type was found in the {@link #getTypeIndex(BazelWorkspace)
+     * type index}). The libraries are remembered and will remain on the workspace project's classpath after subsequent
+     * classpath computations as long as they are still discovered.
+     * </p>
+     *
+     * @param bazelWorkspace
+     *            the workspace
+     * @param libraries
+     *            the library entries to add
+     * @param progress
+     *            monitor for reporting progress
+     * @return <code>true</code> if the container was updated, <code>false</code> if all libraries were already present
+     *         or the workspace project has no classpath yet (in which case a refresh is requested)
+     * @throws CoreException
+     */
+    public boolean addWorkspaceLibraries(BazelWorkspace bazelWorkspace, Collection<ClasspathEntry> libraries,
+            IProgressMonitor progress) throws CoreException {
+        try {
+            var monitor = SubMonitor.convert(progress, "Adding libraries to workspace project", 2);
+            var workspaceProject = bazelWorkspace.getBazelProject().getProject();
+
+            addOnDemandWorkspaceLibraries(bazelWorkspace, libraries.stream().map(ClasspathEntry::getPath).toList());
+
+            var savedContainer = getSavedContainer(workspaceProject);
+            if (savedContainer == null) {
+                getRefreshScheduler().requestRefresh(List.of(workspaceProject));
+                return false;
+            }
+
+            List<ClasspathEntry> entries = new ArrayList<>();
+            Set<IPath> paths = new HashSet<>();
+            for (IClasspathEntry entry : savedContainer.getClasspathEntries()) {
+                entries.add(ClasspathEntry.copyOf(entry));
+                paths.add(entry.getPath());
+            }
+            var added = false;
+            for (ClasspathEntry library : libraries) {
+                if (paths.add(library.getPath())) {
+                    entries.add(library);
+                    added = true;
+                }
+            }
+            if (!added) {
+                return false;
+            }
+
+            saveAndSetContainer(
+                JavaCore.create(workspaceProject),
+                new CompileAndRuntimeClasspath(entries, List.of()),
+                monitor);
+            return true;
+        } finally {
+            if (progress != null) {
+                progress.done();
+            }
+        }
+    }
+
+    /**
+     * Remembers libraries added on demand to the workspace project.
+     */
+    void addOnDemandWorkspaceLibraries(BazelWorkspace bazelWorkspace, Collection<IPath> libraries) {
+        synchronized (onDemandWorkspaceLibrariesLock) {
+            var onDemandLibraries = getOnDemandWorkspaceLibraries(bazelWorkspace);
+            if (onDemandLibraries.addAll(libraries)) {
+                saveOnDemandWorkspaceLibraries(bazelWorkspace, onDemandLibraries);
+            }
+        }
+    }
+
     private void configureAttachedSourcesAndJavadoc(ClasspathEntry entry, Properties sourceAttachment) {
         if ((IClasspathEntry.CPE_LIBRARY == entry.getEntryKind()) && (entry.getSourceAttachmentPath() == null)) {
             var path = entry.getPath().toPortableString();
@@ -135,6 +229,57 @@ public class BazelClasspathManager {
         }
     }
 
+    /**
+     * Reconstructs the classpath as computed by Bazel from a saved classpath.
+     * <p>
+     * Custom attachments are only applied to library entries without a source attachment provided by Bazel (see
+     * {@link #configureAttachedSourcesAndJavadoc(ClasspathEntry, Properties)}). Thus, any attachment matching the
+     * custom attachment persisted for an entry was configured by the user and is removed.
+     * </p>
+     *
+     * @param savedClasspath
+     *            the classpath of the saved container
+     * @param customAttachments
+     *            the custom attachments applied to the saved container
+     * @return the classpath without custom attachments
+     */
+    Collection<ClasspathEntry> getDefaultClasspath(IClasspathEntry[] savedClasspath, Properties customAttachments) {
+        List<ClasspathEntry> result = new ArrayList<>(savedClasspath.length);
+        for (IClasspathEntry savedEntry : savedClasspath) {
+            var entry = ClasspathEntry.copyOf(savedEntry);
+            result.add(entry);
+            if (IClasspathEntry.CPE_LIBRARY != entry.getEntryKind()) {
+                continue;
+            }
+
+            var path = entry.getPath().toPortableString();
+            var sourceAttachmentPath = entry.getSourceAttachmentPath();
+            if ((sourceAttachmentPath != null) && !sourceAttachmentPath.toPortableString()
+                    .equals(customAttachments.getProperty(path + PROPERTY_SRC_PATH))) {
+                continue; // provided by Bazel
+            }
+
+            entry.setSourceAttachmentPath(null);
+            var sourceAttachmentRootPath = entry.getSourceAttachmentRootPath();
+            if ((sourceAttachmentRootPath != null) && sourceAttachmentRootPath.toPortableString()
+                    .equals(customAttachments.getProperty(path + PROPERTY_SRC_ROOT))) {
+                entry.setSourceAttachmentRootPath(null);
+            }
+            var extraAttributes = entry.getExtraAttributes();
+            var sourceAttachmentEncoding = extraAttributes.get(IClasspathAttribute.SOURCE_ATTACHMENT_ENCODING);
+            if ((sourceAttachmentEncoding != null)
+                    && sourceAttachmentEncoding.equals(customAttachments.getProperty(path + PROPERTY_SRC_ENCODING))) {
+                extraAttributes.remove(IClasspathAttribute.SOURCE_ATTACHMENT_ENCODING);
+            }
+            var javadocLocation = extraAttributes.get(IClasspathAttribute.JAVADOC_LOCATION_ATTRIBUTE_NAME);
+            if ((javadocLocation != null)
+                    && javadocLocation.equals(customAttachments.getProperty(path + PROPERTY_JAVADOC_URL))) {
+                extraAttributes.remove(IClasspathAttribute.JAVADOC_LOCATION_ATTRIBUTE_NAME);
+            }
+        }
+        return result;
+    }
+
     IClasspathEntry getBazelContainerEntry(IJavaProject project) {
         return BazelClasspathHelpers.getBazelContainerEntry(project);
     }
@@ -221,6 +366,194 @@ public class BazelClasspathManager {
         return new File(stateLocationDirectory, project.getName() + ".sources"); //$NON-NLS-1$
     }
 
+    /**
+     * {@return the scheduler for refreshing classpaths in the background}
+     */
+    public ClasspathRefreshScheduler getRefreshScheduler() {
+        var scheduler = refreshScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = refreshScheduler;
+                if (scheduler == null) {
+                    refreshScheduler = scheduler = new ClasspathRefreshScheduler(this);
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    private TypeIndexUpdateJob getTypeIndexUpdateJob() {
+        var job = typeIndexUpdateJob;
+        if (job == null) {
+            synchronized (this) {
+                job = typeIndexUpdateJob;
+                if (job == null) {
+                    typeIndexUpdateJob = job = new TypeIndexUpdateJob(this);
+                }
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Returns the dependency graph cache of a workspace.
+     * <p>
+     * The cache lives for the entire IDE session. It is not persisted.
+     * </p>
+     *
+     * @param bazelWorkspace
+     *            the workspace
+     * @return the cache (never <code>null</code>)
+     */
+    public BazelDependencyGraphCache getDependencyGraphCache(BazelWorkspace bazelWorkspace) {
+        return dependencyGraphCacheByWorkspaceLocation
+                .computeIfAbsent(bazelWorkspace.getLocation(), l -> new BazelDependencyGraphCache());
+    }
+
+    /**
+     * Collects the libraries the workspace project should have on its classpath when
+     * <code>discover_workspace_jars_on_demand</code> is enabled.
+     * <p>
+     * These are all libraries used by other projects of the workspace plus any library
+     * {@link #addWorkspaceLibraries(BazelWorkspace, Collection, IProgressMonitor) added on demand}.
+     * </p>
+     *
+     * @param bazelWorkspace
+     *            the workspace
+     * @param computedClasspaths
+     *            freshly computed classpaths (take precedence over saved containers)
+     * @return the library locations
+     * @throws CoreException
+     */
+    Set<IPath> getMaterializedWorkspaceLibraries(BazelWorkspace bazelWorkspace,
+            Map<BazelProject, CompileAndRuntimeClasspath> computedClasspaths) throws CoreException {
+        return getMaterializedWorkspaceLibraries(bazelWorkspace, bazelWorkspace.getBazelProjects(), computedClasspaths);
+    }
+
+    Set<IPath> getMaterializedWorkspaceLibraries(BazelWorkspace bazelWorkspace, Collection<BazelProject> bazelProjects,
+            Map<BazelProject, CompileAndRuntimeClasspath> computedClasspaths) throws CoreException {
+        Set<IPath> result = getOnDemandWorkspaceLibraries(bazelWorkspace);
+        for (BazelProject bazelProject : bazelProjects) {
+            if (bazelProject.isWorkspaceProject()) {
+                continue;
+            }
+            var classpath = computedClasspaths.get(bazelProject);
+            if (classpath != null) {
+                for (ClasspathEntry entry : classpath.compileEntries()) {
+                    if (IClasspathEntry.CPE_LIBRARY == entry.getEntryKind()) {
+                        result.add(entry.getPath());
+                    }
+                }
+                continue;
+            }
+            var savedContainer = getSavedContainer(bazelProject.getProject());
+            if (savedContainer != null) {
+                for (IClasspathEntry entry : savedContainer.getClasspathEntries()) {
+                    if (IClasspathEntry.CPE_LIBRARY == entry.getEntryKind()) {
+                        result.add(entry.getPath());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@return a modifiable set of the libraries added on demand to the workspace project}
+     */
+    Set<IPath> getOnDemandWorkspaceLibraries(BazelWorkspace bazelWorkspace) {
+        Set<IPath> result = new LinkedHashSet<>();
+        var file = getOnDemandWorkspaceLibrariesFile(bazelWorkspace).toPath();
+        synchronized (onDemandWorkspaceLibrariesLock) {
+            if (Files.isRegularFile(file)) {
+                try {
+                    for (String line : Files.readAllLines(file)) {
+                        if (!line.isBlank()) {
+                            result.add(IPath.fromPortableString(line));
+                        }
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Discarding list of on-demand workspace libraries '{}'. {}", file, e.getMessage(), e);
+                }
+            }
+        }
+        return result;
+    }
+
+    File getOnDemandWorkspaceLibrariesFile(BazelWorkspace bazelWorkspace) {
+        return new File(
+                stateLocationDirectory,
+                format("%08x.workspacejars", bazelWorkspace.getLocation().toString().hashCode())); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the type index of a Bazel workspace.
+     * <p>
+     * The type index maps Java types and packages to the jars (and Bazel targets) providing them. It's updated
+     * whenever classpath is computed for projects of the workspace. The index is persisted in the state location and
+     * memory-mapped on first access.
+     * </p>
+     *
+     * @param bazelWorkspace
+     *            the Bazel workspace
+     * @return the type index (maybe <code>null</code> if no index is available yet)
+     */
+    public TypeIndex getTypeIndex(BazelWorkspace bazelWorkspace) {
+        return typeIndexByWorkspaceLocation.computeIfAbsent(bazelWorkspace.getLocation(), l -> {
+            var generations = getTypeIndexGenerations(bazelWorkspace);
+            if (generations.isEmpty()) {
+                return null;
+            }
+            var typeIndexFile = generations.lastEntry().getValue();
+            try {
+                return TypeIndex.open(typeIndexFile.toPath());
+            } catch (IOException e) {
+                LOG.warn("Discarding type index '{}'. {}", typeIndexFile, e.getMessage(), e);
+                return null;
+            }
+        });
+    }
+
+    File getTypeIndexFile(BazelWorkspace bazelWorkspace, long generation) {
+        return new File(
+                stateLocationDirectory,
+                format("%s%d.typeindex", getTypeIndexFilePrefix(bazelWorkspace), generation)); //$NON-NLS-1$
+    }
+
+    private String getTypeIndexFilePrefix(BazelWorkspace bazelWorkspace) {
+        return format("%08x.", bazelWorkspace.getLocation().toString().hashCode()); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns all type index files of a workspace.
+     * <p>
+     * A type index is memory-mapped while in use, which prevents replacing or deleting its file on some platforms.
+     * Therefore updates are written to a new file (generation) and older generations are deleted when possible.
+     * </p>
+     *
+     * @return the type index files by generation (never <code>null</code>)
+     */
+    NavigableMap<Long, File> getTypeIndexGenerations(BazelWorkspace bazelWorkspace) {
+        NavigableMap<Long, File> result = new TreeMap<>();
+        var prefix = getTypeIndexFilePrefix(bazelWorkspace);
+        var files = stateLocationDirectory
+                .listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".typeindex")); //$NON-NLS-1$
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            var name = file.getName();
+            try {
+                result.put(
+                    Long.parseLong(name.substring(prefix.length(), name.length() - ".typeindex".length())),
+                    file);
+            } catch (NumberFormatException e) {
+                LOG.debug("Ignoring unexpected type index file '{}'", file);
+            }
+        }
+        return result;
+    }
+
     TargetProvisioningStrategy getTargetProvisioningStrategy(BazelWorkspace bazelWorkspace) throws CoreException {
         return new TargetDiscoveryAndProvisioningExtensionLookup()
                 .createTargetProvisioningStrategy(bazelWorkspace.getBazelProjectView());
@@ -292,18 +625,25 @@ public class BazelClasspathManager {
                 }
             }
 
-            // now we need to re-compute the classpath so we can
+            // we need the classpath without any custom attachments so we can
             // eliminate all "standard" source/javadoc attachement we get from local repo
-            var strategy = getTargetProvisioningStrategy(bazelProject.getBazelWorkspace());
-            var classpaths = strategy.computeClasspaths(
-                List.of(bazelProject),
-                bazelProject.getBazelWorkspace(),
-                DEFAULT_CLASSPATH,
-                monitor.split(1, SUPPRESS_ALL_LABELS));
-            entries = configureClasspathWithSourceAttachments(
-                classpaths.get(bazelProject).compileEntries(),
-                null /* no props */,
-                monitor);
+            // (re-use the saved container if possible because re-computing requires a Bazel build)
+            var savedContainer = getSavedContainer(project.getProject());
+            Collection<ClasspathEntry> defaultClasspath;
+            if (savedContainer != null) {
+                defaultClasspath = getDefaultClasspath(
+                    savedContainer.getClasspathEntries(),
+                    getSourceAttachmentProperties(project.getProject()));
+            } else {
+                var strategy = getTargetProvisioningStrategy(bazelProject.getBazelWorkspace());
+                var classpaths = strategy.computeClasspaths(
+                    List.of(bazelProject),
+                    bazelProject.getBazelWorkspace(),
+                    DEFAULT_CLASSPATH,
+                    monitor.split(1, SUPPRESS_ALL_LABELS));
+                defaultClasspath = classpaths.get(bazelProject).compileEntries();
+            }
+            entries = configureClasspathWithSourceAttachments(defaultClasspath, null /* no props */, monitor);
             for (IClasspathEntry entry : entries) {
                 if (IClasspathEntry.CPE_LIBRARY == entry.getEntryKind()) {
                     var path = entry.getPath().toPortableString();
@@ -328,11 +668,27 @@ public class BazelClasspathManager {
                 throw new CoreException(Status.error("Can't save classpath container changes", e));
             }
 
-            // update classpath container (this will re-set classpath on JavaProject)
-            updateClasspath(
-                bazelProject.getBazelWorkspace(),
-                List.of(bazelProject),
-                monitor.split(1, SUPPRESS_ALL_LABELS));
+            if (savedContainer != null) {
+                // apply the attachments in place
+                var container = new BazelClasspathContainer(
+                        savedContainer.getPath(),
+                        configureClasspathWithSourceAttachments(defaultClasspath, props, monitor.slice(1)),
+                        savedContainer.getAdditionalRuntimeClasspathEntries());
+                JavaCore.setClasspathContainer(
+                    container.getPath(),
+                    new IJavaProject[] {
+                            project },
+                    new IClasspathContainer[] {
+                            container },
+                    null);
+                saveContainerState(project.getProject(), container);
+            } else {
+                // update classpath container (this will re-set classpath on JavaProject)
+                updateClasspath(
+                    bazelProject.getBazelWorkspace(),
+                    List.of(bazelProject),
+                    monitor.split(1, SUPPRESS_ALL_LABELS));
+            }
         } finally {
             if (progress != null) {
                 progress.done();
@@ -340,6 +696,34 @@ public class BazelClasspathManager {
         }
     }
 
+    /**
+     * Forgets libraries added on demand which are no longer discovered.
+     */
+    void pruneOnDemandWorkspaceLibraries(BazelWorkspace bazelWorkspace,
+            CompileAndRuntimeClasspath workspaceProjectClasspath) {
+        var discovered = workspaceProjectClasspath.compileEntries()
+                .stream()
+                .map(ClasspathEntry::getPath)
+                .collect(toSet());
+        synchronized (onDemandWorkspaceLibrariesLock) {
+            var onDemandLibraries = getOnDemandWorkspaceLibraries(bazelWorkspace);
+            if (onDemandLibraries.retainAll(discovered)) {
+                saveOnDemandWorkspaceLibraries(bazelWorkspace, onDemandLibraries);
+            }
+        }
+    }
+
+    void saveOnDemandWorkspaceLibraries(BazelWorkspace bazelWorkspace, Set<IPath> libraries) {
+        var file = getOnDemandWorkspaceLibrariesFile(bazelWorkspace).toPath();
+        synchronized (onDemandWorkspaceLibrariesLock) {
+            try {
+                Files.write(file, libraries.stream().map(IPath::toPortableString).collect(toList()));
+            } catch (IOException e) {
+                LOG.warn("Unable to save list of on-demand workspace libraries '{}'. {}", file, e.getMessage(), e);
+            }
+        }
+    }
+
     void saveAndSetContainer(IJavaProject javaProject, CompileAndRuntimeClasspath classpath, IProgressMonitor monitor)
             throws CoreException, JavaModelException {
         var containerEntry = getBazelContainerEntry(javaProject);
@@ -391,16 +775,7 @@ public class BazelClasspathManager {
             throws CoreException {
         try {
             var monitor =
-                    TracingSubMonitor.convert(progress, "Computing classpath of Bazel projects", 4 + projects.size());
-
-            // we need to refresh the workspace project differently
-            var workspaceProject = bazelWorkspace.getBazelProject();
-            var workspaceProjectClasspath =
-                    projects.contains(workspaceProject) ? new WorkspaceClasspathStrategy().computeClasspath(
-                        workspaceProject,
-                        bazelWorkspace,
-                        DEFAULT_CLASSPATH,
-                        monitor.split(1, "Computing classpath for workspace project")) : null;
+                    TracingSubMonitor.convert(progress, "Computing classpath of Bazel projects", 3 + projects.size());
 
             // extract all non workspace projects
             List<BazelProject> nonWorkspaceProjects = projects.stream()
@@ -410,6 +785,9 @@ public class BazelClasspathManager {
             // ensure the packages are opened efficiently
             bazelWorkspace.open(getBazelPackages(bazelWorkspace, nonWorkspaceProjects));
 
+            // pick up BUILD files changed outside of projects once for all lookups of this update
+            getDependencyGraphCache(bazelWorkspace).detectChangedBuildFiles(bazelWorkspace.getLocation().toPath());
+
             // compute classpaths for all non-workspace projects
             var strategy = getTargetProvisioningStrategy(bazelWorkspace);
             var classpaths = strategy.computeClasspaths(
@@ -418,6 +796,24 @@ public class BazelClasspathManager {
                 DEFAULT_CLASSPATH,
                 monitor.split(1, "Computing classpath for projects using " + strategy.getClass().getSimpleName()));
 
+            // we need to refresh the workspace project differently
+            // (after the others because with on-demand discovery it only includes libraries they use)
+            var workspaceProject = bazelWorkspace.getBazelProject();
+            var workspaceClasspathStrategy = new WorkspaceClasspathStrategy();
+            CompileAndRuntimeClasspath workspaceProjectClasspath = null;
+            if (projects.contains(workspaceProject)) {
+                var onDemand = bazelWorkspace.getBazelProjectView().discoverWorkspaceJarsOnDemand();
+                workspaceProjectClasspath = workspaceClasspathStrategy.computeClasspath(
+                    workspaceProject,
+                    bazelWorkspace,
+                    DEFAULT_CLASSPATH,
+                    onDemand ? getMaterializedWorkspaceLibraries(bazelWorkspace, classpaths) : null,
+                    monitor.split(1, "Computing classpath for workspace project"));
+                if (onDemand) {
+                    pruneOnDemandWorkspaceLibraries(bazelWorkspace, workspaceProjectClasspath);
+                }
+            }
+
             // apply classpaths for each project
             for (BazelProject bazelProject : projects) {
                 var javaProject = JavaCore.create(bazelProject.getProject());
@@ -427,6 +823,15 @@ public class BazelClasspathManager {
 
                 saveAndSetContainer(javaProject, projectClasspath, monitor.slice(1));
             }
+
+            // update the type index with all libraries found (in the background)
+            List<CompileAndRuntimeClasspath> allClasspaths = new ArrayList<>(classpaths.values());
+            if (workspaceProjectClasspath != null) {
+                allClasspaths.add(workspaceProjectClasspath);
+                allClasspaths.add(
+                    new CompileAndRuntimeClasspath(workspaceClasspathStrategy.getOnDemandLibraries(), List.of()));
+            }
+            getTypeIndexUpdateJob().requestUpdate(bazelWorkspace, allClasspaths);
         } finally {
             if (progress != null) {
                 progress.done();
@@ -434,4 +839,72 @@ public class BazelClasspathManager {
         }
     }
 
+    /**
+     * Updates the type index of a workspace with all libraries of the given classpaths.
+     * <p>
+     * The type index is an optimization. Thus, errors are logged but not propagated.
+     * </p>
+     *
+     * @param bazelWorkspace
+     *            the workspace
+     * @param classpaths
+     *            the classpaths to index
+     * @param monitor
+     *            monitor for reporting progress
+     */
+    void updateTypeIndex(BazelWorkspace bazelWorkspace, Collection<CompileAndRuntimeClasspath> classpaths,
+            IProgressMonitor monitor) {
+        try {
+            synchronized (typeIndexByWorkspaceLocation) {
+                var writer = new TypeIndexWriter(getTypeIndex(bazelWorkspace));
+                for (CompileAndRuntimeClasspath classpath : classpaths) {
+                    for (ClasspathEntry entry : classpath.compileEntries()) {
+                        addToTypeIndex(writer, entry);
+                    }
+                    for (ClasspathEntry entry : classpath.additionalRuntimeEntries()) {
+                        addToTypeIndex(writer, entry);
+                    }
+                    if (monitor.isCanceled()) {
+                        return;
+                    }
+                }
+                writer.removeMissingJars();
+
+                // never replace the file of the current index because it's still mapped
+                var generations = getTypeIndexGenerations(bazelWorkspace);
+                var generation = generations.isEmpty() ? 1 : generations.lastKey() + 1;
+                var typeIndexFile = getTypeIndexFile(bazelWorkspace, generation).toPath();
+                writer.write(typeIndexFile);
+                typeIndexByWorkspaceLocation.put(bazelWorkspace.getLocation(), TypeIndex.open(typeIndexFile));
+
+                // the previous generation is unmapped once no longer referenced, until then deletion may fail
+                for (File obsoleteFile : generations.values()) {
+                    try {
+                        Files.deleteIfExists(obsoleteFile.toPath());
+                    } catch (IOException e) {
+                        LOG.debug("Unable to delete obsolete type index '{}'. {}", obsoleteFile, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Error updating type index for workspace '{}'. {}", bazelWorkspace, e.getMessage(), e);
+        } finally {
+            monitor.done();
+        }
+    }
+
+    private void addToTypeIndex(TypeIndexWriter writer, ClasspathEntry entry) {
+        if (IClasspathEntry.CPE_LIBRARY != entry.getEntryKind()) {
+            return;
+        }
+        var sourceAttachmentPath = entry.getSourceAttachmentPath();
+        try {
+            writer.addJar(
+                entry.getPath().toPath(),
+                entry.getBazelTargetOrigin(),
+                sourceAttachmentPath != null ? sourceAttachmentPath.toPath() : null);
+        } catch (IOException e) {
+            LOG.debug("Unable to index jar '{}'. {}", entry.getPath(), e.getMessage(), e);
+        }
+    }
 }
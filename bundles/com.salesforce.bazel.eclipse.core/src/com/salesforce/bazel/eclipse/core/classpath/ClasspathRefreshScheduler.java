@@ -0,0 +1,252 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.classpath;
+
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.PLUGIN_ID;
+import static com.salesforce.bazel.eclipse.preferences.BazelCorePreferenceKeys.PREF_KEY_CLASSPATH_AUTO_REFRESH;
+import static com.salesforce.bazel.eclipse.preferences.BazelCorePreferenceKeys.PREF_KEY_CLASSPATH_REFRESH_DELAY;
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaCore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.eclipse.core.BazelCore;
+import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.util.trace.TracingSubMonitor;
+
+/**
+ * Refreshes the classpath of Bazel projects in the background after their <code>BUILD</code> files changed.
+ * <p>
+ * Requests are debounced. Each request postpones the refresh by the configured delay, so a burst of changes (eg.
+ * switching branches or a bulk edit) results in a single refresh. All projects requested in the meantime are
+ * coalesced into one {@link BazelClasspathManager#updateClasspath(BazelWorkspace, List, IProgressMonitor) update} per
+ * workspace, which is a single aspect build.
+ * </p>
+ * <p>
+ * Projects with a file open in an editor are refreshed first in a separate update so they get feedback quickly. If a
+ * project is requested again while its refresh is running, the running refresh is cancelled and re-scheduled with all
+ * its projects, because its result would be stale.
+ * </p>
+ */
+public class ClasspathRefreshScheduler extends WorkspaceJob {
+
+    private static Logger LOG = LoggerFactory.getLogger(ClasspathRefreshScheduler.class);
+
+    /**
+     * automatic refresh is opt-in because each refresh runs a Bazel build (debouncing only reduces the number of
+     * builds, a single <code>BUILD</code> file edit still triggers one)
+     */
+    public static final boolean DEFAULT_AUTO_REFRESH = false;
+
+    public static final long DEFAULT_REFRESH_DELAY = 2000L;
+
+    private final BazelClasspathManager classpathManager;
+
+    /** projects waiting for the next refresh (guarded by itself) */
+    private final Set<IProject> pendingProjects = new LinkedHashSet<>();
+
+    /** projects of the running refresh */
+    private volatile Set<IProject> inFlightProjects = Set.of();
+
+    ClasspathRefreshScheduler(BazelClasspathManager classpathManager) {
+        super("Refreshing build path of Bazel projects");
+        this.classpathManager = classpathManager;
+        setPriority(Job.BUILD); // process after others
+        // ensure no build is running in parallel
+        setRule(ResourcesPlugin.getWorkspace().getRuleFactory().buildRule());
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return PLUGIN_ID.equals(family);
+    }
+
+    private Map<BazelWorkspace, List<BazelProject>> groupByWorkspace(Collection<IProject> projects) {
+        Map<BazelWorkspace, List<BazelProject>> result = new LinkedHashMap<>();
+        for (IProject project : projects) {
+            if (!InitializeOrRefreshClasspathJob.isBazelProject(project)) {
+                continue;
+            }
+            var bazelProject = BazelCore.create(project);
+            try {
+                result.computeIfAbsent(bazelProject.getBazelWorkspace(), w -> new ArrayList<>()).add(bazelProject);
+            } catch (CoreException e) {
+                LOG.debug("Skipping classpath refresh of invalid project '{}': {}", project, e.getMessage(), e);
+            }
+        }
+        return result;
+    }
+
+    long getRefreshDelay() {
+        return Platform.getPreferencesService()
+                .getLong(PLUGIN_ID, PREF_KEY_CLASSPATH_REFRESH_DELAY, DEFAULT_REFRESH_DELAY, null);
+    }
+
+    /**
+     * @return the projects which have at least one compilation unit open in an editor
+     */
+    Set<IProject> getProjectsWithOpenEditors() {
+        Set<IProject> result = new HashSet<>();
+        for (ICompilationUnit workingCopy : JavaCore.getWorkingCopies(null)) {
+            result.add(workingCopy.getJavaProject().getProject());
+        }
+        return result;
+    }
+
+    /**
+     * @return <code>true</code> if classpath should be refreshed automatically after <code>BUILD</code> file changes
+     */
+    public boolean isAutoRefreshEnabled() {
+        return Platform.getPreferencesService()
+                .getBoolean(PLUGIN_ID, PREF_KEY_CLASSPATH_AUTO_REFRESH, DEFAULT_AUTO_REFRESH, null);
+    }
+
+    /**
+     * Updates the classpath of a batch of projects with one update per workspace.
+     *
+     * @param projects
+     *            the projects to refresh
+     * @param monitor
+     *            the monitor for reporting progress
+     * @param status
+     *            the status to collect problems in
+     */
+    void refreshClasspath(List<IProject> projects, TracingSubMonitor monitor, MultiStatus status) {
+        var projectsByWorkspace = groupByWorkspace(projects);
+        monitor.setWorkRemaining(projectsByWorkspace.size());
+        for (Entry<BazelWorkspace, List<BazelProject>> projectSet : projectsByWorkspace.entrySet()) {
+            try {
+                classpathManager.updateClasspath(
+                    projectSet.getKey(),
+                    projectSet.getValue(),
+                    monitor.split(1, "Updating classpath for workspace " + projectSet.getKey().getName()));
+            } catch (CoreException e) {
+                status.add(e.getStatus());
+            }
+        }
+    }
+
+    /**
+     * Requests a classpath refresh for the given projects.
+     * <p>
+     * The refresh is performed after the configured delay. Subsequent requests within the delay postpone the refresh
+     * further.
+     * </p>
+     *
+     * @param projects
+     *            the projects to refresh
+     */
+    public void requestRefresh(Collection<IProject> projects) {
+        if (projects.isEmpty()) {
+            return;
+        }
+
+        synchronized (pendingProjects) {
+            pendingProjects.addAll(projects);
+        }
+
+        // a running refresh of any of the projects produces stale results
+        var inFlight = inFlightProjects;
+        if ((getState() == Job.RUNNING) && projects.stream().anyMatch(inFlight::contains)) {
+            LOG.debug("Cancelling stale classpath refresh of {} projects", inFlight.size());
+            cancel();
+        }
+
+        // scheduling a sleeping or waiting job has no effect, so put it back to sleep to postpone it
+        var state = getState();
+        if (((state == Job.SLEEPING) || (state == Job.WAITING)) && sleep()) {
+            wakeUp(getRefreshDelay());
+        } else {
+            schedule(getRefreshDelay());
+        }
+    }
+
+    @Override
+    public IStatus runInWorkspace(IProgressMonitor progress) throws CoreException {
+        Set<IProject> projects;
+        synchronized (pendingProjects) {
+            projects = new LinkedHashSet<>(pendingProjects);
+            pendingProjects.clear();
+        }
+        if (projects.isEmpty()) {
+            return Status.OK_STATUS;
+        }
+
+        // projects with open editors go first
+        var projectsWithOpenEditors = getProjectsWithOpenEditors();
+        List<IProject> priorityProjects = new ArrayList<>();
+        List<IProject> otherProjects = new ArrayList<>();
+        for (IProject project : projects) {
+            (projectsWithOpenEditors.contains(project) ? priorityProjects : otherProjects).add(project);
+        }
+        var batches = List.of(priorityProjects, otherProjects);
+
+        inFlightProjects = projects;
+        var remainingBatches = batches.size();
+        try {
+            var monitor = TracingSubMonitor.convert(progress, "Refreshing Bazel Classpaths", batches.size());
+            var status = new MultiStatus(PLUGIN_ID, 0, "Some Bazel build paths could not be refreshed.");
+            for (List<IProject> batch : batches) {
+                refreshClasspath(
+                    batch,
+                    monitor.split(1, format("Refreshing classpath of %d projects", batch.size())),
+                    status);
+                monitor.checkCanceled();
+                remainingBatches--;
+            }
+
+            if (status.matches(IStatus.ERROR)) {
+                return status;
+            }
+            return Status.OK_STATUS;
+        } catch (OperationCanceledException e) {
+            // put back all projects not completed so they are refreshed with the next run
+            synchronized (pendingProjects) {
+                for (List<IProject> batch : batches.subList(batches.size() - remainingBatches, batches.size())) {
+                    pendingProjects.addAll(batch);
+                }
+            }
+            return Status.CANCEL_STATUS;
+        } finally {
+            inFlightProjects = Set.of();
+            if (progress != null) {
+                progress.done();
+            }
+        }
+    }
+}
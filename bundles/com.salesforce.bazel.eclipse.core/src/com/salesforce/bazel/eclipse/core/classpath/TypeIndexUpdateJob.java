@@ -0,0 +1,90 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.classpath;
+
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.PLUGIN_ID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.util.trace.TracingSubMonitor;
+
+/**
+ * Updates the {@link BazelClasspathManager#getTypeIndex(BazelWorkspace) type index} in the background.
+ * <p>
+ * Indexing opens every new or modified jar, which must not delay applying the computed classpath to projects.
+ * Classpaths requested while the job is waiting or running are accumulated per workspace and indexed with the next
+ * run.
+ * </p>
+ */
+final class TypeIndexUpdateJob extends Job {
+
+    private final BazelClasspathManager classpathManager;
+
+    /** classpaths waiting to be indexed (guarded by itself) */
+    private final Map<BazelWorkspace, List<CompileAndRuntimeClasspath>> pendingClasspaths = new LinkedHashMap<>();
+
+    TypeIndexUpdateJob(BazelClasspathManager classpathManager) {
+        super("Updating Bazel type index");
+        this.classpathManager = classpathManager;
+        setPriority(Job.DECORATE); // low priority, the index is an optimization
+        setSystem(true);
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return PLUGIN_ID.equals(family);
+    }
+
+    /**
+     * Requests indexing of all libraries of the given classpaths.
+     *
+     * @param bazelWorkspace
+     *            the workspace
+     * @param classpaths
+     *            the classpaths to index
+     */
+    void requestUpdate(BazelWorkspace bazelWorkspace, Collection<CompileAndRuntimeClasspath> classpaths) {
+        synchronized (pendingClasspaths) {
+            pendingClasspaths.computeIfAbsent(bazelWorkspace, w -> new ArrayList<>()).addAll(classpaths);
+        }
+        schedule();
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor progress) {
+        Map<BazelWorkspace, List<CompileAndRuntimeClasspath>> work;
+        synchronized (pendingClasspaths) {
+            work = new LinkedHashMap<>(pendingClasspaths);
+            pendingClasspaths.clear();
+        }
+
+        var monitor = TracingSubMonitor.convert(progress, "Updating type index", work.size());
+        for (Entry<BazelWorkspace, List<CompileAndRuntimeClasspath>> entry : work.entrySet()) {
+            classpathManager
+                    .updateTypeIndex(entry.getKey(), entry.getValue(), monitor.split(1, entry.getKey().getName()));
+        }
+        return Status.OK_STATUS;
+    }
+}
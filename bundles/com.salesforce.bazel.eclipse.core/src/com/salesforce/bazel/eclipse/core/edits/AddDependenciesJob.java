@@ -28,6 +28,7 @@ import com.salesforce.bazel.eclipse.core.model.BazelProject;
 import com.salesforce.bazel.eclipse.core.model.BazelTarget;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
 import com.salesforce.bazel.sdk.command.BuildozerCommand;
+import com.salesforce.bazel.sdk.command.BuildozerCommand.Edit;
 import com.salesforce.bazel.sdk.model.BazelLabel;
 
 public class AddDependenciesJob extends WorkspaceJob {
@@ -83,22 +84,81 @@ public class AddDependenciesJob extends WorkspaceJob {
      * @throws CoreException
      */
     protected int addDependenciesToProject(SubMonitor monitor) throws CoreException {
-        List<String> targetsToUpdate;
+        return updateTargetsUsingBuildozer(getTargetsToUpdate(), "deps", monitor.split(1));
+    }
+
+    /**
+     * Computes the buildozer edit for adding the dependencies to the project's BUILD file.
+     * <p>
+     * Used by {@link CoalescingAddDependenciesJob} to combine edits of several projects into one buildozer run.
+     * </p>
+     *
+     * @return the edit (maybe <code>null</code> if no suitable targets were found)
+     * @throws CoreException
+     */
+    Edit getBuildozerEdit() throws CoreException {
+        return getBuildozerEdit(getTargetsToUpdate(), "deps");
+    }
+
+    /**
+     * Computes the buildozer edit adding {@link #labelsToAdd} to the given attribute of targets.
+     *
+     * @param targetsToUpdate
+     *            the list of targets which should be updated
+     * @param depsAttributeName
+     *            the attribute name to add the labels to
+     * @return the edit (maybe <code>null</code> if no suitable targets were found)
+     * @throws CoreException
+     */
+    protected Edit getBuildozerEdit(List<String> targetsToUpdate, String depsAttributeName) throws CoreException {
+        // filter that targets to update based on top level function calls actually using the attribute name
+        var buildFile = bazelProject.getBazelBuildFile();
+        var affactedTopLevelCalls = buildFile.getTopLevelCalls()
+                .stream()
+                .filter(m -> (m.getStringListArgument(depsAttributeName) != null))
+                .map(m -> buildFile.getParent().getLabel().toString() + ":" + m.getName())
+                .toList();
+
+        // if there is only one top level macro call we use it directly
+        // otherwise we try to match based on targetsToUpdate
+        List<String> targetsForBuildozerToUpdate;
+        if (affactedTopLevelCalls.size() > 1) {
+            targetsForBuildozerToUpdate =
+                    affactedTopLevelCalls.stream().filter(targetsToUpdate::contains).collect(toList());
+        } else {
+            targetsForBuildozerToUpdate = affactedTopLevelCalls;
+        }
+
+        if (targetsForBuildozerToUpdate.isEmpty()) {
+            return null;
+        }
+
+        return new Edit(
+                labelsToAdd.stream()
+                        .map(l -> format("add %s %s", depsAttributeName, toUnqualifiedLabelIfPossible(l)))
+                        .collect(toList()),
+                targetsForBuildozerToUpdate);
+    }
+
+    /**
+     * @return the labels of the targets in the project which should be updated
+     * @throws CoreException
+     *             if the project has no targets
+     */
+    protected List<String> getTargetsToUpdate() throws CoreException {
         if (bazelProject.isTargetProject()) {
-            targetsToUpdate = List.of(bazelProject.getBazelTarget().getLabel().toString());
-        } else if (bazelProject.isPackageProject()) {
-            targetsToUpdate = bazelProject.getBazelTargets()
+            return List.of(bazelProject.getBazelTarget().getLabel().toString());
+        }
+        if (bazelProject.isPackageProject()) {
+            return bazelProject.getBazelTargets()
                     .stream()
                     .map(BazelTarget::getLabel)
                     .map(BazelLabel::toString)
                     .collect(toList());
-        } else {
-            throw new CoreException(
-                    Status.error(
-                        format("Project '%s' cannot be updated! No targets found to update.", bazelProject.getName())));
         }
-
-        return updateTargetsUsingBuildozer(targetsToUpdate, "deps", monitor.split(1));
+        throw new CoreException(
+                Status.error(
+                    format("Project '%s' cannot be updated! No targets found to update.", bazelProject.getName())));
     }
 
     IResourceRuleFactory getRuleFactory() {
@@ -133,53 +193,67 @@ public class AddDependenciesJob extends WorkspaceJob {
         return Status.OK_STATUS;
     }
 
+    /**
+     * Patches the saved classpath container of the project with {@link #newClasspathEntries}.
+     * <p>
+     * This avoids a full classpath computation. If there is no saved container a classpath refresh is scheduled
+     * instead.
+     * </p>
+     *
+     * @param monitor
+     *            monitor for reporting progress
+     * @throws CoreException
+     */
+    void patchClasspathContainer(IProgressMonitor monitor) throws CoreException {
+        var classpathManager = bazelProject.getBazelWorkspace().getParent().getModelManager().getClasspathManager();
+
+        var container = classpathManager.getSavedContainer(bazelProject.getProject());
+        if (container == null) {
+            // cannot patch, need to refresh the container
+            new InitializeOrRefreshClasspathJob(Stream.of(bazelProject), classpathManager, false).schedule();
+            return;
+        }
+
+        var classpath = new ArrayList<ClasspathEntry>();
+        var modified = false;
+        Stream.of(container.getClasspathEntries()).map(ClasspathEntry::fromExisting).forEach(classpath::add);
+        for (ClasspathEntry newClasspathEntry : newClasspathEntries) {
+            var existing = classpath.stream()
+                    .filter(
+                        c -> (c.getEntryKind() == newClasspathEntry.getEntryKind())
+                                && c.getPath().equals(newClasspathEntry.getPath()))
+                    .findFirst();
+            if (existing.isPresent()) {
+                // remove the test attribute in case a runtime dependency is changed to become a compile dependency
+                if (!existing.get().isTest()) {
+                    // skip if there is already an existing entry
+                    continue;
+                }
+                existing.get().setTest(true);
+                modified = true;
+            } else {
+                classpath.add(newClasspathEntry);
+                modified = true;
+            }
+        }
+
+        if (modified) {
+            var additionalRuntimeEntries = Arrays.stream(container.getAdditionalRuntimeClasspathEntries())
+                    .map(ClasspathEntry::fromExisting)
+                    .collect(toList());
+            classpathManager.patchClasspathContainer(
+                bazelProject,
+                new CompileAndRuntimeClasspath(classpath, additionalRuntimeEntries),
+                monitor);
+        }
+    }
+
     void scheduleClasspathContainerPatch() {
         final WorkspaceJob workspaceJob = new WorkspaceJob("Patch .classpath of " + bazelProject.getName()) {
 
             @Override
             public IStatus runInWorkspace(final IProgressMonitor monitor) throws CoreException {
-                var classpathManager =
-                        bazelProject.getBazelWorkspace().getParent().getModelManager().getClasspathManager();
-
-                var container = classpathManager.getSavedContainer(bazelProject.getProject());
-                if (container == null) {
-                    // cannot patch, need to refresh the container
-                    new InitializeOrRefreshClasspathJob(Stream.of(bazelProject), classpathManager, false).schedule();
-                    return Status.OK_STATUS;
-                }
-
-                var classpath = new ArrayList<ClasspathEntry>();
-                var modified = false;
-                Stream.of(container.getClasspathEntries()).map(ClasspathEntry::fromExisting).forEach(classpath::add);
-                for (ClasspathEntry newClasspathEntry : newClasspathEntries) {
-                    var existing = classpath.stream()
-                            .filter(
-                                c -> (c.getEntryKind() == newClasspathEntry.getEntryKind())
-                                        && c.getPath().equals(newClasspathEntry.getPath()))
-                            .findFirst();
-                    if (existing.isPresent()) {
-                        // remove the test attribute in case a runtime dependency is changed to become a compile dependency
-                        if (!existing.get().isTest()) {
-                            // skip if there is already an existing entry
-                            continue;
-                        }
-                        existing.get().setTest(true);
-                        modified = true;
-                    } else {
-                        classpath.add(newClasspathEntry);
-                        modified = true;
-                    }
-                }
-
-                if (modified) {
-                    var additionalRuntimeEntries = Arrays.stream(container.getAdditionalRuntimeClasspathEntries())
-                            .map(ClasspathEntry::fromExisting)
-                            .collect(toList());
-                    classpathManager.patchClasspathContainer(
-                        bazelProject,
-                        new CompileAndRuntimeClasspath(classpath, additionalRuntimeEntries),
-                        monitor);
-                }
+                patchClasspathContainer(monitor);
                 return Status.OK_STATUS;
             }
         };
@@ -190,47 +264,38 @@ public class AddDependenciesJob extends WorkspaceJob {
         workspaceJob.schedule();
     }
 
+    /**
+     * Schedules this job for execution together with other {@link AddDependenciesJob add dependencies jobs} scheduled
+     * within a short time window.
+     * <p>
+     * Instead of running this job, its edits will be applied by a {@link CoalescingAddDependenciesJob} using a single
+     * buildozer invocation per workspace followed by one classpath container patch per affected project.
+     * </p>
+     */
+    public void scheduleCoalesced() {
+        CoalescingAddDependenciesJob.enqueue(this);
+    }
+
     protected int updateTargetsUsingBuildozer(List<String> targetsToUpdate, String depsAttributeName,
             SubMonitor monitor) throws CoreException {
-
-        // filter that targets to update based on top level function calls actually using the attribute name
-        var buildFile = bazelProject.getBazelBuildFile();
-        var affactedTopLevelCalls = buildFile.getTopLevelCalls()
-                .stream()
-                .filter(m -> (m.getStringListArgument(depsAttributeName) != null))
-                .map(m -> buildFile.getParent().getLabel().toString() + ":" + m.getName())
-                .toList();
-
-        // if there is only one top level macro call we use it directly
-        // otherwise we try to match based on targetsToUpdate
-        List<String> targetsForBuildozerToUpdate;
-        if (affactedTopLevelCalls.size() > 1) {
-            targetsForBuildozerToUpdate =
-                    affactedTopLevelCalls.stream().filter(targetsToUpdate::contains).collect(toList());
-        } else {
-            targetsForBuildozerToUpdate = affactedTopLevelCalls;
+        var edit = getBuildozerEdit(targetsToUpdate, depsAttributeName);
+        if (edit == null) {
+            return 0;
         }
 
-        if (!targetsForBuildozerToUpdate.isEmpty()) {
-            var workspaceRoot = bazelProject.getBazelWorkspace().getLocation().toPath();
-            var buildozerCommand = new BuildozerCommand(
-                    workspaceRoot,
-                    labelsToAdd.stream()
-                            .map(l -> format("add %s %s", depsAttributeName, toUnqualifiedLabelIfPossible(l)))
-                            .collect(toList()),
-                    targetsForBuildozerToUpdate,
-                    format(
-                        "Add label(s) '%s' to '%s'",
-                        labelsToAdd.stream().map(Label::toString).collect(joining(", ")),
-                        buildFile.getLocation()));
-            bazelProject.getBazelWorkspace()
-                    .getCommandExecutor()
-                    .runDirectlyWithinExistingWorkspaceLock(
-                        buildozerCommand,
-                        List.of(bazelProject.getBuildFile()),
-                        monitor);
-        }
+        var workspaceRoot = bazelProject.getBazelWorkspace().getLocation().toPath();
+        var buildozerCommand = new BuildozerCommand(
+                workspaceRoot,
+                edit.commands(),
+                edit.targets(),
+                format(
+                    "Add label(s) '%s' to '%s'",
+                    labelsToAdd.stream().map(Label::toString).collect(joining(", ")),
+                    bazelProject.getBazelBuildFile().getLocation()));
+        bazelProject.getBazelWorkspace()
+                .getCommandExecutor()
+                .runDirectlyWithinExistingWorkspaceLock(buildozerCommand, List.of(bazelProject.getBuildFile()), monitor);
 
-        return targetsForBuildozerToUpdate.size();
+        return edit.targets().size();
     }
-}
\ No newline at end of file
+}
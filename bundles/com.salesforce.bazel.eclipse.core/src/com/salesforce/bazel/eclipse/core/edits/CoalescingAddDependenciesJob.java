@@ -0,0 +1,194 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.edits;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+import com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants;
+import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
+import com.salesforce.bazel.sdk.command.BuildozerCommand;
+
+/**
+ * A job applying the edits of multiple {@link AddDependenciesJob add dependencies jobs} at once.
+ * <p>
+ * Quick fixes applied in short succession each produce an {@link AddDependenciesJob}. Running them one by one launches
+ * a buildozer process per edit and patches the classpath container after each edit. This job collects all jobs
+ * scheduled within {@link #COALESCE_DELAY_MILLIS} and applies them with a single buildozer invocation per workspace.
+ * Afterwards the classpath container of each affected project is patched once.
+ * </p>
+ *
+ * @see AddDependenciesJob#scheduleCoalesced()
+ */
+public final class CoalescingAddDependenciesJob extends WorkspaceJob {
+
+    /**
+     * Time window for collecting edits before they are applied
+     */
+    static final long COALESCE_DELAY_MILLIS = 500L;
+
+    private static final Object lock = new Object();
+
+    private static CoalescingAddDependenciesJob instance;
+
+    static void enqueue(AddDependenciesJob job) {
+        synchronized (lock) {
+            if (instance == null) {
+                instance = new CoalescingAddDependenciesJob();
+            }
+            instance.pendingJobs.add(job);
+            instance.schedule(COALESCE_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Merges all pending jobs of the same project into a single job.
+     *
+     * @param jobs
+     *            the jobs to merge
+     * @return one job per project
+     * @throws CoreException
+     */
+    static List<AddDependenciesJob> mergeByProject(List<AddDependenciesJob> jobs) throws CoreException {
+        var jobsByProject = jobs.stream().collect(groupingBy(j -> j.bazelProject, LinkedHashMap::new, toList()));
+        var result = new ArrayList<AddDependenciesJob>(jobsByProject.size());
+        for (Entry<BazelProject, List<AddDependenciesJob>> entry : jobsByProject.entrySet()) {
+            if (entry.getValue().size() == 1) {
+                result.add(entry.getValue().get(0));
+                continue;
+            }
+            var labelsToAdd = new LinkedHashSet<Label>();
+            var newClasspathEntries = new LinkedHashSet<ClasspathEntry>();
+            for (AddDependenciesJob job : entry.getValue()) {
+                labelsToAdd.addAll(job.labelsToAdd);
+                newClasspathEntries.addAll(job.newClasspathEntries);
+            }
+            result.add(new AddDependenciesJob(entry.getKey(), labelsToAdd, newClasspathEntries));
+        }
+        return result;
+    }
+
+    private final List<AddDependenciesJob> pendingJobs = new ArrayList<>();
+
+    private CoalescingAddDependenciesJob() {
+        super("Updating BUILD files");
+        setPriority(LONG);
+        // lock the workspace
+        setRule(ResourcesPlugin.getWorkspace().getRuleFactory().buildRule());
+    }
+
+    private void applyEdits(BazelWorkspace bazelWorkspace, List<AddDependenciesJob> jobs, SubMonitor monitor)
+            throws CoreException {
+        monitor.setWorkRemaining(1 + jobs.size());
+
+        var edits = new ArrayList<BuildozerCommand.Edit>();
+        var buildFiles = new LinkedHashSet<IResource>();
+        var jobsToPatch = new ArrayList<AddDependenciesJob>();
+        for (AddDependenciesJob job : jobs) {
+            var edit = job.getBuildozerEdit();
+            if (edit == null) {
+                continue;
+            }
+            edits.add(edit);
+            buildFiles.add(job.bazelProject.getBuildFile());
+            if (!job.newClasspathEntries.isEmpty()) {
+                jobsToPatch.add(job);
+            }
+        }
+
+        if (edits.isEmpty()) {
+            throw new CoreException(
+                    Status.info(
+                        format(
+                            "No suitable targets found to add dependencies %s to.",
+                            jobs.stream()
+                                    .flatMap(j -> j.labelsToAdd.stream())
+                                    .map(Label::toString)
+                                    .distinct()
+                                    .collect(joining(", ")))));
+        }
+
+        var buildozerCommand = new BuildozerCommand(
+                bazelWorkspace.getLocation().toPath(),
+                edits,
+                format("Add dependencies to %d target(s) in '%s'", edits.size(), bazelWorkspace.getName()));
+        bazelWorkspace.getCommandExecutor()
+                .runDirectlyWithinExistingWorkspaceLock(buildozerCommand, List.copyOf(buildFiles), monitor.split(1));
+
+        // one patch per project, all entries at once
+        for (AddDependenciesJob job : jobsToPatch) {
+            job.patchClasspathContainer(monitor.split(1));
+        }
+    }
+
+    @Override
+    public IStatus runInWorkspace(IProgressMonitor progress) throws CoreException {
+        List<AddDependenciesJob> jobs;
+        synchronized (lock) {
+            jobs = List.copyOf(pendingJobs);
+            pendingJobs.clear();
+        }
+
+        if (jobs.isEmpty()) {
+            return Status.OK_STATUS;
+        }
+
+        try {
+            var jobsByWorkspace = new LinkedHashMap<BazelWorkspace, List<AddDependenciesJob>>();
+            for (AddDependenciesJob job : mergeByProject(jobs)) {
+                jobsByWorkspace.computeIfAbsent(job.bazelProject.getBazelWorkspace(), w -> new ArrayList<>()).add(job);
+            }
+            var monitor = SubMonitor.convert(progress, "Updating BUILD files", jobsByWorkspace.size());
+            var status = new MultiStatus(
+                    BazelCoreSharedContstants.PLUGIN_ID,
+                    0,
+                    "Some BUILD files could not be updated.");
+            for (Entry<BazelWorkspace, List<AddDependenciesJob>> entry : jobsByWorkspace.entrySet()) {
+                try {
+                    applyEdits(entry.getKey(), entry.getValue(), monitor.split(1));
+                } catch (CoreException e) {
+                    status.add(
+                        e.getStatus().matches(IStatus.INFO) ? e.getStatus()
+                                : Status.error(
+                                    format("Error updating BUILD files in '%s'. %s", entry.getKey(), e.getMessage()),
+                                    e));
+                }
+            }
+            return status.isOK() ? Status.OK_STATUS : status;
+        } finally {
+            progress.done();
+        }
+    }
+}
@@ -12,11 +12,15 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
+import com.salesforce.bazel.eclipse.core.model.cache.PersistentBazelInfoCache;
 import com.salesforce.bazel.sdk.command.BazelBinary;
 import com.salesforce.bazel.sdk.command.BazelBinaryVersionDetector;
 
 /**
  * Calls <code>bazel --version</code> on a provided binary to identify the version use.
+ * <p>
+ * The version is remembered in the {@link PersistentBazelInfoCache} and only detected again when the binary changed.
+ * </p>
  */
 public final class DetectBazelVersionAndSetBinaryJob extends Job {
     private final Path binary;
@@ -48,8 +52,19 @@ public final class DetectBazelVersionAndSetBinaryJob extends Job {
 
     @Override
     protected IStatus run(IProgressMonitor monitor) {
+        // avoid running the binary when the version is known from a previous session
+        var cache = PersistentBazelInfoCache.getInstance();
+        var cachedVersion = cache != null ? cache.getBinaryVersion(binary) : null;
+        if (cachedVersion != null) {
+            binaryConsumer.accept(new BazelBinary(binary, cachedVersion));
+            return Status.OK_STATUS;
+        }
+
         try {
             var bazelVersion = new BazelBinaryVersionDetector(binary, wrapExecutionIntoShell).detectVersion();
+            if (cache != null) {
+                cache.putBinaryVersion(binary, bazelVersion);
+            }
             binaryConsumer.accept(new BazelBinary(binary, bazelVersion));
             return Status.OK_STATUS;
         } catch (IOException e) {
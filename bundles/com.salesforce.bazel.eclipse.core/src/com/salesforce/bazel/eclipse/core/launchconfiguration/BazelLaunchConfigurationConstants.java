@@ -32,6 +32,11 @@ public interface BazelLaunchConfigurationConstants extends BazelCoreSharedContst
      */
     String TARGET_LABEL = PLUGIN_ID + ".launchconfiguration.target";
 
+    /**
+     * Labels of the test targets to run with a single <code>bazel test</code> invocation (value is a list of strings)
+     */
+    String TEST_TARGETS = PLUGIN_ID + ".launchconfiguration.test_targets";
+
     /**
      * Arguments to pass to the target (value is a string)
      */
@@ -52,6 +57,12 @@ public interface BazelLaunchConfigurationConstants extends BazelCoreSharedContst
      */
     String ADD_DEBUG_TARGET_ARG = PLUGIN_ID + ".launchconfiguration.add_debug_target_arg";
 
+    /**
+     * Indicates if a <code>java_binary</code> should be launched directly with a JVM instead of <code>bazel run</code>
+     * (value is a boolean)
+     */
+    String JAVA_DIRECT_LAUNCH = PLUGIN_ID + ".launchconfiguration.java_direct_launch";
+
     /**
      * The working directory (value is a string)
      */
@@ -16,18 +16,22 @@ package com.salesforce.bazel.eclipse.core.launchconfiguration;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static java.util.Collections.addAll;
+import static java.nio.file.Files.isDirectory;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.debug.core.DebugPlugin.parseArguments;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -47,20 +51,99 @@ import org.eclipse.jdt.launching.AbstractJavaLaunchConfigurationDelegate;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jdt.launching.IVMConnector;
 import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.jdt.launching.VMRunnerConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.idea.blaze.base.command.buildresult.BlazeArtifact.LocalFileArtifact;
+import com.google.idea.blaze.base.command.buildresult.BuildResult;
 import com.salesforce.bazel.eclipse.core.BazelCore;
+import com.salesforce.bazel.eclipse.core.launchconfiguration.JavaLaunchInfoCache.JavaLaunchInfo;
 import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspaceBlazeInfo;
+import com.salesforce.bazel.sdk.aspects.intellij.IntellijAspects;
+import com.salesforce.bazel.sdk.command.BazelBuildCommand;
+import com.salesforce.bazel.sdk.command.BazelBuildWithIntelliJAspectsCommand;
 import com.salesforce.bazel.sdk.command.BazelRunCommand;
+import com.salesforce.bazel.sdk.command.querylight.BazelRuleAttribute;
 import com.salesforce.bazel.sdk.command.shell.ShellUtil;
 import com.salesforce.bazel.sdk.model.BazelLabel;
 import com.salesforce.bazel.sdk.util.SystemUtil;
 
 /**
- *
+ * Launches a Bazel target with <code>bazel run</code>.
+ * <p>
+ * A <code>java_binary</code> is launched directly with the JVM of the project using the standard JDT VM runner when
+ * {@link #JAVA_DIRECT_LAUNCH enabled} (disabled by default). Its runtime classpath, main class and JVM flags are
+ * resolved with a Bazel build and kept in the {@link JavaLaunchInfoCache} until any <code>BUILD</code> file of its
+ * dependencies changes. Before every direct launch the target is built incrementally with <code>bazel build</code> so
+ * that the jars on the cached classpath and the runfiles reflect the current sources. Targets requiring Bazel to
+ * expand their JVM flags or which don't specify a <code>main_class</code> are always launched with
+ * <code>bazel run</code>.
+ * </p>
+ * <p>
+ * Like <code>bazel run</code> a direct launch runs in the runfiles directory of the target (unless a working directory
+ * is configured) and sets the runfiles and <code>BUILD_*</code> environment variables (see
+ * {@link #getRunfilesEnvironment(Path, Path)}). The <code>env</code> attribute of the target and the launcher script
+ * generated by Bazel (eg., <code>--run_under</code> or a custom <code>launcher</code>) are not applied. Disable the
+ * direct launch for targets depending on them.
+ * </p>
  */
 public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfigurationDelegate
         implements BazelLaunchConfigurationConstants {
 
+    private static Logger LOG = LoggerFactory.getLogger(BazelRunLaunchConfigurationDelegate.class);
+
+    /**
+     * {@return the environment variables <code>bazel run</code> sets for a target}
+     *
+     * @param runfilesDirectory
+     *            the runfiles directory of the target
+     * @param workspaceRoot
+     *            the workspace root
+     */
+    static Map<String, String> getRunfilesEnvironment(Path runfilesDirectory, Path workspaceRoot) {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("JAVA_RUNFILES", runfilesDirectory.toString());
+        environment.put("RUNFILES_DIR", runfilesDirectory.toString());
+        environment.put("BUILD_WORKSPACE_DIRECTORY", workspaceRoot.toString());
+        environment.put("BUILD_WORKING_DIRECTORY", workspaceRoot.toString());
+        return environment;
+    }
+
+    /**
+     * {@return the runfiles directory of a target (<code>bazel-bin/&lt;package&gt;/&lt;name&gt;.runfiles</code>)}
+     *
+     * @param bazelBin
+     *            the <code>bazel-bin</code> location
+     * @param target
+     *            the concrete target label
+     */
+    static Path getRunfilesDirectory(Path bazelBin, BazelLabel target) {
+        return bazelBin.resolve(target.getPackagePath()).resolve(target.getTargetName() + ".runfiles").normalize();
+    }
+
+    /**
+     * Builds the target incrementally so that the jars of its runtime classpath and its runfiles are up to date.
+     *
+     * @return <code>true</code> if the build succeeded, <code>false</code> otherwise
+     */
+    private boolean buildForDirectLaunch(BazelWorkspace bazelWorkspace, BazelLabel bazelTarget,
+            List<String> buildFlags, SubMonitor monitor) throws CoreException {
+        monitor.subTask(format("Building %s", bazelTarget));
+        var command = new BazelBuildCommand(
+                List.of(bazelTarget),
+                bazelWorkspace.getLocation().toPath(),
+                new BazelWorkspaceBlazeInfo(bazelWorkspace),
+                false /* keep going */,
+                format("Building %s for launch", bazelTarget));
+        command.addCommandArgs(buildFlags);
+        var result = bazelWorkspace.getCommandExecutor().runWithoutLock(command);
+        monitor.done();
+        return result.getBuildResult().status == BuildResult.Status.SUCCESS;
+    }
+
     /**
      * Returns the Bazel project specified by the given launch configuration, or <code>null</code> if none.
      *
@@ -124,7 +207,95 @@ public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfi
                     null);
     }
 
-    private String getProjectName(ILaunchConfiguration configuration) throws CoreException {
+    /**
+     * Returns the launch info for launching a target directly with a JVM.
+     *
+     * @return the launch info or <code>null</code> if the target must be launched with <code>bazel run</code>
+     */
+    private JavaLaunchInfo getJavaLaunchInfo(BazelWorkspace bazelWorkspace, BazelLabel bazelTarget,
+            List<String> buildFlags, SubMonitor monitor) throws CoreException {
+        var cache = JavaLaunchInfoCache.getInstance();
+        if ((cache == null) || !bazelTarget.isConcrete()) {
+            return null;
+        }
+
+        var target = bazelWorkspace.getBazelTarget(bazelTarget);
+        if (!target.exists() || !"java_binary".equals(target.getRuleClass())) {
+            return null;
+        }
+
+        var ruleAttributes = target.getRuleAttributes();
+        var mainClass = ruleAttributes.getString(BazelRuleAttribute.MAIN_CLASS);
+        if ((mainClass == null) || mainClass.isBlank()) {
+            LOG.debug("Launching '{}' with Bazel because it has no main_class", bazelTarget);
+            return null;
+        }
+        var jvmFlags = ruleAttributes.getStringList(BazelRuleAttribute.JVM_FLAGS);
+        if (jvmFlags == null) {
+            jvmFlags = List.of();
+        } else if (jvmFlags.stream().anyMatch(f -> f.contains("$"))) {
+            // $(location) and Make variables are only expanded by Bazel
+            LOG.debug("Launching '{}' with Bazel because its jvm_flags require expansion", bazelTarget);
+            return null;
+        }
+
+        var workspaceRoot = bazelWorkspace.getLocation().toPath();
+        var label = bazelTarget.toString();
+        String dependencyDigest;
+        try {
+            var dependencyGraphCache =
+                    bazelWorkspace.getParent().getModelManager().getClasspathManager().getDependencyGraphCache(
+                        bazelWorkspace);
+            // the digest must reflect BUILD files changed outside of projects
+            dependencyGraphCache.detectChangedBuildFiles(workspaceRoot);
+            var dependencies = dependencyGraphCache.getGraph(bazelWorkspace, List.of(bazelTarget))
+                    .findDependencies(List.of(label), 0, ruleClass -> true);
+            dependencyDigest = JavaLaunchInfoCache.dependencyDigest(workspaceRoot, label, dependencies, buildFlags);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("Unable to compute dependency digest of '{}': {}", bazelTarget, e.getMessage(), e);
+            return null;
+        }
+
+        var launchInfo = cache.get(workspaceRoot, label, dependencyDigest);
+        if (launchInfo != null) {
+            return launchInfo;
+        }
+
+        monitor.subTask("Resolving runtime classpath");
+        var aspects = bazelWorkspace.getParent().getModelManager().getIntellijAspects();
+        var command = new BazelBuildWithIntelliJAspectsCommand(
+                workspaceRoot,
+                List.of(bazelTarget),
+                Set.of(IntellijAspects.OUTPUT_GROUP_JAVA_RUNTIME_CLASSPATH),
+                aspects,
+                new BazelWorkspaceBlazeInfo(bazelWorkspace),
+                format("Resolving runtime classpath of %s", label));
+        command.addCommandArgs(buildFlags);
+        var result = bazelWorkspace.getCommandExecutor().runWithoutLock(command);
+        if (result.getBuildResult().status != BuildResult.Status.SUCCESS) {
+            // let 'bazel run' report the problem
+            return null;
+        }
+
+        List<Path> classpath = result
+                .getOutputGroupArtifacts(bazelTarget.toPrimitive(), IntellijAspects.OUTPUT_GROUP_JAVA_RUNTIME_CLASSPATH)
+                .toList()
+                .stream()
+                .filter(LocalFileArtifact.class::isInstance)
+                .map(LocalFileArtifact.class::cast)
+                .map(LocalFileArtifact::getPath)
+                .distinct()
+                .collect(toList());
+        if (classpath.isEmpty()) {
+            return null;
+        }
+
+        launchInfo = new JavaLaunchInfo(mainClass, classpath, jvmFlags);
+        cache.put(workspaceRoot, label, dependencyDigest, launchInfo);
+        return launchInfo;
+    }
+
+    protected String getProjectName(ILaunchConfiguration configuration) throws CoreException {
         return configuration.getAttribute(PROJECT_NAME, (String) null);
     }
 
@@ -144,7 +315,7 @@ public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfi
         return projects.toArray(new IProject[projects.size()]);
     }
 
-    private String getRunArguments(ILaunchConfiguration configuration) throws CoreException {
+    protected String getRunArguments(ILaunchConfiguration configuration) throws CoreException {
         return VariablesPlugin.getDefault()
                 .getStringVariableManager()
                 .performStringSubstitution(configuration.getAttribute(RUN_ARGS, ""));
@@ -154,7 +325,7 @@ public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfi
     public void launch(ILaunchConfiguration configuration, String mode, ILaunch launch, IProgressMonitor progress)
             throws CoreException {
         try {
-            var monitor = SubMonitor.convert(progress, "Launching " + configuration.getName(), 3);
+            var monitor = SubMonitor.convert(progress, "Launching " + configuration.getName(), 4);
 
             var bazelProject = getBazelProject(configuration);
             if (bazelProject == null) {
@@ -171,6 +342,19 @@ public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfi
                 throw new CoreException(Status.error("No target configured!"));
             }
 
+            var runArgs = asList(parseArguments(getRunArguments(configuration)));
+            if (configuration.getAttribute(JAVA_DIRECT_LAUNCH, false)) {
+                var launchInfo = getJavaLaunchInfo(bazelWorkspace, bazelTarget, runArgs, monitor.split(1));
+                if ((launchInfo != null)
+                        && buildForDirectLaunch(bazelWorkspace, bazelTarget, runArgs, monitor.split(1))) {
+                    launchJava(configuration, mode, launch, bazelWorkspace, bazelTarget, launchInfo, monitor.split(2));
+                    return;
+                }
+                // let 'bazel run' report any problem
+            } else {
+                monitor.worked(1);
+            }
+
             var targetArgs = new ArrayList<String>();
 
             var attachDebugger = ILaunchManager.DEBUG_MODE.equals(mode) && configuration.getAttribute(JAVA_DEBUG, true);
@@ -183,7 +367,7 @@ public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfi
             var workspaceRoot = bazelWorkspace.getLocation().toPath();
             var command =
                     new BazelRunCommand(bazelTarget.toPrimitive(), targetArgs, workspaceRoot, configuration.getName());
-            command.addCommandArgs(asList(parseArguments(getRunArguments(configuration))));
+            command.addCommandArgs(runArgs);
 
             monitor.subTask("Staring Bazel");
             var bazelBinary = bazelWorkspace.getCommandExecutor().selectBazelBinary(bazelWorkspace);
@@ -263,7 +447,58 @@ public class BazelRunLaunchConfigurationDelegate extends AbstractJavaLaunchConfi
 
     }
 
-    private void setEnvironment(ProcessBuilder pb, ILaunchConfiguration configuration) throws CoreException {
+    private void launchJava(ILaunchConfiguration configuration, String mode, ILaunch launch,
+            BazelWorkspace bazelWorkspace, BazelLabel bazelTarget, JavaLaunchInfo launchInfo, SubMonitor monitor)
+            throws CoreException {
+        monitor.subTask("Starting Java");
+        var runner = getVMRunner(configuration, mode);
+
+        var runConfiguration = new VMRunnerConfiguration(
+                launchInfo.mainClass(),
+                launchInfo.classpath().stream().map(Path::toString).toArray(String[]::new));
+        runConfiguration.setProgramArguments(parseArguments(getProgramArguments(configuration)));
+        var vmArguments = new ArrayList<>(launchInfo.jvmFlags());
+        addAll(vmArguments, parseArguments(getVMArguments(configuration)));
+        runConfiguration.setVMArguments(vmArguments.toArray(new String[vmArguments.size()]));
+
+        var workspaceRoot = bazelWorkspace.getLocation().toPath();
+        var runfilesDirectory = getRunfilesDirectory(bazelWorkspace.getBazelBinLocation().toPath(), bazelTarget);
+        Map<String, String> environment = new LinkedHashMap<>();
+        var configuredEnvironment = getEnvironment(configuration);
+        if (configuredEnvironment != null) {
+            for (String e : configuredEnvironment) {
+                var index = e.indexOf('=');
+                if (index != -1) {
+                    environment.put(e.substring(0, index), e.substring(index + 1));
+                }
+            }
+        } else {
+            environment.putAll(DebugPlugin.getDefault().getLaunchManager().getNativeEnvironmentCasePreserved());
+        }
+        getRunfilesEnvironment(runfilesDirectory, workspaceRoot).forEach(environment::putIfAbsent);
+        runConfiguration.setEnvironment(
+            environment.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+
+        if (configuration.getAttribute(WORKING_DIRECTORY, (String) null) != null) {
+            var workingDirectory = getWorkingDirectory(configuration);
+            if (workingDirectory != null) {
+                runConfiguration.setWorkingDirectory(workingDirectory.getAbsolutePath());
+            }
+        } else {
+            // 'bazel run' runs in the main repository directory inside the runfiles
+            var executionRoot = new BazelWorkspaceBlazeInfo(bazelWorkspace).getExecutionRoot();
+            var mainRepositoryRunfiles = runfilesDirectory.resolve(executionRoot.getFileName().toString());
+            runConfiguration.setWorkingDirectory(
+                (isDirectory(mainRepositoryRunfiles) ? mainRepositoryRunfiles : workspaceRoot).toString());
+        }
+
+        setDefaultSourceLocator(launch, configuration);
+        monitor.worked(1);
+
+        runner.run(runConfiguration, launch, monitor.split(2));
+    }
+
+    protected void setEnvironment(ProcessBuilder pb, ILaunchConfiguration configuration) throws CoreException {
         var envp = getEnvironment(configuration);
         if (envp != null) {
             var env = pb.environment();
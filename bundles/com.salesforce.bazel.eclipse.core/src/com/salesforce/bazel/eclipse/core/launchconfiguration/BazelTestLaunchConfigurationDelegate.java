@@ -0,0 +1,238 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.deleteIfExists;
+import static java.util.Arrays.asList;
+import static org.eclipse.debug.core.DebugPlugin.parseArguments;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.model.IProcess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.idea.blaze.base.command.buildresult.BuildEventStreamProvider;
+import com.salesforce.bazel.sdk.command.BazelTestCommand;
+import com.salesforce.bazel.sdk.command.FollowingFileInputStream;
+import com.salesforce.bazel.sdk.command.shell.ShellUtil;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+import com.salesforce.bazel.sdk.util.SystemUtil;
+
+/**
+ * Runs multiple Bazel test targets with a single <code>bazel test</code> invocation.
+ * <p>
+ * Test results are reported to the JUnit view while Bazel is running. The JUnit view starts listening for a test run
+ * when the launch gets a port attribute. A {@link BazelTestResultReporter} connects to it and follows the BEP file
+ * written by Bazel. Every <code>test.xml</code> is sent to the view as soon as it is announced in the BEP.
+ * </p>
+ */
+public class BazelTestLaunchConfigurationDelegate extends BazelRunLaunchConfigurationDelegate {
+
+    /**
+     * Follows the BEP of a running <code>bazel test</code> and reports results to the JUnit view.
+     */
+    private static class ReportTestResultsJob extends Job {
+
+        private final int port;
+        private final Path bepFile;
+        private final IProcess bazelProcess;
+
+        ReportTestResultsJob(String name, int port, Path bepFile, IProcess bazelProcess) {
+            super(format("Reporting test results of %s", name));
+            this.port = port;
+            this.bepFile = bepFile;
+            this.bazelProcess = bazelProcess;
+            setSystem(true);
+        }
+
+        private Socket connect(IProgressMonitor monitor) throws IOException {
+            var timeout = Instant.now().plus(CONNECT_TIMEOUT);
+            while (true) {
+                var socket = new Socket();
+                try {
+                    socket.connect(new InetSocketAddress("localhost", port), 500);
+                    return socket;
+                } catch (IOException e) {
+                    socket.close();
+                    if (Instant.now().isAfter(timeout) || monitor.isCanceled() || bazelProcess.isTerminated()) {
+                        throw e;
+                    }
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while connecting to the JUnit view");
+                }
+            }
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            var start = System.currentTimeMillis();
+            try (var socket = connect(monitor);
+                    var in = new FollowingFileInputStream(
+                            bepFile,
+                            () -> bazelProcess.isTerminated() || monitor.isCanceled())) {
+                var reporter = new BazelTestResultReporter(new OutputStreamWriter(socket.getOutputStream(), UTF_8));
+                reporter.testRunStarted();
+                reporter.consume(BuildEventStreamProvider.fromInputStream(in));
+                reporter.testRunEnded(System.currentTimeMillis() - start);
+                LOG.debug("Reported {} test results from '{}'", reporter.getReportedTestCount(), bepFile);
+            } catch (IOException e) {
+                LOG.warn("Unable to report test results to the JUnit view: {}", e.getMessage(), e);
+            } finally {
+                try {
+                    deleteIfExists(bepFile);
+                } catch (IOException e) {
+                    LOG.warn("Unable to delete '{}'. Please clean up manually to free some space.", bepFile, e);
+                }
+            }
+            return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+        }
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelTestLaunchConfigurationDelegate.class);
+
+    /**
+     * Launch attribute the JUnit view uses to start listening for a test run (see
+     * <code>JUnitLaunchConfigurationConstants.ATTR_PORT</code>).
+     */
+    private static final String JUNIT_PORT = "org.eclipse.jdt.junit.PORT";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static int findFreePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Returns the Bazel test targets specified by the given launch configuration.
+     *
+     * @param configuration
+     *            launch configuration
+     * @return the test targets (never <code>null</code>)
+     * @exception CoreException
+     *                if unable to retrieve the attribute
+     */
+    public List<BazelLabel> getBazelTestTargets(ILaunchConfiguration configuration) throws CoreException {
+        return configuration.getAttribute(TEST_TARGETS, List.<String> of())
+                .stream()
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(BazelLabel::new)
+                .toList();
+    }
+
+    @Override
+    public void launch(ILaunchConfiguration configuration, String mode, ILaunch launch, IProgressMonitor progress)
+            throws CoreException {
+        try {
+            var monitor = SubMonitor.convert(progress, "Launching " + configuration.getName(), 2);
+
+            var bazelProject = getBazelProject(configuration);
+            if (bazelProject == null) {
+                throw new CoreException(Status.error(format("Project '%s' not found!", getProjectName(configuration))));
+            }
+
+            var bazelWorkspace = bazelProject.getBazelWorkspace();
+            if (bazelWorkspace == null) {
+                throw new CoreException(Status.error(format("Project '%s' not found!", getProjectName(configuration))));
+            }
+
+            var testTargets = getBazelTestTargets(configuration);
+            if (testTargets.isEmpty()) {
+                throw new CoreException(Status.error("No test targets configured!"));
+            }
+
+            var workspaceRoot = bazelWorkspace.getLocation().toPath();
+            var command = new BazelTestCommand(
+                    testTargets,
+                    asList(parseArguments(getProgramArguments(configuration))),
+                    workspaceRoot,
+                    configuration.getName());
+            command.addCommandArgs(asList(parseArguments(getRunArguments(configuration))));
+
+            monitor.subTask("Starting Bazel");
+            var bazelBinary = bazelWorkspace.getCommandExecutor().selectBazelBinary(bazelWorkspace);
+            try {
+                List<String> commandLine = new ArrayList<>(command.prepareCommandLine(bazelBinary.bazelVersion()));
+                commandLine.add(0, bazelBinary.executable().toString());
+
+                if (SystemUtil.getInstance().isMac()) {
+                    commandLine = new ShellUtil().wrapExecutionIntoShell(commandLine);
+                }
+
+                // the JUnit view starts listening as soon as the port is known
+                var port = findFreePort();
+                launch.setAttribute(JUNIT_PORT, String.valueOf(port));
+
+                var pb = new ProcessBuilder(commandLine);
+                pb.directory(workspaceRoot.toFile());
+                setEnvironment(pb, configuration);
+                var p = pb.start();
+                var bazelProcess = DebugPlugin.newProcess(launch, p, mode);
+
+                new ReportTestResultsJob(configuration.getName(), port, command.getBepFile(), bazelProcess).schedule();
+                monitor.worked(1);
+
+                // check for cancellation
+                if (monitor.isCanceled()) {
+                    for (IProcess process : launch.getProcesses()) {
+                        if (process.canTerminate()) {
+                            process.terminate();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                var bepFile = command.getBepFile();
+                if (bepFile != null) {
+                    try {
+                        deleteIfExists(bepFile);
+                    } catch (IOException deleteError) {
+                        LOG.debug("Unable to delete '{}'", bepFile, deleteError);
+                    }
+                }
+                throw new CoreException(Status.error("Error launching the underlying Bazel process.", e));
+            }
+        } finally {
+            if (progress != null) {
+                progress.done();
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEvent;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.TestResultId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.File;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.TestResult;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.TestStatus;
+import com.google.idea.blaze.base.command.buildresult.BuildEventStreamProvider;
+import com.salesforce.bazel.eclipse.core.launchconfiguration.TestXmlReport.Outcome;
+import com.salesforce.bazel.eclipse.core.launchconfiguration.TestXmlReport.TestCase;
+import com.salesforce.bazel.eclipse.core.launchconfiguration.TestXmlReport.TestSuite;
+
+/**
+ * Reports the test results of a <code>bazel test</code> invocation to the JUnit view.
+ * <p>
+ * The reporter consumes the build event protocol (BEP) while Bazel is running. Whenever a <code>TestResult</code>
+ * event is received the <code>test.xml</code> file of the test action is parsed and its results are sent using the
+ * remote test runner protocol of the Eclipse JUnit integration. Each test target appears as a suite in the JUnit view
+ * as soon as Bazel finished running it. Targets failing without a <code>test.xml</code> (eg., because they did not
+ * build) are reported as a single failed test.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public class BazelTestResultReporter {
+
+    private record ReportedTestCase(String id, TestCase testCase) {
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelTestResultReporter.class);
+
+    // see org.eclipse.jdt.internal.junit.runner.MessageIds
+    static final String TEST_RUN_START = "%TESTC  ";
+    static final String TEST_TREE = "%TSTTREE";
+    static final String TEST_START = "%TESTS  ";
+    static final String TEST_END = "%TESTE  ";
+    static final String TEST_FAILED = "%FAILED ";
+    static final String TEST_ERROR = "%ERROR  ";
+    static final String TRACE_START = "%TRACES ";
+    static final String TRACE_END = "%TRACEE ";
+    static final String TEST_RUN_END = "%RUNTIME";
+    static final String IGNORED_TEST_PREFIX = "@Ignore: ";
+
+    private static final String TEST_XML = "test.xml";
+
+    static String escape(String text) {
+        var result = new StringBuilder(text.length());
+        for (var i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            switch (c) {
+                case '\\', ',':
+                    result.append('\\').append(c);
+                    break;
+                case '\r', '\n':
+                    result.append(' ');
+                    break;
+                default:
+                    result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String toSuiteName(TestResultId id) {
+        var name = new StringBuilder(id.getLabel());
+        if (id.getShard() > 0) {
+            name.append(" (shard ").append(id.getShard()).append(')');
+        }
+        if (id.getRun() > 1) {
+            name.append(" (run ").append(id.getRun()).append(')');
+        }
+        if (id.getAttempt() > 1) {
+            name.append(" (attempt ").append(id.getAttempt()).append(')');
+        }
+        return name.toString();
+    }
+
+    private static String toTestName(TestCase testCase) {
+        return testCase.className().isEmpty() ? testCase.name()
+                : format("%s(%s)", testCase.name(), testCase.className());
+    }
+
+    private final PrintWriter writer;
+    private final Set<String> reportedLabels = new HashSet<>();
+    private int nextId = 1;
+    private int reportedTestCount;
+
+    /**
+     * @param writer
+     *            the writer connected to the JUnit view
+     */
+    public BazelTestResultReporter(Writer writer) {
+        this.writer = new PrintWriter(writer);
+    }
+
+    /**
+     * Processes a build event.
+     *
+     * @param event
+     *            the event
+     */
+    public void accept(BuildEvent event) {
+        switch (event.getId().getIdCase()) {
+            case TEST_RESULT:
+                reportTestResult(event.getId().getTestResult(), event.getTestResult());
+                break;
+            case TEST_SUMMARY:
+                var label = event.getId().getTestSummary().getLabel();
+                var status = event.getTestSummary().getOverallStatus();
+                if (!reportedLabels.contains(label) && (status != TestStatus.PASSED)) {
+                    reportTargetFailure(label, label, status);
+                }
+                break;
+            default: // ignore
+        }
+    }
+
+    /**
+     * Reads all events from the given stream until the last message.
+     *
+     * @param stream
+     *            the stream
+     * @throws IOException
+     *             in case of errors reading the stream
+     */
+    public void consume(BuildEventStreamProvider stream) throws IOException {
+        BuildEvent event;
+        while ((event = stream.getNext()) != null) {
+            accept(event);
+            if (event.getLastMessage()) {
+                return;
+            }
+        }
+    }
+
+    private String createId() {
+        return String.valueOf(nextId++);
+    }
+
+    /**
+     * {@return the number of test cases reported so far}
+     */
+    public int getReportedTestCount() {
+        return reportedTestCount;
+    }
+
+    private void reportTargetFailure(String suiteName, String label, TestStatus status) {
+        reportedLabels.add(label);
+        var trace = format("%s %s", label, status.name().replace('_', ' ').toLowerCase());
+        var testCase = new TestCase("", label, Outcome.ERROR, trace);
+        reportTestCases(suiteName, List.of(new TestSuite(label, List.of(testCase))));
+    }
+
+    private void reportTestCases(String suiteName, List<TestSuite> testSuites) {
+        // the tree must be sent depth first with the number of children of each suite
+        List<ReportedTestCase> reportedTestCases = new ArrayList<>();
+        treeEntry(createId(), suiteName, true, testSuites.size(), suiteName);
+        for (TestSuite testSuite : testSuites) {
+            treeEntry(createId(), testSuite.name(), true, testSuite.testCases().size(), testSuite.name());
+            for (TestCase testCase : testSuite.testCases()) {
+                var id = createId();
+                treeEntry(id, toTestName(testCase), false, 1, testCase.name());
+                reportedTestCases.add(new ReportedTestCase(id, testCase));
+            }
+        }
+
+        for (ReportedTestCase reported : reportedTestCases) {
+            var testCase = reported.testCase();
+            var testName = toTestName(testCase);
+            if (testCase.outcome() == Outcome.SKIPPED) {
+                testName = IGNORED_TEST_PREFIX + testName;
+            }
+            var testId = reported.id() + "," + testName;
+
+            writer.println(TEST_START + testId);
+            if ((testCase.outcome() == Outcome.FAILED) || (testCase.outcome() == Outcome.ERROR)) {
+                writer.println((testCase.outcome() == Outcome.FAILED ? TEST_FAILED : TEST_ERROR) + testId);
+                writer.println(TRACE_START);
+                testCase.trace().lines().filter(l -> !l.startsWith(TRACE_END)).forEach(writer::println);
+                writer.println(TRACE_END);
+            }
+            writer.println(TEST_END + testId);
+            reportedTestCount++;
+        }
+        writer.flush();
+    }
+
+    private void reportTestResult(TestResultId id, TestResult result) {
+        reportedLabels.add(id.getLabel());
+
+        var testXml = result.getTestActionOutputList()
+                .stream()
+                .filter(f -> TEST_XML.equals(f.getName()))
+                .map(this::toLocalPath)
+                .filter(Objects::nonNull)
+                .findFirst();
+        if (testXml.isPresent()) {
+            try {
+                var report = TestXmlReport.parse(testXml.get());
+                if (report.getTestCount() > 0) {
+                    reportTestCases(toSuiteName(id), report.testSuites());
+                    return;
+                }
+            } catch (IOException e) {
+                LOG.warn("Unable to read test results of '{}': {}", id.getLabel(), e.getMessage(), e);
+            }
+        }
+
+        if (result.getStatus() != TestStatus.PASSED) {
+            reportTargetFailure(toSuiteName(id), id.getLabel(), result.getStatus());
+        }
+    }
+
+    /**
+     * Signals the start of the test run.
+     * <p>
+     * The number of tests is not known upfront because results are reported while Bazel is running.
+     * </p>
+     */
+    public void testRunStarted() {
+        writer.println(TEST_RUN_START + "0 v2");
+        writer.flush();
+    }
+
+    /**
+     * Signals the end of the test run.
+     *
+     * @param elapsedTimeMillis
+     *            the total time of the test run in milliseconds
+     */
+    public void testRunEnded(long elapsedTimeMillis) {
+        writer.println(TEST_RUN_END + elapsedTimeMillis);
+        writer.flush();
+    }
+
+    /**
+     * Resolves a file reported in the BEP to a local path.
+     *
+     * @param file
+     *            the file
+     * @return the local path (<code>null</code> if the file is not available locally)
+     */
+    protected Path toLocalPath(File file) {
+        var uri = file.getUri();
+        if (!uri.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return Path.of(URI.create(uri));
+        } catch (IllegalArgumentException e) {
+            LOG.debug("Unable to resolve '{}': {}", uri, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void treeEntry(String id, String name, boolean suite, int count, String displayName) {
+        // id,name,isSuite,testCount,isDynamicTest,parentId,displayName,parameterTypes,uniqueId
+        writer.println(
+            TEST_TREE + id + ',' + escape(name) + ',' + suite + ',' + count + ",false,-1," + escape(displayName)
+                    + ",,");
+    }
+}
@@ -0,0 +1,314 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static java.lang.String.format;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.isReadable;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache persisting what is needed for launching a <code>java_binary</code> directly with a JVM across IDE sessions.
+ * <p>
+ * Resolving the runtime classpath requires a Bazel build with the IntelliJ aspects, which includes an analysis phase.
+ * The resolved {@link JavaLaunchInfo} is stored per target together with a {@link #dependencyDigest dependency digest}.
+ * The digest covers the labels of all transitive dependencies as well as the content of their <code>BUILD</code>
+ * files, so any change which could modify the runtime classpath, main class or JVM flags invalidates the entry. An
+ * entry is also unusable when any of its classpath entries no longer exists (eg. after <code>bazel clean</code>).
+ * </p>
+ * <p>
+ * During the lifetime of the IDE only one instance shall be used. It's initialized by the model manager. Instances are
+ * thread safe.
+ * </p>
+ */
+public final class JavaLaunchInfoCache {
+
+    /**
+     * What is needed for launching a Java target directly.
+     *
+     * @param mainClass
+     *            the main class
+     * @param classpath
+     *            the runtime classpath (absolute paths)
+     * @param jvmFlags
+     *            the JVM flags of the target
+     */
+    public record JavaLaunchInfo(String mainClass, List<Path> classpath, List<String> jvmFlags) {
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(JavaLaunchInfoCache.class);
+
+    private static final AtomicReference<JavaLaunchInfoCache> cacheRef = new AtomicReference<>();
+
+    private static final String DIGEST = "digest";
+    private static final String MAIN_CLASS = "mainClass";
+    private static final String CLASSPATH_PREFIX = "classpath.";
+    private static final String JVM_FLAG_PREFIX = "jvmFlag.";
+
+    private static final List<String> WORKSPACE_FILES =
+            List.of("MODULE.bazel", "WORKSPACE", "WORKSPACE.bazel", ".bazelrc", ".bazelversion");
+    private static final List<String> BUILD_FILE_NAMES = List.of("BUILD.bazel", "BUILD");
+
+    /**
+     * Computes a digest of everything influencing the runtime classpath of a target.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param label
+     *            the target label
+     * @param dependencies
+     *            the labels of all transitive dependencies of the target
+     * @param buildFlags
+     *            additional flags used for building the target
+     * @return the digest (never <code>null</code>)
+     * @throws IOException
+     *             if a <code>BUILD</code> file could not be read
+     */
+    public static String dependencyDigest(Path workspaceRoot, String label, Collection<String> dependencies,
+            Collection<String> buildFlags) throws IOException {
+        var content = new StringBuilder();
+        content.append(label).append('\n');
+        buildFlags.forEach(f -> content.append(f).append('\n'));
+        for (String file : WORKSPACE_FILES) {
+            content.append(file).append('=').append(fileDigest(workspaceRoot.resolve(file))).append('\n');
+        }
+
+        // external repositories are covered by the workspace files
+        var packages = new TreeSet<String>();
+        var targetPackage = toMainRepositoryPackage(label);
+        if (targetPackage != null) {
+            packages.add(targetPackage);
+        }
+        for (String dependency : new TreeSet<>(dependencies)) {
+            content.append(dependency).append('\n');
+            var dependencyPackage = toMainRepositoryPackage(dependency);
+            if (dependencyPackage != null) {
+                packages.add(dependencyPackage);
+            }
+        }
+        for (String packagePath : packages) {
+            var packageDirectory = workspaceRoot.resolve(packagePath);
+            for (String buildFileName : BUILD_FILE_NAMES) {
+                var buildFile = packageDirectory.resolve(buildFileName);
+                if (isRegularFile(buildFile)) {
+                    content.append(packagePath).append('=').append(fileDigest(buildFile)).append('\n');
+                    break;
+                }
+            }
+        }
+        return sha256(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fileDigest(Path file) throws IOException {
+        try {
+            return sha256(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return "-";
+        }
+    }
+
+    /**
+     * Returns the singleton cache instance
+     *
+     * @return the singleton cache instance (maybe <code>null</code> if not initialized yet)
+     */
+    public static JavaLaunchInfoCache getInstance() {
+        return cacheRef.get();
+    }
+
+    /**
+     * Initializes the singleton instance.
+     *
+     * @param cache
+     *            the singleton instance
+     * @throws IllegalStateException
+     *             if the singleton cache instance was already initialized
+     */
+    public static void setInstance(JavaLaunchInfoCache cache) throws IllegalStateException {
+        if (!cacheRef.compareAndSet(null, requireNonNull(cache, "Cannot initialize NULL instance"))) {
+            throw new IllegalStateException("The cache was already initialized. Cannot initialize multiple times!");
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * {@return the package path of a label in the main repository or <code>null</code> for external labels}
+     */
+    static String toMainRepositoryPackage(String label) {
+        String packageAndName;
+        if (label.startsWith("//")) {
+            packageAndName = label.substring(2);
+        } else if (label.startsWith("@//")) {
+            packageAndName = label.substring(3);
+        } else if (label.startsWith("@@//")) {
+            packageAndName = label.substring(4);
+        } else {
+            return null;
+        }
+        var colon = packageAndName.indexOf(':');
+        return colon >= 0 ? packageAndName.substring(0, colon) : packageAndName;
+    }
+
+    private final Path cacheDirectory;
+
+    /**
+     * @param cacheDirectory
+     *            the directory to store the cache files in (will be created when needed)
+     */
+    public JavaLaunchInfoCache(Path cacheDirectory) {
+        this.cacheDirectory = requireNonNull(cacheDirectory);
+    }
+
+    private Path entryFile(Path workspaceRoot, String label) {
+        var key = sha256(
+            (workspaceRoot.toAbsolutePath().normalize() + "\n" + label).getBytes(StandardCharsets.UTF_8));
+        return cacheDirectory.resolve(format("launch-%s.properties", key.substring(0, 16)));
+    }
+
+    /**
+     * Returns the cached launch info of a target.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param label
+     *            the target label
+     * @param dependencyDigest
+     *            the current {@link #dependencyDigest dependency digest} of the target
+     * @return the cached info or <code>null</code> if nothing is cached, the digest is different or a classpath entry
+     *         is missing
+     */
+    public synchronized JavaLaunchInfo get(Path workspaceRoot, String label, String dependencyDigest) {
+        var file = entryFile(workspaceRoot, label);
+        if (!isRegularFile(file)) {
+            return null;
+        }
+
+        var properties = new Properties();
+        try (var in = newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debug("Ignoring unreadable cache file '{}': {}", file, e.getMessage(), e);
+            return null;
+        }
+
+        if (!dependencyDigest.equals(properties.getProperty(DIGEST))) {
+            return null;
+        }
+
+        var mainClass = properties.getProperty(MAIN_CLASS);
+        if (mainClass == null) {
+            return null;
+        }
+
+        List<Path> classpath = new ArrayList<>();
+        for (var i = 0; properties.containsKey(CLASSPATH_PREFIX + i); i++) {
+            var entry = Path.of(properties.getProperty(CLASSPATH_PREFIX + i));
+            if (!isReadable(entry)) {
+                LOG.debug("Ignoring cached launch info of '{}' because '{}' is missing", label, entry);
+                return null;
+            }
+            classpath.add(entry);
+        }
+
+        List<String> jvmFlags = new ArrayList<>();
+        for (var i = 0; properties.containsKey(JVM_FLAG_PREFIX + i); i++) {
+            jvmFlags.add(properties.getProperty(JVM_FLAG_PREFIX + i));
+        }
+
+        return new JavaLaunchInfo(mainClass, classpath, jvmFlags);
+    }
+
+    /**
+     * Removes the cached launch info of a target.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param label
+     *            the target label
+     */
+    public synchronized void invalidate(Path workspaceRoot, String label) {
+        try {
+            deleteIfExists(entryFile(workspaceRoot, label));
+        } catch (IOException e) {
+            LOG.warn("Error deleting cached launch info of '{}': {}", label, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stores the launch info of a target.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param label
+     *            the target label
+     * @param dependencyDigest
+     *            the {@link #dependencyDigest dependency digest} the info was resolved for
+     * @param launchInfo
+     *            the launch info
+     */
+    public synchronized void put(Path workspaceRoot, String label, String dependencyDigest, JavaLaunchInfo launchInfo) {
+        var properties = new Properties();
+        properties.setProperty(DIGEST, dependencyDigest);
+        properties.setProperty(MAIN_CLASS, launchInfo.mainClass());
+        for (var i = 0; i < launchInfo.classpath().size(); i++) {
+            properties.setProperty(CLASSPATH_PREFIX + i, launchInfo.classpath().get(i).toString());
+        }
+        for (var i = 0; i < launchInfo.jvmFlags().size(); i++) {
+            properties.setProperty(JVM_FLAG_PREFIX + i, launchInfo.jvmFlags().get(i));
+        }
+
+        var file = entryFile(workspaceRoot, label);
+        try {
+            createDirectories(file.getParent());
+            var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (var out = newOutputStream(tempFile)) {
+                properties.store(out, label);
+            }
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to write cache file '{}': {}", file, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static java.nio.file.Files.newInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * A <code>test.xml</code> file as written by Bazel test runners (JUnit XML format).
+ * <p>
+ * The root element is either <code>&lt;testsuites&gt;</code> or a single <code>&lt;testsuite&gt;</code>. Nested test
+ * suites are flattened.
+ * </p>
+ *
+ * @param testSuites
+ *            the test suites in document order
+ */
+public record TestXmlReport(List<TestSuite> testSuites) {
+
+    /**
+     * The outcome of a test case
+     */
+    public enum Outcome {
+        PASSED, FAILED, ERROR, SKIPPED
+    }
+
+    /**
+     * A test case.
+     *
+     * @param className
+     *            the class name (maybe empty)
+     * @param name
+     *            the test name (method name)
+     * @param outcome
+     *            the outcome
+     * @param trace
+     *            the failure trace (<code>null</code> unless failed or error)
+     */
+    public record TestCase(String className, String name, Outcome outcome, String trace) {
+    }
+
+    /**
+     * A test suite.
+     *
+     * @param name
+     *            the suite name
+     * @param testCases
+     *            the test cases
+     */
+    public record TestSuite(String name, List<TestCase> testCases) {
+    }
+
+    private static void collectTestSuites(Element element, List<TestSuite> testSuites) {
+        if ("testsuite".equals(element.getTagName())) {
+            List<TestCase> testCases = new ArrayList<>();
+            for (Element child : getChildElements(element)) {
+                if ("testcase".equals(child.getTagName())) {
+                    testCases.add(toTestCase(child));
+                }
+            }
+            if (!testCases.isEmpty()) {
+                testSuites.add(new TestSuite(element.getAttribute("name"), testCases));
+            }
+        }
+
+        for (Element child : getChildElements(element)) {
+            if ("testsuite".equals(child.getTagName()) || "testsuites".equals(child.getTagName())) {
+                collectTestSuites(child, testSuites);
+            }
+        }
+    }
+
+    private static List<Element> getChildElements(Element element) {
+        List<Element> result = new ArrayList<>();
+        for (var node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                result.add((Element) node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a <code>test.xml</code> file.
+     *
+     * @param in
+     *            the input stream
+     * @return the parsed report (never <code>null</code>)
+     * @throws IOException
+     *             if the content could not be read or is not well-formed
+     */
+    public static TestXmlReport parse(InputStream in) throws IOException {
+        try {
+            var factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setExpandEntityReferences(false);
+            var document = factory.newDocumentBuilder().parse(in);
+
+            List<TestSuite> testSuites = new ArrayList<>();
+            collectTestSuites(document.getDocumentElement(), testSuites);
+            return new TestXmlReport(testSuites);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Invalid test.xml: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a <code>test.xml</code> file.
+     *
+     * @param file
+     *            the file
+     * @return the parsed report (never <code>null</code>)
+     * @throws IOException
+     *             if the file could not be read or is not well-formed
+     */
+    public static TestXmlReport parse(Path file) throws IOException {
+        try (var in = newInputStream(file)) {
+            return parse(in);
+        }
+    }
+
+    private static TestCase toTestCase(Element testCase) {
+        var outcome = Outcome.PASSED;
+        String trace = null;
+        for (Element child : getChildElements(testCase)) {
+            switch (child.getTagName()) {
+                case "failure":
+                    outcome = Outcome.FAILED;
+                    trace = toTrace(child);
+                    break;
+                case "error":
+                    outcome = Outcome.ERROR;
+                    trace = toTrace(child);
+                    break;
+                case "skipped":
+                    outcome = Outcome.SKIPPED;
+                    break;
+                default: // ignore
+            }
+            if (trace != null) {
+                break; // first failure wins
+            }
+        }
+        return new TestCase(testCase.getAttribute("classname"), testCase.getAttribute("name"), outcome, trace);
+    }
+
+    private static String toTrace(Element failure) {
+        var trace = failure.getTextContent().strip();
+        if (!trace.isEmpty()) {
+            return trace;
+        }
+
+        // no stack trace available
+        var type = failure.getAttribute("type");
+        var message = failure.getAttribute("message");
+        if (type.isEmpty()) {
+            return message;
+        }
+        return message.isEmpty() ? type : type + ": " + message;
+    }
+
+    /**
+     * {@return the total number of test cases}
+     */
+    public int getTestCount() {
+        return testSuites.stream().mapToInt(s -> s.testCases().size()).sum();
+    }
+}
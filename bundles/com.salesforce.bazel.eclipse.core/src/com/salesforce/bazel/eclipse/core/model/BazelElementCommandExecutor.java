@@ -140,6 +140,32 @@ public class BazelElementCommandExecutor {
      * @throws CoreException
      */
     public <R> R runQueryWithoutLock(BazelQueryCommand<R> command) throws CoreException {
+        return runWithoutLock(command);
+    }
+
+    /**
+     * Execute any Bazel command using
+     * {@link BazelModelCommandExecutionService#executeOutsideWorkspaceLockAsync(BazelCommand, BazelElement)}.
+     * <p>
+     * The method will block the current thread and wait for the result. However, the command execution will happen in a
+     * different {@link Job thread} in the background for proper progress handling/reporting.
+     * </p>
+     * <p>
+     * Note, the command must not modify any resources in the Eclipse workspace. A build is acceptable as long as none
+     * of its outputs are expected to become visible in Eclipse (eg., a build priming Bazel's caches). No resources are
+     * refreshed after the command completes.
+     * </p>
+     *
+     * @param <R>
+     *            the command result type
+     * @param command
+     *            the command to execute
+     * @return the command result (never <code>null</code>)
+     * @see BazelModelCommandExecutionService#executeOutsideWorkspaceLockAsync(BazelCommand, BazelElement)
+     *      <code>executeOutsideWorkspaceLockAsync</code> for execution and locking semantics
+     * @throws CoreException
+     */
+    public <R> R runWithoutLock(BazelCommand<R> command) throws CoreException {
         configureCommand(command, executionContext.getBazelWorkspace());
         Future<R> future = getExecutionService().executeOutsideWorkspaceLockAsync(command, executionContext);
         try {
@@ -152,7 +178,7 @@ public class BazelElementCommandExecutor {
 
             throw new CoreException(toStatus(e));
         } catch (InterruptedException e) {
-            throw new OperationCanceledException("Interrupted while waiting for bazel cquery output to complete.");
+            throw new OperationCanceledException("Interrupted while waiting for bazel output to complete.");
         }
     }
 
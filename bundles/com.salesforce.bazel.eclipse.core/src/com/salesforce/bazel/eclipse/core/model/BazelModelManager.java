@@ -16,6 +16,8 @@ package com.salesforce.bazel.eclipse.core.model;
 import static java.util.Objects.requireNonNull;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.resources.IProject;
@@ -39,8 +41,12 @@ import com.salesforce.bazel.eclipse.core.BazelCorePlugin;
 import com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants;
 import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathManager;
 import com.salesforce.bazel.eclipse.core.extensions.ExtensibleCommandExecutor;
+import com.salesforce.bazel.eclipse.core.launchconfiguration.JavaLaunchInfoCache;
 import com.salesforce.bazel.eclipse.core.model.cache.BazelElementInfoCache;
+import com.salesforce.bazel.eclipse.core.model.cache.BazelModelSnapshot;
+import com.salesforce.bazel.eclipse.core.model.cache.BazelModelSnapshot.PackageTargets;
 import com.salesforce.bazel.eclipse.core.model.cache.CaffeineBasedBazelElementInfoCache;
+import com.salesforce.bazel.eclipse.core.model.cache.PersistentBazelInfoCache;
 import com.salesforce.bazel.eclipse.core.model.execution.BazelModelCommandExecutionService;
 import com.salesforce.bazel.eclipse.core.model.execution.JobsBasedExecutionService;
 import com.salesforce.bazel.sdk.aspects.intellij.IntellijAspects;
@@ -56,6 +62,8 @@ public class BazelModelManager implements BazelCoreSharedContstants {
 
     private static Logger LOG = LoggerFactory.getLogger(BazelModelManager.class);
 
+    private static final String CACHE_MAXIMUM_SIZE_PROPERTY = "eclipse.bazel.model.cache.maximumSize";
+
     /**
      * @return the duration after which cache entries should expire (this should be large enough to allow maximum cache
      *         hits during a full Sync)
@@ -68,12 +76,45 @@ public class BazelModelManager implements BazelCoreSharedContstants {
         return Duration.ofSeconds(seconds);
     }
 
+    /**
+     * @return the heap budget of the cache in bytes derived from the max heap size (<code>-Xmx</code>) or
+     *         <code>0</code> if the cache should be bounded by entry count only
+     */
+    private static long getCacheMaximumWeight() {
+        if (System.getProperty(CACHE_MAXIMUM_SIZE_PROPERTY) != null) {
+            return 0; // explicitly configured maximum size takes precedence
+        }
+        var percentOfMaxHeap = Integer.getInteger("eclipse.bazel.model.cache.maximumHeapPercentage", 25);
+        if (percentOfMaxHeap <= 0) {
+            return 0;
+        }
+        return (Runtime.getRuntime().maxMemory() / 100) * Math.min(percentOfMaxHeap, 100);
+    }
+
     /**
      * @return the maximum cache size (this should be large enough to hold all packages, targets and build files needed
      *         during a full Sync)
      */
     private static int getCacheMaximumSize() {
-        return Integer.getInteger("eclipse.bazel.model.cache.maximumSize", 100000000 /* is hundred million enough?*/);
+        return Integer.getInteger(CACHE_MAXIMUM_SIZE_PROPERTY, 100000000 /* is hundred million enough?*/);
+    }
+
+    private static BazelElementInfoCache newCache() {
+        var maximumWeight = getCacheMaximumWeight();
+        if (maximumWeight > 0) {
+            var demoteToSoftReferences = Boolean.parseBoolean(
+                System.getProperty("eclipse.bazel.model.cache.softReferenceDemotion", Boolean.TRUE.toString()));
+            LOG.debug(
+                "Using heap budget of {} bytes for Bazel model cache (soft reference demotion: {})",
+                maximumWeight,
+                demoteToSoftReferences);
+            return new CaffeineBasedBazelElementInfoCache(
+                    maximumWeight,
+                    getCacheExpireAfterAccessDuration(),
+                    demoteToSoftReferences);
+        }
+
+        return new CaffeineBasedBazelElementInfoCache(getCacheMaximumSize(), getCacheExpireAfterAccessDuration());
     }
 
     private final ResourceChangeProcessor resourceChangeProcessor;
@@ -105,10 +146,12 @@ public class BazelModelManager implements BazelCoreSharedContstants {
                     context.needDelta();
 
                     // opportunity for cleanups on full save
+                    saveModelSnapshot();
                     break;
                 }
                 case ISaveContext.SNAPSHOT: {
                     // opportunity for cleanups on snaphot save
+                    saveModelSnapshot();
                     break;
                 }
             }
@@ -117,8 +160,6 @@ public class BazelModelManager implements BazelCoreSharedContstants {
 
             var savedProject = context.getProject();
             if (savedProject != null) {}
-
-            // TODO: save all existing Bazel mappings
         }
     };
     private final IPath stateLocation;
@@ -205,8 +246,10 @@ public class BazelModelManager implements BazelCoreSharedContstants {
         }
 
         // configure cache
-        BazelElementInfoCache.setInstance(
-            new CaffeineBasedBazelElementInfoCache(getCacheMaximumSize(), getCacheExpireAfterAccessDuration()));
+        BazelElementInfoCache.setInstance(newCache());
+        PersistentBazelInfoCache.setInstance(new PersistentBazelInfoCache(stateLocation.append("bazel-info").toPath()));
+        JavaLaunchInfoCache.setInstance(new JavaLaunchInfoCache(stateLocation.append("java-launch").toPath()));
+        BazelModelSnapshot.setInstance(new BazelModelSnapshot(stateLocation.append("model-snapshot").toPath()));
 
         // ensure aspects are usable
         aspects = new IntellijAspects(stateLocation.append("intellij-aspects").toPath());
@@ -252,6 +295,40 @@ public class BazelModelManager implements BazelCoreSharedContstants {
         processSavedState.schedule();
     }
 
+    /**
+     * Persists the packages currently held in the {@link BazelElementInfoCache} to the {@link BazelModelSnapshot}.
+     */
+    void saveModelSnapshot() {
+        var snapshot = BazelModelSnapshot.getInstance();
+        var cache = BazelElementInfoCache.getInstance();
+        if ((snapshot == null) || (cache == null)) {
+            return;
+        }
+
+        try {
+            for (BazelWorkspace bazelWorkspace : getModel().getBazelWorkspaces()) {
+                List<PackageTargets> packages = new ArrayList<>();
+                for (BazelElement<?, ?> element : cache.getAll(bazelWorkspace)) {
+                    if (element instanceof BazelPackage bazelPackage) {
+                        var info = cache.getIfPresent(bazelPackage);
+                        if (info != null) {
+                            packages.add(
+                                new PackageTargets(
+                                        bazelPackage.getWorkspaceRelativePath().toString(),
+                                        info.getBuildFile(),
+                                        info.getBuildFileDigest(),
+                                        info.getWorkspaceFingerprint(),
+                                        info.getTargetInfos()));
+                        }
+                    }
+                }
+                snapshot.save(bazelWorkspace.workspacePath(), packages);
+            }
+        } catch (CoreException | RuntimeException e) {
+            LOG.warn("Unable to save snapshot of the Bazel model: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Shutdown of the model manager.
      * <p>
@@ -89,8 +89,10 @@ public final class BazelPackage extends BazelElement<BazelPackageInfo, BazelWork
                     Status.error(format("Package '%s' does not exist in workspace '%s'!", label, parent.getName())));
         }
 
+        var buildFileDigest = BazelPackageInfo.digestBuildFile(buildFile);
+        var workspaceFingerprint = BazelPackageInfo.fingerprintWorkspace(parent.workspacePath());
         var targets = BazelPackageInfo.queryForTargets(this, getCommandExecutor());
-        return new BazelPackageInfo(buildFile, this, targets);
+        return new BazelPackageInfo(buildFile, buildFileDigest, workspaceFingerprint, this, targets);
     }
 
     @Override
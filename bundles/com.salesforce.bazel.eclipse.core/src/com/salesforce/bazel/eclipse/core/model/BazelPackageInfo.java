@@ -19,7 +19,9 @@ import static com.salesforce.bazel.eclipse.core.model.BazelProject.hasWorkspaceR
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,6 +35,7 @@ import org.eclipse.core.runtime.Status;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.salesforce.bazel.eclipse.core.model.cache.BazelModelSnapshot;
 import com.salesforce.bazel.sdk.command.BazelQueryForTargetProtoCommand;
 import com.salesforce.bazel.sdk.command.querylight.Target;
 import com.salesforce.bazel.sdk.model.BazelLabel;
@@ -90,6 +93,31 @@ public final class BazelPackageInfo extends BazelElementInfo {
         }
 
         var workspaceRoot = bazelWorkspace.getLocation().toPath();
+        Map<BazelPackage, Map<String, Target>> result = new HashMap<>();
+
+        // serve packages with unchanged BUILD files from the snapshot of the previous session
+        var snapshot = BazelModelSnapshot.getInstance();
+        if (snapshot != null) {
+            List<BazelPackage> packagesToQuery = new ArrayList<>();
+            for (BazelPackage bazelPackage : bazelPackages) {
+                var buildFile = bazelPackage.findBuildFile();
+                var targets = buildFile != null ? snapshot.getTargets(
+                    workspaceRoot,
+                    bazelPackage.getWorkspaceRelativePath().toString(),
+                    buildFile) : null;
+                if (targets != null) {
+                    result.put(bazelPackage, targets);
+                } else {
+                    packagesToQuery.add(bazelPackage);
+                }
+            }
+            if (packagesToQuery.isEmpty()) {
+                LOG.debug("{}: loaded {} packages from snapshot", bazelWorkspace, result.size());
+                return result;
+            }
+            bazelPackages = packagesToQuery;
+        }
+
         var query = bazelPackages.stream()
                 .map(bazelPackage -> format("//%s:all", bazelPackage.getWorkspaceRelativePath()))
                 .collect(joining(" + "));
@@ -98,7 +126,6 @@ public final class BazelPackageInfo extends BazelElementInfo {
         bazelPackages.stream()
                 .forEach(p -> bazelPackageByWorkspaceRelativePath.put(p.getWorkspaceRelativePath().toString(), p));
 
-        Map<BazelPackage, Map<String, Target>> result = new HashMap<>();
         LOG.debug("{}: querying Bazel for list of targets from: {}", bazelWorkspace, query);
         var queryResult = bazelElementCommandExecutor.runQueryWithoutLock(
             new BazelQueryForTargetProtoCommand(
@@ -134,7 +161,41 @@ public final class BazelPackageInfo extends BazelElementInfo {
         return result;
     }
 
+    /**
+     * {@return the digest of the BUILD file for persisting the targets in the {@link BazelModelSnapshot} (maybe
+     * <code>null</code> if the file cannot be read)}
+     * <p>
+     * Must be called before querying the targets so a modification during the query invalidates the snapshot entry.
+     * </p>
+     */
+    static String digestBuildFile(Path buildFile) {
+        try {
+            return BazelModelSnapshot.digest(buildFile);
+        } catch (IOException e) {
+            LOG.debug("Unable to digest '{}': {}", buildFile, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * {@return the fingerprint of the workspace files for persisting the targets in the {@link BazelModelSnapshot}
+     * (maybe <code>null</code> if a file cannot be read)}
+     * <p>
+     * Must be called before querying the targets so a modification during the query invalidates the snapshot entry.
+     * </p>
+     */
+    static String fingerprintWorkspace(Path workspaceRoot) {
+        try {
+            return BazelModelSnapshot.workspaceFingerprint(workspaceRoot);
+        } catch (IOException e) {
+            LOG.debug("Unable to fingerprint workspace '{}': {}", workspaceRoot, e.getMessage(), e);
+            return null;
+        }
+    }
+
     private final Path buildFile;
+    private final String buildFileDigest;
+    private final String workspaceFingerprint;
     private final BazelPackage bazelPackage;
     private final Map<String, Target> indexOfTargetInfoByTargetName;
 
@@ -142,9 +203,11 @@ public final class BazelPackageInfo extends BazelElementInfo {
 
     private BazelVisibility defaultVisibility;
 
-    BazelPackageInfo(Path buildFile, BazelPackage bazelPackage,
+    BazelPackageInfo(Path buildFile, String buildFileDigest, String workspaceFingerprint, BazelPackage bazelPackage,
             Map<String, Target> indexOfTargetInfoByTargetName) {
         this.buildFile = buildFile;
+        this.buildFileDigest = buildFileDigest;
+        this.workspaceFingerprint = workspaceFingerprint;
         this.bazelPackage = bazelPackage;
         this.indexOfTargetInfoByTargetName = indexOfTargetInfoByTargetName;
     }
@@ -170,10 +233,31 @@ public final class BazelPackageInfo extends BazelElementInfo {
         return bazelProject = new BazelProject(project, getBazelPackage().getModel());
     }
 
+    /**
+     * {@return all targets of this package (including their rule info)}
+     */
+    Collection<Target> getTargetInfos() {
+        return Collections.unmodifiableCollection(indexOfTargetInfoByTargetName.values());
+    }
+
     public Path getBuildFile() {
         return buildFile;
     }
 
+    /**
+     * {@return the digest of the BUILD file taken when the targets were loaded (maybe <code>null</code>)}
+     */
+    public String getBuildFileDigest() {
+        return buildFileDigest;
+    }
+
+    /**
+     * {@return the fingerprint of the workspace files taken when the targets were loaded (maybe <code>null</code>)}
+     */
+    public String getWorkspaceFingerprint() {
+        return workspaceFingerprint;
+    }
+
     public BazelVisibility getDefaultVisibility() throws CoreException {
         var cachedVisibility = defaultVisibility;
         if (cachedVisibility != null) {
@@ -16,13 +16,24 @@ package com.salesforce.bazel.eclipse.core.model;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toUnmodifiableList;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import net.starlark.java.syntax.CallExpression;
 import net.starlark.java.syntax.ExpressionStatement;
 import net.starlark.java.syntax.FileOptions;
@@ -35,11 +46,56 @@ import net.starlark.java.syntax.StarlarkFile;
  * A somewhat generic reader for Bazel Starlark files (eg., <code>BUILD.bazel</code>, <code>WORKSPACE.bazel</code> and
  * <code>MODULE.bazel</code>).
  * <p>
- * This class is not thread-safe.
+ * Parsed files are kept in a bounded cache keyed by file location and content digest. Reading a file which did not
+ * change since it was last parsed only requires computing its digest. The cache size can be configured using the
+ * <code>eclipse.bazel.model.starlark.parseCache.maximumSize</code> system property.
+ * </p>
+ * <p>
+ * This class is not thread-safe. However, multiple instances can be used concurrently.
  * </p>
  */
 public class BazelStarlarkFileReader {
 
+    /**
+     * The result of parsing a file. Syntax trees are not modified after parsing and thus can be shared.
+     */
+    private record ParsedFile(StarlarkFile file, List<LoadStatement> loadStatements, List<CallExpression> functionCalls,
+            Optional<CallExpression> packageCall, Optional<CallExpression> moduleCall) {
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelStarlarkFileReader.class);
+
+    private static final Cache<String, ParsedFile> parsedFiles = Caffeine.newBuilder()
+            .maximumSize(Integer.getInteger("eclipse.bazel.model.starlark.parseCache.maximumSize", 20000))
+            .build();
+
+    /**
+     * Parses the given files in parallel so that subsequent reads of unmodified files are served from the cache.
+     * <p>
+     * Errors are ignored. They will be reported when the file is read.
+     * </p>
+     *
+     * @param files
+     *            the files to parse
+     */
+    public static void preload(Collection<Path> files) {
+        files.parallelStream().distinct().forEach(f -> {
+            try {
+                new BazelStarlarkFileReader(f).read();
+            } catch (IOException e) {
+                LOG.debug("Ignoring error pre-loading '{}': {}", f, e.getMessage(), e);
+            }
+        });
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     private final Path buildFile;
 
     private List<LoadStatement> loadStatements;
@@ -115,8 +171,22 @@ public class BazelStarlarkFileReader {
         }
 
         // read the file (using UTF-8)
-        var input = ParserInput.readFile(buildFile.toString());
+        var content = Files.readAllBytes(buildFile);
+        var key = buildFile.toAbsolutePath().normalize() + "@" + sha256(content);
+        var parsedFile = parsedFiles.getIfPresent(key);
+        if (parsedFile == null) {
+            parsedFile = parse(ParserInput.fromUTF8(content, buildFile.toString()));
+            parsedFiles.put(key, parsedFile);
+        }
 
+        file = parsedFile.file();
+        loadStatements = parsedFile.loadStatements();
+        functionCalls = parsedFile.functionCalls();
+        packageCall = parsedFile.packageCall();
+        moduleCall = parsedFile.moduleCall();
+    }
+
+    private ParsedFile parse(ParserInput input) throws IOException {
         // options for processing BUILD files as per https://github.com/bazelbuild/bazel/blob/f35132cea9703a14592d732e00197bf03fb91be5/src/main/java/com/google/devtools/build/lib/skyframe/PackageFunction.java#L1477
         var options = FileOptions.builder()
                 .requireLoadStatementsFirst(false)
@@ -124,7 +194,7 @@ public class BazelStarlarkFileReader {
                 .allowToplevelRebinding(true)
                 .build();
 
-        file = StarlarkFile.parse(input, options);
+        var file = StarlarkFile.parse(input, options);
         if (!file.ok()) {
             throw new IOException(
                     "Syntax errors in file '" + buildFile + "': "
@@ -137,28 +207,30 @@ public class BazelStarlarkFileReader {
         // note, we do not perform any additional checks or compilation here ... we are only interested in top-level loads and macro calls
 
         // read load statements
-        loadStatements = file.getStatements()
+        var loadStatements = file.getStatements()
                 .stream()
                 .filter(LoadStatement.class::isInstance)
                 .map(LoadStatement.class::cast)
-                .collect(toList());
+                .collect(toUnmodifiableList());
 
-        functionCalls = file.getStatements()
+        var functionCalls = file.getStatements()
                 .stream()
                 .filter(ExpressionStatement.class::isInstance)
                 .map(ExpressionStatement.class::cast)
                 .filter(e -> e.getExpression() instanceof CallExpression)
                 .map(e -> (CallExpression) e.getExpression())
                 .filter(c -> (c.getFunction() instanceof Identifier))
-                .collect(toList());
+                .collect(toUnmodifiableList());
 
-        packageCall = functionCalls.stream()
+        var packageCall = functionCalls.stream()
                 .filter(c -> ((Identifier) c.getFunction()).getName().equals("package"))
                 .findFirst();
 
-        moduleCall = functionCalls.stream()
+        var moduleCall = functionCalls.stream()
                 .filter(c -> ((Identifier) c.getFunction()).getName().equals("module"))
                 .findFirst();
+
+        return new ParsedFile(file, loadStatements, functionCalls, packageCall, moduleCall);
     }
 
 }
@@ -28,7 +28,9 @@ import static java.util.stream.Collectors.toList;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -480,6 +482,18 @@ public final class BazelWorkspace extends BazelElement<BazelWorkspaceInfo, Bazel
             return;
         }
 
+        // digest BUILD and workspace files before querying so that modifications during the query are detected
+        var workspaceFingerprint = BazelPackageInfo.fingerprintWorkspace(workspacePath());
+        Map<BazelPackage, Path> buildFiles = new HashMap<>();
+        Map<BazelPackage, String> buildFileDigests = new HashMap<>();
+        for (BazelPackage bazelPackage : closedPackages) {
+            var buildFile = requireNonNull(
+                bazelPackage.findBuildFile(),
+                () -> format("non-existing Bazel package: %s", bazelPackage.getLabel()));
+            buildFiles.put(bazelPackage, buildFile);
+            buildFileDigests.put(bazelPackage, BazelPackageInfo.digestBuildFile(buildFile));
+        }
+
         // open all closed projects
         var targetsByPackage = queryForTargets(this, closedPackages, getCommandExecutor());
         for (BazelPackage bazelPackage : closedPackages) {
@@ -490,9 +504,9 @@ public final class BazelWorkspace extends BazelElement<BazelWorkspaceInfo, Bazel
             }
             bazelPackage.openIfNecessary(
                 new BazelPackageInfo(
-                        requireNonNull(
-                            bazelPackage.findBuildFile(),
-                            () -> format("non-existing Bazel package: %s", bazelPackage.getLabel())),
+                        buildFiles.get(bazelPackage),
+                        buildFileDigests.get(bazelPackage),
+                        workspaceFingerprint,
                         bazelPackage,
                         targets));
         }
@@ -42,6 +42,7 @@ import org.slf4j.LoggerFactory;
 
 import com.salesforce.bazel.eclipse.core.extensions.DetectBazelVersionAndSetBinaryJob;
 import com.salesforce.bazel.eclipse.core.model.buildfile.FunctionCall;
+import com.salesforce.bazel.eclipse.core.model.cache.PersistentBazelInfoCache;
 import com.salesforce.bazel.eclipse.core.model.execution.BazelModelCommandExecutionService;
 import com.salesforce.bazel.eclipse.core.projectview.BazelProjectFileReader;
 import com.salesforce.bazel.eclipse.core.projectview.BazelProjectView;
@@ -309,10 +310,20 @@ public final class BazelWorkspaceInfo extends BazelElementInfo {
             // we use the BazelModelCommandExecutionService directly because there is a cycle dependency between
             // BazelModelCommandExecutor and BazelWorkspace#getBazelBinary
 
-            var workspaceCommand = new BazelInfoCommand(workspaceRoot, "Reading workspace info");
-            workspaceCommand.setBazelBinary(getBazelBinary());
-
-            var infoResult = executionService.executeOutsideWorkspaceLockAsync(workspaceCommand, bazelWorkspace).get();
+            // bazel info from a previous session avoids waiting for the Bazel server to start
+            var binary = getBazelBinary() != null ? getBazelBinary() : executionService.getBazelBinary();
+            var persistentInfoCache = PersistentBazelInfoCache.getInstance();
+            var infoResult = persistentInfoCache != null ? persistentInfoCache.getWorkspaceInfo(workspaceRoot, binary)
+                    : null;
+            var infoFromCache = infoResult != null;
+            if (infoFromCache) {
+                LOG.debug("Using bazel info of workspace '{}' from previous session", workspaceRoot);
+            } else {
+                var workspaceCommand = new BazelInfoCommand(workspaceRoot, "Reading workspace info");
+                workspaceCommand.setBazelBinary(getBazelBinary());
+
+                infoResult = executionService.executeOutsideWorkspaceLockAsync(workspaceCommand, bazelWorkspace).get();
+            }
 
             // sanity check
             if (infoResult.isEmpty()) {
@@ -339,6 +350,10 @@ public final class BazelWorkspaceInfo extends BazelElementInfo {
                 bazelVersion = BazelVersion.parseVersion(release.substring(RELEASE_VERSION_PREFIX.length()));
             }
 
+            if (!infoFromCache && (persistentInfoCache != null)) {
+                persistentInfoCache.putWorkspaceInfo(workspaceRoot, binary, infoResult);
+            }
+
             // in bzlmod the execution root segment seems to be broken, it's always _main (https://github.com/bazelbuild/bazel/issues/2317#issuecomment-1849740317)
             var moduleFile = bazelWorkspace.getBazelModuleFile();
             if (moduleFile.exists()) {
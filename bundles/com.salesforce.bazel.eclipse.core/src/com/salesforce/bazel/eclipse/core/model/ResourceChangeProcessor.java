@@ -43,6 +43,8 @@ import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 
+import com.salesforce.bazel.eclipse.core.model.discovery.BazelDependencyGraphCache;
+
 /**
  * Global change listener for Eclipse Workspaces used by the Bazel model.
  */
@@ -60,26 +62,32 @@ class ResourceChangeProcessor implements IResourceChangeListener {
         // check for classpath changes
         Set<IProject> affectedProjects = new HashSet<>();
         Set<IProject> projectViewProjects = new HashSet<>();
-        collectProjectsAffectedByPossibleClasspathChange(delta, affectedProjects, projectViewProjects);
+        Set<IProject> buildFileProjects = new HashSet<>();
+        collectProjectsAffectedByPossibleClasspathChange(
+            delta,
+            affectedProjects,
+            projectViewProjects,
+            buildFileProjects);
 
         // flush the caches for the affected project
         affectedProjects.stream().forEach(this::invalidateCache);
         projectViewProjects.stream().forEach(this::invalidateBazelWorkspaceCache);
 
         // if we have some, we need to refresh classpaths
-        // but we do this asynchronously and *only* when the workspace is in auto-build mode
-        // TODO: disabled because this behavior is annoying/too disruptive (we need a better thing, potentially delay, configurable, notification only)
-        //        if ((affectedProjects.size() > 0) && isAutoBuilding()) {
-        //            var classpathJob = new InitializeOrRefreshClasspathJob(
-        //                    affectedProjects.toArray(new IProject[affectedProjects.size()]),
-        //                    modelManager.getClasspathManager(),
-        //                    true /* force refresh */);
-        //            classpathJob.schedule();
-        //        }
+        // but we do this asynchronously and *only* when the workspace is in auto-build mode and the user opted in
+        // (the scheduler debounces and coalesces changes but each refresh still runs a Bazel build)
+        if (!buildFileProjects.isEmpty() && isAutoBuilding()) {
+            var refreshScheduler = modelManager.getClasspathManager().getRefreshScheduler();
+            if (refreshScheduler.isAutoRefreshEnabled()) {
+                refreshScheduler
+                        .requestRefresh(buildFileProjects.stream().filter(this::isClasspathRefreshAllowed).toList());
+            }
+        }
     }
 
     private void collectProjectsAffectedByPossibleClasspathChange(IResourceDelta delta,
-            Set<IProject> affectedProjectsWithClasspathChange, Set<IProject> affectedProjectsWithProjectViewChange) {
+            Set<IProject> affectedProjectsWithClasspathChange, Set<IProject> affectedProjectsWithProjectViewChange,
+            Set<IProject> affectedProjectsWithBuildFileChange) {
         var resource = delta.getResource();
         var processChildren = false;
         switch (resource.getType()) {
@@ -129,6 +137,7 @@ class ResourceChangeProcessor implements IResourceChangeListener {
                 var fileName = file.getName();
                 if (isBuildFileName(fileName) || isWorkspaceBoundaryFileName(fileName)) {
                     affectedProjectsWithClasspathChange.add(file.getProject());
+                    affectedProjectsWithBuildFileChange.add(file.getProject());
                 }
                 var fileExtension = file.getFileExtension();
                 if ("bazelproject".equals(fileExtension)) {
@@ -146,7 +155,8 @@ class ResourceChangeProcessor implements IResourceChangeListener {
                 collectProjectsAffectedByPossibleClasspathChange(
                     child,
                     affectedProjectsWithClasspathChange,
-                    affectedProjectsWithProjectViewChange);
+                    affectedProjectsWithProjectViewChange,
+                    affectedProjectsWithBuildFileChange);
             }
         }
     }
@@ -162,10 +172,15 @@ class ResourceChangeProcessor implements IResourceChangeListener {
         modelManager.getModel().getInfoCache().invalidateAll();
     }
 
+    private BazelDependencyGraphCache getDependencyGraphCache(BazelWorkspace bazelWorkspace) {
+        return modelManager.getClasspathManager().getDependencyGraphCache(bazelWorkspace);
+    }
+
     private void invalidateBazelWorkspaceCache(IProject project) {
         var bazelProject = modelManager.getBazelProject(project);
         try {
             invalidateCache(bazelProject.getBazelWorkspace());
+            getDependencyGraphCache(bazelProject.getBazelWorkspace()).invalidateAll();
         } catch (CoreException e) {
             // ignore
         }
@@ -179,16 +194,25 @@ class ResourceChangeProcessor implements IResourceChangeListener {
         element.invalidateInfo();
     }
 
+    private void invalidateDependencyGraph(BazelPackage bazelPackage) {
+        // the dependency graph is independent from the model cache and must not be affected by suspension
+        getDependencyGraphCache(bazelPackage.getBazelWorkspace())
+                .invalidatePackage(bazelPackage.getLabel().getPackagePath());
+    }
+
     private void invalidateCache(IProject project) {
         var bazelProject = modelManager.getBazelProject(project);
         try {
             if (bazelProject.isWorkspaceProject()) {
                 invalidateCache(bazelProject.getBazelWorkspace());
+                getDependencyGraphCache(bazelProject.getBazelWorkspace()).invalidateAll();
             } else if (bazelProject.isPackageProject()) {
                 invalidateCache(bazelProject.getBazelPackage());
+                invalidateDependencyGraph(bazelProject.getBazelPackage());
             } else if (bazelProject.isTargetProject()) {
                 // validate the whole package
                 invalidateCache(bazelProject.getBazelPackage());
+                invalidateDependencyGraph(bazelProject.getBazelPackage());
             }
         } catch (CoreException e) {
             // ignore
@@ -238,6 +262,15 @@ class ResourceChangeProcessor implements IResourceChangeListener {
         return ResourcesPlugin.getWorkspace().isAutoBuilding();
     }
 
+    private boolean isClasspathRefreshAllowed(IProject project) {
+        // projects being synchronized will get their classpath computed by the synchronization
+        try {
+            return !isInvalidationSuspendedFor(modelManager.getBazelProject(project).getBazelWorkspace());
+        } catch (CoreException e) {
+            return false; // not a valid Bazel project
+        }
+    }
+
     boolean isInvalidationSuspendedFor(BazelElement<?, ?> element) {
         while (element != null) {
             var refCount = suspendedElement.get(element);
@@ -0,0 +1,244 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
+import static org.eclipse.core.runtime.jobs.Job.getJobManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+import com.google.idea.blaze.base.model.primitives.TargetExpression;
+import com.google.idea.blaze.base.model.primitives.WorkspacePath;
+import com.salesforce.bazel.eclipse.core.classpath.InitializeOrRefreshClasspathJob;
+import com.salesforce.bazel.eclipse.core.model.discovery.TargetDiscoveryAndProvisioningExtensionLookup;
+import com.salesforce.bazel.eclipse.core.model.discovery.TargetProvisioningStrategy;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+/**
+ * A job for re-provisioning the projects of individual Bazel packages, eg. after their <code>BUILD</code> file changed.
+ * <p>
+ * In contrast to {@link SynchronizeProjectViewJob} this job does not discover packages of the entire workspace. It
+ * only discovers the targets of the given packages, provisions projects for them and recomputes their classpath.
+ * Projects of other packages remain untouched.
+ * </p>
+ * <p>
+ * A package can only be synchronized incrementally when targets are derived from directories. The job falls back to a
+ * full {@link SynchronizeProjectViewJob synchronization} when this is not the case, when a package no longer has any
+ * targets to provision or when a project previously provisioned for a package is no longer provisioned (because
+ * obsolete projects can only be removed by a full synchronization).
+ * </p>
+ */
+public class SynchronizePackagesJob extends WorkspaceJob {
+
+    private static Logger LOG = LoggerFactory.getLogger(SynchronizePackagesJob.class);
+
+    /**
+     * {@return the projects owned by one of the given packages but not provisioned again}
+     *
+     * @param existingProjects
+     *            the projects existing before provisioning
+     * @param packageLabels
+     *            the labels of the synchronized packages
+     * @param provisionedProjects
+     *            the provisioned projects
+     */
+    static List<BazelProject> findObsoleteProjects(Collection<BazelProject> existingProjects,
+            Set<BazelLabel> packageLabels, Collection<BazelProject> provisionedProjects) throws CoreException {
+        List<BazelProject> result = new ArrayList<>();
+        for (BazelProject project : existingProjects) {
+            var ownerLabel = project.getOwnerLabel();
+            if ((ownerLabel == null) || !packageLabels.contains(ownerLabel.getPackageLabel())) {
+                continue; // workspace project or project of other package
+            }
+            if (!provisionedProjects.contains(project)) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    private final BazelWorkspace workspace;
+    private final List<BazelPackage> packages;
+
+    public SynchronizePackagesJob(BazelWorkspace workspace, Collection<BazelPackage> packages) {
+        super("Synchronizing Bazel packages");
+        this.workspace = requireNonNull(workspace);
+        this.packages = List.copyOf(packages);
+
+        // lock the full workspace (to prevent concurrent build activity)
+        setRule(ResourcesPlugin.getWorkspace().getRoot());
+    }
+
+    /**
+     * {@return the required scheduling rule for calling {@link #runInWorkspace(IProgressMonitor)} directly (maybe
+     * <code>null</code> in case none is missing)}
+     *
+     * @see SynchronizeProjectViewJob#detectMissingRule()
+     */
+    public ISchedulingRule detectMissingRule() {
+        var requiredRule = getRule();
+        var currentRule = getJobManager().currentRule();
+        if ((currentRule != null) && !currentRule.contains(requiredRule)) {
+            return requiredRule;
+        }
+        return null;
+    }
+
+    private Set<TargetExpression> discoverTargets(SubMonitor monitor) throws CoreException {
+        var projectView = workspace.getBazelProjectView();
+        if (!projectView.deriveTargetsFromDirectories()) {
+            LOG.debug("Targets are not derived from directories in workspace '{}'", workspace.getName());
+            return null;
+        }
+
+        var importRoots = SynchronizeProjectViewJob.createImportRoots(workspace);
+        List<WorkspacePath> packagePaths = new ArrayList<>();
+        for (BazelPackage bazelPackage : packages) {
+            var packagePath = new WorkspacePath(bazelPackage.getWorkspaceRelativePath().toString());
+            if (!importRoots.containsWorkspacePath(packagePath)) {
+                LOG.debug("Package '{}' is no longer part of the project view", bazelPackage);
+                return null;
+            }
+            packagePaths.add(packagePath);
+        }
+
+        var targetDiscoveryStrategy =
+                new TargetDiscoveryAndProvisioningExtensionLookup().createTargetDiscoveryStrategy(projectView);
+        Set<TargetExpression> result = new LinkedHashSet<>();
+        for (TargetExpression t : targetDiscoveryStrategy.discoverTargets(workspace, packagePaths, monitor)) {
+            if ((t instanceof Label l) && !importRoots.targetInProject(l)) {
+                continue;
+            }
+            result.add(t);
+        }
+        return result;
+    }
+
+    @Override
+    public IStatus runInWorkspace(IProgressMonitor progress) throws CoreException {
+        var monitor = SubMonitor.convert(progress, format("Synchronizing %d packages", packages.size()), 10);
+        var resourceChangeProcessor = workspace.getModelManager().getResourceChangeProcessor();
+        var suspended = false;
+        try {
+            // ensure we read the BUILD files fresh
+            var dependencyGraphCache =
+                    workspace.getParent().getModelManager().getClasspathManager().getDependencyGraphCache(workspace);
+            for (BazelPackage bazelPackage : packages) {
+                bazelPackage.invalidateInfo();
+                dependencyGraphCache.invalidatePackage(bazelPackage.getLabel().getPackagePath());
+            }
+
+            monitor.subTask("Detecting targets");
+            var targets = discoverTargets(monitor.split(2));
+            if ((targets == null) || targets.isEmpty()) {
+                return runFullSynchronization(monitor.split(8));
+            }
+
+            // remember the projects of the packages for detecting obsolete ones
+            var existingProjects = workspace.getBazelProjects();
+
+            // during provisioning resource changes occur; however, they are triggered by us
+            resourceChangeProcessor.suspendInvalidationFor(workspace);
+            suspended = true;
+
+            monitor.subTask("Provisioning projects");
+            var provisionedProjects = provisionPackages(
+                new TargetDiscoveryAndProvisioningExtensionLookup()
+                        .createTargetProvisioningStrategy(workspace.getBazelProjectView()),
+                targets,
+                existingProjects,
+                monitor.split(3));
+            if (provisionedProjects == null) {
+                resourceChangeProcessor.resumeInvalidationFor(workspace);
+                suspended = false;
+                return runFullSynchronization(monitor.split(5));
+            }
+
+            new InitializeOrRefreshClasspathJob(
+                    provisionedProjects.stream(),
+                    workspace.getParent().getModelManager().getClasspathManager(),
+                    true).runInWorkspace(monitor.split(5));
+
+            return Status.OK_STATUS;
+        } catch (OperationCanceledException e) {
+            return Status.CANCEL_STATUS;
+        } finally {
+            if (suspended) {
+                resourceChangeProcessor.resumeInvalidationFor(workspace);
+            }
+            IProgressMonitor.done(progress);
+        }
+    }
+
+    /**
+     * Provisions the projects of the given targets.
+     *
+     * @param provisioningStrategy
+     *            the strategy to use
+     * @param targets
+     *            the discovered targets of the packages
+     * @param existingProjects
+     *            the projects existing before provisioning
+     * @param monitor
+     *            the progress monitor
+     * @return the provisioned projects or <code>null</code> if a full synchronization is required because projects
+     *         became obsolete
+     * @throws CoreException
+     *             if provisioning failed
+     */
+    List<BazelProject> provisionPackages(TargetProvisioningStrategy provisioningStrategy,
+            Collection<TargetExpression> targets, Collection<BazelProject> existingProjects, IProgressMonitor monitor)
+            throws CoreException {
+        var provisionedProjects = provisioningStrategy.provisionProjectsForChangedPackages(targets, workspace, monitor);
+        LOG.info(
+            "Re-provisioned {} projects for packages {}",
+            provisionedProjects.size(),
+            packages.stream().map(BazelPackage::getLabel).map(Object::toString).collect(joining(", ")));
+
+        var obsoleteProjects = findObsoleteProjects(
+            existingProjects,
+            packages.stream().map(BazelPackage::getLabel).collect(toSet()),
+            provisionedProjects);
+        if (!obsoleteProjects.isEmpty()) {
+            LOG.debug("Projects {} are no longer provisioned", obsoleteProjects);
+            return null;
+        }
+        return provisionedProjects;
+    }
+
+    private IStatus runFullSynchronization(IProgressMonitor monitor) throws CoreException {
+        LOG.info("Unable to synchronize packages of workspace '{}' incrementally.", workspace.getName());
+        return new SynchronizeProjectViewJob(workspace).runInWorkspace(monitor);
+    }
+}
@@ -70,6 +70,7 @@ import com.google.idea.blaze.base.model.primitives.WorkspaceRoot;
 import com.salesforce.bazel.eclipse.core.BazelCorePlugin;
 import com.salesforce.bazel.eclipse.core.classpath.InitializeOrRefreshClasspathJob;
 import com.salesforce.bazel.eclipse.core.events.SyncFinishedEvent;
+import com.salesforce.bazel.eclipse.core.model.cache.PersistentBazelInfoCache;
 import com.salesforce.bazel.eclipse.core.model.discovery.TargetDiscoveryAndProvisioningExtensionLookup;
 import com.salesforce.bazel.eclipse.core.model.discovery.TargetDiscoveryStrategy;
 import com.salesforce.bazel.eclipse.core.model.discovery.TargetProvisioningStrategy;
@@ -90,6 +91,17 @@ public class SynchronizeProjectViewJob extends WorkspaceJob {
 
     private static Logger LOG = LoggerFactory.getLogger(SynchronizeProjectViewJob.class);
 
+    /**
+     * Result of {@link SynchronizeProjectViewJob#prepare(IProgressMonitor)}.
+     *
+     * @param projectView
+     *            the project view used for detecting the targets
+     * @param targets
+     *            the detected targets
+     */
+    private record PreparedSynchronization(BazelProjectView projectView, Set<TargetExpression> targets) {
+    }
+
     static ImportRoots createImportRoots(BazelWorkspace workspace) throws CoreException {
         var builder = ImportRoots.builder(new WorkspaceRoot(workspace.workspacePath()));
         var projectView = workspace.getBazelProjectView();
@@ -140,6 +152,7 @@ public class SynchronizeProjectViewJob extends WorkspaceJob {
     private final BazelWorkspace workspace;
     private BazelProjectView projectView;
     private ImportRoots importRoots;
+    private volatile PreparedSynchronization preparedSynchronization;
 
     public SynchronizeProjectViewJob(BazelWorkspace workspace) throws CoreException {
         super("Synchronizing Bazel projects");
@@ -271,8 +284,8 @@ public class SynchronizeProjectViewJob extends WorkspaceJob {
         return null;
     }
 
-    private Set<TargetExpression> detectTargetsToMaterializeInEclipse(IProject workspaceProject,
-            TracingSubMonitor monitor, int work) throws CoreException {
+    private Set<TargetExpression> detectTargetsToMaterializeInEclipse(TracingSubMonitor monitor, int work)
+            throws CoreException {
         monitor = monitor.split(work, "Detecting targets");
 
         Set<TargetExpression> result = new HashSet<>();
@@ -455,6 +468,23 @@ public class SynchronizeProjectViewJob extends WorkspaceJob {
             workspaceProject);
     }
 
+    private void invalidateCaches() throws CoreException {
+        // invalidate all cached elements of the workspace because we want to ensure we sync fresh
+        // FIXME: this should not be required but currently is because our ResourceChangeProcessor is very light
+        // ideally we would monitor resource change events and invalidate individual targets/packages only when necessary
+        var persistentInfoCache = PersistentBazelInfoCache.getInstance();
+        if (persistentInfoCache != null) {
+            // a sync refreshes 'bazel info' to pick up changes not covered by the cache validation
+            persistentInfoCache.invalidateWorkspaceInfo(workspace.getLocation().toPath());
+        }
+        // other workspaces might be synchronized concurrently, leave their elements untouched
+        var infoCache = workspace.getModel().getInfoCache();
+        for (BazelElement<?, ?> element : infoCache.getAll(workspace)) {
+            infoCache.invalidate(element);
+        }
+        workspace.getModelManager().getClasspathManager().getDependencyGraphCache(workspace).invalidateAll();
+    }
+
     private void importPreferences(Collection<WorkspacePath> importPreferences, TracingSubMonitor monitor, int work)
             throws CoreException {
         if (importPreferences.isEmpty()) {
@@ -633,17 +663,76 @@ public class SynchronizeProjectViewJob extends WorkspaceJob {
         }
     }
 
+    /**
+     * Performs the parts of the synchronization which only talk to Bazel.
+     * <p>
+     * This method must be called before the job is scheduled. It does not require any scheduling rule and does not
+     * modify resources in the Eclipse workspace. Thus, it can run concurrently with the preparation or synchronization
+     * of other Bazel workspaces. The targets to materialize are detected and a build with the IDE aspects is performed
+     * to prime Bazel's caches so the build performed later while holding the workspace lock completes quickly.
+     * </p>
+     * <p>
+     * The detected targets are re-used by {@link #runInWorkspace(IProgressMonitor)} unless the project view changed in
+     * the meantime. Calling this method is optional.
+     * </p>
+     *
+     * @param monitor
+     *            the monitor for reporting progress and checking cancellation (may be <code>null</code>)
+     * @throws CoreException
+     *             if the project view cannot be read or target detection failed
+     */
+    public void prepare(IProgressMonitor monitor) throws CoreException {
+        var outerTrace = getCurrentTrace();
+        var progress = TracingSubMonitor
+                .convert(monitor, format("Preparing %s", workspace.getLocation().lastSegment()), 10);
+        try {
+            invalidateCaches();
+
+            projectView = workspace.getBazelProjectView();
+            importRoots = createImportRoots(workspace);
+
+            var targets = detectTargetsToMaterializeInEclipse(progress, 2);
+            primeBazelCaches(targets, progress, 8);
+
+            preparedSynchronization = new PreparedSynchronization(projectView, targets);
+            progress.done();
+        } finally {
+            if (outerTrace == null) {
+                // stop the trace started by the monitor conversion, it's a separate thread
+                var trace = getCurrentTrace();
+                if (trace != null) {
+                    trace.done();
+                }
+                setCurrentTrace(null);
+            }
+            IProgressMonitor.done(monitor);
+        }
+    }
+
+    private void primeBazelCaches(Set<TargetExpression> targets, TracingSubMonitor monitor, int work) {
+        try {
+            // the strategy knows which builds (and shards) it runs later, if any
+            getTargetProvisioningStrategy()
+                    .primeCaches(targets, workspace, monitor.split(work, "Priming Bazel caches"));
+        } catch (CoreException e) {
+            // not fatal, the synchronization will report any problem again
+            LOG.warn("Unable to prime Bazel caches for workspace '{}': {}", workspace.getLocation(), e.getMessage(), e);
+        }
+    }
+
     @Override
     public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
         // track the start
         var progress = TracingSubMonitor
                 .convert(monitor, format("Synchronizing %s", workspace.getLocation().lastSegment()), 60);
         var trace = requireNonNull(getCurrentTrace(), "Tracing is supposed to be active at this point!");
+        var prepared = preparedSynchronization;
+        preparedSynchronization = null;
         try {
-            // invalidate the entire cache because we want to ensure we sync fresh
-            // FIXME: this should not be required but currently is because our ResourceChangeProcessor is very light
-            // ideally we would monitor resource change events and invalidate individual targets/packages only when necessary
-            workspace.getModel().getInfoCache().invalidateAll();
+            // caches were invalidated during preparation
+            if (prepared == null) {
+                invalidateCaches();
+            }
 
             // during synchronization resource changes may occur; however, they are triggered by the synchronization activities
             // therefore we suspend cache invalidation of the model due to resource changes
@@ -706,8 +795,14 @@ public class SynchronizeProjectViewJob extends WorkspaceJob {
             // apply excludes
             hideFoldersNotVisibleAccordingToProjectViewAndSmartRefresh(workspaceProject, progress, 10);
 
-            // detect targets
-            var targets = detectTargetsToMaterializeInEclipse(workspaceProject, progress, 2);
+            // detect targets (unless already done during preparation with the same project view)
+            Set<TargetExpression> targets;
+            if ((prepared != null) && prepared.projectView().equals(projectView)) {
+                targets = prepared.targets();
+                progress.worked(2);
+            } else {
+                targets = detectTargetsToMaterializeInEclipse(progress, 2);
+            }
 
             // ensure project exists
             var targetProjects = provisionProjectsForTarget(targets, progress, 20);
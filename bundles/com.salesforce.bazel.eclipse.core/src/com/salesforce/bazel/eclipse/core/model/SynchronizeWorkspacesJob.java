@@ -0,0 +1,206 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model;
+
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.PLUGIN_ID;
+import static com.salesforce.bazel.eclipse.preferences.BazelCorePreferenceKeys.PREF_KEY_SYNC_MAX_CONCURRENT_WORKSPACES;
+import static com.salesforce.bazel.eclipse.preferences.BazelCorePreferenceKeys.PREF_KEY_SYNC_MEMORY_PER_WORKSPACE_MB;
+import static java.lang.String.format;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Synchronizes multiple Bazel workspaces.
+ * <p>
+ * Each workspace is synchronized by its own {@link SynchronizeProjectViewJob} and reports progress separately. Before
+ * a synchronization job is scheduled its {@link SynchronizeProjectViewJob#prepare(IProgressMonitor) preparation} is
+ * run in a separate job without any scheduling rule. Preparations of independent workspaces run concurrently in a
+ * {@link JobGroup} together with the synchronization jobs scheduled by them. The synchronization jobs still lock the
+ * whole Eclipse workspace because they create and delete projects. Thus, modifications to the resource tree remain
+ * serialized but the expensive Bazel work of one workspace overlaps with the synchronization of another.
+ * </p>
+ * <p>
+ * Every preparation keeps a Bazel server busy. The number of concurrent preparations is limited by a preference as
+ * well as by the free physical memory divided by the expected memory consumption of a Bazel server.
+ * </p>
+ */
+public class SynchronizeWorkspacesJob extends Job {
+
+    private static class PrepareSynchronizationJob extends Job {
+
+        private final SynchronizeProjectViewJob synchronizeJob;
+
+        PrepareSynchronizationJob(String workspaceName, SynchronizeProjectViewJob synchronizeJob) {
+            super(format("Preparing synchronization of %s", workspaceName));
+            this.synchronizeJob = synchronizeJob;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return PLUGIN_ID.equals(family);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            try {
+                synchronizeJob.prepare(monitor);
+            } catch (OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            } catch (CoreException e) {
+                // the synchronization will run the failed steps again and report the problem
+                LOG.warn("Preparing synchronization failed: {}", e.getMessage(), e);
+            }
+
+            synchronizeJob.schedule();
+            return Status.OK_STATUS;
+        }
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(SynchronizeWorkspacesJob.class);
+
+    public static final int DEFAULT_MAX_CONCURRENT_WORKSPACES = 2;
+    public static final int DEFAULT_MEMORY_PER_WORKSPACE_MB = 4096;
+
+    private final List<BazelWorkspace> workspaces;
+
+    /**
+     * @param workspaces
+     *            the workspaces to synchronize
+     */
+    public SynchronizeWorkspacesJob(Collection<BazelWorkspace> workspaces) {
+        super("Synchronizing Bazel workspaces");
+        this.workspaces = new ArrayList<>(workspaces);
+        setSystem(true);
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return PLUGIN_ID.equals(family);
+    }
+
+    /**
+     * {@return the free physical memory in bytes (<code>-1</code> if unknown)}
+     */
+    long getFreePhysicalMemory() {
+        try {
+            var freeMemory = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName("java.lang:type=OperatingSystem"), "FreeMemorySize");
+            return freeMemory instanceof Long bytes ? bytes : -1L;
+        } catch (JMException | RuntimeException e) {
+            LOG.debug("Unable to obtain free physical memory: {}", e.getMessage(), e);
+            return -1L;
+        }
+    }
+
+    /**
+     * {@return the maximum number of workspaces to prepare concurrently (at least one)}
+     *
+     * @param maxConcurrentWorkspaces
+     *            the configured maximum
+     * @param memoryPerWorkspaceMB
+     *            the expected memory consumption of a Bazel server in MB (<code>0</code> to not limit by memory)
+     * @param freeMemory
+     *            the free physical memory in bytes (<code>-1</code> if unknown)
+     */
+    static int getMaxConcurrentWorkspaces(int maxConcurrentWorkspaces, int memoryPerWorkspaceMB, long freeMemory) {
+        if ((freeMemory > 0) && (memoryPerWorkspaceMB > 0)) {
+            var workspacesFittingIntoMemory = freeMemory / (memoryPerWorkspaceMB * 1024L * 1024L);
+            if (workspacesFittingIntoMemory < maxConcurrentWorkspaces) {
+                LOG.debug(
+                    "Limiting concurrent synchronization to {} workspaces because of free memory ({} MB)",
+                    workspacesFittingIntoMemory,
+                    freeMemory / (1024L * 1024L));
+                maxConcurrentWorkspaces = (int) workspacesFittingIntoMemory;
+            }
+        }
+
+        return Math.max(1, maxConcurrentWorkspaces);
+    }
+
+    /**
+     * {@return the maximum number of workspaces to prepare concurrently (at least one)}
+     */
+    int getMaxConcurrentWorkspaces() {
+        var preferences = Platform.getPreferencesService();
+        return getMaxConcurrentWorkspaces(
+            preferences
+                    .getInt(PLUGIN_ID, PREF_KEY_SYNC_MAX_CONCURRENT_WORKSPACES, DEFAULT_MAX_CONCURRENT_WORKSPACES, null),
+            preferences.getInt(PLUGIN_ID, PREF_KEY_SYNC_MEMORY_PER_WORKSPACE_MB, DEFAULT_MEMORY_PER_WORKSPACE_MB, null),
+            getFreePhysicalMemory());
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        if (workspaces.isEmpty()) {
+            return Status.OK_STATUS;
+        }
+
+        Map<BazelWorkspace, SynchronizeProjectViewJob> synchronizeJobs = new LinkedHashMap<>();
+        for (BazelWorkspace workspace : workspaces) {
+            try {
+                var synchronizeJob = new SynchronizeProjectViewJob(workspace);
+                synchronizeJob.setName(format("Synchronizing %s", workspace.getLocation().lastSegment()));
+                synchronizeJob.setUser(true);
+                synchronizeJobs.put(workspace, synchronizeJob);
+            } catch (CoreException e) {
+                LOG.error("Unable to synchronize workspace '{}': {}", workspace.getLocation(), e.getMessage(), e);
+            }
+        }
+        if (synchronizeJobs.isEmpty()) {
+            return Status.OK_STATUS;
+        }
+
+        // the group contains the preparation and the synchronization job of every workspace
+        var maxConcurrentWorkspaces = getMaxConcurrentWorkspaces();
+        var jobGroup = new JobGroup(getName(), maxConcurrentWorkspaces, 2 * synchronizeJobs.size()) {
+            @Override
+            protected boolean shouldCancel(IStatus lastCompletedJobResult, int numberOfFailedJobs,
+                    int numberOfCanceledJobs) {
+                // workspaces are independent, a failure must not cancel the others
+                return false;
+            }
+        };
+
+        for (Entry<BazelWorkspace, SynchronizeProjectViewJob> entry : synchronizeJobs.entrySet()) {
+            var synchronizeJob = entry.getValue();
+            synchronizeJob.setJobGroup(jobGroup);
+            var prepareJob =
+                    new PrepareSynchronizationJob(entry.getKey().getLocation().lastSegment(), synchronizeJob);
+            prepareJob.setJobGroup(jobGroup);
+            prepareJob.schedule();
+        }
+
+        return Status.OK_STATUS;
+    }
+}
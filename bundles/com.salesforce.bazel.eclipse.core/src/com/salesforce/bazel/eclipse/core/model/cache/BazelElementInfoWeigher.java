@@ -0,0 +1,62 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.salesforce.bazel.eclipse.core.model.BazelElementInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelFileInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelModelInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelPackageInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelTargetInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspaceInfo;
+
+/**
+ * A {@link Weigher} estimating the retained heap size (in bytes) of a {@link BazelElementInfo}.
+ * <p>
+ * The estimate is intentionally cheap. It's computed once when an entry is put into the cache and must not trigger any
+ * loading. The numbers are rough averages observed in heap dumps of large workspaces. They are good enough to tell a
+ * package with hundreds of targets apart from a single target info.
+ * </p>
+ */
+final class BazelElementInfoWeigher implements Weigher<String, BazelElementInfo> {
+
+    static final int MODEL_INFO_WEIGHT = 64;
+    // includes bazel info results, project view and external repo rules
+    static final int WORKSPACE_INFO_WEIGHT = 64 * 1024;
+    static final int PACKAGE_INFO_BASE_WEIGHT = 1024;
+    // the query result (rule with all attributes) is retained by the package
+    static final int PACKAGE_INFO_WEIGHT_PER_TARGET = 4 * 1024;
+    static final int TARGET_INFO_WEIGHT = 512; // the rule is shared with the package info
+    static final int FILE_INFO_BASE_WEIGHT = 1024;
+    static final int FILE_INFO_WEIGHT_PER_CALL = 2 * 1024; // the AST of a call expression
+
+    @Override
+    public int weigh(String key, BazelElementInfo info) {
+        return switch (info) {
+            case BazelModelInfo modelInfo -> MODEL_INFO_WEIGHT;
+            case BazelWorkspaceInfo workspaceInfo -> WORKSPACE_INFO_WEIGHT;
+            case BazelPackageInfo packageInfo -> saturatedAdd(
+                PACKAGE_INFO_BASE_WEIGHT,
+                (long) packageInfo.getTargets().size() * PACKAGE_INFO_WEIGHT_PER_TARGET);
+            case BazelTargetInfo targetInfo -> TARGET_INFO_WEIGHT;
+            case BazelFileInfo<?> fileInfo -> saturatedAdd(
+                FILE_INFO_BASE_WEIGHT,
+                (long) fileInfo.getFunctionCalls().size() * FILE_INFO_WEIGHT_PER_CALL);
+        };
+    }
+
+    private int saturatedAdd(int base, long additional) {
+        return (int) Math.min(Integer.MAX_VALUE, base + additional);
+    }
+}
@@ -0,0 +1,339 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.cache;
+
+import static java.lang.String.format;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.devtools.build.lib.query2.proto.proto2api.Build;
+import com.salesforce.bazel.sdk.command.querylight.Target;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+/**
+ * An on-disk snapshot of the targets of Bazel packages, persisted across IDE sessions.
+ * <p>
+ * After a restart the {@link BazelElementInfoCache} is empty and opening a package requires a <code>bazel query</code>,
+ * which may need to start a Bazel server first. The snapshot is written when Eclipse saves its state and read lazily
+ * the first time a package of a workspace is opened. Entries are validated before use:
+ * <ul>
+ * <li>the whole snapshot of a workspace is discarded when the format version or a digest of the workspace files
+ * (<code>MODULE.bazel</code>, <code>WORKSPACE</code>, <code>WORKSPACE.bazel</code>, <code>.bazelversion</code>) does not
+ * match</li>
+ * <li>a package entry is only used when the digest of its BUILD file matches</li>
+ * </ul>
+ * Both digests are taken when the targets are queried (or loaded from the snapshot) and not when saving. Entries
+ * queried before a change of the workspace files are not written with the fingerprint of the changed files.
+ * Changes to macros loaded by a BUILD file are not detected. Therefore an entry is served only once per session. Any
+ * later load of the same package queries Bazel again.
+ * </p>
+ * <p>
+ * During the lifetime of the IDE only one instance shall be used. It's initialized by the model manager. Instances are
+ * thread safe.
+ * </p>
+ */
+public final class BazelModelSnapshot {
+
+    /**
+     * The targets of a package to persist.
+     *
+     * @param packagePath
+     *            the workspace relative package path
+     * @param buildFile
+     *            the BUILD file of the package
+     * @param buildFileDigest
+     *            the {@link BazelModelSnapshot#digest(Path) digest} of the BUILD file taken before querying the targets
+     *            (maybe <code>null</code> if unknown, the package is not persisted then)
+     * @param workspaceFingerprint
+     *            the {@link BazelModelSnapshot#workspaceFingerprint(Path) fingerprint} of the workspace taken before
+     *            querying the targets (maybe <code>null</code> if unknown, the package is not persisted then)
+     * @param targets
+     *            the targets of the package
+     */
+    public record PackageTargets(String packagePath, Path buildFile, String buildFileDigest,
+            String workspaceFingerprint, Collection<Target> targets) {
+    }
+
+    private record Entry(Path buildFile, String buildFileDigest, String workspaceFingerprint, byte[] queryResult) {
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelModelSnapshot.class);
+
+    private static final AtomicReference<BazelModelSnapshot> instanceRef = new AtomicReference<>();
+
+    /** increment whenever the file format changes */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String[] WORKSPACE_FILES = { "MODULE.bazel", "WORKSPACE", "WORKSPACE.bazel", ".bazelversion" };
+
+    /**
+     * Returns the singleton snapshot instance
+     *
+     * @return the singleton snapshot instance (maybe <code>null</code> if not initialized yet)
+     */
+    public static BazelModelSnapshot getInstance() {
+        return instanceRef.get();
+    }
+
+    /**
+     * Initializes the singleton instance.
+     *
+     * @param snapshot
+     *            the singleton instance
+     * @throws IllegalStateException
+     *             if the singleton instance was already initialized
+     */
+    public static void setInstance(BazelModelSnapshot snapshot) throws IllegalStateException {
+        if (!instanceRef.compareAndSet(null, requireNonNull(snapshot, "Cannot initialize NULL instance"))) {
+            throw new IllegalStateException("The snapshot was already initialized. Cannot initialize multiple times!");
+        }
+    }
+
+    /**
+     * {@return the digest of a file as used for validating snapshot entries}
+     *
+     * @param file
+     *            the file to digest (does not need to exist)
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static String digest(Path file) throws IOException {
+        try {
+            return sha256(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return "-";
+        }
+    }
+
+    /**
+     * {@return a fingerprint of the workspace files influencing all packages}
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @throws IOException
+     *             if a workspace file cannot be read
+     */
+    public static String workspaceFingerprint(Path workspaceRoot) throws IOException {
+        var digests = new StringBuilder();
+        for (String workspaceFile : WORKSPACE_FILES) {
+            digests.append(digest(workspaceRoot.resolve(workspaceFile))).append('\n');
+        }
+        return sha256(digests.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private final Path snapshotDirectory;
+
+    /** entries by package path by workspace root */
+    private final Map<Path, Map<String, Entry>> entriesByWorkspace = new HashMap<>();
+
+    /** package paths already served in this session by workspace root */
+    private final Map<Path, Set<String>> servedPackagesByWorkspace = new HashMap<>();
+
+    /**
+     * @param snapshotDirectory
+     *            the directory to store the snapshot files in (will be created when needed)
+     */
+    public BazelModelSnapshot(Path snapshotDirectory) {
+        this.snapshotDirectory = requireNonNull(snapshotDirectory);
+    }
+
+    private Map<String, Entry> getEntries(Path workspaceRoot) {
+        return entriesByWorkspace.computeIfAbsent(normalize(workspaceRoot), this::load);
+    }
+
+    /**
+     * Returns the persisted targets of a package.
+     * <p>
+     * The targets of a package are returned at most once per session.
+     * </p>
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param packagePath
+     *            the workspace relative package path
+     * @param buildFile
+     *            the current BUILD file of the package
+     * @return the targets by target name or <code>null</code> if nothing is persisted or the BUILD file changed
+     */
+    public synchronized Map<String, Target> getTargets(Path workspaceRoot, String packagePath, Path buildFile) {
+        var entry = getEntries(workspaceRoot).get(packagePath);
+        if ((entry == null)
+                || !servedPackagesByWorkspace.computeIfAbsent(normalize(workspaceRoot), p -> new HashSet<>())
+                        .add(packagePath)) {
+            return null;
+        }
+
+        try {
+            if (!entry.buildFile().equals(buildFile) || !entry.buildFileDigest().equals(digest(buildFile))) {
+                LOG.debug("Ignoring outdated snapshot of package '{}' in '{}'", packagePath, workspaceRoot);
+                return null;
+            }
+
+            Map<String, Target> targets = new HashMap<>();
+            for (Build.Target target : Build.QueryResult.parseFrom(entry.queryResult()).getTargetList()) {
+                var queryLightTarget = new Target(target);
+                targets.put(new BazelLabel(queryLightTarget.rule().name()).getTargetName(), queryLightTarget);
+            }
+            return targets;
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Ignoring unusable snapshot of package '{}': {}", packagePath, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private Map<String, Entry> load(Path workspaceRoot) {
+        Map<String, Entry> entries = new HashMap<>();
+        var file = snapshotFile(workspaceRoot);
+        if (!isRegularFile(file)) {
+            return entries;
+        }
+
+        try (var in = new DataInputStream(new BufferedInputStream(newInputStream(file)))) {
+            var fingerprint = workspaceFingerprint(workspaceRoot);
+            if ((in.readInt() != FORMAT_VERSION) || !workspaceRoot.toString().equals(in.readUTF())
+                    || !fingerprint.equals(in.readUTF())) {
+                LOG.debug("Discarding outdated model snapshot of workspace '{}'", workspaceRoot);
+                return entries;
+            }
+            var count = in.readInt();
+            for (var i = 0; i < count; i++) {
+                var packagePath = in.readUTF();
+                var buildFile = Path.of(in.readUTF());
+                var buildFileDigest = in.readUTF();
+                var queryResult = new byte[in.readInt()];
+                in.readFully(queryResult);
+                entries.put(packagePath, new Entry(buildFile, buildFileDigest, fingerprint, queryResult));
+            }
+            LOG.debug("Loaded model snapshot of {} packages for workspace '{}'", entries.size(), workspaceRoot);
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Ignoring unreadable model snapshot '{}': {}", file, e.getMessage(), e);
+            return new HashMap<>();
+        }
+    }
+
+    private Path normalize(Path workspaceRoot) {
+        return workspaceRoot.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Persists the targets of packages of a workspace.
+     * <p>
+     * Entries of the previous snapshot which are not part of the given packages are retained as long as their BUILD
+     * file still exists. Retained and given entries are dropped when the workspace files changed since they were
+     * loaded.
+     * </p>
+     * <p>
+     * The BUILD file digests and workspace fingerprints must be taken when the targets were queried. Computing them
+     * here would associate targets queried from older files with a later modification.
+     * </p>
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param packages
+     *            the packages to persist
+     */
+    public synchronized void save(Path workspaceRoot, Collection<PackageTargets> packages) {
+        workspaceRoot = normalize(workspaceRoot);
+        var file = snapshotFile(workspaceRoot);
+        try {
+            var fingerprint = workspaceFingerprint(workspaceRoot);
+            Map<String, Entry> entries = new TreeMap<>();
+            getEntries(workspaceRoot).forEach((packagePath, entry) -> {
+                if (fingerprint.equals(entry.workspaceFingerprint()) && isRegularFile(entry.buildFile())) {
+                    entries.put(packagePath, entry);
+                }
+            });
+            for (PackageTargets packageTargets : packages) {
+                if ((packageTargets.buildFileDigest() == null)
+                        || !fingerprint.equals(packageTargets.workspaceFingerprint())) {
+                    // queried before the workspace files changed
+                    continue;
+                }
+                var queryResult = Build.QueryResult.newBuilder();
+                packageTargets.targets().stream().filter(Target::hasRule).map(Target::toProto).forEach(
+                    queryResult::addTarget);
+                entries.put(
+                    packageTargets.packagePath(),
+                    new Entry(
+                            packageTargets.buildFile(),
+                            packageTargets.buildFileDigest(),
+                            fingerprint,
+                            queryResult.build().toByteArray()));
+            }
+
+            createDirectories(file.getParent());
+            var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(newOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(workspaceRoot.toString());
+                out.writeUTF(fingerprint);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue().buildFile().toString());
+                    out.writeUTF(entry.getValue().buildFileDigest());
+                    out.writeInt(entry.getValue().queryResult().length);
+                    out.write(entry.getValue().queryResult());
+                }
+            }
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            entriesByWorkspace.put(workspaceRoot, new HashMap<>(entries));
+            LOG.debug("Saved model snapshot of {} packages for workspace '{}'", entries.size(), workspaceRoot);
+        } catch (IOException e) {
+            LOG.warn("Unable to write model snapshot '{}': {}", file, e.getMessage(), e);
+        }
+    }
+
+    private Path snapshotFile(Path workspaceRoot) {
+        var key = sha256(workspaceRoot.toString().getBytes(StandardCharsets.UTF_8));
+        return snapshotDirectory.resolve(format("workspace-%s.snapshot", key.substring(0, 16)));
+    }
+}
@@ -14,17 +14,22 @@
 package com.salesforce.bazel.eclipse.core.model.cache;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.Scheduler;
 import com.salesforce.bazel.eclipse.core.model.BazelElement;
 import com.salesforce.bazel.eclipse.core.model.BazelElementInfo;
@@ -33,6 +38,16 @@ import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
 
 /**
  * Implementation of {@link BazelElementInfoCache} which uses an LRU
+ * <p>
+ * The cache can either be bounded by a maximum number of entries or by a heap budget. When bounded by a heap budget,
+ * each entry is weighted using an estimate of its retained size (see {@link BazelElementInfoWeigher}). Optionally,
+ * entries evicted because the budget is exceeded can be demoted to a soft reference cache instead of being discarded.
+ * Those are promoted back on next access unless the garbage collector reclaimed them in the meantime.
+ * </p>
+ * <p>
+ * Keys are segmented per workspace so collecting all elements of a workspace does not require scanning the whole
+ * cache.
+ * </p>
  */
 public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCache {
 
@@ -40,7 +55,21 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
 
     private static final String CACHE_KEY_SEPARATOR = "::";
     private static final String EMPTY_STRING = "";
+
+    private static String getSegment(String stableCacheKey) {
+        var separatorIndex = stableCacheKey.indexOf(CACHE_KEY_SEPARATOR);
+        return separatorIndex < 0 ? stableCacheKey : stableCacheKey.substring(0, separatorIndex);
+    }
+
     private final Cache<String, BazelElementInfo> cache;
+    private final Cache<String, BazelElementInfo> demotedCache;
+    private final Map<String, Set<String>> keysBySegment = new ConcurrentHashMap<>();
+
+    /**
+     * guards the consistency of {@link #cache}, {@link #demotedCache} and {@link #keysBySegment}; adding entries only
+     * requires the read lock because it's atomic per key but {@link #invalidateAll()} requires the write lock
+     */
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
 
     /**
      * Creates a cache using a maximum size.
@@ -50,7 +79,12 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
      * @see Caffeine#maximumSize(long)
      */
     public CaffeineBasedBazelElementInfoCache(int maximumSize) {
-        cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .evictionListener(this::onEviction)
+                .recordStats()
+                .build();
+        demotedCache = null;
     }
 
     /**
@@ -68,25 +102,66 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
                 .maximumSize(maximumSize)
                 .expireAfterAccess(expireAfterAccessDuration)
                 .scheduler(Scheduler.systemScheduler())
+                .evictionListener(this::onEviction)
+                .recordStats()
+                .build();
+        demotedCache = null;
+    }
+
+    /**
+     * Creates a cache bounded by a heap budget and expiring entries when they haven't been accesses for a given
+     * duration.
+     * <p>
+     * The weight of an entry is an estimate of its retained size in bytes.
+     * </p>
+     *
+     * @param maximumWeightInBytes
+     *            the heap budget of the cache in bytes
+     * @param expireAfterAccessDuration
+     *            the length of time after an entry is last accessed that it should be automatically removed
+     * @param demoteToSoftReferences
+     *            <code>true</code> if entries evicted because the budget is exceeded should be kept softly reachable
+     *            until the garbage collector needs the memory, <code>false</code> to discard them immediately
+     * @see Caffeine#maximumWeight(long)
+     * @see Caffeine#expireAfterAccess(Duration)
+     * @see Caffeine#softValues()
+     */
+    public CaffeineBasedBazelElementInfoCache(long maximumWeightInBytes, Duration expireAfterAccessDuration,
+            boolean demoteToSoftReferences) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightInBytes)
+                .weigher(new BazelElementInfoWeigher())
+                .expireAfterAccess(expireAfterAccessDuration)
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener(this::onEviction)
                 .recordStats()
                 .build();
+        demotedCache = demoteToSoftReferences ? Caffeine.newBuilder().softValues().recordStats().build() : null;
     }
 
-    private boolean belongsToWorkspace(BazelWorkspace bazelWorkspace, String stableCacheKey) {
-        var workspaceLocationHash = String.valueOf(bazelWorkspace.getLocation().toString().hashCode()); // same as #getStableCacheKey
-        return stableCacheKey.equals(workspaceLocationHash)
-                || stableCacheKey.startsWith(workspaceLocationHash + CACHE_KEY_SEPARATOR);
+    private void addToSegment(String stableCacheKey) {
+        keysBySegment.computeIfAbsent(getSegment(stableCacheKey), s -> ConcurrentHashMap.newKeySet())
+                .add(stableCacheKey);
     }
 
     @Override
     public Collection<BazelElement<?, ?>> getAll(BazelWorkspace bazelWorkspace) {
-        return cache.asMap()
-                .entrySet()
-                .stream()
-                .filter(e -> belongsToWorkspace(bazelWorkspace, e.getKey()))
-                .map(Entry::getValue)
-                .map(BazelElementInfo::getOwner)
-                .collect(toList());
+        var segment = keysBySegment.get(getWorkspaceSegment(bazelWorkspace));
+        if (segment == null) {
+            return new ArrayList<>();
+        }
+
+        var result = new ArrayList<BazelElement<?, ?>>(segment.size());
+        for (String stableCacheKey : segment) {
+            var info = getIfPresent(stableCacheKey);
+            if (info != null) {
+                result.add(info.getOwner());
+            } else {
+                // entry might have been collected from the demoted cache
+                removeFromSegmentIfAbsent(stableCacheKey);
+            }
+        }
+        return result;
     }
 
     /**
@@ -101,10 +176,37 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
         return cache;
     }
 
+    /**
+     * Exposes the underlying Caffeine {@link Cache} used for demoted entries.
+     * <p>
+     * This method should not be used in a quality deployment. It's only exposed for testing reasons.
+     * </p>
+     *
+     * @return the underlying cache for demoted entries (maybe <code>null</code> if demotion is disabled)
+     */
+    Cache<String, ? extends BazelElementInfo> getDemotedCache() {
+        return demotedCache;
+    }
+
+    private BazelElementInfo getIfPresent(String stableCacheKey) {
+        var info = cache.getIfPresent(stableCacheKey);
+        if ((info != null) || (demotedCache == null)) {
+            return info;
+        }
+
+        // promote a demoted entry back (atomically per key so it can't race with invalidation)
+        indexLock.readLock().lock();
+        try {
+            return cache.asMap().compute(stableCacheKey, (k, v) -> v != null ? v : demotedCache.asMap().remove(k));
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <I extends BazelElementInfo> I getIfPresent(BazelElement<I, ?> bazelElement) {
-        return (I) cache.getIfPresent(getStableCacheKey(bazelElement));
+        return (I) getIfPresent(getStableCacheKey(bazelElement));
     }
 
     private String getStableCacheKey(BazelElement<?, ?> bazelElement) {
@@ -117,7 +219,7 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
         var workspace = requireNonNull(
             bazelElement.getBazelWorkspace(),
             "every element is required to have a workspace at this point");
-        var workspaceLocationHash = workspace.getLocation().toString().hashCode();
+        var workspaceSegment = getWorkspaceSegment(workspace);
 
         var label = bazelElement.getLabel();
         if (label == null) {
@@ -126,15 +228,31 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
                 throw new IllegalStateException("Unable to compute cache key. Every BazelElement must have a label");
             }
 
-            return String.valueOf(workspaceLocationHash);
+            return workspaceSegment;
         }
 
-        return String.valueOf(workspaceLocationHash) + CACHE_KEY_SEPARATOR + label.toString();
+        return workspaceSegment + CACHE_KEY_SEPARATOR + label.toString();
     }
 
     @Override
     public CharSequence getStatsSummary() {
-        return cache.stats().toString();
+        var summary = new StringBuilder().append(cache.stats());
+        cache.policy()
+                .eviction()
+                .filter(eviction -> eviction.isWeighted())
+                .ifPresent(
+                    eviction -> summary.append(" weightedSize=")
+                            .append(eviction.weightedSize().orElse(-1L))
+                            .append(" maximumWeight=")
+                            .append(eviction.getMaximum()));
+        if (demotedCache != null) {
+            summary.append(" demoted=").append(demotedCache.estimatedSize()).append(' ').append(demotedCache.stats());
+        }
+        return summary;
+    }
+
+    private String getWorkspaceSegment(BazelWorkspace bazelWorkspace) {
+        return String.valueOf(bazelWorkspace.getLocation().toString().hashCode());
     }
 
     @Override
@@ -143,7 +261,18 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
             LOG.debug("Bazel model cache stats: {}", cache.stats());
             LOG.debug("Invalidating: {}", bazelElement);
         }
-        cache.invalidate(getStableCacheKey(bazelElement));
+        invalidate(getStableCacheKey(bazelElement));
+    }
+
+    private void invalidate(String stableCacheKey) {
+        // remove atomically per key so it can't race with promotion of demoted entries
+        cache.asMap().compute(stableCacheKey, (k, v) -> {
+            if (demotedCache != null) {
+                demotedCache.invalidate(k);
+            }
+            removeFromSegment(k);
+            return null;
+        });
     }
 
     @Override
@@ -152,12 +281,64 @@ public final class CaffeineBasedBazelElementInfoCache extends BazelElementInfoCa
             LOG.debug("Bazel model cache statistics: {}", cache.stats());
             LOG.debug("Invalidating entire cache.");
         }
-        cache.invalidateAll();
+        // block concurrent puts so no key is dropped from the index while its entry stays cached
+        indexLock.writeLock().lock();
+        try {
+            cache.invalidateAll();
+            if (demotedCache != null) {
+                demotedCache.invalidateAll();
+            }
+            keysBySegment.clear();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private void onEviction(String stableCacheKey, BazelElementInfo info, RemovalCause cause) {
+        // note: this is called synchronously as part of the atomic operation that evicted the entry
+        if ((cause == RemovalCause.SIZE) && (demotedCache != null) && (info != null)) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Demoting: {}", stableCacheKey);
+            }
+            demotedCache.put(stableCacheKey, info);
+            return;
+        }
+
+        removeFromSegment(stableCacheKey);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <I extends BazelElementInfo> I putOrGetCached(BazelElement<I, ?> bazelElement, I info) {
-        return (I) cache.get(getStableCacheKey(bazelElement), k -> info);
+        var stableCacheKey = getStableCacheKey(bazelElement);
+        var cached = (I) getIfPresent(stableCacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        indexLock.readLock().lock();
+        try {
+            return (I) cache.get(stableCacheKey, k -> {
+                addToSegment(k);
+                return info;
+            });
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void removeFromSegment(String stableCacheKey) {
+        var segment = keysBySegment.get(getSegment(stableCacheKey));
+        if (segment != null) {
+            segment.remove(stableCacheKey);
+        }
+    }
+
+    private void removeFromSegmentIfAbsent(String stableCacheKey) {
+        cache.asMap().compute(stableCacheKey, (k, v) -> {
+            if ((v == null) && ((demotedCache == null) || (demotedCache.getIfPresent(k) == null))) {
+                removeFromSegment(k);
+            }
+            return v;
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,404 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.cache;
+
+import static java.lang.String.format;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isExecutable;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.command.BazelBinary;
+
+/**
+ * A cache persisting <code>bazel --version</code> and <code>bazel info</code> results across IDE sessions.
+ * <p>
+ * Both require a Bazel process and <code>bazel info</code> additionally requires a running Bazel server, which can take
+ * a long time to start after it was shut down. The cached values are validated with fingerprints instead:
+ * <ul>
+ * <li>binary versions by the location, size and modification time of the (resolved) binary as well as the
+ * <code>USE_BAZEL_VERSION</code> environment variable and the <code>.bazelversion</code> file of the working
+ * directory, which are used by wrappers to select the version to run</li>
+ * <li>workspace info additionally by the Bazel version and by digests of the workspace <code>.bazelrc</code>,
+ * <code>.bazelversion</code> and the user <code>.bazelrc</code> file, as well as the existence of the output base</li>
+ * </ul>
+ * Nothing is cached for binaries which cannot be resolved on the file system. Versions of Bazelisk are not cached at
+ * all because it also reads <code>.bazeliskrc</code> files and may resolve a version like <code>latest</code>.
+ * </p>
+ * <p>
+ * During the lifetime of the IDE only one instance shall be used. It's initialized by the model manager. Instances are
+ * thread safe.
+ * </p>
+ */
+public final class PersistentBazelInfoCache {
+
+    private static Logger LOG = LoggerFactory.getLogger(PersistentBazelInfoCache.class);
+
+    private static final AtomicReference<PersistentBazelInfoCache> cacheRef = new AtomicReference<>();
+
+    private static final String BINARIES_FILE = "binaries.properties";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String INFO_PREFIX = "info.";
+    private static final String OUTPUT_BASE = "output_base";
+    private static final String USE_BAZEL_VERSION = "USE_BAZEL_VERSION";
+
+    /**
+     * Returns the singleton cache instance
+     *
+     * @return the singleton cache instance (maybe <code>null</code> if not initialized yet)
+     */
+    public static PersistentBazelInfoCache getInstance() {
+        return cacheRef.get();
+    }
+
+    /**
+     * Initializes the singleton instance.
+     *
+     * @param cache
+     *            the singleton instance
+     * @throws IllegalStateException
+     *             if the singleton cache instance was already initialized
+     */
+    public static void setInstance(PersistentBazelInfoCache cache) throws IllegalStateException {
+        if (!cacheRef.compareAndSet(null, requireNonNull(cache, "Cannot initialize NULL instance"))) {
+            throw new IllegalStateException("The cache was already initialized. Cannot initialize multiple times!");
+        }
+    }
+
+    private static boolean isBazelisk(Path binary) {
+        var fileName = binary.getFileName();
+        return (fileName != null) && fileName.toString().toLowerCase().startsWith("bazelisk");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private final Path cacheDirectory;
+    private final Path userHome;
+    private final Path workingDirectory;
+    private final Map<String, String> environment;
+
+    /**
+     * @param cacheDirectory
+     *            the directory to store the cache files in (will be created when needed)
+     */
+    public PersistentBazelInfoCache(Path cacheDirectory) {
+        this(
+                cacheDirectory,
+                Path.of(System.getProperty("user.home")),
+                Path.of(System.getProperty("user.dir")),
+                System.getenv());
+    }
+
+    PersistentBazelInfoCache(Path cacheDirectory, Path userHome, Path workingDirectory,
+            Map<String, String> environment) {
+        this.cacheDirectory = requireNonNull(cacheDirectory);
+        this.userHome = userHome;
+        this.workingDirectory = requireNonNull(workingDirectory);
+        this.environment = requireNonNull(environment);
+    }
+
+    /**
+     * {@return a fingerprint of the binary or <code>null</code> if the binary cannot be resolved}
+     */
+    String binaryFingerprint(Path binary) {
+        var realPath = resolveRealPath(binary);
+        if (realPath == null) {
+            return null;
+        }
+        try {
+            return format("%s|%d|%d", realPath, Files.size(realPath), Files.getLastModifiedTime(realPath).toMillis());
+        } catch (IOException e) {
+            LOG.debug("Unable to fingerprint Bazel binary '{}': {}", binary, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * {@return a fingerprint of everything influencing <code>bazel --version</code> or <code>null</code> if the
+     * version must not be cached}
+     */
+    String binaryVersionFingerprint(Path binary) {
+        var realPath = resolveRealPath(binary);
+        if ((realPath == null) || isBazelisk(binary) || isBazelisk(realPath)) {
+            return null;
+        }
+        var binaryFingerprint = binaryFingerprint(binary);
+        if (binaryFingerprint == null) {
+            return null;
+        }
+        try {
+            return format(
+                "%s|%s|%s",
+                binaryFingerprint,
+                environment.getOrDefault(USE_BAZEL_VERSION, "-"),
+                fileDigest(workingDirectory.resolve(".bazelversion")));
+        } catch (IOException e) {
+            LOG.debug("Unable to fingerprint version of Bazel binary '{}': {}", binary, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private String fileDigest(Path file) throws IOException {
+        try {
+            return sha256(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return "-";
+        }
+    }
+
+    /**
+     * Returns the cached version of a Bazel binary.
+     *
+     * @param binary
+     *            the binary as configured (may be relative to be resolved from the <code>PATH</code>)
+     * @return the cached version or <code>null</code> if nothing is cached, anything relevant changed or the binary
+     *         is Bazelisk
+     */
+    public synchronized BazelVersion getBinaryVersion(Path binary) {
+        var fingerprint = binaryVersionFingerprint(binary);
+        if (fingerprint == null) {
+            return null;
+        }
+        var binaries = load(cacheDirectory.resolve(BINARIES_FILE));
+        var key = binary.toString();
+        if (!fingerprint.equals(binaries.getProperty(key + "." + FINGERPRINT))) {
+            return null;
+        }
+        var version = binaries.getProperty(key + ".version");
+        return version != null ? BazelVersion.parseVersion(version) : null;
+    }
+
+    /**
+     * Returns the cached <code>bazel info</code> output of a workspace.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param binary
+     *            the binary used for executing <code>bazel info</code>
+     * @return the cached info or <code>null</code> if nothing is cached or anything relevant changed
+     */
+    public synchronized Map<String, String> getWorkspaceInfo(Path workspaceRoot, BazelBinary binary) {
+        try {
+            var fingerprint = workspaceFingerprint(workspaceRoot, binary);
+            if (fingerprint == null) {
+                return null;
+            }
+            var properties = load(workspaceFile(workspaceRoot));
+            if (!fingerprint.equals(properties.getProperty(FINGERPRINT))) {
+                return null;
+            }
+
+            Map<String, String> info = new HashMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(INFO_PREFIX)) {
+                    info.put(key.substring(INFO_PREFIX.length()), properties.getProperty(key));
+                }
+            }
+
+            // output base might have been deleted (eg. 'bazel clean --expunge')
+            var outputBase = info.get(OUTPUT_BASE);
+            if ((outputBase == null) || !isDirectory(Path.of(outputBase))) {
+                return null;
+            }
+
+            return info;
+        } catch (IOException e) {
+            LOG.debug("Ignoring unusable cached info for workspace '{}': {}", workspaceRoot, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the cached <code>bazel info</code> output of a workspace.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     */
+    public synchronized void invalidateWorkspaceInfo(Path workspaceRoot) {
+        try {
+            deleteIfExists(workspaceFile(workspaceRoot));
+        } catch (IOException e) {
+            LOG.warn("Error deleting cached info of workspace '{}': {}", workspaceRoot, e.getMessage(), e);
+        }
+    }
+
+    private Properties load(Path file) {
+        var properties = new Properties();
+        if (isRegularFile(file)) {
+            try (var in = newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.debug("Ignoring unreadable cache file '{}': {}", file, e.getMessage(), e);
+                return new Properties();
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Stores the version of a Bazel binary.
+     *
+     * @param binary
+     *            the binary as configured
+     * @param version
+     *            the detected version
+     */
+    public synchronized void putBinaryVersion(Path binary, BazelVersion version) {
+        var fingerprint = binaryVersionFingerprint(binary);
+        if (fingerprint == null) {
+            return;
+        }
+        var file = cacheDirectory.resolve(BINARIES_FILE);
+        var binaries = load(file);
+        var key = binary.toString();
+        binaries.setProperty(key + "." + FINGERPRINT, fingerprint);
+        binaries.setProperty(key + ".version", version.toString());
+        store(file, binaries);
+    }
+
+    /**
+     * Stores the <code>bazel info</code> output of a workspace.
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param binary
+     *            the binary used for executing <code>bazel info</code>
+     * @param info
+     *            the info output
+     */
+    public synchronized void putWorkspaceInfo(Path workspaceRoot, BazelBinary binary, Map<String, String> info) {
+        try {
+            var fingerprint = workspaceFingerprint(workspaceRoot, binary);
+            if (fingerprint == null) {
+                return;
+            }
+            var properties = new Properties();
+            properties.setProperty(FINGERPRINT, fingerprint);
+            for (Map.Entry<String, String> entry : info.entrySet()) {
+                if (entry.getValue() != null) {
+                    properties.setProperty(INFO_PREFIX + entry.getKey(), entry.getValue());
+                }
+            }
+            store(workspaceFile(workspaceRoot), properties);
+        } catch (IOException e) {
+            LOG.debug("Unable to cache info for workspace '{}': {}", workspaceRoot, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resolves a binary to an executable file.
+     *
+     * @return the executable or <code>null</code> if it cannot be found
+     */
+    private Path resolveExecutable(Path binary) {
+        if (binary.isAbsolute() || (binary.getNameCount() > 1)) {
+            return isRegularFile(binary) ? binary : null;
+        }
+        var path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            if (directory.isBlank()) {
+                continue;
+            }
+            var candidate = Path.of(directory).resolve(binary);
+            if (isRegularFile(candidate) && isExecutable(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Path resolveRealPath(Path binary) {
+        var resolved = resolveExecutable(binary);
+        if (resolved == null) {
+            return null;
+        }
+        try {
+            return resolved.toRealPath();
+        } catch (IOException e) {
+            LOG.debug("Unable to resolve Bazel binary '{}': {}", binary, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void store(Path file, Properties properties) {
+        try {
+            createDirectories(file.getParent());
+            var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (var out = newOutputStream(tempFile)) {
+                properties.store(out, null);
+            }
+            Files.move(tempFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to write cache file '{}': {}", file, e.getMessage(), e);
+        }
+    }
+
+    private Path workspaceFile(Path workspaceRoot) {
+        var key = sha256(workspaceRoot.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        return cacheDirectory.resolve(format("workspace-%s.properties", key.substring(0, 16)));
+    }
+
+    /**
+     * {@return a fingerprint of everything influencing <code>bazel info</code> or <code>null</code> if the binary
+     * cannot be resolved}
+     */
+    String workspaceFingerprint(Path workspaceRoot, BazelBinary binary) throws IOException {
+        var binaryFingerprint = binaryFingerprint(binary.executable());
+        if (binaryFingerprint == null) {
+            return null;
+        }
+        return sha256(
+            String.join(
+                "\n",
+                workspaceRoot.toAbsolutePath().normalize().toString(),
+                binaryFingerprint,
+                binary.bazelVersion().toString(),
+                fileDigest(workspaceRoot.resolve(".bazelrc")),
+                fileDigest(workspaceRoot.resolve(".bazelversion")),
+                userHome != null ? fileDigest(userHome.resolve(".bazelrc")) : "-").getBytes(StandardCharsets.UTF_8));
+    }
+}
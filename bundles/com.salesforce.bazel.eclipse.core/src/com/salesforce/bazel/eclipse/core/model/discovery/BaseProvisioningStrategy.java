@@ -6,7 +6,6 @@ package com.salesforce.bazel.eclipse.core.model.discovery;
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BAZEL_NATURE_ID;
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BUILDPATH_PROBLEM_MARKER;
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.CLASSPATH_CONTAINER_ID;
-import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.CLASSPATH_CONTAINER_PROBLEM_MARKER;
 import static com.salesforce.bazel.eclipse.core.model.discovery.EclipsePreferencesHelper.convertToPreferences;
 import static com.salesforce.bazel.eclipse.core.model.discovery.JvmConfigurator.VM_TYPE_RUNTIME;
 import static com.salesforce.bazel.eclipse.core.model.discovery.JvmConfigurator.VM_TYPE_TOOLCHAIN;
@@ -41,7 +40,6 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -52,6 +50,7 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import org.eclipse.core.filesystem.URIUtil;
@@ -89,6 +88,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.idea.blaze.base.model.primitives.Label;
+import com.google.idea.blaze.base.model.primitives.LanguageClass;
 import com.google.idea.blaze.base.model.primitives.TargetExpression;
 import com.google.idea.blaze.base.model.primitives.TargetName;
 import com.google.idea.blaze.base.model.primitives.WildcardTargetPattern;
@@ -110,8 +110,9 @@ import com.salesforce.bazel.eclipse.core.model.discovery.projects.JavaSourceInfo
 import com.salesforce.bazel.eclipse.core.model.discovery.projects.JavaSrcJarEntry;
 import com.salesforce.bazel.eclipse.core.model.discovery.projects.LabelEntry;
 import com.salesforce.bazel.eclipse.core.util.trace.TracingSubMonitor;
+import com.salesforce.bazel.sdk.aspects.intellij.IntellijAspects.OutputGroup;
+import com.salesforce.bazel.sdk.command.BazelBuildWithIntelliJAspectsCommand;
 import com.salesforce.bazel.sdk.command.BazelCQueryWithStarlarkExpressionCommand;
-import com.salesforce.bazel.sdk.command.BazelQueryForLabelsCommand;
 import com.salesforce.bazel.sdk.model.BazelLabel;
 
 /**
@@ -139,54 +140,39 @@ public abstract class BaseProvisioningStrategy implements TargetProvisioningStra
 
     private static Logger LOG = LoggerFactory.getLogger(BaseProvisioningStrategy.class);
 
-    /**
-     * Creates a problem marker of type {@link BazelCoreSharedContstants#CLASSPATH_CONTAINER_PROBLEM_MARKER} for the
-     * given status.
-     *
-     * @param project
-     *            the project to create the marker at (must not be <code>null</code>)
-     * @param status
-     *            the status to create the marker for (must not be <code>null</code>)
-     * @return the created marker (never <code>null</code>)
-     * @throws CoreException
-     */
-    static IMarker createClasspathContainerProblem(BazelProject project, IStatus status) throws CoreException {
-        return createMarker(project.getProject(), CLASSPATH_CONTAINER_PROBLEM_MARKER, status);
-    }
+    /** <code>kind</code> pattern of Java library rules (also matches macros/custom rules wrapping them) */
+    static final String JAVA_LIBRARY_KIND = "java_library";
 
-    static IMarker createMarker(IResource resource, String type, IStatus status) throws CoreException {
-        var message = status.getMessage();
-        if (status.isMultiStatus()) {
-            var children = status.getChildren();
-            if ((children != null) && (children.length > 0)) {
-                message = children[0].getMessage();
-            }
-        }
-        if ((message == null) && (status.getException() != null)) {
-            message = status.getException().getMessage();
-        }
-
-        if (message.length() >= 21000) {
-            // marker content is limited in length
-            message = message.substring(0, 20997).concat("...");
-        }
+    /** <code>kind</code> pattern of Java import rules */
+    static final String JAVA_IMPORT_KIND = "java_import";
 
-        Map<String, Object> markerAttributes = new HashMap<>();
-        markerAttributes.put(IMarker.MESSAGE, message);
-        markerAttributes.put(IMarker.SOURCE_ID, "Bazel Project Provisioning");
-
-        if (status.matches(IStatus.ERROR)) {
-            markerAttributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_ERROR));
-        } else if (status.matches(IStatus.WARNING)) {
-            markerAttributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_WARNING));
-        } else if (status.matches(IStatus.INFO)) {
-            markerAttributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_INFO));
-        }
+    static IMarker createMarker(IResource resource, String type, IStatus status) throws CoreException {
+        return resource.createMarker(type, ProblemMarkerBatch.toMarkerAttributes(status));
+    }
 
-        return resource.createMarker(type, markerAttributes);
+    /**
+     * {@return a filter for rule classes matching any of the patterns the way the <code>kind</code> query function does}
+     * <p>
+     * The patterns are unanchored regular expressions matched against <code>"&lt;rule class&gt; rule"</code>, i.e.
+     * <code>java_library</code> also matches rule classes containing it. Lookups in the dependency graph must use this
+     * filter in order to agree with <code>bazel query</code> expressions using the same patterns.
+     * </p>
+     *
+     * @param kindPatterns
+     *            the <code>kind</code> patterns
+     */
+    static Predicate<String> ruleClassesOfKind(String... kindPatterns) {
+        var patterns = Stream.of(kindPatterns).map(Pattern::compile).toList();
+        return ruleClass -> {
+            var ruleKind = ruleClass + " rule";
+            return patterns.stream().anyMatch(p -> p.matcher(ruleKind).find());
+        };
     }
 
     private BazelProjectFileSystemMapper fileSystemMapper;
+
+    /** build path problems collected during provisioning (<code>null</code> outside of provisioning) */
+    private volatile ProblemMarkerBatch buildPathProblems;
     /**
      * Eclipse VM representing the currecurrent_java_toolchain
      */
@@ -837,16 +823,26 @@ public abstract class BaseProvisioningStrategy implements TargetProvisioningStra
 
     /**
      * Creates a problem marker of type {@link BazelCoreSharedContstants#BUILDPATH_PROBLEM_MARKER} for the given status.
+     * <p>
+     * During provisioning the marker is collected and created together with all other problems when provisioning
+     * finishes.
+     * </p>
      *
      * @param project
      *            the project to create the marker at (must not be <code>null</code>)
      * @param status
      *            the status to create the marker for (must not be <code>null</code>)
-     * @return the created marker (never <code>null</code>)
      * @throws CoreException
      */
-    protected IMarker createBuildPathProblem(BazelProject project, IStatus status) throws CoreException {
-        return createMarker(project.getProject(), BUILDPATH_PROBLEM_MARKER, status);
+    protected void createBuildPathProblem(BazelProject project, IStatus status) throws CoreException {
+        var batch = buildPathProblems;
+        if (batch == null) {
+            createMarker(project.getProject(), BUILDPATH_PROBLEM_MARKER, status);
+            return;
+        }
+        synchronized (batch) {
+            batch.addProblem(project.getProject(), BUILDPATH_PROBLEM_MARKER, status);
+        }
     }
 
     /**
@@ -1017,25 +1013,23 @@ public abstract class BaseProvisioningStrategy implements TargetProvisioningStra
     /**
      * Convenience method to delete all markers of type {@link BazelCoreSharedContstants#BUILDPATH_PROBLEM_MARKER} from
      * the Bazel project
+     * <p>
+     * During provisioning the markers are replaced with the problems collected afterwards when provisioning finishes.
+     * </p>
      *
      * @param project
      *            the project to create the marker at (must not be <code>null</code>)
      * @throws CoreException
      */
     protected void deleteBuildPathProblems(BazelProject project) throws CoreException {
-        project.getProject().deleteMarkers(BUILDPATH_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
-    }
-
-    /**
-     * Convenience method to delete all markers of type
-     * {@link BazelCoreSharedContstants#CLASSPATH_CONTAINER_PROBLEM_MARKER} from the Bazel project
-     *
-     * @param project
-     *            the project to create the marker at (must not be <code>null</code>)
-     * @throws CoreException
-     */
-    protected void deleteClasspathContainerProblems(BazelProject project) throws CoreException {
-        project.getProject().deleteMarkers(CLASSPATH_CONTAINER_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+        var batch = buildPathProblems;
+        if (batch == null) {
+            project.getProject().deleteMarkers(BUILDPATH_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+            return;
+        }
+        synchronized (batch) {
+            batch.replaceMarkers(project.getProject(), BUILDPATH_PROBLEM_MARKER);
+        }
     }
 
     /**
@@ -1719,16 +1713,25 @@ public abstract class BaseProvisioningStrategy implements TargetProvisioningStra
     }
 
     @Override
-    public List<BazelProject> provisionProjectsForSelectedTargets(Collection<TargetExpression> targetsOrPackages,
+    public List<BazelProject> provisionProjectsForChangedPackages(Collection<TargetExpression> targets,
             BazelWorkspace workspace, IProgressMonitor progress) throws CoreException {
+        return provisionProjects(targets, workspace, false, progress);
+    }
+
+    private List<BazelProject> provisionProjects(Collection<TargetExpression> targetsOrPackages,
+            BazelWorkspace workspace, boolean wholeWorkspace, IProgressMonitor progress) throws CoreException {
+        // collect markers so that they are updated in a single workspace operation
+        buildPathProblems = new ProblemMarkerBatch();
         try {
             var monitor = TracingSubMonitor.convert(progress, "Provisioning projects", 3);
 
             // ensure there is a mapper
             fileSystemMapper = new BazelProjectFileSystemMapper(workspace);
 
-            // cleanup markers at workspace level
-            deleteBuildPathProblems(workspace.getBazelProject());
+            // cleanup markers at workspace level (they report on the whole workspace and are kept for partial updates)
+            if (wholeWorkspace) {
+                deleteBuildPathProblems(workspace.getBazelProject());
+            }
 
             // detect default Java level
             monitor.subTask("Detecting Java Toolchain");
@@ -1737,15 +1740,95 @@ public abstract class BaseProvisioningStrategy implements TargetProvisioningStra
             // configure the classpath of the workspace project
             configureRawClasspathOfWorkspaceProject(workspace.getBazelProject().getProject(), monitor.slice(1));
 
-            return doProvisionProjects(targetsOrPackages, workspace, monitor);
+            var provisionedProjects = doProvisionProjects(targetsOrPackages, workspace, monitor);
+            applyBuildPathProblems();
+            return provisionedProjects;
+        } catch (CoreException | RuntimeException e) {
+            // still report problems found until the failure (eg., cancellation)
+            try {
+                applyBuildPathProblems();
+            } catch (CoreException | RuntimeException applyFailure) {
+                e.addSuppressed(applyFailure);
+            }
+            throw e;
         } finally {
+            buildPathProblems = null;
             progress.done();
         }
     }
 
+    private void applyBuildPathProblems() throws CoreException {
+        var batch = buildPathProblems;
+        buildPathProblems = null;
+        if ((batch != null) && !batch.isEmpty()) {
+            batch.applyInSingleOperation(null);
+        }
+    }
+
+    /**
+     * Runs the build with IDE aspects used for computing classpaths for each of the given shards.
+     * <p>
+     * Intended for implementing {@link #primeCaches(Collection, BazelWorkspace, IProgressMonitor)} in strategies
+     * computing classpaths with the IntelliJ aspects. The builds run outside of any workspace lock with the same
+     * aspects, output groups and <code>sync_flags</code> as the compile classpath computation.
+     * </p>
+     *
+     * @param shards
+     *            the targets to build, split into the shards built later during classpath computation
+     * @param workspace
+     *            the Bazel workspace
+     * @param progress
+     *            monitor for reporting progress and tracking cancellation
+     * @throws CoreException
+     *             in case of problems running Bazel
+     */
+    protected void primeCachesWithIntelliJAspects(List<List<BazelLabel>> shards, BazelWorkspace workspace,
+            IProgressMonitor progress) throws CoreException {
+        var monitor = TracingSubMonitor.convert(progress, "Priming Bazel caches", shards.size());
+        var aspects = workspace.getParent().getModelManager().getIntellijAspects();
+        var outputGroupNames = aspects.getOutputGroupNames(
+            Set.of(OutputGroup.INFO, OutputGroup.RESOLVE),
+            Set.of(LanguageClass.JAVA),
+            workspace.getBazelProjectView().deriveTargetsFromDirectories());
+
+        var currentShardCount = 0;
+        for (List<BazelLabel> shard : shards) {
+            currentShardCount++;
+            monitor.checkCanceled();
+
+            var command = new BazelBuildWithIntelliJAspectsCommand(
+                    workspace.getLocation().toPath(),
+                    shard,
+                    outputGroupNames,
+                    aspects,
+                    new BazelWorkspaceBlazeInfo(workspace),
+                    format(
+                        "Priming Bazel caches (shard %d of %d, %d targets)",
+                        currentShardCount,
+                        shards.size(),
+                        shard.size()));
+            command.addCommandArgs(workspace.getBazelProjectView().syncFlags());
+
+            monitor.subTask(format("Priming Bazel caches (shard %d of %d)", currentShardCount, shards.size()));
+            workspace.getCommandExecutor().runWithoutLock(command);
+            monitor.worked(1);
+        }
+    }
+
+    @Override
+    public List<BazelProject> provisionProjectsForSelectedTargets(Collection<TargetExpression> targetsOrPackages,
+            BazelWorkspace workspace, IProgressMonitor progress) throws CoreException {
+        return provisionProjects(targetsOrPackages, workspace, true, progress);
+    }
+
     /**
      * Queries the Bazel graph for java_library and java_imports of the provided targets, limited by the classpath_depth
-     * in the project view.
+     * in the project view. Rule classes are matched like <code>kind(java_library|java_import, ...)</code> (see
+     * {@link #ruleClassesOfKind(String...)}).
+     * <p>
+     * The lookup is performed on the workspace's {@link BazelDependencyGraphCache dependency graph}, which is only
+     * updated from Bazel when targets are missing or <code>BUILD</code> files changed.
+     * </p>
      * <p>
      * The outcome of this method is intended to be used in
      * {@link #computeClasspaths(Collection, BazelWorkspace, com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope, IProgressMonitor)}
@@ -1772,19 +1855,16 @@ public abstract class BaseProvisioningStrategy implements TargetProvisioningStra
         if (classpathDepth == 1) {
             return Collections.emptySet();
         }
-        var targetLabels = targetsToBuild.stream().map(BazelLabel::toString).collect(joining(" + "));
-        return workspace.getCommandExecutor()
-                .runQueryWithoutLock(
-                    new BazelQueryForLabelsCommand(
-                            workspace.getLocation().toPath(),
-                            format(
-                                "kind(java_library, deps(%s, %d)) + kind(java_import, deps(%s, %d))",
-                                targetLabels,
-                                classpathDepth,
-                                targetLabels,
-                                classpathDepth),
-                            true,
-                            format("Querying for depdendencies for projects: %s", targetLabels)))
+        var dependencyGraph = workspace.getParent()
+                .getModelManager()
+                .getClasspathManager()
+                .getDependencyGraphCache(workspace)
+                .getGraph(workspace, targetsToBuild);
+        return dependencyGraph
+                .findDependencies(
+                    targetsToBuild.stream().map(BazelLabel::toString).toList(),
+                    classpathDepth,
+                    ruleClassesOfKind(JAVA_LIBRARY_KIND, JAVA_IMPORT_KIND))
                 .stream()
                 .map(BazelLabel::new)
                 .collect(toSet());
@@ -0,0 +1,202 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery;
+
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.FILE_NAME_BUILD;
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.FILE_NAME_BUILD_BAZEL;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.sdk.command.BazelQueryForDependencyGraphCommand;
+import com.salesforce.bazel.sdk.model.BazelDependencyGraph;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+/**
+ * Keeps a {@link BazelDependencyGraph} of a workspace in memory across classpath computations.
+ * <p>
+ * The graph grows on demand. When asked for targets not yet known, the transitive dependencies of those targets are
+ * queried and merged into the graph. Packages whose <code>BUILD</code> files changed are
+ * {@link #invalidatePackage(String) marked dirty} and re-queried with their dependencies on next access. This replaces
+ * repeated depth-bounded <code>deps</code> queries with graph lookups as long as <code>BUILD</code> files don't change.
+ * </p>
+ * <p>
+ * Resource change events only cover <code>BUILD</code> files of provisioned projects. Therefore the time stamps of the
+ * <code>BUILD</code> files of all main repository packages in the graph are recorded and
+ * {@link #detectChangedBuildFiles(Path) compared} once per classpath computation, which detects changes to packages
+ * without a project. Lookups in between don't touch the file system. Changes to <code>.bzl</code> files loaded by a package and to
+ * external repositories are not detected. They require a sync or a change of the workspace files, which
+ * {@link #invalidateAll() discards} the graph.
+ * </p>
+ * <p>
+ * Only rules are queried. Package groups are not part of the graph, thus it must not be used for visibility lookups.
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public final class BazelDependencyGraphCache {
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelDependencyGraphCache.class);
+
+    private static String toAllTargetsInPackage(String packagePath) {
+        return format("//%s:all", packagePath);
+    }
+
+    private static long getBuildFileTimestamp(Path workspaceRoot, String packagePath) {
+        var packageDirectory = workspaceRoot.resolve(packagePath);
+        for (String buildFileName : List.of(FILE_NAME_BUILD_BAZEL, FILE_NAME_BUILD)) {
+            try {
+                return Files.getLastModifiedTime(packageDirectory.resolve(buildFileName)).toMillis();
+            } catch (IOException e) {
+                // try next
+            }
+        }
+        return -1L;
+    }
+
+    private BazelDependencyGraph graph;
+    private final Set<String> dirtyPackages = new HashSet<>();
+
+    /** time stamps of the <code>BUILD</code> files of all main repository packages in the graph */
+    private final Map<String, Long> buildFileTimestampByPackage = new HashMap<>();
+
+    /**
+     * Returns a graph containing the given targets with all their transitive dependencies.
+     * <p>
+     * Queries Bazel only for targets not in the graph and for packages marked dirty.
+     * </p>
+     *
+     * @param workspace
+     *            the workspace (must be the workspace this cache belongs to)
+     * @param targets
+     *            the targets
+     * @return the graph (never <code>null</code>)
+     * @throws CoreException
+     *             if querying Bazel failed
+     */
+    public synchronized BazelDependencyGraph getGraph(BazelWorkspace workspace, Collection<BazelLabel> targets)
+            throws CoreException {
+        var workspaceRoot = workspace.getLocation().toPath();
+        if ((graph != null) && !dirtyPackages.isEmpty()) {
+            var packagesToRefresh = dirtyPackages.stream().filter(graph::containsPackage).toList();
+            if (!packagesToRefresh.isEmpty()) {
+                try {
+                    var update = queryDependencyGraph(
+                        workspace,
+                        packagesToRefresh.stream()
+                                .map(BazelDependencyGraphCache::toAllTargetsInPackage)
+                                .collect(joining(" + ")),
+                        format("Refreshing dependency graph for %d changed packages", packagesToRefresh.size()));
+                    graph = graph.merge(update, packagesToRefresh::contains);
+                } catch (CoreException e) {
+                    // start from scratch
+                    LOG.debug("Discarding dependency graph after failed refresh: {}", e.getMessage(), e);
+                    graph = null;
+                    buildFileTimestampByPackage.clear();
+                }
+                buildFileTimestampByPackage.keySet().removeAll(packagesToRefresh);
+            }
+            dirtyPackages.clear();
+        }
+
+        var missingTargets = targets.stream().map(BazelLabel::toString).filter(this::isMissing).toList();
+        if (!missingTargets.isEmpty()) {
+            var update = queryDependencyGraph(
+                workspace,
+                String.join(" + ", missingTargets),
+                format("Querying dependency graph for %d targets", missingTargets.size()));
+            graph = graph == null ? update : graph.merge(update, p -> false);
+        }
+
+        if (graph == null) {
+            // no targets requested and nothing known
+            graph = new BazelDependencyGraph.Builder().build();
+        }
+
+        for (String packagePath : graph.getMainRepositoryPackages()) {
+            buildFileTimestampByPackage
+                    .computeIfAbsent(packagePath, p -> getBuildFileTimestamp(workspaceRoot, packagePath));
+        }
+        return graph;
+    }
+
+    /**
+     * Marks all packages in the graph dirty whose <code>BUILD</code> file changed since they were queried.
+     * <p>
+     * This requires a file system access per package of the graph. Callers should call it once before a batch of
+     * lookups (eg., when starting a classpath computation) and not for every lookup.
+     * </p>
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     */
+    public synchronized void detectChangedBuildFiles(Path workspaceRoot) {
+        buildFileTimestampByPackage.forEach((packagePath, timestamp) -> {
+            if (getBuildFileTimestamp(workspaceRoot, packagePath) != timestamp) {
+                dirtyPackages.add(packagePath);
+            }
+        });
+    }
+
+    /**
+     * Discards the entire graph.
+     */
+    public synchronized void invalidateAll() {
+        graph = null;
+        dirtyPackages.clear();
+        buildFileTimestampByPackage.clear();
+    }
+
+    /**
+     * Marks a package as changed so its targets are re-queried on next access.
+     *
+     * @param packagePath
+     *            the package path (eg. <code>foo/bar</code>)
+     */
+    public synchronized void invalidatePackage(String packagePath) {
+        if (graph != null) {
+            dirtyPackages.add(packagePath);
+        }
+    }
+
+    private boolean isMissing(String label) {
+        return (graph == null) || !graph.contains(label);
+    }
+
+    private BazelDependencyGraph queryDependencyGraph(BazelWorkspace workspace, String targetPatterns, String purpose)
+            throws CoreException {
+        return workspace.getCommandExecutor()
+                .runQueryWithoutLock(
+                    new BazelQueryForDependencyGraphCommand(
+                            workspace.getLocation().toPath(),
+                            format("kind(rule, deps(%s))", targetPatterns),
+                            true,
+                            purpose));
+    }
+}
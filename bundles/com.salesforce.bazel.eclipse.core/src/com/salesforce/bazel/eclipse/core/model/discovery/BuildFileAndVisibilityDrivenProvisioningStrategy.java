@@ -5,9 +5,7 @@ import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BUILDP
 import static java.lang.String.format;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.function.Predicate.not;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toCollection;
-import static org.eclipse.core.resources.IResource.DEPTH_ZERO;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,7 +40,9 @@ import com.salesforce.bazel.eclipse.core.model.BazelTarget;
 import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.libs.ExternalLibrariesDiscovery;
+import com.salesforce.bazel.sdk.command.BazelQueryForDependencyGraphCommand;
 import com.salesforce.bazel.sdk.command.BazelQueryForLabelsCommand;
+import com.salesforce.bazel.sdk.model.BazelDependencyGraph;
 import com.salesforce.bazel.sdk.model.BazelLabel;
 
 /**
@@ -185,12 +185,81 @@ public class BuildFileAndVisibilityDrivenProvisioningStrategy extends BuildfileD
 
     private static Logger LOG = LoggerFactory.getLogger(BuildFileAndVisibilityDrivenProvisioningStrategy.class);
 
+    /**
+     * Answers <code>kind(java_library, visible(T, //...)) except kind(java_library, rdeps(//..., T))</code> for the
+     * given project targets.
+     * <p>
+     * The question is answered from the dependency graph if available. Otherwise (or if a target is missing in the
+     * graph) a <code>bazel query</code> is executed. Both match rule classes the same way (any rule class containing
+     * <code>java_library</code>, see {@link #ruleClassesOfKind(String...)}).
+     * </p>
+     */
+    private Set<BazelLabel> findVisibleJavaLibrariesExceptReverseDependencies(BazelWorkspace workspace,
+            BazelDependencyGraph dependencyGraph, BazelProject bazelProject, List<BazelLabel> projectTargets)
+            throws CoreException {
+        var targetLabels = projectTargets.stream().map(BazelLabel::toString).toList();
+        if ((dependencyGraph != null) && targetLabels.stream().allMatch(dependencyGraph::contains)) {
+            return dependencyGraph
+                    .findVisibleExceptReverseDependencies(ruleClassesOfKind(JAVA_LIBRARY_KIND), targetLabels)
+                    .stream()
+                    .map(BazelLabel::new)
+                    .collect(toCollection(LinkedHashSet::new));
+        }
+
+        var targets = String.join(" + ", targetLabels);
+        return workspace.getCommandExecutor()
+                .runQueryWithoutLock(
+                    new BazelQueryForLabelsCommand(
+                            workspace.getLocation().toPath(),
+                            format(
+                                "kind(%s, visible(%s, //...)) except kind(%s, rdeps(//..., %s))",
+                                JAVA_LIBRARY_KIND,
+                                targets,
+                                JAVA_LIBRARY_KIND,
+                                targets),
+                            true,
+                            format(
+                                "Querying for Java targets visibile to '%s' for classpath computation",
+                                bazelProject.getName())))
+                .stream()
+                .map(BazelLabel::new)
+                .collect(toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Queries the dependency graph of the whole workspace.
+     *
+     * @return the graph or <code>null</code> if the query failed (callers should fallback to individual queries)
+     */
+    private BazelDependencyGraph queryDependencyGraph(BazelWorkspace workspace, IProgressMonitor monitor) {
+        try {
+            var graph = workspace.getCommandExecutor()
+                    .runQueryWithoutLock(
+                        new BazelQueryForDependencyGraphCommand(
+                                workspace.getLocation().toPath(),
+                                BazelQueryForDependencyGraphCommand.ALL_RULES_AND_PACKAGE_GROUPS_QUERY,
+                                true,
+                                "Querying for workspace dependency graph for classpath computation"));
+            LOG.debug("Loaded dependency graph with {} targets", graph.size());
+            return graph;
+        } catch (CoreException e) {
+            LOG.warn(
+                "Unable to query the workspace dependency graph. Falling back to one query per project, which will be slow.",
+                e);
+            return null;
+        } finally {
+            if (monitor != null) {
+                monitor.done();
+            }
+        }
+    }
+
     @Override
     public Map<BazelProject, CompileAndRuntimeClasspath> computeClasspaths(Collection<BazelProject> bazelProjects,
             BazelWorkspace workspace, BazelClasspathScope scope, IProgressMonitor progress) throws CoreException {
         LOG.debug("Computing classpath for projects: {}", bazelProjects);
         try {
-            var monitor = SubMonitor.convert(progress, "Computing classpaths...", 2 + bazelProjects.size());
+            var monitor = SubMonitor.convert(progress, "Computing classpaths...", 3 + bazelProjects.size());
 
             Map<BazelProject, List<BazelLabel>> activeTargetsPerProject = new HashMap<>();
             for (BazelProject bazelProject : bazelProjects) {
@@ -225,39 +294,30 @@ public class BuildFileAndVisibilityDrivenProvisioningStrategy extends BuildfileD
             var externalLibrariesDiscovery = new ExternalLibrariesDiscovery(workspace);
             var externalLibraries = externalLibrariesDiscovery.query(monitor.split(1));
 
-            var workspaceRoot = workspace.getLocation().toPath();
+            // one graph query for the whole workspace instead of one query per project
+            var dependencyGraph = queryDependencyGraph(workspace, monitor.split(1));
 
             // use the hints to avoid circular dependencies between projects in Eclipse
             var circularDependenciesHelper = new CircularDependenciesHelper(workspace.getBazelProjectView().targets());
 
             Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject = new HashMap<>();
+            var problemMarkers = new ProblemMarkerBatch();
             for (BazelProject bazelProject : bazelProjects) {
                 monitor.subTask("Analyzing: " + bazelProject);
                 monitor.checkCanceled();
 
-                // cleanup markers from previous runs
-                bazelProject.getProject().deleteMarkers(BUILDPATH_PROBLEM_MARKER, true, DEPTH_ZERO);
+                // replace markers from previous runs
+                problemMarkers.replaceMarkers(bazelProject.getProject(), BUILDPATH_PROBLEM_MARKER);
 
                 // query for rdeps to find classpath exclusions
                 var projectTargets = activeTargetsPerProject.get(bazelProject);
 
-                var targets = projectTargets.stream().map(BazelLabel::toString).collect(joining(" + "));
                 // get all accessible targets based on visibility
-                Set<BazelLabel> allVisibleTargets = workspace.getCommandExecutor()
-                        .runQueryWithoutLock(
-                            new BazelQueryForLabelsCommand(
-                                    workspaceRoot,
-                                    format(
-                                        "kind(java_library, visible(%s, //...)) except kind(java_library, rdeps(//..., %s))",
-                                        targets,
-                                        targets),
-                                    true,
-                                    format(
-                                        "Querying for Java targets visibile to '%s' for classpath computation",
-                                        bazelProject.getName())))
-                        .stream()
-                        .map(BazelLabel::new)
-                        .collect(toCollection(LinkedHashSet::new));
+                var allVisibleTargets = findVisibleJavaLibrariesExceptReverseDependencies(
+                    workspace,
+                    dependencyGraph,
+                    bazelProject,
+                    projectTargets);
 
                 // ensure the workspace has all the packages open
                 var allPackagesWithVisibleTargets =
@@ -316,24 +376,27 @@ public class BuildFileAndVisibilityDrivenProvisioningStrategy extends BuildfileD
                             if (isRegularFile(jarEntry.getPath().toPath())) {
                                 classpath.add(jarEntry);
                             } else {
-                                createBuildPathProblem(
-                                    bazelProject,
+                                problemMarkers.addProblem(
+                                    bazelProject.getProject(),
+                                    BUILDPATH_PROBLEM_MARKER,
                                     Status.error(
                                         format(
                                             "Jar '%s' not found. Please run bazel fetch or bazel build and refresh the classpath.",
                                             jarLibrary.getClassJar())));
                             }
                         } else {
-                            createBuildPathProblem(
-                                bazelProject,
+                            problemMarkers.addProblem(
+                                bazelProject.getProject(),
+                                BUILDPATH_PROBLEM_MARKER,
                                 Status.error(
                                     format(
                                         "Unable to resolve jar '%s'. Please open a bug with more details.",
                                         jarLibrary)));
                         }
                     } else {
-                        createBuildPathProblem(
-                            bazelProject,
+                        problemMarkers.addProblem(
+                            bazelProject.getProject(),
+                            BUILDPATH_PROBLEM_MARKER,
                             Status.error(
                                 format(
                                     "Unable to resolve rule output '%s'. Please open a bug with more details.",
@@ -348,8 +411,9 @@ public class BuildFileAndVisibilityDrivenProvisioningStrategy extends BuildfileD
                     }
 
                     if (!isRegularFile(entry.getPath().toPath())) {
-                        createBuildPathProblem(
-                            bazelProject,
+                        problemMarkers.addProblem(
+                            bazelProject.getProject(),
+                            BUILDPATH_PROBLEM_MARKER,
                             Status.error(
                                 format(
                                     "Library '%s' is missing. Please consider running 'bazel fetch'",
@@ -363,6 +427,9 @@ public class BuildFileAndVisibilityDrivenProvisioningStrategy extends BuildfileD
                 monitor.worked(1);
             }
 
+            // update markers in bulk
+            problemMarkers.apply(monitor.split(1));
+
             return classpathsByProject;
         } finally {
             if (progress != null) {
@@ -4,7 +4,6 @@ import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BUILDP
 import static java.lang.String.format;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.stream.Collectors.joining;
-import static org.eclipse.core.resources.IResource.DEPTH_ZERO;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -14,6 +13,7 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -28,7 +28,9 @@ import com.google.idea.blaze.base.model.primitives.TargetExpression;
 import com.google.idea.blaze.base.model.primitives.TargetName;
 import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope;
 import com.salesforce.bazel.eclipse.core.classpath.CompileAndRuntimeClasspath;
+import com.salesforce.bazel.eclipse.core.model.BazelPackage;
 import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelStarlarkFileReader;
 import com.salesforce.bazel.eclipse.core.model.BazelTarget;
 import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
 import com.salesforce.bazel.eclipse.core.model.buildfile.FunctionCall;
@@ -109,12 +111,13 @@ public class BuildfileDrivenProvisioningStrategy extends ProjectPerPackageProvis
             var workspaceRoot = workspace.getLocation().toPath();
 
             Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject = new HashMap<>();
+            var problemMarkers = new ProblemMarkerBatch();
             for (BazelProject bazelProject : bazelProjects) {
                 monitor.subTask("Analyzing: " + bazelProject);
                 monitor.checkCanceled();
 
-                // cleanup markers from previous runs
-                bazelProject.getProject().deleteMarkers(BUILDPATH_PROBLEM_MARKER, true, DEPTH_ZERO);
+                // replace markers from previous runs
+                problemMarkers.replaceMarkers(bazelProject.getProject(), BUILDPATH_PROBLEM_MARKER);
 
                 // compute the classpath
                 var classpath = new LinkedHashSet<>(externalLibraries);
@@ -126,8 +129,9 @@ public class BuildfileDrivenProvisioningStrategy extends ProjectPerPackageProvis
                     }
 
                     if (!isRegularFile(entry.getPath().toPath())) {
-                        createBuildPathProblem(
-                            bazelProject,
+                        problemMarkers.addProblem(
+                            bazelProject.getProject(),
+                            BUILDPATH_PROBLEM_MARKER,
                             Status.error(
                                 format(
                                     "Library '%s' is missing. Please consider running 'bazel fetch'",
@@ -141,6 +145,9 @@ public class BuildfileDrivenProvisioningStrategy extends ProjectPerPackageProvis
                 monitor.worked(1);
             }
 
+            // update markers in bulk
+            problemMarkers.apply(monitor.split(1));
+
             return classpathsByProject;
         } finally {
             if (progress != null) {
@@ -149,6 +156,16 @@ public class BuildfileDrivenProvisioningStrategy extends ProjectPerPackageProvis
         }
     }
 
+    /**
+     * Does nothing. The classpath is computed from <code>BUILD</code> files and Bazel queries without running the IDE
+     * aspects, so there is no build to run ahead of time.
+     */
+    @Override
+    public void primeCaches(Collection<TargetExpression> targets, BazelWorkspace workspace, IProgressMonitor progress)
+            throws CoreException {
+        // the IDE aspects are not used
+    }
+
     @Override
     protected List<BazelProject> doProvisionProjects(Collection<TargetExpression> targetsOrPackages,
             BazelWorkspace workspace, TracingSubMonitor monitor) throws CoreException {
@@ -157,6 +174,16 @@ public class BuildfileDrivenProvisioningStrategy extends ProjectPerPackageProvis
         var packages = targetsOrPackages.parallelStream().map(this::extractPackagePath).distinct().toList();
 
         monitor.beginTask("Provisioning projects", packages.size() * 3);
+
+        // parse all BUILD files in parallel upfront (the loop below will be served from the parse cache)
+        monitor.subTask("Reading BUILD files");
+        var workspaceRoot = workspace.getLocation().toPath();
+        BazelStarlarkFileReader.preload(
+            packages.stream()
+                    .map(p -> BazelPackage.findBuildFile(workspaceRoot.resolve(p)))
+                    .filter(Objects::nonNull)
+                    .toList());
+
         var result = new ArrayList<BazelProject>();
         for (Path packagePath : packages) {
             var bazelPackage = workspace.getBazelPackage(IPath.fromPath(packagePath));
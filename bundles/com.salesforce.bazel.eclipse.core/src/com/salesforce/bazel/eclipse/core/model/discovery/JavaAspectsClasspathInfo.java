@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -163,6 +164,9 @@ public class JavaAspectsClasspathInfo extends JavaClasspathJarLocationResolver {
      */
     final Set<BazelLabel> runtimeDependencyIncludes;
 
+    /** problems detected while computing the classpath */
+    final List<IStatus> classpathProblems = new ArrayList<>();
+
     public JavaAspectsClasspathInfo(JavaAspectsInfo aspectsInfo, BazelWorkspace bazelWorkspace,
             Set<BazelLabel> runtimeDependencyIncludes, BazelProject bazelProject) throws CoreException {
         super(bazelWorkspace);
@@ -324,8 +328,18 @@ public class JavaAspectsClasspathInfo extends JavaClasspathJarLocationResolver {
         return Status.OK_STATUS;
     }
 
+    /**
+     * @return the problems detected during {@link #compute()} (never <code>null</code>)
+     */
+    public List<IStatus> getClasspathProblems() {
+        return classpathProblems;
+    }
+
     /**
      * Computes the classpath based on the {@link #addTarget(BazelTarget) added targets}.
+     * <p>
+     * Problems detected while computing are available from {@link #getClasspathProblems()} afterwards.
+     * </p>
      *
      * @return the computed classpath
      * @throws CoreException
@@ -724,8 +738,7 @@ public class JavaAspectsClasspathInfo extends JavaClasspathJarLocationResolver {
      */
     private boolean validateEntry(ClasspathEntry entry) throws CoreException {
         if ((entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) && !isRegularFile(entry.getPath().toPath())) {
-            BaseProvisioningStrategy.createClasspathContainerProblem(
-                bazelProject,
+            classpathProblems.add(
                 Status.error(
                     format("Library '%s' is missing. Please consider running 'bazel fetch'", entry.getPath())));
             return false;
@@ -0,0 +1,233 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.SubMonitor;
+
+/**
+ * Collects problem markers during a sync and applies them in bulk.
+ * <p>
+ * Every call to {@link IResource#createMarker(String, Map)} or {@link IResource#deleteMarkers(String, boolean, int)}
+ * is a separate workspace operation firing its own resource delta. During large syncs this causes a lot of churn for
+ * resource change listeners. This class collects the problems per resource and marker type first. When
+ * {@link #apply(IProgressMonitor) applied}, all markers of a resource are updated within a single
+ * {@link IWorkspace#run(org.eclipse.core.resources.IWorkspaceRunnable, org.eclipse.core.runtime.jobs.ISchedulingRule, int, IProgressMonitor)
+ * workspace operation}. Existing markers are compared with the collected ones so that unchanged markers are neither
+ * deleted nor re-created.
+ * </p>
+ * <p>
+ * Existing markers are only removed for resources and marker types {@link #replaceMarkers(IResource, String) declared
+ * as replaced}. Otherwise collected problems are added to the existing markers.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class ProblemMarkerBatch {
+
+    static final String SOURCE_ID = "Bazel Project Provisioning";
+
+    /**
+     * Converts a status into marker attributes.
+     *
+     * @param status
+     *            the status (must not be <code>null</code>)
+     * @return the marker attributes (never <code>null</code>)
+     */
+    static Map<String, Object> toMarkerAttributes(IStatus status) {
+        var message = status.getMessage();
+        if (status.isMultiStatus()) {
+            var children = status.getChildren();
+            if ((children != null) && (children.length > 0)) {
+                message = children[0].getMessage();
+            }
+        }
+        if ((message == null) && (status.getException() != null)) {
+            message = status.getException().getMessage();
+        }
+
+        if (message.length() >= 21000) {
+            // marker content is limited in length
+            message = message.substring(0, 20997).concat("...");
+        }
+
+        Map<String, Object> markerAttributes = new HashMap<>();
+        markerAttributes.put(IMarker.MESSAGE, message);
+        markerAttributes.put(IMarker.SOURCE_ID, SOURCE_ID);
+
+        if (status.matches(IStatus.ERROR)) {
+            markerAttributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_ERROR));
+        } else if (status.matches(IStatus.WARNING)) {
+            markerAttributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_WARNING));
+        } else if (status.matches(IStatus.INFO)) {
+            markerAttributes.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_INFO));
+        }
+        return markerAttributes;
+    }
+
+    /** collected marker attributes by resource and marker type (maintaining insertion order) */
+    private final Map<IResource, Map<String, List<Map<String, Object>>>> markersByResourceAndType =
+            new LinkedHashMap<>();
+
+    /** marker types whose existing markers are replaced by resource */
+    private final Map<IResource, Set<String>> replacedTypesByResource = new HashMap<>();
+
+    /**
+     * Adds a problem to be reported as marker of the given type at the given resource.
+     * <p>
+     * Existing markers are kept unless {@link #replaceMarkers(IResource, String)} was called for the resource and
+     * type. No marker is created if an identical one exists already.
+     * </p>
+     *
+     * @param resource
+     *            the resource to create the marker at (must not be <code>null</code>)
+     * @param type
+     *            the marker type (must not be <code>null</code>)
+     * @param status
+     *            the status to create the marker for (must not be <code>null</code>)
+     */
+    public void addProblem(IResource resource, String type, IStatus status) {
+        markersOf(resource, type).add(toMarkerAttributes(requireNonNull(status)));
+    }
+
+    /**
+     * Applies all collected markers to the workspace.
+     * <p>
+     * Each resource is updated within its own workspace operation so that only a single delta is fired per resource.
+     * Resources which are no longer accessible are ignored. The batch is empty afterwards.
+     * </p>
+     *
+     * @param progress
+     *            monitor for reporting progress (may be <code>null</code>)
+     * @throws CoreException
+     *             if updating markers failed
+     */
+    public void apply(IProgressMonitor progress) throws CoreException {
+        try {
+            var monitor = SubMonitor.convert(progress, "Updating problem markers", markersByResourceAndType.size());
+            var workspace = ResourcesPlugin.getWorkspace();
+            for (Entry<IResource, Map<String, List<Map<String, Object>>>> entry : markersByResourceAndType
+                    .entrySet()) {
+                var resource = entry.getKey();
+                if (!resource.isAccessible()) {
+                    monitor.worked(1);
+                    continue;
+                }
+
+                workspace.run(
+                    m -> updateMarkers(workspace, resource, entry.getValue()),
+                    workspace.getRuleFactory().markerRule(resource),
+                    IWorkspace.AVOID_UPDATE,
+                    monitor.split(1));
+            }
+            markersByResourceAndType.clear();
+            replacedTypesByResource.clear();
+        } finally {
+            if (progress != null) {
+                progress.done();
+            }
+        }
+    }
+
+    /**
+     * Applies all collected markers to the workspace within a single workspace operation.
+     * <p>
+     * In contrast to {@link #apply(IProgressMonitor)} only a single delta is fired for all resources. The operation
+     * requires the workspace root rule, thus it's intended for callers already holding it (eg., project provisioning).
+     * </p>
+     *
+     * @param progress
+     *            monitor for reporting progress (may be <code>null</code>)
+     * @throws CoreException
+     *             if updating markers failed
+     */
+    public void applyInSingleOperation(IProgressMonitor progress) throws CoreException {
+        var workspace = ResourcesPlugin.getWorkspace();
+        workspace.run(this::apply, workspace.getRoot(), IWorkspace.AVOID_UPDATE, progress);
+    }
+
+    /**
+     * @return <code>true</code> if nothing was collected, <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return markersByResourceAndType.isEmpty();
+    }
+
+    private List<Map<String, Object>> markersOf(IResource resource, String type) {
+        return markersByResourceAndType.computeIfAbsent(requireNonNull(resource), r -> new LinkedHashMap<>())
+                .computeIfAbsent(requireNonNull(type), t -> new ArrayList<>());
+    }
+
+    /**
+     * Declares that all existing markers of the given type (including sub types) at the given resource should be
+     * replaced with the problems added to this batch.
+     * <p>
+     * This must be called for resources where no problems might be found in order to remove markers from a previous
+     * run. Problems added before for the resource and type are discarded.
+     * </p>
+     *
+     * @param resource
+     *            the resource (must not be <code>null</code>)
+     * @param type
+     *            the marker type (must not be <code>null</code>)
+     */
+    public void replaceMarkers(IResource resource, String type) {
+        markersOf(resource, type).clear();
+        replacedTypesByResource.computeIfAbsent(resource, r -> new HashSet<>()).add(type);
+    }
+
+    private void updateMarkers(IWorkspace workspace, IResource resource,
+            Map<String, List<Map<String, Object>>> markersByType) throws CoreException {
+        List<IMarker> markersToDelete = new ArrayList<>();
+        var replacedTypes = replacedTypesByResource.getOrDefault(resource, Set.of());
+        for (Entry<String, List<Map<String, Object>>> entry : markersByType.entrySet()) {
+            var type = entry.getKey();
+            var markersToCreate = new ArrayList<>(entry.getValue());
+
+            // keep existing markers which are identical
+            for (IMarker existingMarker : resource.findMarkers(type, true, IResource.DEPTH_ZERO)) {
+                if ((!type.equals(existingMarker.getType())
+                        || !markersToCreate.remove(existingMarker.getAttributes())) && replacedTypes.contains(type)) {
+                    markersToDelete.add(existingMarker);
+                }
+            }
+
+            for (Map<String, Object> attributes : markersToCreate) {
+                resource.createMarker(type, attributes);
+            }
+        }
+
+        if (!markersToDelete.isEmpty()) {
+            workspace.deleteMarkers(markersToDelete.toArray(new IMarker[markersToDelete.size()]));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.salesforce.bazel.eclipse.core.model.discovery;
 
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.CLASSPATH_CONTAINER_PROBLEM_MARKER;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Predicate.not;
@@ -31,7 +32,9 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Interner;
 import com.google.common.collect.Interners;
+import com.google.idea.blaze.base.model.primitives.Label;
 import com.google.idea.blaze.base.model.primitives.LanguageClass;
+import com.google.idea.blaze.base.model.primitives.TargetExpression;
 import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope;
 import com.salesforce.bazel.eclipse.core.classpath.CompileAndRuntimeClasspath;
 import com.salesforce.bazel.eclipse.core.model.BazelPackage;
@@ -138,7 +141,10 @@ public class ProjectPerPackageProvisioningStrategy extends BaseProvisioningStrat
 
             // split into shards
             var shardsToBuild = createShards(activeTargetsPerProject, workspace);
-            monitor.setWorkRemaining(5 * shardsToBuild.size());
+            monitor.setWorkRemaining(1 + (5 * shardsToBuild.size()));
+
+            // markers are collected and applied in bulk at the end
+            var problemMarkers = new ProblemMarkerBatch();
 
             // run the build per shard
             var currentShardCount = 0;
@@ -209,13 +215,13 @@ public class ProjectPerPackageProvisioningStrategy extends BaseProvisioningStrat
 
                     // compute the classpath
                     var classpath = classpathInfo.compute();
+                    buildPathProblems.addAll(classpathInfo.getClasspathProblems());
 
-                    // remove old marker
-                    deleteClasspathContainerProblems(bazelProject);
-
-                    // create problem markers for detected issues
+                    // replace old markers with detected issues
+                    problemMarkers.replaceMarkers(bazelProject.getProject(), CLASSPATH_CONTAINER_PROBLEM_MARKER);
                     for (IStatus problem : buildPathProblems) {
-                        createClasspathContainerProblem(bazelProject, problem);
+                        problemMarkers
+                                .addProblem(bazelProject.getProject(), CLASSPATH_CONTAINER_PROBLEM_MARKER, problem);
                     }
 
                     classpathsByProject.put(bazelProject, classpath);
@@ -223,6 +229,9 @@ public class ProjectPerPackageProvisioningStrategy extends BaseProvisioningStrat
                 }
             }
 
+            // update markers in bulk
+            problemMarkers.apply(monitor.slice(1));
+
             return classpathsByProject;
         } finally {
             if (progress != null) {
@@ -266,33 +275,55 @@ public class ProjectPerPackageProvisioningStrategy extends BaseProvisioningStrat
             return List.of(targetsByProjectMap);
         }
 
-        List<Map<BazelProject, Collection<BazelTarget>>> allShards = new ArrayList<>();
+        // in order to be predictable we sort the projects and their targets alphabetically
+        return packIntoShards(
+            targetsByProjectMap,
+            Comparator.comparing(BazelProject::getName),
+            Comparator.comparing(BazelTarget::getTargetName),
+            workspace.getBazelProjectView().targetShardSize());
+    }
 
-        // we then collect as many targets into a shard as possible
-        var targetShardSize = workspace.getBazelProjectView().targetShardSize();
+    /**
+     * Collects as many groups of targets into a shard as possible.
+     * <p>
+     * Groups (eg., the targets of a project) are never split. A shard may therefore exceed the target shard size when a
+     * single group is larger.
+     * </p>
+     *
+     * @param targetsByGroup
+     *            the targets to shard by group
+     * @param groupOrder
+     *            the order to distribute groups to shards in
+     * @param targetOrder
+     *            the order of targets within a group
+     * @param targetShardSize
+     *            the maximum number of targets per shard
+     * @return a list of shards
+     */
+    static <G, T> List<Map<G, Collection<T>>> packIntoShards(Map<G, ? extends Collection<T>> targetsByGroup,
+            Comparator<G> groupOrder, Comparator<T> targetOrder, int targetShardSize) {
+        List<Map<G, Collection<T>>> allShards = new ArrayList<>();
 
-        // in order to be predictable we sort the project alphabetically
-        SortedSet<BazelProject> sortedProjects = new TreeSet<>(Comparator.comparing(BazelProject::getName));
-        sortedProjects.addAll(targetsByProjectMap.keySet());
-        NEXT_PROJECT: for (BazelProject bazelProject : sortedProjects) {
-            // again, in order to be predictable we sort the targets alphabetically
-            SortedSet<BazelTarget> sortedTargets = new TreeSet<>(Comparator.comparing(BazelTarget::getTargetName));
-            sortedTargets.addAll(targetsByProjectMap.get(bazelProject));
+        SortedSet<G> sortedGroups = new TreeSet<>(groupOrder);
+        sortedGroups.addAll(targetsByGroup.keySet());
+        NEXT_GROUP: for (G group : sortedGroups) {
+            SortedSet<T> sortedTargets = new TreeSet<>(targetOrder);
+            sortedTargets.addAll(targetsByGroup.get(group));
 
             // find room in an existing shard
             for (var existingShard : allShards) {
                 int existingShardSize =
                         existingShard.values().stream().map(Collection::size).reduce(0, (a, b) -> a + b);
                 if ((existingShardSize + sortedTargets.size()) <= targetShardSize) {
-                    existingShard.put(bazelProject, sortedTargets);
-                    continue NEXT_PROJECT;
+                    existingShard.put(group, sortedTargets);
+                    continue NEXT_GROUP;
                 }
             }
 
             // add a new shard
-            // note, we may have to exceed the target size because we never split targets belonging to the same project
-            Map<BazelProject, Collection<BazelTarget>> newShard = new LinkedHashMap<>();
-            newShard.put(bazelProject, sortedTargets);
+            // note, we may have to exceed the target size because we never split targets belonging to the same group
+            Map<G, Collection<T>> newShard = new LinkedHashMap<>();
+            newShard.put(group, sortedTargets);
             allShards.add(newShard);
         }
 
@@ -389,6 +420,34 @@ public class ProjectPerPackageProvisioningStrategy extends BaseProvisioningStrat
         return result;
     }
 
+    @Override
+    public void primeCaches(Collection<TargetExpression> targets, BazelWorkspace workspace, IProgressMonitor progress)
+            throws CoreException {
+        Map<String, List<BazelLabel>> targetsByPackage = targets.stream()
+                .filter(Label.class::isInstance)
+                .map(TargetExpression::toString)
+                .map(BazelLabel::new)
+                .collect(groupingBy(BazelLabel::getPackagePath));
+        if (targetsByPackage.isEmpty()) {
+            return;
+        }
+
+        // shard like the classpath computation (one project per package) so each build is found in Bazel's caches later
+        List<List<BazelLabel>> shards;
+        if (!workspace.getBazelProjectView().shardSync()) {
+            shards = List.of(targetsByPackage.values().stream().flatMap(List::stream).toList());
+        } else {
+            shards = packIntoShards(
+                targetsByPackage,
+                Comparator.<String> naturalOrder(),
+                Comparator.comparing(BazelLabel::getTargetName),
+                workspace.getBazelProjectView().targetShardSize()).stream()
+                        .map(shard -> shard.values().stream().flatMap(Collection::stream).toList())
+                        .toList();
+        }
+        primeCachesWithIntelliJAspects(shards, workspace, progress);
+    }
+
     private char getProjectNameSeparatorChar(BazelPackage bazelPackage) throws CoreException {
         var separatorChar = bazelPackage.getBazelWorkspace()
                 .getBazelProjectView()
@@ -1,25 +1,42 @@
 package com.salesforce.bazel.eclipse.core.model.discovery;
 
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.CLASSPATH_CONTAINER_PROBLEM_MARKER;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
-import static org.eclipse.core.runtime.SubMonitor.SUPPRESS_ALL_LABELS;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.SubMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.idea.blaze.base.command.buildresult.ParsedBepOutput;
+import com.google.idea.blaze.base.model.primitives.Label;
 import com.google.idea.blaze.base.model.primitives.LanguageClass;
+import com.google.idea.blaze.base.model.primitives.TargetExpression;
 import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope;
 import com.salesforce.bazel.eclipse.core.classpath.CompileAndRuntimeClasspath;
 import com.salesforce.bazel.eclipse.core.model.BazelProject;
@@ -52,14 +69,108 @@ public class ProjectPerTargetProvisioningStrategy extends BaseProvisioningStrate
 
     public static final String STRATEGY_NAME = "project-per-target";
 
+    /**
+     * Maximum number of shards whose aspect output is analyzed in the background while the next shard is built.
+     * <p>
+     * Each shard's parsed build output is held in memory until its analysis is complete. This limits the number of
+     * parsed outputs kept at the same time to this value plus the one of the shard currently being built.
+     * </p>
+     */
+    static final int MAX_SHARDS_PENDING_ANALYSIS = 2;
+
+    /**
+     * {@return a new executor for analyzing the aspect output of shards in the background}
+     * <p>
+     * Analysis is long running and must not occupy threads of the common pool. The executor runs at most
+     * {@link #MAX_SHARDS_PENDING_ANALYSIS} analyses concurrently on daemon threads, which terminate when idle.
+     * </p>
+     */
+    static ExecutorService newShardAnalysisExecutor() {
+        var threadCount = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(
+                MAX_SHARDS_PENDING_ANALYSIS,
+                MAX_SHARDS_PENDING_ANALYSIS,
+                10,
+                SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    var thread = new Thread(runnable, "Bazel Aspect Analysis " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Result of analyzing the aspect output of a single shard.
+     */
+    private static record ShardAnalysisResult(Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject,
+            Map<BazelProject, List<IStatus>> problemsByProject) {
+    }
+
+    private ShardAnalysisResult analyzeShard(ParsedBepOutput result, List<BazelProject> shard,
+            BazelWorkspace workspace, Set<BazelLabel> availableDependencies) throws CoreException {
+        Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject = new HashMap<>();
+        Map<BazelProject, List<IStatus>> problemsByProject = new HashMap<>();
+        var aspectsInfo = new JavaAspectsInfo(result, workspace);
+        for (BazelProject bazelProject : shard) {
+            // build index of classpath info
+            var classpathInfo =
+                    new JavaAspectsClasspathInfo(aspectsInfo, workspace, availableDependencies, bazelProject);
+            var buildPathProblems = new ArrayList<IStatus>();
+
+            // add the target
+            var problem = classpathInfo.addTarget(bazelProject.getBazelTarget());
+            if (!problem.isOK()) {
+                buildPathProblems.add(problem);
+            }
+
+            // compute the classpath
+            classpathsByProject.put(bazelProject, classpathInfo.compute());
+            buildPathProblems.addAll(classpathInfo.getClasspathProblems());
+            problemsByProject.put(bazelProject, buildPathProblems);
+        }
+        return new ShardAnalysisResult(classpathsByProject, problemsByProject);
+    }
+
+    private void collectShardAnalysisResult(CompletableFuture<ShardAnalysisResult> pendingAnalysis,
+            Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject, ProblemMarkerBatch problemMarkers,
+            TracingSubMonitor monitor) throws CoreException {
+        ShardAnalysisResult result;
+        try {
+            result = pendingAnalysis.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CoreException coreException) {
+                throw coreException;
+            }
+            throw new CoreException(
+                    Status.error(format("Error analyzing Bazel aspect info: %s", e.getCause().getMessage()), e));
+        }
+
+        classpathsByProject.putAll(result.classpathsByProject());
+        for (Entry<BazelProject, List<IStatus>> entry : result.problemsByProject().entrySet()) {
+            // replace old markers with detected issues
+            var project = entry.getKey().getProject();
+            problemMarkers.replaceMarkers(project, CLASSPATH_CONTAINER_PROBLEM_MARKER);
+            for (IStatus problem : entry.getValue()) {
+                problemMarkers.addProblem(project, CLASSPATH_CONTAINER_PROBLEM_MARKER, problem);
+            }
+        }
+        monitor.done();
+    }
+
     @Override
     public Map<BazelProject, CompileAndRuntimeClasspath> computeClasspaths(Collection<BazelProject> bazelProjects,
             BazelWorkspace workspace, BazelClasspathScope scope, IProgressMonitor progress) throws CoreException {
         LOG.debug("Computing classpath for projects: {}", bazelProjects);
+        Deque<CompletableFuture<ShardAnalysisResult>> pendingAnalyses = new ArrayDeque<>();
+        var analysisExecutor = newShardAnalysisExecutor();
         try {
-            var monitor = SubMonitor.convert(progress, "Computing Bazel project classpaths", 1 + bazelProjects.size());
+            var monitor =
+                    TracingSubMonitor.convert(progress, "Computing Bazel project classpaths", 1 + bazelProjects.size());
 
-            List<BazelLabel> targetsToBuild = new ArrayList<>(bazelProjects.size());
+            Map<BazelLabel, BazelProject> projectsByTarget = new LinkedHashMap<>();
             for (BazelProject bazelProject : bazelProjects) {
                 monitor.checkCanceled();
 
@@ -71,12 +182,13 @@ public class ProjectPerTargetProvisioningStrategy extends BaseProvisioningStrate
                                     bazelProjects)));
                 }
 
-                targetsToBuild.add(bazelProject.getBazelTarget().getLabel());
+                projectsByTarget.put(bazelProject.getBazelTarget().getLabel(), bazelProject);
             }
 
             var workspaceRoot = workspace.getLocation().toPath();
 
-            var availableDependencies = queryForDepsWithClasspathDepth(workspace, targetsToBuild);
+            var availableDependencies =
+                    queryForDepsWithClasspathDepth(workspace, List.copyOf(projectsByTarget.keySet()));
 
             // run the aspect to compute all required information
             var aspects = workspace.getParent().getModelManager().getIntellijAspects();
@@ -88,59 +200,152 @@ public class ProjectPerTargetProvisioningStrategy extends BaseProvisioningStrate
                 outputGroupNames = new HashSet<>(outputGroupNames);
                 outputGroupNames.add(IntellijAspects.OUTPUT_GROUP_JAVA_RUNTIME_CLASSPATH);
             }
-            var command = new BazelBuildWithIntelliJAspectsCommand(
-                    workspaceRoot,
-                    targetsToBuild,
-                    outputGroupNames,
-                    aspects,
-                    new BazelWorkspaceBlazeInfo(workspace),
-                    "Running build with IntelliJ aspects to collect classpath information");
-
-            // sync_flags
-            command.addCommandArgs(workspace.getBazelProjectView().syncFlags());
-
-            monitor.subTask("Running Bazel build with aspects");
-            var result = workspace.getCommandExecutor()
-                    .runDirectlyWithinExistingWorkspaceLock(
-                        command,
-                        bazelProjects.stream().map(BazelProject::getProject).collect(toList()),
-                        monitor.split(1, SUPPRESS_ALL_LABELS));
-
-            // populate map from result
-            Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject = new HashMap<>();
-            var aspectsInfo = new JavaAspectsInfo(result, workspace);
-            for (BazelProject bazelProject : bazelProjects) {
-                monitor.subTask(bazelProject.getName());
-                monitor.checkCanceled();
 
-                // build index of classpath info
-                var classpathInfo =
-                        new JavaAspectsClasspathInfo(aspectsInfo, workspace, availableDependencies, bazelProject);
+            // optimize parsing
+            Interner<String> interner = Interners.newStrongInterner();
+
+            // split into shards
+            monitor.subTask("Collecting shards...");
+            var shardsToBuild = createShards(projectsByTarget, workspace);
+            monitor.setWorkRemaining(1 + (5 * shardsToBuild.size()));
+
+            // markers are collected and applied in bulk at the end
+            Map<BazelProject, CompileAndRuntimeClasspath> classpathsByProject = new HashMap<>();
+            var problemMarkers = new ProblemMarkerBatch();
 
-                // remove old marker
-                deleteClasspathContainerProblems(bazelProject);
+            // run the build per shard and analyze the output in the background while the next shard is built
+            var currentShardCount = 0;
+            for (List<BazelProject> shard : shardsToBuild) {
+                currentShardCount++;
 
-                // add the target
-                var problem = classpathInfo.addTarget(bazelProject.getBazelTarget());
-                if (!problem.isOK()) {
-                    createClasspathContainerProblem(bazelProject, problem);
+                List<BazelLabel> targetsToBuild = new ArrayList<>(shard.size());
+                for (BazelProject bazelProject : shard) {
+                    targetsToBuild.add(bazelProject.getBazelTarget().getLabel());
+                }
+                var command = new BazelBuildWithIntelliJAspectsCommand(
+                        workspaceRoot,
+                        targetsToBuild,
+                        outputGroupNames,
+                        aspects,
+                        new BazelWorkspaceBlazeInfo(workspace),
+                        format(
+                            "Running build with IDE aspects (shard %d of %d, %d targets)",
+                            currentShardCount,
+                            shardsToBuild.size(),
+                            targetsToBuild.size()));
+                // sync_flags
+                command.addCommandArgs(workspace.getBazelProjectView().syncFlags());
+
+                // optimize memory during parsing
+                command.setInterner(interner);
+
+                monitor.subTask(
+                    format("Running build with IDE aspects (shard %d of %d)", currentShardCount, shardsToBuild.size()));
+                var result = workspace.getCommandExecutor()
+                        .runDirectlyWithinExistingWorkspaceLock(
+                            command,
+                            shard.stream().map(BazelProject::getProject).collect(toList()),
+                            monitor.slice(3));
+
+                // limit the number of parsed outputs held in memory
+                while (pendingAnalyses.size() >= MAX_SHARDS_PENDING_ANALYSIS) {
+                    collectShardAnalysisResult(
+                        pendingAnalyses.removeFirst(),
+                        classpathsByProject,
+                        problemMarkers,
+                        monitor.split(2, "Analyzing Bazel aspect info"));
                 }
 
-                // compute the classpath
-                var classpath = classpathInfo.compute();
+                pendingAnalyses.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return analyzeShard(result, shard, workspace, availableDependencies);
+                    } catch (CoreException e) {
+                        throw new CompletionException(e);
+                    }
+                }, analysisExecutor));
+            }
 
-                classpathsByProject.put(bazelProject, classpath);
-                monitor.worked(1);
+            while (!pendingAnalyses.isEmpty()) {
+                collectShardAnalysisResult(
+                    pendingAnalyses.removeFirst(),
+                    classpathsByProject,
+                    problemMarkers,
+                    monitor.split(2, "Analyzing Bazel aspect info"));
             }
 
+            // update markers in bulk
+            problemMarkers.apply(monitor.slice(1));
+
             return classpathsByProject;
         } finally {
+            pendingAnalyses.forEach(f -> f.cancel(false));
+            analysisExecutor.shutdown();
             if (progress != null) {
                 progress.done();
             }
         }
     }
 
+    /**
+     * Splits the projects into shards of at most <code>target_shard_size</code> targets.
+     *
+     * @see #createLabelShards(Collection, BazelWorkspace)
+     */
+    private List<List<BazelProject>> createShards(Map<BazelLabel, BazelProject> projectsByTarget,
+            BazelWorkspace workspace) throws CoreException {
+        return createLabelShards(projectsByTarget.keySet(), workspace).stream()
+                .map(shard -> shard.stream().map(projectsByTarget::get).toList())
+                .toList();
+    }
+
+    /**
+     * Splits the targets into shards of at most <code>target_shard_size</code> targets.
+     * <p>
+     * Targets sharing most of their transitive dependencies are put into the same shard so that each Bazel build can
+     * reuse as much of its cache as possible. If the dependency graph is not available the targets are sharded in
+     * alphabetical order.
+     * </p>
+     */
+    private List<List<BazelLabel>> createLabelShards(Collection<BazelLabel> targets, BazelWorkspace workspace)
+            throws CoreException {
+        var projectView = workspace.getBazelProjectView();
+        if (!projectView.shardSync()) {
+            LOG.warn("Sharding is disabled. Please monitor system carefuly for memory issues during sync.");
+            return List.of(List.copyOf(targets));
+        }
+
+        var targetShardSize = projectView.targetShardSize();
+        if (targets.size() <= targetShardSize) {
+            return List.of(List.copyOf(targets));
+        }
+
+        // in order to be predictable we sort the targets alphabetically
+        Map<String, BazelLabel> targetsByLabel = new TreeMap<>();
+        for (BazelLabel target : targets) {
+            targetsByLabel.put(target.toString(), target);
+        }
+        var labels = List.copyOf(targetsByLabel.keySet());
+
+        List<List<String>> labelShards;
+        try {
+            labelShards = workspace.getParent()
+                    .getModelManager()
+                    .getClasspathManager()
+                    .getDependencyGraphCache(workspace)
+                    .getGraph(workspace, targets)
+                    .partitionBySharedDependencies(labels, targetShardSize);
+        } catch (CoreException | IllegalArgumentException e) {
+            LOG.warn("Unable to shard by dependencies, falling back to alphabetical sharding: {}", e.getMessage(), e);
+            labelShards = new ArrayList<>();
+            for (var i = 0; i < labels.size(); i += targetShardSize) {
+                labelShards.add(labels.subList(i, Math.min(i + targetShardSize, labels.size())));
+            }
+        }
+
+        LOG.debug("Split {} targets into {} shards", labels.size(), labelShards.size());
+        return labelShards.stream().map(shard -> shard.stream().map(targetsByLabel::get).toList()).toList();
+    }
+
     @Override
     protected List<BazelProject> doProvisionProjects(Collection<BazelTarget> targets, TracingSubMonitor monitor)
             throws CoreException {
@@ -158,6 +363,22 @@ public class ProjectPerTargetProvisioningStrategy extends BaseProvisioningStrate
         return result;
     }
 
+    @Override
+    public void primeCaches(Collection<TargetExpression> targets, BazelWorkspace workspace, IProgressMonitor progress)
+            throws CoreException {
+        var labels = targets.stream()
+                .filter(Label.class::isInstance)
+                .map(TargetExpression::toString)
+                .map(BazelLabel::new)
+                .collect(toList());
+        if (labels.isEmpty()) {
+            return;
+        }
+
+        // use the same shards as the classpath computation so each build is found in Bazel's caches later
+        primeCachesWithIntelliJAspects(createLabelShards(labels, workspace), workspace, progress);
+    }
+
     protected BazelProject provisionJavaBinaryProject(BazelTarget target, TracingSubMonitor monitor)
             throws CoreException {
         // TODO: create a shared launch configuration
@@ -81,6 +81,37 @@ public interface TargetProvisioningStrategy {
     Map<BazelProject, CompileAndRuntimeClasspath> computeClasspaths(Collection<BazelProject> bazelProjects,
             BazelWorkspace workspace, BazelClasspathScope scope, IProgressMonitor monitor) throws CoreException;
 
+    /**
+     * Warms up Bazel caches for the targets about to be provisioned.
+     * <p>
+     * This method is called by the {@link SynchronizeProjectViewJob} before the workspace level lock is acquired, i.e.
+     * implementors must not modify workspace resources. It allows strategies to run expensive Bazel builds (eg., the
+     * builds with IDE aspects used by
+     * {@link #computeClasspaths(Collection, BazelWorkspace, BazelClasspathScope, IProgressMonitor)}) ahead of time so
+     * that the same builds later complete from Bazel's caches while the workspace is locked. Implementors should
+     * therefore run exactly the builds (including any sharding) they run later.
+     * </p>
+     * <p>
+     * Failures are not fatal. The synchronization will continue and report problems when the targets are provisioned.
+     * </p>
+     * <p>
+     * The default implementation does nothing.
+     * </p>
+     *
+     * @param targets
+     *            the targets to provision (never <code>null</code>)
+     * @param workspace
+     *            the workspace all targets belong to (never <code>null</code>)
+     * @param progress
+     *            a monitor for tracking progress and observing cancellations (never <code>null</code>)
+     * @throws CoreException
+     *             in case of problems running Bazel
+     */
+    default void primeCaches(Collection<TargetExpression> targets, BazelWorkspace workspace,
+            IProgressMonitor progress) throws CoreException {
+        // nothing to prime by default
+    }
+
     /**
      * Provisions projects in Eclipse for a collection of targets to materialize for a workspace.
      * <p>
@@ -130,4 +161,30 @@ public interface TargetProvisioningStrategy {
      */
     List<BazelProject> provisionProjectsForSelectedTargets(Collection<TargetExpression> targets,
             BazelWorkspace workspace, IProgressMonitor progress) throws CoreException;
+
+    /**
+     * Provisions projects for the targets of individual packages, eg. after their <code>BUILD</code> file changed.
+     * <p>
+     * The contract is the same as for
+     * {@link #provisionProjectsForSelectedTargets(Collection, BazelWorkspace, IProgressMonitor)} with the difference
+     * that the targets only cover a part of the workspace. Implementors must therefore leave state reflecting the whole
+     * workspace untouched (eg., problem markers reported on the workspace project by the last full synchronization).
+     * </p>
+     * <p>
+     * The default implementation delegates to
+     * {@link #provisionProjectsForSelectedTargets(Collection, BazelWorkspace, IProgressMonitor)}.
+     * </p>
+     *
+     * @param targets
+     *            the targets of the packages to provision (never <code>null</code>)
+     * @param workspace
+     *            the workspace all targets belong to (never <code>null</code>)
+     * @param progress
+     *            a monitor for tracking progress and observing cancellations (never <code>null</code>)
+     * @return a list of provisioned projects (never <code>null</code>)
+     */
+    default List<BazelProject> provisionProjectsForChangedPackages(Collection<TargetExpression> targets,
+            BazelWorkspace workspace, IProgressMonitor progress) throws CoreException {
+        return provisionProjectsForSelectedTargets(targets, workspace, progress);
+    }
 }
@@ -11,13 +11,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
 
 import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope;
 import com.salesforce.bazel.eclipse.core.classpath.CompileAndRuntimeClasspath;
@@ -35,12 +38,29 @@ import com.salesforce.bazel.eclipse.core.util.trace.TracingSubMonitor;
  * In contrast to other projects the workspace project itself does not allow real development. Instead we use it for
  * discovering all imported repositories and making them available to Eclipse for global search and discovery.
  * </p>
+ * <p>
+ * When <code>discover_workspace_jars_on_demand</code> is enabled in the project view, only a subset of the discovered
+ * libraries is put on the classpath. The remaining libraries are made available via {@link #getOnDemandLibraries()}
+ * for indexing so they can be added later when needed.
+ * </p>
  */
 public class WorkspaceClasspathStrategy extends BaseProvisioningStrategy {
 
     /** Build Path related Bazel problem */
     String WORKSPACE_BUILDPATH_PROBLEM_MARKER = BUILDPATH_PROBLEM_MARKER + ".workspace_container";
 
+    private final List<ClasspathEntry> onDemandLibraries = new ArrayList<>();
+
+    /**
+     * Computes the classpath for the workspace project including all discovered libraries.
+     *
+     * @see #computeClasspath(BazelProject, BazelWorkspace, BazelClasspathScope, Set, IProgressMonitor)
+     */
+    public CompileAndRuntimeClasspath computeClasspath(BazelProject workspaceProject, BazelWorkspace bazelWorkspace,
+            BazelClasspathScope scope, IProgressMonitor progress) throws CoreException {
+        return computeClasspath(workspaceProject, bazelWorkspace, scope, null, progress);
+    }
+
     /**
      * Computes the classpath for the workspace project.
      * <p>
@@ -54,13 +74,19 @@ public class WorkspaceClasspathStrategy extends BaseProvisioningStrategy {
      *            the workspace
      * @param scope
      *            the requested classpath code
+     * @param materializedLibraries
+     *            the locations of discovered libraries to put on the classpath when
+     *            <code>discover_workspace_jars_on_demand</code> is enabled (maybe <code>null</code> to put all
+     *            discovered libraries on the classpath)
      * @param monitor
      *            monitor for checking progress and cancellation
      * @return the computed classpath
      * @throws CoreException
      */
     public CompileAndRuntimeClasspath computeClasspath(BazelProject workspaceProject, BazelWorkspace bazelWorkspace,
-            BazelClasspathScope scope, IProgressMonitor progress) throws CoreException {
+            BazelClasspathScope scope, Set<IPath> materializedLibraries, IProgressMonitor progress)
+            throws CoreException {
+        onDemandLibraries.clear();
         try {
             var monitor = SubMonitor.convert(progress);
             monitor.beginTask("Scanning for workspace jars", 2);
@@ -123,6 +149,20 @@ public class WorkspaceClasspathStrategy extends BaseProvisioningStrategy {
                         "Some source jars are missing. Bazel does not build them by default. Consider runing 'bazel build  --output_groups=+_source_jars //...' to build any missing source jar."));
             }
 
+            if ((materializedLibraries != null) && bazelWorkspace.getBazelProjectView().discoverWorkspaceJarsOnDemand()) {
+                // keep only what is needed and leave the rest for the type index
+                List<ClasspathEntry> materialized = new ArrayList<>();
+                for (ClasspathEntry entry : result) {
+                    if ((entry.getEntryKind() != IClasspathEntry.CPE_LIBRARY)
+                            || materializedLibraries.contains(entry.getPath())) {
+                        materialized.add(entry);
+                    } else {
+                        onDemandLibraries.add(entry);
+                    }
+                }
+                return new CompileAndRuntimeClasspath(materialized, Collections.emptyList());
+            }
+
             return new CompileAndRuntimeClasspath(result, Collections.emptyList());
         } finally {
             progress.done();
@@ -139,6 +179,13 @@ public class WorkspaceClasspathStrategy extends BaseProvisioningStrategy {
         return Map.of(workspaceProject, computeClasspath(workspaceProject, workspace, scope, monitor));
     }
 
+    /**
+     * {@return the discovered libraries left off the classpath by the last classpath computation}
+     */
+    public List<ClasspathEntry> getOnDemandLibraries() {
+        return Collections.unmodifiableList(onDemandLibraries);
+    }
+
     @Override
     protected List<BazelProject> doProvisionProjects(Collection<BazelTarget> targets, TracingSubMonitor monitor)
             throws CoreException {
@@ -0,0 +1,212 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery.analyzers.starlark;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.starlark.java.eval.EvalException;
+import net.starlark.java.eval.Module;
+import net.starlark.java.eval.Mutability;
+import net.starlark.java.eval.Starlark;
+import net.starlark.java.eval.StarlarkSemantics;
+import net.starlark.java.eval.StarlarkThread;
+import net.starlark.java.syntax.FileOptions;
+import net.starlark.java.syntax.ParserInput;
+import net.starlark.java.syntax.Program;
+import net.starlark.java.syntax.StarlarkFile;
+import net.starlark.java.syntax.SyntaxError;
+
+/**
+ * A cache of evaluated Starlark modules (<code>.bzl</code> files).
+ * <p>
+ * Evaluating a <code>.bzl</code> file is expensive. Once evaluated, a module is frozen and its functions can be called
+ * from any thread. The cache therefore keeps evaluated modules by file. Each entry records the content digests of the
+ * file and of all files it (transitively) loads. An entry is re-used only as long as all digests still match, i.e. a
+ * modification of a loaded <code>.bzl</code> file invalidates all modules loading it.
+ * </p>
+ * <p>
+ * Load statements are supported for labels within the main repository (<code>//pkg:file.bzl</code>) and relative to
+ * the loading file (<code>:file.bzl</code>).
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public final class StarlarkModuleCache {
+
+    private record CachedModule(Module module, Map<Path, String> digests) {
+
+        boolean isUpToDate() {
+            for (Entry<Path, String> entry : digests.entrySet()) {
+                try {
+                    if (!entry.getValue().equals(sha256(Files.readAllBytes(entry.getKey())))) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(StarlarkModuleCache.class);
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private final StarlarkSemantics semantics;
+    private final Map<Path, CachedModule> modules = new HashMap<>();
+
+    /**
+     * @param semantics
+     *            the semantics for evaluating modules
+     */
+    public StarlarkModuleCache(StarlarkSemantics semantics) {
+        this.semantics = semantics;
+    }
+
+    /**
+     * Removes all cached modules.
+     */
+    public synchronized void clear() {
+        modules.clear();
+    }
+
+    /**
+     * Returns the evaluated module of a <code>.bzl</code> file, evaluating it if necessary.
+     *
+     * @param workspaceRoot
+     *            the workspace root for resolving absolute load labels
+     * @param bzlFile
+     *            the absolute path to the <code>.bzl</code> file
+     * @return the evaluated (and frozen) module
+     * @throws CoreException
+     *             if the file (or any file it loads) cannot be read or evaluated
+     * @throws OperationCanceledException
+     *             if the evaluation was interrupted
+     */
+    public synchronized Module getModule(Path workspaceRoot, Path bzlFile)
+            throws CoreException, OperationCanceledException {
+        return load(workspaceRoot, bzlFile.toAbsolutePath().normalize(), new LinkedHashSet<>()).module();
+    }
+
+    private CachedModule load(Path workspaceRoot, Path file, Set<Path> inProgress)
+            throws CoreException, OperationCanceledException {
+        var cached = modules.get(file);
+        if ((cached != null) && cached.isUpToDate()) {
+            return cached;
+        }
+
+        if (!inProgress.add(file)) {
+            throw new CoreException(Status.error(format("Cycle in load statements: %s -> %s", inProgress, file)));
+        }
+        try {
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file);
+            } catch (NoSuchFileException e) {
+                throw new CoreException(Status.error(format("File '%s' does not exist", file), e));
+            } catch (IOException e) {
+                throw new CoreException(Status.error(format("Failed to read file '%s'", file), e));
+            }
+
+            Map<Path, String> digests = new LinkedHashMap<>();
+            digests.put(file, sha256(content));
+
+            var module = Module.withPredeclared(semantics, Map.of());
+            var starlarkFile = StarlarkFile.parse(ParserInput.fromUTF8(content, file.toString()), FileOptions.DEFAULT);
+            var program = Program.compileFile(starlarkFile, module);
+
+            Map<String, Module> loadedModules = new HashMap<>();
+            for (String load : program.getLoads()) {
+                var loaded = load(workspaceRoot, resolveLoad(workspaceRoot, file, load), inProgress);
+                loadedModules.put(load, loaded.module());
+                digests.putAll(loaded.digests());
+            }
+
+            try (var mu = Mutability.create("module", file)) {
+                var thread = StarlarkThread.createTransient(mu, semantics);
+                thread.setLoader(loadedModules::get);
+                Starlark.execFileProgram(program, module, thread);
+            }
+
+            LOG.debug("Evaluated Starlark module '{}'", file);
+            cached = new CachedModule(module, Map.copyOf(digests));
+            modules.put(file, cached);
+            return cached;
+        } catch (SyntaxError.Exception e) {
+            throw new CoreException(Status.error(format("Syntax error in file '%s': %s", file, e.getMessage()), e));
+        } catch (EvalException e) {
+            throw new CoreException(
+                    Status.error(format("Evaluation error in file '%s': %s", file, e.getMessage()), e));
+        } catch (InterruptedException e) {
+            throw new OperationCanceledException("Interrupted while executing Starlark");
+        } finally {
+            inProgress.remove(file);
+        }
+    }
+
+    private Path resolveLoad(Path workspaceRoot, Path loadingFile, String load) throws CoreException {
+        if (load.startsWith("@@//")) {
+            load = load.substring(2);
+        } else if (load.startsWith("@//")) {
+            load = load.substring(1);
+        }
+        if (load.startsWith(":")) {
+            return loadingFile.resolveSibling(load.substring(1)).normalize();
+        }
+        if (load.startsWith("//")) {
+            var separator = load.indexOf(':');
+            if (separator < 0) {
+                throw new CoreException(Status.error(format("Invalid load label '%s' in '%s'", load, loadingFile)));
+            }
+            return workspaceRoot.resolve(load.substring(2, separator))
+                    .resolve(load.substring(separator + 1))
+                    .toAbsolutePath()
+                    .normalize();
+        }
+        throw new CoreException(
+                Status.error(
+                    format(
+                        "Unsupported load label '%s' in '%s'. Only main repository labels are supported.",
+                        load,
+                        loadingFile)));
+    }
+}
@@ -42,6 +42,24 @@ public final class ClasspathEntry {
 
     private static final String ATTRIBUTE_BAZEL_TARGET_NAME = "bazel-target-name";
 
+    /**
+     * Creates a copy of an existing entry including its source attachment and exported flag.
+     * <p>
+     * In contrast to {@link #fromExisting(IClasspathEntry)} the result builds into an entry equal to the given one.
+     * </p>
+     *
+     * @param entry
+     *            the entry to copy
+     * @return the mutable copy
+     */
+    public static ClasspathEntry copyOf(IClasspathEntry entry) {
+        var classpathEntry = fromExisting(entry);
+        classpathEntry.setSourceAttachmentPath(entry.getSourceAttachmentPath());
+        classpathEntry.setSourceAttachmentRootPath(entry.getSourceAttachmentRootPath());
+        classpathEntry.setExported(entry.isExported());
+        return classpathEntry;
+    }
+
     public static ClasspathEntry fromExisting(IClasspathEntry entry) {
         var classpathEntry = new ClasspathEntry(entry.getPath(), entry.getEntryKind());
         for (IAccessRule rule : entry.getAccessRules()) {
@@ -0,0 +1,48 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+
+/**
+ * A jar recorded in a {@link TypeIndex}.
+ *
+ * @param jar
+ *            the absolute location of the jar
+ * @param targetLabel
+ *            the label of the Bazel target producing or importing the jar (maybe <code>null</code> if unknown)
+ * @param sourceJar
+ *            the absolute location of the source jar (maybe <code>null</code>)
+ * @param lastModified
+ *            the last modified time stamp of the jar when it was indexed
+ * @param size
+ *            the size of the jar when it was indexed
+ */
+public record IndexedJar(Path jar, Label targetLabel, Path sourceJar, long lastModified, long size) {
+
+    /**
+     * {@return <code>true</code> if the jar still exists with the size and time stamp it had when it was indexed}
+     */
+    public boolean isUpToDate() {
+        try {
+            return (Files.size(jar) == size) && (Files.getLastModifiedTime(jar).toMillis() == lastModified);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath.index;
+
+/**
+ * A type recorded in a {@link TypeIndex}.
+ *
+ * @param fullyQualifiedName
+ *            the fully qualified name of the type (eg., <code>java.util.List</code>)
+ * @param jar
+ *            the jar containing the type
+ */
+public record IndexedType(String fullyQualifiedName, IndexedJar jar) {
+
+    /**
+     * {@return the package name of the type (empty string for the default package)}
+     */
+    public String packageName() {
+        var lastDot = fullyQualifiedName.lastIndexOf('.');
+        return lastDot < 0 ? "" : fullyQualifiedName.substring(0, lastDot);
+    }
+}
@@ -0,0 +1,332 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath.index;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+
+/**
+ * A persisted, memory-mapped index of Java types and packages to the jars providing them.
+ * <p>
+ * The index answers questions like "which jar (and Bazel target) provides type <code>com.example.Foo</code>" without
+ * opening any jar and without loading the index onto the heap. The index file is mapped into memory and all lookups
+ * are binary searches directly on the mapped bytes. Only the records of a match are materialized.
+ * </p>
+ * <p>
+ * The index is immutable. Use {@link TypeIndexWriter} for creating a new (or updating an existing) index.
+ * </p>
+ * <p>
+ * File format (all numbers are big endian):
+ *
+ * <pre>
+ * header:       int magic, int version, int jarCount, int typeCount, int packageCount,
+ *               int jarTableOffset, int typeTableOffset, int simpleNameTableOffset, int packageTableOffset,
+ *               int stringPoolOffset
+ * jar table:    (int path, int targetLabel, int sourceJar, int reserved, long lastModified, long size)* sorted by path
+ * type table:   (int name, int simpleName, int jar)* sorted by name
+ * simple names: (int typeTableIndex)* sorted by simple name
+ * packages:     (int name, int jar)* sorted by name
+ * string pool:  (int length, byte[length] utf8)*
+ * </pre>
+ *
+ * Strings are referenced by their offset into the string pool (<code>-1</code> for <code>null</code>). Sorting is done
+ * on the unsigned UTF-8 bytes.
+ * </p>
+ */
+public final class TypeIndex {
+
+    static final int MAGIC = 0x42544958; // BTIX
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 10 * Integer.BYTES;
+    static final int JAR_RECORD_SIZE = 4 * Integer.BYTES + 2 * Long.BYTES;
+    static final int TYPE_RECORD_SIZE = 3 * Integer.BYTES;
+    static final int SIMPLE_NAME_RECORD_SIZE = Integer.BYTES;
+    static final int PACKAGE_RECORD_SIZE = 2 * Integer.BYTES;
+
+    static final int NO_STRING = -1;
+
+    /**
+     * Compares an encoded string with a string stored in the given buffer.
+     *
+     * @return a negative integer, zero, or a positive integer as the key is less than, equal to, or greater than the
+     *         stored string
+     */
+    static int compare(byte[] key, ByteBuffer buffer, int stringOffset) {
+        var length = buffer.getInt(stringOffset);
+        var start = stringOffset + Integer.BYTES;
+        var common = Math.min(key.length, length);
+        for (var i = 0; i < common; i++) {
+            var result = Byte.compareUnsigned(key[i], buffer.get(start + i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return key.length - length;
+    }
+
+    /**
+     * Opens an existing index file.
+     *
+     * @param file
+     *            the index file
+     * @return the index
+     * @throws IOException
+     *             if the file cannot be read or is not a compatible index file
+     */
+    public static TypeIndex open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(format("Type index '%s' is truncated.", file));
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(format("Type index '%s' is too large.", file));
+            }
+            // note: the mapping remains valid after the channel is closed
+            return new TypeIndex(file, channel.map(MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int jarCount;
+    private final int typeCount;
+    private final int packageCount;
+    private final int jarTableOffset;
+    private final int typeTableOffset;
+    private final int simpleNameTableOffset;
+    private final int packageTableOffset;
+    private final int stringPoolOffset;
+
+    private TypeIndex(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(format("File '%s' is not a type index.", file));
+        }
+        var version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException(format("Unsupported type index version '%d' in '%s'.", version, file));
+        }
+        jarCount = buffer.getInt(8);
+        typeCount = buffer.getInt(12);
+        packageCount = buffer.getInt(16);
+        jarTableOffset = buffer.getInt(20);
+        typeTableOffset = buffer.getInt(24);
+        simpleNameTableOffset = buffer.getInt(28);
+        packageTableOffset = buffer.getInt(32);
+        stringPoolOffset = buffer.getInt(36);
+        if ((stringPoolOffset > buffer.limit())
+                || (jarTableOffset + ((long) jarCount * JAR_RECORD_SIZE) > buffer.limit())
+                || (typeTableOffset + ((long) typeCount * TYPE_RECORD_SIZE) > buffer.limit())
+                || (packageTableOffset + ((long) packageCount * PACKAGE_RECORD_SIZE) > buffer.limit())) {
+            throw new IOException(format("Type index '%s' is corrupted.", file));
+        }
+    }
+
+    /**
+     * Returns the first index in <code>[0, count)</code> for which the key is less than or equal to the string at the
+     * string offset returned by the given function.
+     */
+    private int binarySearchFirst(byte[] key, int count, IntUnaryOperator stringOffsetOfRecord) {
+        var low = 0;
+        var high = count;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (compare(key, buffer, stringOffsetOfRecord.applyAsInt(mid)) > 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds a jar in the index.
+     *
+     * @param jar
+     *            the absolute location of the jar
+     * @return the indexed jar (maybe <code>null</code> if the jar is not indexed)
+     */
+    public IndexedJar findJar(Path jar) {
+        var key = jar.toString().getBytes(UTF_8);
+        var index = binarySearchFirst(key, jarCount, this::jarPathOffset);
+        if ((index < jarCount) && (compare(key, buffer, jarPathOffset(index)) == 0)) {
+            return readJar(index);
+        }
+        return null;
+    }
+
+    /**
+     * Finds all jars containing types in the given package.
+     *
+     * @param packageName
+     *            the package name (eg., <code>java.util</code>)
+     * @return a list of jars (never <code>null</code>)
+     */
+    public List<IndexedJar> findJarsContainingPackage(String packageName) {
+        var key = packageName.getBytes(UTF_8);
+        var result = new ArrayList<IndexedJar>();
+        for (var index = binarySearchFirst(key, packageCount, this::packageNameOffset); (index < packageCount)
+                && (compare(key, buffer, packageNameOffset(index)) == 0); index++) {
+            result.add(readJar(buffer.getInt(packageTableOffset + (index * PACKAGE_RECORD_SIZE) + Integer.BYTES)));
+        }
+        return result;
+    }
+
+    /**
+     * Finds all jars containing the given type.
+     * <p>
+     * Usually a type is provided by only one jar. However, it's not uncommon in large workspaces to have the same type
+     * in multiple jars.
+     * </p>
+     *
+     * @param fullyQualifiedName
+     *            the fully qualified name of the type (eg., <code>java.util.List</code>)
+     * @return a list of jars (never <code>null</code>)
+     */
+    public List<IndexedJar> findJarsContainingType(String fullyQualifiedName) {
+        var key = fullyQualifiedName.getBytes(UTF_8);
+        var result = new ArrayList<IndexedJar>();
+        for (var index = binarySearchFirst(key, typeCount, this::typeNameOffset); (index < typeCount)
+                && (compare(key, buffer, typeNameOffset(index)) == 0); index++) {
+            result.add(readJar(typeJarIndex(index)));
+        }
+        return result;
+    }
+
+    /**
+     * Finds all types with the given simple name.
+     *
+     * @param simpleName
+     *            the simple name of the type (eg., <code>List</code>)
+     * @return a list of types (never <code>null</code>)
+     */
+    public List<IndexedType> findTypesBySimpleName(String simpleName) {
+        var key = simpleName.getBytes(UTF_8);
+        var result = new ArrayList<IndexedType>();
+        var index = binarySearchFirst(key, typeCount, this::simpleNameOffsetOfSimpleNameRecord);
+        for (; (index < typeCount) && (compare(key, buffer, simpleNameOffsetOfSimpleNameRecord(index)) == 0); index++) {
+            var typeIndex = buffer.getInt(simpleNameTableOffset + (index * SIMPLE_NAME_RECORD_SIZE));
+            result.add(new IndexedType(readString(typeNameOffset(typeIndex)), readJar(typeJarIndex(typeIndex))));
+        }
+        return result;
+    }
+
+    /**
+     * {@return all jars in the index}
+     */
+    public List<IndexedJar> getAllJars() {
+        var result = new ArrayList<IndexedJar>(jarCount);
+        for (var i = 0; i < jarCount; i++) {
+            result.add(readJar(i));
+        }
+        return result;
+    }
+
+    /**
+     * {@return the index file}
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * {@return the number of jars in the index}
+     */
+    public int getJarCount() {
+        return jarCount;
+    }
+
+    /**
+     * {@return the number of types in the index}
+     */
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    private int jarPathOffset(int jarIndex) {
+        return stringPoolOffset + buffer.getInt(jarTableOffset + (jarIndex * JAR_RECORD_SIZE));
+    }
+
+    private int packageNameOffset(int packageIndex) {
+        return stringPoolOffset + buffer.getInt(packageTableOffset + (packageIndex * PACKAGE_RECORD_SIZE));
+    }
+
+    IndexedJar readJar(int jarIndex) {
+        var recordOffset = jarTableOffset + (jarIndex * JAR_RECORD_SIZE);
+        var path = readString(stringPoolOffset + buffer.getInt(recordOffset));
+        var targetLabel = readOptionalString(buffer.getInt(recordOffset + Integer.BYTES));
+        var sourceJar = readOptionalString(buffer.getInt(recordOffset + (2 * Integer.BYTES)));
+        var lastModified = buffer.getLong(recordOffset + (4 * Integer.BYTES));
+        var size = buffer.getLong(recordOffset + (4 * Integer.BYTES) + Long.BYTES);
+        return new IndexedJar(
+                Path.of(path),
+                targetLabel != null ? Label.createIfValid(targetLabel) : null,
+                sourceJar != null ? Path.of(sourceJar) : null,
+                lastModified,
+                size);
+    }
+
+    private String readOptionalString(int relativeOffset) {
+        return relativeOffset == NO_STRING ? null : readString(stringPoolOffset + relativeOffset);
+    }
+
+    private String readString(int stringOffset) {
+        var length = buffer.getInt(stringOffset);
+        var bytes = new byte[length];
+        buffer.get(stringOffset + Integer.BYTES, bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Reads the name of a type (for use by {@link TypeIndexWriter} when carrying over unchanged jars).
+     */
+    String readTypeName(int typeIndex) {
+        return readString(typeNameOffset(typeIndex));
+    }
+
+    private int simpleNameOffsetOfSimpleNameRecord(int index) {
+        var typeIndex = buffer.getInt(simpleNameTableOffset + (index * SIMPLE_NAME_RECORD_SIZE));
+        return stringPoolOffset + buffer.getInt(typeTableOffset + (typeIndex * TYPE_RECORD_SIZE) + Integer.BYTES);
+    }
+
+    int typeJarIndex(int typeIndex) {
+        return buffer.getInt(typeTableOffset + (typeIndex * TYPE_RECORD_SIZE) + (2 * Integer.BYTES));
+    }
+
+    private int typeNameOffset(int typeIndex) {
+        return stringPoolOffset + buffer.getInt(typeTableOffset + (typeIndex * TYPE_RECORD_SIZE));
+    }
+
+    @Override
+    public String toString() {
+        return format("TypeIndex[%s, jars=%d, types=%d]", file, jarCount, typeCount);
+    }
+}
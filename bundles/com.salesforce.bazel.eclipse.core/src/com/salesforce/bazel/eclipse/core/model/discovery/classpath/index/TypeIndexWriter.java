@@ -0,0 +1,372 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath.index;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.isRegularFile;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+import com.salesforce.bazel.eclipse.core.util.jar.BazelJarFile;
+
+/**
+ * Writes a {@link TypeIndex}.
+ * <p>
+ * The writer supports incremental updates. When created with a previous index, all jars of the previous index are
+ * carried over unless they no longer exist. Jars added again are only re-scanned when their size or last modified time
+ * stamp changed. Thus, repeated updates (eg., after each sync) only pay for jars that actually changed.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public final class TypeIndexWriter {
+
+    private static Logger LOG = LoggerFactory.getLogger(TypeIndexWriter.class);
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+    private static final String MULTI_RELEASE_PREFIX = "META-INF/versions/";
+
+    /** the order used in the index file (must match {@link TypeIndex#compare(byte[], java.nio.ByteBuffer, int)}) */
+    private static final Comparator<String> UTF8_ORDER =
+            (a, b) -> Arrays.compareUnsigned(a.getBytes(UTF_8), b.getBytes(UTF_8));
+
+    /**
+     * Converts a jar entry name into a fully qualified type name.
+     *
+     * @return the type name or <code>null</code> if the entry is not a top level type
+     */
+    static String toTypeName(String entryName) {
+        if (!entryName.endsWith(CLASS_FILE_EXTENSION)) {
+            return null;
+        }
+        if (entryName.startsWith(MULTI_RELEASE_PREFIX)) {
+            // META-INF/versions/<n>/<binary name>.class
+            var versionEnd = entryName.indexOf('/', MULTI_RELEASE_PREFIX.length());
+            if (versionEnd < 0) {
+                return null;
+            }
+            entryName = entryName.substring(versionEnd + 1);
+        } else if (entryName.startsWith("META-INF/")) {
+            return null;
+        }
+
+        var binaryName = entryName.substring(0, entryName.length() - CLASS_FILE_EXTENSION.length());
+        if ((binaryName.indexOf('$') > -1) || binaryName.endsWith("module-info")
+                || binaryName.endsWith("package-info")) {
+            return null; // only index top level types
+        }
+        return binaryName.replace('/', '.');
+    }
+
+    private final TypeIndex previous;
+    private final Map<String, PendingJar> jars = new HashMap<>();
+
+    /**
+     * Creates a new writer.
+     *
+     * @param previous
+     *            a previous index to carry over entries from (maybe <code>null</code>)
+     */
+    public TypeIndexWriter(TypeIndex previous) {
+        this.previous = previous;
+        if (previous != null) {
+            var allJars = previous.getAllJars();
+            for (var i = 0; i < allJars.size(); i++) {
+                var jar = allJars.get(i);
+                jars.put(jar.jar().toString(), new PendingJar(jar, null, i));
+            }
+        }
+    }
+
+    /**
+     * Adds a jar to the index.
+     * <p>
+     * The jar is scanned for types unless it was part of the previous index and did not change.
+     * </p>
+     *
+     * @param jar
+     *            the absolute location of the jar
+     * @param targetLabel
+     *            the label of the target providing the jar (maybe <code>null</code>, in which case the jar's manifest
+     *            will be consulted)
+     * @param sourceJar
+     *            the absolute location of the source jar (maybe <code>null</code>)
+     * @throws IOException
+     *             in case of errors reading the jar
+     */
+    public void addJar(Path jar, Label targetLabel, Path sourceJar) throws IOException {
+        var key = jar.toString();
+        var lastModified = Files.getLastModifiedTime(jar).toMillis();
+        var size = Files.size(jar);
+
+        var existing = jars.get(key);
+        if ((existing != null) && (existing.previousJarIndex >= 0) && (existing.jar.lastModified() == lastModified)
+                && (existing.jar.size() == size)) {
+            // unchanged, carry over types from previous index but refresh meta data
+            var label = targetLabel != null ? targetLabel : existing.jar.targetLabel();
+            var source = sourceJar != null ? sourceJar : existing.jar.sourceJar();
+            jars.put(
+                key,
+                new PendingJar(
+                        new IndexedJar(jar, label, source, lastModified, size),
+                        null,
+                        existing.previousJarIndex));
+            return;
+        }
+
+        var typeNames = new TreeSet<String>();
+        try (var jarFile = new BazelJarFile(jar)) {
+            if (targetLabel == null) {
+                targetLabel = jarFile.getTargetLabel();
+            }
+            var entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                var typeName = toTypeName(entry.getName());
+                if (typeName != null) {
+                    typeNames.add(typeName);
+                }
+            }
+        }
+        var indexedJar = new IndexedJar(jar, targetLabel, sourceJar, lastModified, size);
+        jars.put(key, new PendingJar(indexedJar, List.copyOf(typeNames), -1));
+    }
+
+    /**
+     * Removes all jars from the index which no longer exist on the file system.
+     */
+    public void removeMissingJars() {
+        jars.values().removeIf(p -> !isRegularFile(p.jar.jar()));
+    }
+
+    /**
+     * Writes the index to the specified file.
+     * <p>
+     * The file is written to a temporary file first and then moved into its final location. The file must not be the
+     * file of an opened {@link TypeIndex}. It remains mapped until garbage collected, which prevents replacing it on
+     * some platforms (eg., Windows).
+     * </p>
+     *
+     * @param file
+     *            the index file
+     * @throws IOException
+     *             in case of errors writing the file
+     */
+    public void write(Path file) throws IOException {
+        var strings = new StringPool();
+
+        // jars
+        var jarList = new ArrayList<>(jars.values());
+        jarList.sort((a, b) -> UTF8_ORDER.compare(a.jar.jar().toString(), b.jar.jar().toString()));
+        var jarIndexByPreviousJarIndex = new HashMap<Integer, Integer>();
+        for (var i = 0; i < jarList.size(); i++) {
+            if (jarList.get(i).previousJarIndex >= 0) {
+                jarIndexByPreviousJarIndex.put(jarList.get(i).previousJarIndex, i);
+            }
+        }
+
+        // types
+        List<TypeRecord> types = new ArrayList<>();
+        for (var i = 0; i < jarList.size(); i++) {
+            var typeNames = jarList.get(i).typeNames;
+            if (typeNames != null) {
+                for (String typeName : typeNames) {
+                    types.add(TypeRecord.create(strings, typeName, i));
+                }
+            }
+        }
+        if ((previous != null) && !jarIndexByPreviousJarIndex.isEmpty()) {
+            for (var t = 0; t < previous.getTypeCount(); t++) {
+                var jarIndex = jarIndexByPreviousJarIndex.get(previous.typeJarIndex(t));
+                if (jarIndex != null) {
+                    types.add(TypeRecord.create(strings, previous.readTypeName(t), jarIndex));
+                }
+            }
+        }
+        types.sort((a, b) -> {
+            var result = Arrays.compareUnsigned(a.name.bytes, b.name.bytes);
+            return result != 0 ? result : Integer.compare(a.jarIndex, b.jarIndex);
+        });
+
+        // simple names
+        var simpleNameOrder = new Integer[types.size()];
+        for (var i = 0; i < simpleNameOrder.length; i++) {
+            simpleNameOrder[i] = i;
+        }
+        Arrays.sort(simpleNameOrder, (a, b) -> {
+            var result = Arrays.compareUnsigned(types.get(a).simpleName.bytes, types.get(b).simpleName.bytes);
+            return result != 0 ? result : Integer.compare(a, b);
+        });
+
+        // packages (unique per jar)
+        var packages = new TreeMap<String, TreeSet<Integer>>(UTF8_ORDER);
+        for (TypeRecord type : types) {
+            packages.computeIfAbsent(type.packageName, p -> new TreeSet<>()).add(type.jarIndex);
+        }
+
+        // jar strings
+        var jarStrings = new StringPool.Entry[jarList.size()][];
+        for (var i = 0; i < jarList.size(); i++) {
+            var jar = jarList.get(i).jar;
+            jarStrings[i] = new StringPool.Entry[] {
+                    strings.add(jar.jar().toString()),
+                    jar.targetLabel() != null ? strings.add(jar.targetLabel().toString()) : null,
+                    jar.sourceJar() != null ? strings.add(jar.sourceJar().toString()) : null };
+        }
+        var packageCount = packages.values().stream().mapToInt(TreeSet::size).sum();
+        var packageNames = new HashMap<String, StringPool.Entry>();
+        for (String packageName : packages.keySet()) {
+            packageNames.put(packageName, strings.add(packageName));
+        }
+
+        // compute layout
+        var jarTableOffset = TypeIndex.HEADER_SIZE;
+        var typeTableOffset = jarTableOffset + (jarList.size() * TypeIndex.JAR_RECORD_SIZE);
+        var simpleNameTableOffset = typeTableOffset + (types.size() * TypeIndex.TYPE_RECORD_SIZE);
+        var packageTableOffset = simpleNameTableOffset + (types.size() * TypeIndex.SIMPLE_NAME_RECORD_SIZE);
+        var stringPoolOffset = packageTableOffset + (packageCount * TypeIndex.PACKAGE_RECORD_SIZE);
+
+        Files.createDirectories(file.getParent());
+        var tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024))) {
+                out.writeInt(TypeIndex.MAGIC);
+                out.writeInt(TypeIndex.VERSION);
+                out.writeInt(jarList.size());
+                out.writeInt(types.size());
+                out.writeInt(packageCount);
+                out.writeInt(jarTableOffset);
+                out.writeInt(typeTableOffset);
+                out.writeInt(simpleNameTableOffset);
+                out.writeInt(packageTableOffset);
+                out.writeInt(stringPoolOffset);
+
+                for (var i = 0; i < jarList.size(); i++) {
+                    var jar = jarList.get(i).jar;
+                    out.writeInt(jarStrings[i][0].offset);
+                    out.writeInt(jarStrings[i][1] != null ? jarStrings[i][1].offset : TypeIndex.NO_STRING);
+                    out.writeInt(jarStrings[i][2] != null ? jarStrings[i][2].offset : TypeIndex.NO_STRING);
+                    out.writeInt(0); // reserved
+                    out.writeLong(jar.lastModified());
+                    out.writeLong(jar.size());
+                }
+                for (TypeRecord type : types) {
+                    out.writeInt(type.name.offset);
+                    out.writeInt(type.simpleName.offset);
+                    out.writeInt(type.jarIndex);
+                }
+                for (Integer typeIndex : simpleNameOrder) {
+                    out.writeInt(typeIndex);
+                }
+                for (var packageEntry : packages.entrySet()) {
+                    var name = packageNames.get(packageEntry.getKey());
+                    for (Integer jarIndex : packageEntry.getValue()) {
+                        out.writeInt(name.offset);
+                        out.writeInt(jarIndex);
+                    }
+                }
+                strings.writeTo(out);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Wrote type index '{}' with {} jars and {} types", file, jarList.size(), types.size());
+        }
+    }
+
+    private static final class PendingJar {
+        final IndexedJar jar;
+        final List<String> typeNames; // null when carried over from previous index
+        final int previousJarIndex;
+
+        PendingJar(IndexedJar jar, List<String> typeNames, int previousJarIndex) {
+            this.jar = jar;
+            this.typeNames = typeNames;
+            this.previousJarIndex = previousJarIndex;
+        }
+    }
+
+    /**
+     * Deduplicating pool of strings
+     */
+    private static final class StringPool {
+
+        static final class Entry {
+            final byte[] bytes;
+            final int offset;
+
+            Entry(byte[] bytes, int offset) {
+                this.bytes = bytes;
+                this.offset = offset;
+            }
+        }
+
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final List<Entry> ordered = new ArrayList<>();
+        private int size;
+
+        Entry add(String value) {
+            var entry = entries.get(value);
+            if (entry == null) {
+                var bytes = value.getBytes(UTF_8);
+                entry = new Entry(bytes, size);
+                entries.put(value, entry);
+                ordered.add(entry);
+                size = Math.addExact(size, Integer.BYTES + bytes.length);
+            }
+            return entry;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            for (Entry entry : ordered) {
+                out.writeInt(entry.bytes.length);
+                out.write(entry.bytes);
+            }
+        }
+    }
+
+    private record TypeRecord(StringPool.Entry name, StringPool.Entry simpleName, String packageName, int jarIndex) {
+
+        static TypeRecord create(StringPool strings, String typeName, int jarIndex) {
+            var lastDot = typeName.lastIndexOf('.');
+            return new TypeRecord(
+                    strings.add(typeName),
+                    strings.add(lastDot < 0 ? typeName : typeName.substring(lastDot + 1)),
+                    lastDot < 0 ? "" : typeName.substring(0, lastDot),
+                    jarIndex);
+        }
+    }
+}
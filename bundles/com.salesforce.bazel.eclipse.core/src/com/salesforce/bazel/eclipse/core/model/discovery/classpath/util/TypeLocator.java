@@ -13,12 +13,15 @@ import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
@@ -26,12 +29,17 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.util.IClassFileReader;
 
 import com.google.idea.blaze.base.model.primitives.Label;
 import com.google.idea.blaze.base.model.primitives.TargetName;
 import com.salesforce.bazel.eclipse.core.BazelCore;
 import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.index.IndexedJar;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.index.IndexedType;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.index.TypeIndex;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.libs.LibrariesDiscoveryUtil;
 import com.salesforce.bazel.eclipse.core.util.jar.BazelJarFile;
 
@@ -131,7 +139,88 @@ public class TypeLocator extends LibrariesDiscoveryUtil {
         return null;
     }
 
+    /**
+     * {@return <code>true</code> if the given top level type is declared <code>public</code> in the jar}
+     *
+     * @param jar
+     *            the jar
+     * @param fullyQualifiedName
+     *            the fully qualified name of a top level type
+     */
+    static boolean isPublicType(Path jar, String fullyQualifiedName) {
+        var classFileReader = ToolFactory.createDefaultClassFileReader(
+            jar.toString(),
+            fullyQualifiedName.replace('.', '/') + ".class",
+            IClassFileReader.CONSTANT_POOL);
+        return (classFileReader != null) && Flags.isPublic(classFileReader.getAccessFlags());
+    }
+
+    /**
+     * Uses the {@link TypeIndex type index} of the workspace to find the origin of a Java type or package.
+     * <p>
+     * This is much faster than searching with JDT because it doesn't require the types to be on any project's
+     * classpath and doesn't open any jar (unless only public types are requested). However, the index only knows about
+     * jars which have been on a classpath computed during a previous sync. Types declared in source projects are not in
+     * the index. Callers should therefore fall back to a JDT search when nothing is found.
+     * </p>
+     *
+     * @param packageName
+     *            the package name (maybe <code>null</code> when only a simple type name is known)
+     * @param typeName
+     *            the simple or binary type name without package (maybe <code>null</code> when searching for a package)
+     * @param publicTypesOnly
+     *            <code>true</code> if only jars declaring the type <code>public</code> should be returned (requires
+     *            reading the type from each jar found in the index)
+     * @return a list of found {@link ClasspathInfo} (never <code>null</code>, empty if no index is available or
+     *         nothing is found)
+     */
+    public List<ClasspathInfo> findBazelInfosUsingTypeIndex(String packageName, String typeName,
+            boolean publicTypesOnly) {
+        var typeIndex = getTypeIndex();
+        if ((typeIndex == null) || ((packageName == null) && (typeName == null))) {
+            return List.of();
+        }
+
+        if (typeName == null) {
+            return toClasspathInfos(typeIndex.findJarsContainingPackage(packageName));
+        }
+
+        // the index only has top level types
+        var nestedTypeSeparator = typeName.indexOf('$');
+        var topLevelTypeName = nestedTypeSeparator > 0 ? typeName.substring(0, nestedTypeSeparator) : typeName;
+        List<IndexedType> types;
+        if (packageName == null) {
+            types = typeIndex.findTypesBySimpleName(topLevelTypeName);
+        } else {
+            var fullyQualifiedName = packageName + "." + topLevelTypeName;
+            types = typeIndex.findJarsContainingType(fullyQualifiedName)
+                    .stream()
+                    .map(jar -> new IndexedType(fullyQualifiedName, jar))
+                    .collect(toList());
+        }
+
+        List<IndexedJar> jars = new ArrayList<>();
+        for (IndexedType type : types) {
+            if (!publicTypesOnly || isPublicType(type.jar().jar(), type.fullyQualifiedName())) {
+                jars.add(type.jar());
+            }
+        }
+        return toClasspathInfos(jars);
+    }
+
     ClasspathInfo getBazelInfoFromJarFile(IPath jarPath) throws CoreException {
+        // try the type index first, which avoids opening the jar (unless it changed since it was indexed)
+        var typeIndex = getTypeIndex();
+        if (typeIndex != null) {
+            var indexedJar = typeIndex.findJar(jarPath.toPath());
+            if ((indexedJar != null) && indexedJar.isUpToDate()) {
+                var classpathInfo = toClasspathInfo(jarPath, indexedJar);
+                if (classpathInfo != null) {
+                    return classpathInfo;
+                }
+            }
+        }
+
         try (var jarFile = new BazelJarFile(jarPath.toPath())) {
             var targetLabel = jarFile.getTargetLabel();
             if (targetLabel == null) {
@@ -201,6 +290,32 @@ public class TypeLocator extends LibrariesDiscoveryUtil {
         return null;
     }
 
+    private TypeIndex getTypeIndex() {
+        return bazelWorkspace.getParent().getModelManager().getClasspathManager().getTypeIndex(bazelWorkspace);
+    }
+
+    private List<ClasspathInfo> toClasspathInfos(List<IndexedJar> jars) {
+        List<ClasspathInfo> result = new ArrayList<>();
+        for (IndexedJar jar : jars) {
+            var classpathInfo = toClasspathInfo(IPath.fromPath(jar.jar()), jar);
+            if (classpathInfo != null) {
+                result.add(classpathInfo);
+            }
+        }
+        return result;
+    }
+
+    private ClasspathInfo toClasspathInfo(IPath jarPath, IndexedJar indexedJar) {
+        if ((indexedJar == null) || (indexedJar.targetLabel() == null)) {
+            return null;
+        }
+        var sourceJar = indexedJar.sourceJar() != null ? IPath.fromPath(indexedJar.sourceJar())
+                : findSourceJar(jarPath.toPath());
+        return new ClasspathInfo(
+                indexedJar.targetLabel(),
+                newLibraryEntry(jarPath, sourceJar, null, false /* test only */));
+    }
+
     ClasspathInfo getBazelInfoFromSourceProject(IJavaProject javaProject) throws CoreException {
         if (!javaProject.exists() || !isBazelProject(javaProject.getProject())) {
             return null;
@@ -26,12 +26,14 @@ import org.eclipse.core.runtime.jobs.JobGroup;
 
 import com.salesforce.bazel.sdk.command.BazelCommand;
 import com.salesforce.bazel.sdk.command.BazelCommandExecutor;
+import com.salesforce.bazel.sdk.command.CancelationSignal;
 
 class BazelReadOnlyJob<R> extends Job {
 
     private final BazelCommandExecutor executor;
     private final BazelCommand<R> command;
     private final CompletableFuture<R> resultFuture;
+    private final CancelationSignal cancelationSignal = new CancelationSignal();
 
     public BazelReadOnlyJob(BazelCommandExecutor executor, BazelCommand<R> command, JobGroup jobGroup,
             CompletableFuture<R> resultFuture) {
@@ -44,6 +46,12 @@ class BazelReadOnlyJob<R> extends Job {
         setJobGroup(jobGroup);
     }
 
+    @Override
+    protected void canceling() {
+        // terminate the Bazel process right away instead of waiting for the executor to notice
+        cancelationSignal.cancel();
+    }
+
     @Override
     protected IStatus run(IProgressMonitor monitor) {
         try {
@@ -51,7 +59,7 @@ class BazelReadOnlyJob<R> extends Job {
             if (command.getPurpose() != null) {
                 monitor.subTask(command.getPurpose());
             }
-            var result = executor.execute(command, monitor::isCanceled);
+            var result = executor.execute(command, cancelationSignal);
             resultFuture.complete(result);
         } catch (RuntimeException | IOException e) {
             resultFuture.completeExceptionally(e);
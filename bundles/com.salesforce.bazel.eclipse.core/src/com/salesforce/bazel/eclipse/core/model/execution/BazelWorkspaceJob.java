@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 
 import com.salesforce.bazel.sdk.command.BazelCommand;
 import com.salesforce.bazel.sdk.command.BazelCommandExecutor;
+import com.salesforce.bazel.sdk.command.CancelationSignal;
 
 class BazelWorkspaceJob<R> extends WorkspaceJob {
 
@@ -42,6 +43,7 @@ class BazelWorkspaceJob<R> extends WorkspaceJob {
     private final BazelCommandExecutor executor;
     private final BazelCommand<R> command;
     private final CompletableFuture<R> resultFuture;
+    private final CancelationSignal cancelationSignal = new CancelationSignal();
 
     private final List<IResource> resourcesToRefresh;
 
@@ -58,6 +60,12 @@ class BazelWorkspaceJob<R> extends WorkspaceJob {
         setRule(requireNonNull(rule, "This job needs a scheduling rule. It shold probably be the workspace root!"));
     }
 
+    @Override
+    protected void canceling() {
+        // terminate the Bazel process right away instead of waiting for the executor to notice
+        cancelationSignal.cancel();
+    }
+
     private void refreshResources(SubMonitor subMonitor) {
         subMonitor.beginTask("Refreshing resources", resourcesToRefresh.size());
         for (IResource resource : resourcesToRefresh) {
@@ -77,7 +85,7 @@ class BazelWorkspaceJob<R> extends WorkspaceJob {
             if (command.getPurpose() != null) {
                 subMonitor.subTask(command.getPurpose());
             }
-            var result = executor.execute(command, monitor::isCanceled);
+            var result = executor.execute(command, cancelationSignal);
             refreshResources(subMonitor.newChild(1));
             resultFuture.complete(result);
         } catch (RuntimeException | IOException e) {
@@ -75,6 +75,7 @@ public class BazelProjectFileReader {
         final LinkedHashSet<String> testSourcesGlobs = new LinkedHashSet<>();
         boolean discoverAllExternalAndWorkspaceJars = false;
         final LinkedHashSet<String> externalJarsFilters = new LinkedHashSet<>();
+        boolean discoverWorkspaceJarsOnDemand = false;
         int targetShardSize = 500;
         boolean shardSync = true;
 
@@ -146,6 +147,7 @@ public class BazelProjectFileReader {
                     new GlobSetMatcher(testSourcesGlobs),
                     discoverAllExternalAndWorkspaceJars,
                     new GlobSetMatcher(externalJarsFilters),
+                    discoverWorkspaceJarsOnDemand,
                     shardSync,
                     targetShardSize);
         }
@@ -391,6 +393,12 @@ public class BazelProjectFileReader {
                         parseSectionBodyIntoList(rawSection).forEach(builder.externalJarsFilters::add);
                         break;
                     }
+                    case "discover_workspace_jars_on_demand": {
+                        // extension for BEF
+                        builder.discoverWorkspaceJarsOnDemand =
+                                parseSectionBodyAsBoolean(rawSection, builder.discoverWorkspaceJarsOnDemand);
+                        break;
+                    }
                     case "shard_sync": {
                         builder.shardSync = parseSectionBodyAsBoolean(rawSection, builder.shardSync);
                         break;
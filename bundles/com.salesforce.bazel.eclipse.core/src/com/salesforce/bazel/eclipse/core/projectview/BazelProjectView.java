@@ -25,6 +25,8 @@ import com.google.idea.blaze.base.model.primitives.WorkspacePath;
  * standard target provisioning strategy</li>
  * <li><code>projectMappings</code> - optional (default is empty), configures IDE to map targets to projects (useful in
  * combination with <code>--override_repository</code> to allow direct classpath resolution within the IDE)</li>
+ * <li><code>discoverWorkspaceJarsOnDemand</code> - optional (default is <code>false</code>), configures IDE to add
+ * discovered workspace and external jars to the workspace project only when needed</li>
  * </ul>
  * </p>
  */
@@ -50,6 +52,7 @@ public record BazelProjectView(
         GlobSetMatcher testSourcesGlobs,
         boolean discoverAllExternalAndWorkspaceJars,
         GlobSetMatcher externalJarsDiscoveryFilter,
+        boolean discoverWorkspaceJarsOnDemand,
         boolean shardSync,
         int targetShardSize) {
 
@@ -40,4 +40,9 @@ public interface BazelCorePreferenceKeys {
 
     String PREF_KEY_USE_SHELL_ENVIRONMENT = "useShellEnvironment";
     String PREF_KEY_BAZEL_BINARY = "bazelBinary";
+    String PREF_KEY_CLASSPATH_AUTO_REFRESH = "classpathAutoRefresh";
+    String PREF_KEY_CLASSPATH_REFRESH_DELAY = "classpathRefreshDelay";
+    String PREF_KEY_PROJECT_BUILDER_ENABLED = "projectBuilderEnabled";
+    String PREF_KEY_SYNC_MAX_CONCURRENT_WORKSPACES = "syncMaxConcurrentWorkspaces";
+    String PREF_KEY_SYNC_MEMORY_PER_WORKSPACE_MB = "syncMemoryPerWorkspaceMB";
 }
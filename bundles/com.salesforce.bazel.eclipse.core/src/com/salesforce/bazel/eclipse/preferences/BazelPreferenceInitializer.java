@@ -36,6 +36,11 @@
 package com.salesforce.bazel.eclipse.preferences;
 
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.PLUGIN_ID;
+import static com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.DEFAULT_PROJECT_BUILDER_ENABLED;
+import static com.salesforce.bazel.eclipse.core.classpath.ClasspathRefreshScheduler.DEFAULT_AUTO_REFRESH;
+import static com.salesforce.bazel.eclipse.core.classpath.ClasspathRefreshScheduler.DEFAULT_REFRESH_DELAY;
+import static com.salesforce.bazel.eclipse.core.model.SynchronizeWorkspacesJob.DEFAULT_MAX_CONCURRENT_WORKSPACES;
+import static com.salesforce.bazel.eclipse.core.model.SynchronizeWorkspacesJob.DEFAULT_MEMORY_PER_WORKSPACE_MB;
 
 import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
 import org.eclipse.core.runtime.preferences.DefaultScope;
@@ -50,5 +55,10 @@ public class BazelPreferenceInitializer extends AbstractPreferenceInitializer {
     public void initializeDefaultPreferences() {
         var node = DefaultScope.INSTANCE.getNode(PLUGIN_ID);
         node.putBoolean(BazelCorePreferenceKeys.PREF_KEY_USE_SHELL_ENVIRONMENT, SystemUtil.getInstance().isMac());
+        node.putBoolean(BazelCorePreferenceKeys.PREF_KEY_CLASSPATH_AUTO_REFRESH, DEFAULT_AUTO_REFRESH);
+        node.putLong(BazelCorePreferenceKeys.PREF_KEY_CLASSPATH_REFRESH_DELAY, DEFAULT_REFRESH_DELAY);
+        node.putBoolean(BazelCorePreferenceKeys.PREF_KEY_PROJECT_BUILDER_ENABLED, DEFAULT_PROJECT_BUILDER_ENABLED);
+        node.putInt(BazelCorePreferenceKeys.PREF_KEY_SYNC_MAX_CONCURRENT_WORKSPACES, DEFAULT_MAX_CONCURRENT_WORKSPACES);
+        node.putInt(BazelCorePreferenceKeys.PREF_KEY_SYNC_MEMORY_PER_WORKSPACE_MB, DEFAULT_MEMORY_PER_WORKSPACE_MB);
     }
 }
@@ -4,8 +4,10 @@ import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BAZEL_
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.FILE_NAME_BUILD;
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.FILE_NAME_BUILD_BAZEL;
 import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.FILE_NAME_DOT_BAZELPROJECT;
+import static java.nio.file.Files.isRegularFile;
 import static java.util.stream.Collectors.toUnmodifiableList;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -27,6 +29,7 @@ import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import com.salesforce.bazel.eclipse.core.BazelCore;
 import com.salesforce.bazel.eclipse.core.model.BazelPackage;
 import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.SynchronizePackagesJob;
 import com.salesforce.bazel.eclipse.core.model.SynchronizeProjectViewJob;
 
 @SuppressWarnings("restriction")
@@ -110,30 +113,46 @@ public class BazelBuildSupport implements IBuildSupport {
         var bazelProject = BazelCore.create(project);
         var bazelWorkspace = bazelProject.getBazelWorkspace();
 
-        var changed = false;
-        if (bazelProject.isPackageProject()) {
-            changed = digestStore.updateDigest(bazelProject.getBazelPackage().getBuildFile());
-        } else if (bazelProject.isTargetProject()) {
-            changed = digestStore.updateDigest(bazelProject.getBazelTarget().getBazelPackage().getBuildFile());
-        } else {
-            // check both WORKSPACE and .bazelproject
-            changed = digestStore.updateDigest(bazelWorkspace.getWorkspaceFile())
+        if (bazelProject.isWorkspaceProject()) {
+            // check WORKSPACE, MODULE.bazel and .bazelproject (all require a full sync)
+            var changed = digestStore.updateDigest(bazelWorkspace.getWorkspaceFile())
+                    | updateDigestIfExists(bazelWorkspace.getBazelModuleFile().getLocation().toPath())
                     | digestStore.updateDigest(bazelWorkspace.getBazelProjectViewFile());
+            if (changed || force) {
+                JavaLanguageServerPlugin.logInfo("Starting Bazel update for workspace " + bazelWorkspace.getName());
+
+                var projectViewJob = new SynchronizeProjectViewJob(bazelWorkspace);
+
+                // we don't schedule the job but execute it directly with the required rule
+                project.getWorkspace()
+                        .run(
+                            projectViewJob::runInWorkspace,
+                            projectViewJob.detectMissingRule(),
+                            IWorkspace.AVOID_UPDATE,
+                            monitor);
+            }
+            return;
         }
 
-        if (changed || force) {
-            JavaLanguageServerPlugin.logInfo("Starting Bazel update for workspace " + bazelWorkspace.getName());
+        // a changed BUILD file only requires the package to be re-provisioned
+        var bazelPackage = bazelProject.isPackageProject() ? bazelProject.getBazelPackage()
+                : bazelProject.getBazelTarget().getBazelPackage();
+        if (digestStore.updateDigest(bazelPackage.getBuildFile()) || force) {
+            JavaLanguageServerPlugin.logInfo("Starting Bazel update for package " + bazelPackage.getLabel());
 
-            // TODO: add a better way to refresh individual projects
-            var projectViewJob = new SynchronizeProjectViewJob(bazelWorkspace);
+            var packagesJob = new SynchronizePackagesJob(bazelWorkspace, List.of(bazelPackage));
 
             // we don't schedule the job but execute it directly with the required rule
             project.getWorkspace()
                     .run(
-                        projectViewJob::runInWorkspace,
-                        projectViewJob.detectMissingRule(),
+                        packagesJob::runInWorkspace,
+                        packagesJob.detectMissingRule(),
                         IWorkspace.AVOID_UPDATE,
                         monitor);
         }
     }
+
+    private boolean updateDigestIfExists(Path file) throws CoreException {
+        return isRegularFile(file) && digestStore.updateDigest(file);
+    }
 }
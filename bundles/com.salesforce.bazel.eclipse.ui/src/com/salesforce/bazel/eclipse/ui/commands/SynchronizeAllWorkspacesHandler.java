@@ -6,20 +6,16 @@ import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.CoreException;
 
 import com.salesforce.bazel.eclipse.core.BazelCore;
-import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
-import com.salesforce.bazel.eclipse.core.model.SynchronizeProjectViewJob;
+import com.salesforce.bazel.eclipse.core.model.SynchronizeWorkspacesJob;
 
 public class SynchronizeAllWorkspacesHandler extends AbstractHandler {
 
     @Override
     public Object execute(ExecutionEvent event) throws ExecutionException {
         try {
+            // independent workspaces are prepared concurrently, each reporting its own progress
             var bazelWorkspaces = BazelCore.getModel().getBazelWorkspaces();
-            for (BazelWorkspace bazelWorkspace : bazelWorkspaces) {
-                var job = new SynchronizeProjectViewJob(bazelWorkspace);
-                job.setUser(true);
-                job.schedule();
-            }
+            new SynchronizeWorkspacesJob(bazelWorkspaces).schedule();
         } catch (CoreException e) {
             throw new ExecutionException("Unknown Error scheduling refresh jobs", e);
         }
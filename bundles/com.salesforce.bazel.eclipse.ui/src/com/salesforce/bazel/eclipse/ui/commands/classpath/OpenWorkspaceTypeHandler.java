@@ -0,0 +1,180 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.ui.commands.classpath;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jface.dialogs.InputDialog;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.window.Window;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.dialogs.ElementListSelectionDialog;
+import org.eclipse.ui.handlers.HandlerUtil;
+import org.eclipse.ui.statushandlers.StatusManager;
+
+import com.salesforce.bazel.eclipse.core.BazelCore;
+import com.salesforce.bazel.eclipse.core.BazelCorePlugin;
+import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathManager;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.index.IndexedType;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.util.TypeLocator;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.util.TypeLocator.ClasspathInfo;
+import com.salesforce.bazel.eclipse.ui.commands.BaseBazelProjectHandler;
+
+/**
+ * Opens a type from the type index of a Bazel workspace.
+ * <p>
+ * When <code>discover_workspace_jars_on_demand</code> is enabled, most discovered jars are not on the workspace
+ * project's classpath and thus cannot be found by JDT. This handler searches the type index instead and adds the jar
+ * providing the selected type to the workspace project before opening the type.
+ * </p>
+ */
+public class OpenWorkspaceTypeHandler extends BaseBazelProjectHandler {
+
+    static class AddLibrariesAndOpenTypeJob extends WorkspaceJob {
+
+        private final BazelClasspathManager classpathManager;
+        private final BazelWorkspace bazelWorkspace;
+        private final List<ClasspathEntry> libraries;
+        private final String fullyQualifiedName;
+
+        public AddLibrariesAndOpenTypeJob(BazelClasspathManager classpathManager, BazelWorkspace bazelWorkspace,
+                List<ClasspathEntry> libraries, String fullyQualifiedName) {
+            super("Opening " + fullyQualifiedName);
+            this.classpathManager = requireNonNull(classpathManager);
+            this.bazelWorkspace = requireNonNull(bazelWorkspace);
+            this.libraries = requireNonNull(libraries);
+            this.fullyQualifiedName = requireNonNull(fullyQualifiedName);
+            // lock the workspace
+            setRule(ResourcesPlugin.getWorkspace().getRuleFactory().buildRule());
+        }
+
+        @Override
+        public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+            classpathManager.addWorkspaceLibraries(bazelWorkspace, libraries, monitor);
+
+            var javaProject = JavaCore.create(bazelWorkspace.getBazelProject().getProject());
+            var type = javaProject.findType(fullyQualifiedName);
+            if ((type == null) || !type.exists()) {
+                return Status.info(
+                    format(
+                        "Type '%s' is not available yet. Please try again after the classpath of '%s' was refreshed.",
+                        fullyQualifiedName,
+                        javaProject.getElementName()));
+            }
+
+            Display.getDefault().asyncExec(() -> {
+                try {
+                    JavaUI.openInEditor(type);
+                } catch (CoreException e) {
+                    StatusManager.getManager()
+                            .handle(
+                                Status.error(format("Unable to open '%s'.", fullyQualifiedName), e),
+                                StatusManager.SHOW | StatusManager.LOG);
+                }
+            });
+            return Status.OK_STATUS;
+        }
+    }
+
+    public static final String COMMAND_OPEN_WORKSPACE_TYPE =
+            "com.salesforce.bazel.eclipse.ui.commands.classpath.openWorkspaceType";
+
+    @Override
+    protected Job createJob(IProject project, ExecutionEvent event) throws CoreException {
+        var activeShell = HandlerUtil.getActiveShell(event);
+
+        var bazelWorkspace = BazelCore.create(project).getBazelWorkspace();
+        var classpathManager = BazelCorePlugin.getInstance().getBazelModelManager().getClasspathManager();
+        var typeIndex = classpathManager.getTypeIndex(bazelWorkspace);
+        if (typeIndex == null) {
+            MessageDialog.openInformation(
+                activeShell,
+                "No Type Index",
+                format("No type index available for '%s'. Please sync the workspace first.", bazelWorkspace.getName()));
+            return null;
+        }
+
+        var inputDialog = new InputDialog(
+                activeShell,
+                "Open Type from Bazel Workspace",
+                "Enter a simple or fully qualified type name:",
+                "",
+                null);
+        if ((inputDialog.open() != Window.OK) || inputDialog.getValue().isBlank()) {
+            return null;
+        }
+        var name = inputDialog.getValue().trim();
+
+        List<String> candidates;
+        if (name.indexOf('.') > 0) {
+            candidates = typeIndex.findJarsContainingType(name).isEmpty() ? List.of() : List.of(name);
+        } else {
+            candidates = typeIndex.findTypesBySimpleName(name)
+                    .stream()
+                    .map(IndexedType::fullyQualifiedName)
+                    .distinct()
+                    .sorted()
+                    .toList();
+        }
+
+        String fullyQualifiedName;
+        if (candidates.isEmpty()) {
+            MessageDialog.openInformation(
+                activeShell,
+                "Type Not Found",
+                format("Type '%s' was not found in the type index of '%s'.", name, bazelWorkspace.getName()));
+            return null;
+        } else if (candidates.size() == 1) {
+            fullyQualifiedName = candidates.get(0);
+        } else {
+            var selectionDialog = new ElementListSelectionDialog(activeShell, new LabelProvider());
+            selectionDialog.setTitle("Type Selection");
+            selectionDialog.setMessage("Choose type:");
+            selectionDialog.setElements(candidates.toArray());
+            if (selectionDialog.open() != Window.OK) {
+                return null;
+            }
+            fullyQualifiedName = (String) selectionDialog.getFirstResult();
+        }
+
+        var separator = fullyQualifiedName.lastIndexOf('.');
+        var libraries = new TypeLocator(bazelWorkspace)
+                .findBazelInfosUsingTypeIndex(
+                    separator > 0 ? fullyQualifiedName.substring(0, separator) : null,
+                    fullyQualifiedName.substring(separator + 1),
+                    false /* any type */)
+                .stream()
+                .map(ClasspathInfo::classpathEntry)
+                .toList();
+
+        return new AddLibrariesAndOpenTypeJob(classpathManager, bazelWorkspace, libraries, fullyQualifiedName);
+    }
+}
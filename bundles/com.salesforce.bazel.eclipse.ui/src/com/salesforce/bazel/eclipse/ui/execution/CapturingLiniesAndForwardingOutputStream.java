@@ -13,25 +13,46 @@
  */
 package com.salesforce.bazel.eclipse.ui.execution;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 import org.eclipse.debug.internal.core.StreamDecoder;
 import org.eclipse.ui.console.MessageConsoleStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This output stream captures the last lines of output while forwarding everything else to the console stream.
  * <p>
+ * Output is forwarded to the console in batches. Every write to the console stream causes work in the UI thread, which
+ * slows down the IDE and, in the end, the process writing the output when it's verbose. Output is buffered until the
+ * buffer is full or {@link #FORWARD_INTERVAL_MILLIS} passed since it was last forwarded. A delayed forward is scheduled
+ * so that output is never held back longer than that. {@link #flush()} and {@link #close()} forward immediately.
+ * </p>
+ * <p>
  * Note, the console stream will never be closed when closing this stream
  * </p>
  */
 @SuppressWarnings("restriction")
 public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
 
+    private static Logger LOG = LoggerFactory.getLogger(CapturingLiniesAndForwardingOutputStream.class);
+
+    /**
+     * Maximum time output is held back before it's forwarded to the console
+     */
+    static final long FORWARD_INTERVAL_MILLIS = 200L;
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
     /**
      * Flag indicating whether this stream has been closed.
      */
@@ -46,6 +67,13 @@ public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
     private final Predicate<String> capturedLinesFilter;
     private final StringBuilder currentLine;
 
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferCount;
+    private long lastForwardNanos = System.nanoTime();
+    private boolean forwardScheduled;
+    private final Executor delayedForwardExecutor =
+            CompletableFuture.delayedExecutor(FORWARD_INTERVAL_MILLIS, MILLISECONDS);
+
     public CapturingLiniesAndForwardingOutputStream(MessageConsoleStream consoleStream, Charset charset,
             int linesToCapture, Predicate<String> capturedLinesFilter) {
         this.capturedLinesFilter = capturedLinesFilter;
@@ -60,26 +88,21 @@ public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
         currentLine = new StringBuilder(250);
     }
 
-    private synchronized void captureString(String writtenString) throws IOException {
-        if (closed) {
-            throw new IOException("Output Stream is closed"); //$NON-NLS-1$
-        }
-
-        // ignore all \r
-        writtenString = writtenString.replaceAll("\r", "");
-
-        // create new lines where necessary
-        var newLinePos = writtenString.indexOf('\n');
-        while (newLinePos > -1) {
-            finishCurrentLine(writtenString.substring(0, newLinePos));
-            writtenString = writtenString.substring(newLinePos + 1);
-            newLinePos = writtenString.indexOf('\n');
-        }
-
-        // add remaining to current line
-        if (writtenString.length() > 0) {
-            currentLine.append(writtenString);
+    private void captureString(String writtenString) {
+        // split into lines without creating intermediate strings (all \r are ignored)
+        var lineStart = 0;
+        var length = writtenString.length();
+        for (var i = 0; i < length; i++) {
+            var c = writtenString.charAt(i);
+            if ((c == '\r') || (c == '\n')) {
+                currentLine.append(writtenString, lineStart, i);
+                lineStart = i + 1;
+                if (c == '\n') {
+                    finishCurrentLine();
+                }
+            }
         }
+        currentLine.append(writtenString, lineStart, length);
     }
 
     @Override
@@ -91,19 +114,23 @@ public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
 
         // finish current line
         if (currentLine.length() > 0) {
-            finishCurrentLine("");
+            finishCurrentLine();
         }
         closed = true;
 
-        // we don't close/manage the console stream
+        // forward any remaining output (but we don't close/manage the console stream)
+        forwardBuffer();
     }
 
-    private void finishCurrentLine(String string) {
-        // finish current line
-        currentLine.append(string);
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Output Stream is closed"); //$NON-NLS-1$
+        }
+    }
 
+    private void finishCurrentLine() {
         // ensure capture lines remain within limit
-        while (capturedLines.size() >= linesToCapture) {
+        if (capturedLines.size() >= linesToCapture) {
             capturedLines.removeFirst();
         }
         // add line
@@ -112,7 +139,7 @@ public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
 
         // add line to filtered list if matching
         if ((capturedLinesFilter != null) && capturedLinesFilter.test(line)) {
-            while (capturedLinesFiltered.size() >= linesToCapture) {
+            if (capturedLinesFiltered.size() >= linesToCapture) {
                 capturedLinesFiltered.removeFirst();
             }
             capturedLinesFiltered.add(line);
@@ -121,6 +148,31 @@ public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
         currentLine.setLength(0);
     }
 
+    /**
+     * Forwards all buffered output to the console immediately.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        forwardBuffer();
+    }
+
+    private void forwardBuffer() throws IOException {
+        if (bufferCount > 0) {
+            consoleStream.write(buffer, 0, bufferCount);
+            bufferCount = 0;
+        }
+        lastForwardNanos = System.nanoTime();
+    }
+
+    private synchronized void forwardDelayed() {
+        forwardScheduled = false;
+        try {
+            forwardBuffer();
+        } catch (IOException e) {
+            LOG.debug("Unable to forward output to console: {}", e.getMessage(), e);
+        }
+    }
+
     public synchronized Collection<String> getCapturedLines() {
         var lines = new ArrayDeque<>(capturedLines);
         if (currentLine.length() > 0) {
@@ -149,11 +201,27 @@ public class CapturingLiniesAndForwardingOutputStream extends OutputStream {
     }
 
     @Override
-    public void write(byte[] b, int off, int len) throws IOException {
-        consoleStream.write(b, off, len);
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+
+        // forward to console (batched)
+        if ((bufferCount + len) > buffer.length) {
+            forwardBuffer();
+        }
+        if (len >= buffer.length) {
+            consoleStream.write(b, off, len);
+        } else {
+            System.arraycopy(b, off, buffer, bufferCount, len);
+            bufferCount += len;
+            if ((System.nanoTime() - lastForwardNanos) >= MILLISECONDS.toNanos(FORWARD_INTERVAL_MILLIS)) {
+                forwardBuffer();
+            } else if (!forwardScheduled) {
+                forwardScheduled = true;
+                delayedForwardExecutor.execute(this::forwardDelayed);
+            }
+        }
 
-        var s = this.decoder.decode(b, off, len);
-        captureString(s);
+        captureString(decoder.decode(b, off, len));
     }
 
     @Override
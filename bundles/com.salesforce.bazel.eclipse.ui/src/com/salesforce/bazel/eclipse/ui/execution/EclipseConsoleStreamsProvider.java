@@ -41,8 +41,9 @@ public class EclipseConsoleStreamsProvider extends VerboseProcessStreamsProvider
 
     @Override
     public void close() throws IOException {
-        consoleStream.close();
+        // close the error stream first to forward any pending output
         errorStream.close();
+        consoleStream.close();
     }
 
     @Override
@@ -74,6 +75,17 @@ public class EclipseConsoleStreamsProvider extends VerboseProcessStreamsProvider
         throw new IOException(format("%s%n(no error output was captured)", cause.getMessage()), cause);
     }
 
+    /**
+     * Forwards pending error output so it appears in the console before any following message.
+     */
+    private void forwardPendingErrorOutput() {
+        try {
+            errorStream.flush();
+        } catch (IOException e) {
+            // ignore, the message will be printed to the console stream anyway
+        }
+    }
+
     @Override
     public OutputStream getErrorStream() {
         return errorStream;
@@ -86,16 +98,19 @@ public class EclipseConsoleStreamsProvider extends VerboseProcessStreamsProvider
 
     @Override
     protected void print(String message) {
+        forwardPendingErrorOutput();
         consoleStream.print(message);
     }
 
     @Override
     protected void println() {
+        forwardPendingErrorOutput();
         consoleStream.println();
     }
 
     @Override
     protected void println(String line) {
+        forwardPendingErrorOutput();
         consoleStream.println(line);
     }
 
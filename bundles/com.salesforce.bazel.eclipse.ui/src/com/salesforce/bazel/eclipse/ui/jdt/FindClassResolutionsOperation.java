@@ -13,11 +13,14 @@
 */
 package com.salesforce.bazel.eclipse.ui.jdt;
 
+import static java.util.stream.Collectors.toSet;
+
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -39,6 +42,7 @@ import com.salesforce.bazel.eclipse.core.model.BazelProject;
 import com.salesforce.bazel.eclipse.core.model.BazelTarget;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
 import com.salesforce.bazel.eclipse.core.model.discovery.classpath.util.TypeLocator;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.util.TypeLocator.ClasspathInfo;
 import com.salesforce.bazel.eclipse.ui.jdt.JavaResolutionFactory.ProposalType;
 import com.salesforce.bazel.eclipse.ui.utils.JavaSearchUtil;
 import com.salesforce.bazel.sdk.command.querylight.BazelRuleAttribute;
@@ -127,6 +131,10 @@ public class FindClassResolutionsOperation implements IRunnableWithProgress {
     /**
      * Finds all types in Bazel projects.
      * <p>
+     * The type index of the workspace is consulted first. Only when the index does not know about the type (or package)
+     * a JDT search is performed.
+     * </p>
+     * <p>
      * The types will be filtered based on Bazel targets already on the classpath. TODO: and system packages
      * </p>
      *
@@ -139,52 +147,21 @@ public class FindClassResolutionsOperation implements IRunnableWithProgress {
         var subMonitor = SubMonitor.convert(monitor);
 
         try {
-            var currentBazelProject = bazelProject;
-            var searchScope = JavaSearchUtil.createScopeIncludingAllWorkspaceProjectsButSelected(currentBazelProject);
-
-            final var currentJavaProject = JavaCore.create(bazelProject.getProject());
             final Map<Label, ClasspathEntry> bazelInfos = new HashMap<>();
-            SearchRequestor requestor = new SearchRequestor() {
-
-                @Override
-                public void acceptSearchMatch(SearchMatch aMatch) throws CoreException {
-                    var element = aMatch.getElement();
-                    // Only try to import types we can access (Bug 406232)
-                    if ((element instanceof IType type)
-                            && (Flags.isPublic(type.getFlags()) && !currentJavaProject.equals(type.getJavaProject()))) {
-                        var packageFragment = type.getPackageFragment();
-                        if (packageFragment.exists()) {
-                            var bazelInfo = typeLocator.findBazelInfo(type);
-                            if (bazelInfo != null) {
-                                bazelInfos.put(bazelInfo.originLabel(), bazelInfo.classpathEntry());
-                            }
-                        }
-                    } else if (((element instanceof IPackageFragment packageFragment)
-                            && !currentJavaProject.equals(packageFragment.getJavaProject()))
-                            && packageFragment.exists()) {
-                        var bazelInfo = typeLocator.findBazelInfo(packageFragment);
-                        if (bazelInfo != null) {
-                            bazelInfos.put(bazelInfo.originLabel(), bazelInfo.classpathEntry());
-                        }
-                    }
+
+            // fast path: use the index maintained during sync
+            // (same as with JDT, only types we can access and which are not in the current project)
+            var currentProjectLabels = getCurrentProjectLabels();
+            for (ClasspathInfo bazelInfo : typeLocator.findBazelInfosUsingTypeIndex(packageName, typeName, true)) {
+                if (!currentProjectLabels.contains(bazelInfo.originLabel())) {
+                    bazelInfos.put(bazelInfo.originLabel(), bazelInfo.classpathEntry());
                 }
-            };
-
-            var typeOrPackagePattern = SearchPattern.createPattern(
-                typeName != null ? packageName + "." + typeName : packageName,
-                typeName != null ? IJavaSearchConstants.TYPE : IJavaSearchConstants.PACKAGE,
-                IJavaSearchConstants.DECLARATIONS,
-                SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
-            if (typeOrPackagePattern == null) {
-                return Collections.emptyMap();
             }
-            new SearchEngine().search(
-                typeOrPackagePattern,
-                new SearchParticipant[] {
-                        SearchEngine.getDefaultSearchParticipant() },
-                searchScope,
-                requestor,
-                subMonitor.split(1));
+
+            // slow path: search using JDT
+            if (bazelInfos.isEmpty()) {
+                searchUsingJdt(packageName, typeName, bazelInfos, subMonitor.split(1));
+            }
 
             if (!bazelInfos.isEmpty()) {
                 // remove packages that are already imported
@@ -209,6 +186,16 @@ public class FindClassResolutionsOperation implements IRunnableWithProgress {
         }
     }
 
+    private Set<Label> getCurrentProjectLabels() throws CoreException {
+        if (bazelProject.isTargetProject()) {
+            return Set.of(bazelProject.getBazelTarget().getLabel().toPrimitive());
+        }
+        if (bazelProject.isPackageProject()) {
+            return bazelProject.getBazelTargets().stream().map(t -> t.getLabel().toPrimitive()).collect(toSet());
+        }
+        return Set.of();
+    }
+
     private void removeAllTargetDepsFromMap(final Map<Label, ClasspathEntry> bazelInfos, BazelTarget bazelTarget)
             throws CoreException {
         var deps = bazelTarget.getRuleAttributes().getStringList(BazelRuleAttribute.DEPS);
@@ -219,6 +206,54 @@ public class FindClassResolutionsOperation implements IRunnableWithProgress {
         }
     }
 
+    private void searchUsingJdt(String packageName, String typeName, final Map<Label, ClasspathEntry> bazelInfos,
+            IProgressMonitor monitor) throws CoreException {
+        var searchScope = JavaSearchUtil.createScopeIncludingAllWorkspaceProjectsButSelected(bazelProject);
+
+        final var currentJavaProject = JavaCore.create(bazelProject.getProject());
+        SearchRequestor requestor = new SearchRequestor() {
+
+            @Override
+            public void acceptSearchMatch(SearchMatch aMatch) throws CoreException {
+                var element = aMatch.getElement();
+                // Only try to import types we can access (Bug 406232)
+                if ((element instanceof IType type)
+                        && (Flags.isPublic(type.getFlags()) && !currentJavaProject.equals(type.getJavaProject()))) {
+                    var packageFragment = type.getPackageFragment();
+                    if (packageFragment.exists()) {
+                        var bazelInfo = typeLocator.findBazelInfo(type);
+                        if (bazelInfo != null) {
+                            bazelInfos.put(bazelInfo.originLabel(), bazelInfo.classpathEntry());
+                        }
+                    }
+                } else if (((element instanceof IPackageFragment packageFragment)
+                        && !currentJavaProject.equals(packageFragment.getJavaProject()))
+                        && packageFragment.exists()) {
+                    var bazelInfo = typeLocator.findBazelInfo(packageFragment);
+                    if (bazelInfo != null) {
+                        bazelInfos.put(bazelInfo.originLabel(), bazelInfo.classpathEntry());
+                    }
+                }
+            }
+        };
+
+        var typeOrPackagePattern = SearchPattern.createPattern(
+            typeName != null ? packageName + "." + typeName : packageName,
+            typeName != null ? IJavaSearchConstants.TYPE : IJavaSearchConstants.PACKAGE,
+            IJavaSearchConstants.DECLARATIONS,
+            SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+        if (typeOrPackagePattern == null) {
+            return;
+        }
+        new SearchEngine().search(
+            typeOrPackagePattern,
+            new SearchParticipant[] {
+                    SearchEngine.getDefaultSearchParticipant() },
+            searchScope,
+            requestor,
+            monitor);
+    }
+
     @Override
     public void run(final IProgressMonitor monitor) {
         var idx = className.lastIndexOf('.');
@@ -60,8 +60,7 @@ public class JavaResolutionFactory {
         @Override
         public Change perform(IProgressMonitor pm) throws CoreException {
             var job = new AddDependenciesJob(bazelProject, List.of(labelToAdd), List.of(newClasspathEntry));
-            job.runInWorkspace(pm); // run directly because this should be executed in workspace lock already
-            // FIXME: if this blocks the UI we should send it to the background (needs testing)
+            job.scheduleCoalesced(); // quick fixes applied in short succession are combined into one buildozer run
             return null;
         }
     }
@@ -16,6 +16,7 @@ package com.salesforce.bazel.eclipse.ui.launchconfiguration;
 
 import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelLaunchConfigurationConstants.ADD_DEBUG_TARGET_ARG;
 import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelLaunchConfigurationConstants.JAVA_DEBUG;
+import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelLaunchConfigurationConstants.JAVA_DIRECT_LAUNCH;
 import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelLaunchConfigurationConstants.PROJECT_NAME;
 import static java.lang.String.format;
 import static org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants.ATTR_ALLOW_TERMINATE;
@@ -194,6 +195,8 @@ public class BazelTargetTab extends AbstractLaunchConfigurationTab implements IP
 
     private Button attachJavaDebuggerCheckButton;
 
+    private Button javaDirectLaunchCheckButton;
+
     private final WidgetListener fListener = new WidgetListener();
 
     private AutoCompleteField targetAutoCompleteField;
@@ -322,6 +325,14 @@ public class BazelTargetTab extends AbstractLaunchConfigurationTab implements IP
         fMainText.addModifyListener(e -> updateLaunchConfigurationDialog());
 
         targetAutoCompleteField = new AutoCompleteField(fMainText, new TextContentAdapter());
+
+        javaDirectLaunchCheckButton = SWTFactory.createCheckButton(
+            group,
+            "Launch Java binaries directly with a JVM (ignores the target's 'env' attribute and launcher)",
+            null,
+            false,
+            2);
+        javaDirectLaunchCheckButton.addSelectionListener(getDefaultListener());
     }
 
     private BazelLabel findFirstPublicBinaryRule(List<BazelTarget> bazelTargets) throws CoreException {
@@ -482,6 +493,7 @@ public class BazelTargetTab extends AbstractLaunchConfigurationTab implements IP
     protected void initializeAttributes() {
         getAttributesLabelsForPrototype().put(PROJECT_NAME, "Bazel Workspace Project");
         getAttributesLabelsForPrototype().put(BazelLaunchConfigurationConstants.TARGET_LABEL, "Target");
+        getAttributesLabelsForPrototype().put(JAVA_DIRECT_LAUNCH, "Launch Java binaries directly");
         getAttributesLabelsForPrototype().put(JAVA_DEBUG, "Attach Java Debugger");
         getAttributesLabelsForPrototype().put(ADD_DEBUG_TARGET_ARG, "Add '--debug' when attaching debugger");
         getAttributesLabelsForPrototype().put(ATTR_ALLOW_TERMINATE, "Allow termination of the remote VM");
@@ -639,6 +651,7 @@ public class BazelTargetTab extends AbstractLaunchConfigurationTab implements IP
     public void performApply(ILaunchConfigurationWorkingCopy config) {
         config.setAttribute(PROJECT_NAME, fProjText.getText().trim());
         config.setAttribute(BazelLaunchConfigurationConstants.TARGET_LABEL, fMainText.getText().trim());
+        config.setAttribute(JAVA_DIRECT_LAUNCH, javaDirectLaunchCheckButton.getSelection());
         config.setAttribute(JAVA_DEBUG, attachJavaDebuggerCheckButton.getSelection());
         config.setAttribute(ADD_DEBUG_TARGET_ARG, addDebugProgramArgumentButton.getSelection());
         config.setAttribute(ATTR_ALLOW_TERMINATE, fAllowTerminateButton.getSelection());
@@ -694,6 +707,7 @@ public class BazelTargetTab extends AbstractLaunchConfigurationTab implements IP
         }
 
         config.setAttribute(ATTR_VM_CONNECTOR, ID_SOCKET_ATTACH_VM_CONNECTOR);
+        config.setAttribute(JAVA_DIRECT_LAUNCH, false);
         config.setAttribute(JAVA_DEBUG, true);
         config.setAttribute(ADD_DEBUG_TARGET_ARG, true);
         config.setAttribute(ATTR_ALLOW_TERMINATE, true);
@@ -708,6 +722,7 @@ public class BazelTargetTab extends AbstractLaunchConfigurationTab implements IP
      */
     private void updateJavaDebugConnectionFromConfig(ILaunchConfiguration config) {
         try {
+            javaDirectLaunchCheckButton.setSelection(config.getAttribute(JAVA_DIRECT_LAUNCH, false));
             attachJavaDebuggerCheckButton.setSelection(config.getAttribute(JAVA_DEBUG, true));
             addDebugProgramArgumentButton.setSelection(config.getAttribute(ADD_DEBUG_TARGET_ARG, true));
             fAllowTerminateButton.setSelection(config.getAttribute(ATTR_ALLOW_TERMINATE, true));
@@ -0,0 +1,264 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.eclipse.ui.launchconfiguration;
+
+import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelLaunchConfigurationConstants.PROJECT_NAME;
+import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelLaunchConfigurationConstants.TEST_TARGETS;
+import static java.util.stream.Collectors.joining;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.internal.ui.SWTFactory;
+import org.eclipse.debug.ui.AbstractLaunchConfigurationTab;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ui.JavaElementLabelProvider;
+import org.eclipse.jface.window.Window;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.ElementListSelectionDialog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+import com.salesforce.bazel.eclipse.core.BazelCore;
+import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelTarget;
+import com.salesforce.bazel.eclipse.ui.BazelUIPlugin;
+import com.salesforce.bazel.eclipse.ui.utils.BazelProjectUtilitis;
+
+/**
+ * Tab for selecting the Bazel project and the test targets of a <code>bazel test</code> launch.
+ */
+@SuppressWarnings("restriction")
+public class BazelTestTargetsTab extends AbstractLaunchConfigurationTab {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BazelTestTargetsTab.class);
+
+    private static final String EMPTY_STRING = "";
+
+    private static List<String> toTargetList(String text) {
+        return text.lines().map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+
+    private Text projectText;
+    private Text targetsText;
+
+    private IJavaProject chooseWorkspaceProject() {
+        var dialog = new ElementListSelectionDialog(
+                getShell(),
+                new JavaElementLabelProvider(JavaElementLabelProvider.SHOW_DEFAULT));
+        dialog.setTitle("Project Selection");
+        dialog.setMessage("Select a project to constrain your search.");
+        try {
+            List<IJavaProject> workspaceProjects = new ArrayList<>();
+            for (IJavaProject javaProject : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot())
+                    .getJavaProjects()) {
+                if (BazelProject.isBazelProject(javaProject.getProject())
+                        && BazelCore.create(javaProject.getProject()).isWorkspaceProject()) {
+                    workspaceProjects.add(javaProject);
+                }
+            }
+            dialog.setElements(workspaceProjects.toArray());
+        } catch (CoreException e) {
+            LOG.error("Error selecting project.", e);
+        }
+        if (dialog.open() == Window.OK) {
+            return (IJavaProject) dialog.getFirstResult();
+        }
+        return null;
+    }
+
+    @Override
+    public void createControl(Composite parent) {
+        var comp = SWTFactory.createComposite(parent, parent.getFont(), 1, 1, GridData.FILL_BOTH);
+        ((GridLayout) comp.getLayout()).verticalSpacing = 0;
+
+        var projectGroup = SWTFactory.createGroup(comp, "Project:", 2, 1, GridData.FILL_HORIZONTAL);
+        projectText = SWTFactory.createSingleText(projectGroup, 1);
+        projectText.addModifyListener(e -> updateLaunchConfigurationDialog());
+        var projectButton = createPushButton(projectGroup, "Browse...", null);
+        projectButton.addListener(SWT.Selection, e -> {
+            var project = chooseWorkspaceProject();
+            if (project != null) {
+                projectText.setText(project.getElementName());
+            }
+        });
+
+        createVerticalSpacer(comp, 1);
+
+        var targetsGroup = SWTFactory.createGroup(comp, "Test targets (one per line):", 1, 1, GridData.FILL_BOTH);
+        targetsText = SWTFactory.createText(
+            targetsGroup,
+            SWT.MULTI | SWT.WRAP | SWT.BORDER | SWT.V_SCROLL,
+            1,
+            GridData.FILL_BOTH);
+        ((GridData) targetsText.getLayoutData()).heightHint = 100;
+        targetsText.addModifyListener(e -> updateLaunchConfigurationDialog());
+
+        SWTFactory.createLabel(
+            targetsGroup,
+            "All targets are tested with a single 'bazel test' invocation. "
+                    + "Results are reported to the JUnit view while Bazel is running.",
+            1);
+
+        setControl(comp);
+    }
+
+    private List<String> findTestTargets(BazelProject bazelProject) {
+        List<BazelTarget> candidates = new ArrayList<>();
+        try {
+            if (bazelProject.isTargetProject()) {
+                candidates.add(bazelProject.getBazelTarget());
+            } else if (bazelProject.isPackageProject()) {
+                candidates.addAll(bazelProject.getBazelTargets());
+            }
+            List<String> result = new ArrayList<>();
+            for (BazelTarget target : candidates) {
+                if (target.getRuleClass().endsWith("_test")) {
+                    result.add(target.getLabel().toString());
+                }
+            }
+            return result;
+        } catch (CoreException e) {
+            LOG.error("Error initializing test targets: {}", e.getMessage(), e);
+            return List.of();
+        }
+    }
+
+    private BazelProject getContext() {
+        var projects = BazelProjectUtilitis.findSelectedProjects(PlatformUI.getWorkbench().getActiveWorkbenchWindow());
+        for (IProject project : projects) {
+            return BazelCore.create(project); // first project wins
+        }
+        return null;
+    }
+
+    @Override
+    public String getId() {
+        return "com.salesforce.bazel.eclipse.ui.launchconfiguration.tabs.test_targets";
+    }
+
+    @Override
+    public Image getImage() {
+        return BazelUIPlugin.getDefault().getImageRegistry().get(BazelUIPlugin.ICON_BAZEL);
+    }
+
+    @Override
+    public String getName() {
+        return "Bazel Tests";
+    }
+
+    @Override
+    protected void initializeAttributes() {
+        getAttributesLabelsForPrototype().put(PROJECT_NAME, "Bazel Workspace Project");
+        getAttributesLabelsForPrototype().put(TEST_TARGETS, "Test targets");
+    }
+
+    @Override
+    public void initializeFrom(ILaunchConfiguration config) {
+        try {
+            projectText.setText(config.getAttribute(PROJECT_NAME, EMPTY_STRING));
+            targetsText.setText(config.getAttribute(TEST_TARGETS, List.<String> of()).stream().collect(joining("\n")));
+        } catch (CoreException e) {
+            setErrorMessage("Error reading launch configuration: " + e.getStatus().getMessage());
+            LOG.error("An error occured while reading launch configuration '{}'", config.getName(), e);
+        }
+    }
+
+    @Override
+    public boolean isValid(ILaunchConfiguration config) {
+        setErrorMessage(null);
+        setMessage(null);
+
+        var name = projectText.getText().trim();
+        if (name.length() == 0) {
+            setErrorMessage("Project not specified");
+            return false;
+        }
+        var status = ResourcesPlugin.getWorkspace().validateName(name, IResource.PROJECT);
+        if (!status.isOK()) {
+            setErrorMessage(NLS.bind("Illegal project name: {0}", new String[] { status.getMessage() }));
+            return false;
+        }
+        var project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+        if (!project.exists()) {
+            setErrorMessage(NLS.bind("Project {0} does not exist", new String[] { name }));
+            return false;
+        }
+        if (!BazelProject.isBazelProject(project)) {
+            setErrorMessage(NLS.bind("Project {0} is not a Bazel project!", new String[] { name }));
+            return false;
+        }
+
+        var targets = toTargetList(targetsText.getText());
+        if (targets.isEmpty()) {
+            setErrorMessage("No test targets specified");
+            return false;
+        }
+        for (String target : targets) {
+            var labelError = Label.validate(target);
+            if (labelError != null) {
+                setErrorMessage(NLS.bind("Illegal target {0}: {1}", new String[] { target, labelError }));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void performApply(ILaunchConfigurationWorkingCopy config) {
+        config.setAttribute(PROJECT_NAME, projectText.getText().trim());
+        config.setAttribute(TEST_TARGETS, toTargetList(targetsText.getText()));
+
+        var project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectText.getText().trim());
+        if (project.exists() && project.isOpen()) {
+            config.setMappedResources(new IResource[] { project });
+        }
+    }
+
+    @Override
+    public void setDefaults(ILaunchConfigurationWorkingCopy config) {
+        var bazelProject = getContext();
+        if (bazelProject == null) {
+            config.setAttribute(PROJECT_NAME, EMPTY_STRING);
+            return;
+        }
+
+        try {
+            config.setAttribute(PROJECT_NAME, bazelProject.getBazelWorkspace().getBazelProject().getName());
+        } catch (CoreException e) {
+            LOG.error("Error initializing project: {}", e.getMessage(), e);
+            config.setAttribute(PROJECT_NAME, bazelProject.getName());
+        }
+        var testTargets = findTestTargets(bazelProject);
+        config.setAttribute(TEST_TARGETS, testTargets);
+        if (!testTargets.isEmpty()) {
+            config.rename(getLaunchConfigurationDialog().generateName(bazelProject.getName()));
+        }
+    }
+}
@@ -8,6 +8,8 @@ import static java.util.Objects.requireNonNull;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 
+import com.salesforce.bazel.sdk.init.BazelJavaSDKInit;
+
 /**
  * Plug-in (OSGi bundle) activator for SCIP bases Java LS.
  */
@@ -23,6 +25,9 @@ public class BazelScipLsPlugin extends Plugin {
     public void start(BundleContext bundleContext) throws Exception {
         super.start(bundleContext);
         plugin = this;
+
+        // initialize the SDK (required for reading aspect outputs)
+        BazelJavaSDKInit.initialize("SCIP Bazel Language Server");
     }
 
     @Override
@@ -13,23 +13,45 @@
  */
 package com.salesforce.bazel.scipls;
 
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.lsp4j.ExecuteCommandOptions;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.InitializeResult;
 import org.eclipse.lsp4j.MessageParams;
 import org.eclipse.lsp4j.MessageType;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.ServerInfo;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.LanguageClientAware;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.scipls.index.AspectOutputs;
+import com.salesforce.bazel.scipls.index.ScipIndex;
+import com.salesforce.bazel.scipls.index.ScipIndexBuilder;
+import com.salesforce.bazel.scipls.index.ScipIndexStore;
 
 /**
  * The SCIP bases Java & Bazel Language Server
+ * <p>
+ * The server answers definition, references and hover requests from a SCIP index. The index is built from the outputs
+ * of a build with the IntelliJ aspects found in the execution root of the workspace (<code>bazel-out</code>) and
+ * stored in the output base (<code>scipls/index.scip</code>). A stored index is re-used as long as none of its inputs
+ * changed. Clients should execute the {@value ScipWorkspaceService#COMMAND_REINDEX} command after a Bazel build.
+ * </p>
  */
 public class ScipBazelJavaLanguageServer implements LanguageServer, LanguageClientAware {
 
@@ -38,8 +60,15 @@ public class ScipBazelJavaLanguageServer implements LanguageServer, LanguageClie
         void exitCalled(ScipBazelJavaLanguageServer languageServer);
     }
 
+    private static final Logger LOG = LoggerFactory.getLogger(ScipBazelJavaLanguageServer.class);
+
     private final ExitHandler exitHandler;
     private final AtomicReference<LanguageClient> client = new AtomicReference<>();
+    private final AtomicReference<ScipIndex> index = new AtomicReference<>();
+    private final ScipTextDocumentService textDocumentService = new ScipTextDocumentService(index::get);
+    private final ScipWorkspaceService workspaceService = new ScipWorkspaceService(this);
+
+    private volatile Path workspaceRoot;
 
     /**
      * Creates a new language server instance.
@@ -67,22 +96,82 @@ public class ScipBazelJavaLanguageServer implements LanguageServer, LanguageClie
         return requireNonNull(client.getPlain(), "No Language Client connected!");
     }
 
+    private Path getExecutionRoot(Path workspaceRoot) throws IOException {
+        // bazel-out is a symlink into the execution root
+        var bazelOut = workspaceRoot.resolve("bazel-out");
+        if (!Files.isDirectory(bazelOut)) {
+            throw new IOException(
+                    format("Directory '%s' not found. Please build the workspace with Bazel first.", bazelOut));
+        }
+        return bazelOut.toRealPath().getParent();
+    }
+
     @Override
     public TextDocumentService getTextDocumentService() {
-        // TODO Auto-generated method stub
-        return null;
+        return textDocumentService;
     }
 
     @Override
     public WorkspaceService getWorkspaceService() {
-        // TODO Auto-generated method stub
-        return null;
+        return workspaceService;
     }
 
     @Override
     public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
-        // TODO Auto-generated method stub
-        return null;
+        var workspaceFolders = params.getWorkspaceFolders();
+        @SuppressWarnings("deprecation")
+        var rootUri = (workspaceFolders != null) && !workspaceFolders.isEmpty() ? workspaceFolders.get(0).getUri()
+                : params.getRootUri();
+        if (rootUri != null) {
+            workspaceRoot = Path.of(URI.create(rootUri));
+            loadOrBuildIndex(false);
+        } else {
+            LOG.warn("No workspace root provided by client. Index will not be available.");
+        }
+
+        var capabilities = new ServerCapabilities();
+        capabilities.setDefinitionProvider(true);
+        capabilities.setReferencesProvider(true);
+        capabilities.setHoverProvider(true);
+        capabilities
+                .setExecuteCommandProvider(new ExecuteCommandOptions(List.of(ScipWorkspaceService.COMMAND_REINDEX)));
+        return CompletableFuture
+                .completedFuture(new InitializeResult(capabilities, new ServerInfo("SCIP Bazel Language Server")));
+    }
+
+    private CompletableFuture<ScipIndex> loadOrBuildIndex(boolean force) {
+        var workspaceRoot = this.workspaceRoot;
+        if (workspaceRoot == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Server not initialized!"));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                var executionRoot = getExecutionRoot(workspaceRoot);
+                var outputBase = executionRoot.getParent().getParent();
+                var store = new ScipIndexStore(outputBase.resolve("scipls").resolve("index.scip"));
+
+                var aspectFiles = AspectOutputs.findAspectFiles(executionRoot.resolve("bazel-out"));
+                var builder =
+                        new ScipIndexBuilder(AspectOutputs.read(workspaceRoot, executionRoot, aspectFiles));
+                if (!force && store.isUpToDate(builder.getInputFiles())) {
+                    LOG.debug("Loading index '{}'", store.getIndexFile());
+                    return new ScipIndex(store.read(), workspaceRoot, executionRoot);
+                }
+
+                LOG.info("Indexing workspace '{}'", workspaceRoot);
+                var scipIndex = builder.build();
+                store.write(scipIndex);
+                return new ScipIndex(scipIndex, workspaceRoot, executionRoot);
+            } catch (IOException e) {
+                LOG.error("Unable to index workspace '{}': {}", workspaceRoot, e.getMessage(), e);
+                throw new IllegalStateException(
+                        format("Unable to index workspace '%s': %s", workspaceRoot, e.getMessage()),
+                        e);
+            }
+        }).thenApply(scipIndex -> {
+            index.set(scipIndex);
+            return scipIndex;
+        });
     }
 
     /**
@@ -99,10 +188,19 @@ public class ScipBazelJavaLanguageServer implements LanguageServer, LanguageClie
                     "The language server is being shut down forcefully. The client will be disconnect. Certain functionallity may become unavilable until restored."));
     }
 
+    /**
+     * Rebuilds the index from the current aspect outputs.
+     *
+     * @return a future completing with the new index
+     */
+    public CompletableFuture<ScipIndex> reindex() {
+        return loadOrBuildIndex(true);
+    }
+
     @Override
     public CompletableFuture<Object> shutdown() {
-        // TODO Auto-generated method stub
-        return null;
+        index.set(null);
+        return CompletableFuture.completedFuture(null);
     }
 
 }
@@ -0,0 +1,142 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.eclipse.lsp4j.DefinitionParams;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.DidSaveTextDocumentParams;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.LocationLink;
+import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.ReferenceParams;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.TextDocumentService;
+
+import com.salesforce.bazel.scipls.index.ScipIndex;
+import com.salesforce.bazel.scipls.index.ScipIndex.ScipLocation;
+
+/**
+ * Answers text document requests from a {@link ScipIndex}.
+ * <p>
+ * The index is precomputed. Requests received before the index is available are answered with empty results.
+ * Document synchronization notifications are ignored because the index is only updated after a Bazel build.
+ * </p>
+ */
+public class ScipTextDocumentService implements TextDocumentService {
+
+    private final Supplier<ScipIndex> index;
+
+    /**
+     * @param index
+     *            supplier of the current index (may supply <code>null</code> while indexing is in progress)
+     */
+    public ScipTextDocumentService(Supplier<ScipIndex> index) {
+        this.index = requireNonNull(index);
+    }
+
+    @Override
+    public CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> definition(
+            DefinitionParams params) {
+        var index = this.index.get();
+        var symbol = findSymbol(index, params);
+        if (symbol == null) {
+            return completedFuture(Either.forLeft(List.of()));
+        }
+        return completedFuture(Either.forLeft(toLocations(index, index.getDefinitions(symbol))));
+    }
+
+    @Override
+    public void didChange(DidChangeTextDocumentParams params) {
+        // ignored
+    }
+
+    @Override
+    public void didClose(DidCloseTextDocumentParams params) {
+        // ignored
+    }
+
+    @Override
+    public void didOpen(DidOpenTextDocumentParams params) {
+        // ignored
+    }
+
+    @Override
+    public void didSave(DidSaveTextDocumentParams params) {
+        // ignored
+    }
+
+    private String findSymbol(ScipIndex index, TextDocumentPositionParams params) {
+        if (index == null) {
+            return null;
+        }
+        var relativePath = index.toRelativePath(URI.create(params.getTextDocument().getUri()));
+        if (relativePath == null) {
+            return null;
+        }
+        var position = params.getPosition();
+        return index.findSymbol(relativePath, position.getLine(), position.getCharacter());
+    }
+
+    @Override
+    public CompletableFuture<Hover> hover(HoverParams params) {
+        var index = this.index.get();
+        var symbol = findSymbol(index, params);
+        if (symbol == null) {
+            return completedFuture(null);
+        }
+        var documentation = index.getDocumentation(symbol);
+        if (documentation.isEmpty()) {
+            return completedFuture(null);
+        }
+        return completedFuture(new Hover(new MarkupContent(MarkupKind.MARKDOWN, String.join("\n\n", documentation))));
+    }
+
+    @Override
+    public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
+        var index = this.index.get();
+        var symbol = findSymbol(index, params);
+        if (symbol == null) {
+            return completedFuture(List.of());
+        }
+        var includeDeclaration = (params.getContext() != null) && params.getContext().isIncludeDeclaration();
+        return completedFuture(toLocations(index, index.getReferences(symbol, includeDeclaration)));
+    }
+
+    private List<Location> toLocations(ScipIndex index, List<ScipLocation> locations) {
+        return locations.stream()
+                .map(
+                    l -> new Location(
+                            index.toUri(l.relativePath()).toString(),
+                            new Range(
+                                    new Position(l.startLine(), l.startColumn()),
+                                    new Position(l.endLine(), l.endColumn()))))
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.lsp4j.DidChangeConfigurationParams;
+import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
+import org.eclipse.lsp4j.ExecuteCommandParams;
+import org.eclipse.lsp4j.services.WorkspaceService;
+
+/**
+ * Workspace service of the SCIP language server.
+ * <p>
+ * Supports the {@value #COMMAND_REINDEX} command for refreshing the index after a Bazel build.
+ * </p>
+ */
+public class ScipWorkspaceService implements WorkspaceService {
+
+    /** command for re-indexing the workspace */
+    public static final String COMMAND_REINDEX = "scipls.reindex";
+
+    private final ScipBazelJavaLanguageServer languageServer;
+
+    public ScipWorkspaceService(ScipBazelJavaLanguageServer languageServer) {
+        this.languageServer = requireNonNull(languageServer);
+    }
+
+    @Override
+    public void didChangeConfiguration(DidChangeConfigurationParams params) {
+        // ignored
+    }
+
+    @Override
+    public void didChangeWatchedFiles(DidChangeWatchedFilesParams params) {
+        // ignored
+    }
+
+    @Override
+    public CompletableFuture<Object> executeCommand(ExecuteCommandParams params) {
+        if (COMMAND_REINDEX.equals(params.getCommand())) {
+            return languageServer.reindex().thenApply(index -> null);
+        }
+        return CompletableFuture.failedFuture(
+            new UnsupportedOperationException("Unsupported command: " + params.getCommand()));
+    }
+}
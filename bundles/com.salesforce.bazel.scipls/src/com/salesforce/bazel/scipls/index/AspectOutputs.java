@@ -0,0 +1,246 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls.index;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.devtools.build.lib.view.proto.Deps;
+import com.google.devtools.intellij.ideinfo.IntellijIdeInfo;
+import com.google.idea.blaze.base.ideinfo.ArtifactLocation;
+import com.google.idea.blaze.base.ideinfo.LibraryArtifact;
+import com.google.idea.blaze.base.ideinfo.TargetIdeInfo;
+import com.google.protobuf.TextFormat;
+import com.salesforce.bazel.sdk.aspects.intellij.IntellijAspects;
+
+/**
+ * The outputs of a build with the IntelliJ aspects (<code>*.intellij-info.txt</code> files and the <code>jdeps</code>
+ * files referenced from them).
+ * <p>
+ * Artifact locations are resolved against the workspace root (main workspace sources) or the execution root (all
+ * generated and external artifacts).
+ * </p>
+ */
+public class AspectOutputs {
+
+    private static Logger LOG = LoggerFactory.getLogger(AspectOutputs.class);
+
+    /**
+     * Finds all aspect output files (<code>*.intellij-info.txt</code>) in the given directory.
+     *
+     * @param directory
+     *            the directory to search (eg. <code>bazel-out</code> of the execution root)
+     * @return the found files (never <code>null</code>)
+     * @throws IOException
+     *             in case of errors walking the directory
+     */
+    public static List<Path> findAspectFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(p -> IntellijAspects.ASPECT_OUTPUT_FILE_PREDICATE.test(p.getFileName().toString()))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads the given aspect output files.
+     * <p>
+     * Files which cannot be read are logged and skipped.
+     * </p>
+     *
+     * @param workspaceRoot
+     *            the workspace root
+     * @param executionRoot
+     *            the execution root
+     * @param aspectFiles
+     *            the aspect output files to read
+     * @return the read outputs
+     */
+    public static AspectOutputs read(Path workspaceRoot, Path executionRoot, Collection<Path> aspectFiles) {
+        List<TargetIdeInfo> targets = new ArrayList<>();
+        for (Path aspectFile : aspectFiles) {
+            try (var reader = new InputStreamReader(Files.newInputStream(aspectFile), UTF_8)) {
+                var builder = IntellijIdeInfo.TargetIdeInfo.newBuilder();
+                TextFormat.Parser.newBuilder().setAllowUnknownFields(true).build().merge(reader, builder);
+                var targetIdeInfo = TargetIdeInfo.fromProto(builder.build());
+                if (targetIdeInfo != null) {
+                    targets.add(targetIdeInfo);
+                }
+            } catch (IOException e) {
+                LOG.warn("Unable to read aspect output '{}': {}", aspectFile, e.getMessage(), e);
+            }
+        }
+        return new AspectOutputs(workspaceRoot, executionRoot, aspectFiles, targets);
+    }
+
+    private final Path workspaceRoot;
+    private final Path executionRoot;
+    private final List<Path> aspectFiles;
+    private final List<TargetIdeInfo> targets;
+
+    AspectOutputs(Path workspaceRoot, Path executionRoot, Collection<Path> aspectFiles, List<TargetIdeInfo> targets) {
+        this.workspaceRoot = requireNonNull(workspaceRoot);
+        this.executionRoot = requireNonNull(executionRoot);
+        this.aspectFiles = List.copyOf(aspectFiles);
+        this.targets = List.copyOf(targets);
+    }
+
+    /**
+     * {@return the aspect output files the targets were read from}
+     */
+    public List<Path> getAspectFiles() {
+        return aspectFiles;
+    }
+
+    public Path getExecutionRoot() {
+        return executionRoot;
+    }
+
+    /**
+     * Computes the source jars of all libraries used for compiling the workspace targets.
+     * <p>
+     * The <code>jdeps</code> file of each workspace target lists the jars actually used by the compiler. Those jars
+     * are mapped back to the libraries producing them. Targets without a <code>jdeps</code> file contribute all their
+     * direct dependencies instead.
+     * </p>
+     *
+     * @return the execution root relative paths of the source jars (never <code>null</code>)
+     */
+    public Set<String> getUsedLibrarySourceJars() {
+        Map<String, LibraryArtifact> librariesByJar = new HashMap<>();
+        Map<String, List<LibraryArtifact>> librariesByTarget = new HashMap<>();
+        for (TargetIdeInfo target : targets) {
+            var javaIdeInfo = target.getJavaIdeInfo();
+            if (javaIdeInfo == null) {
+                continue;
+            }
+            for (LibraryArtifact jar : javaIdeInfo.getJars()) {
+                if (jar.getClassJar() != null) {
+                    librariesByJar.put(jar.getClassJar().getExecutionRootRelativePath(), jar);
+                }
+                if (jar.getInterfaceJar() != null) {
+                    librariesByJar.put(jar.getInterfaceJar().getExecutionRootRelativePath(), jar);
+                }
+            }
+            librariesByTarget.put(target.getKey().getLabel().toString(), javaIdeInfo.getJars());
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        for (TargetIdeInfo target : getWorkspaceTargets()) {
+            var usedJars = readJdeps(target);
+            if (usedJars != null) {
+                for (String jar : usedJars) {
+                    var library = librariesByJar.get(jar);
+                    if (library != null) {
+                        library.getSourceJars().forEach(s -> result.add(s.getExecutionRootRelativePath()));
+                    }
+                }
+            } else {
+                for (var dependency : target.getDependencies()) {
+                    var libraries = librariesByTarget.get(dependency.getTargetKey().getLabel().toString());
+                    if (libraries != null) {
+                        for (LibraryArtifact library : libraries) {
+                            library.getSourceJars().forEach(s -> result.add(s.getExecutionRootRelativePath()));
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@return all targets read from the aspect outputs}
+     */
+    public List<TargetIdeInfo> getTargets() {
+        return targets;
+    }
+
+    public Path getWorkspaceRoot() {
+        return workspaceRoot;
+    }
+
+    /**
+     * {@return the Java targets having sources in the main workspace}
+     */
+    public List<TargetIdeInfo> getWorkspaceTargets() {
+        return targets.stream()
+                .filter(t -> t.getJavaIdeInfo() != null)
+                .filter(t -> t.getSources().stream().anyMatch(ArtifactLocation::isMainWorkspaceSourceArtifact))
+                .toList();
+    }
+
+    /**
+     * Reads the <code>jdeps</code> file of a target.
+     *
+     * @param target
+     *            the target
+     * @return the execution root relative paths of all jars used when compiling the target (<code>null</code> if the
+     *         target has no readable <code>jdeps</code> file)
+     */
+    List<String> readJdeps(TargetIdeInfo target) {
+        var jdepsFile = target.getJavaIdeInfo() != null ? target.getJavaIdeInfo().getJdepsFile() : null;
+        if (jdepsFile == null) {
+            return null;
+        }
+        var path = resolve(jdepsFile);
+        if (!Files.isReadable(path)) {
+            LOG.debug("Jdeps file '{}' of target '{}' does not exist", path, target.getKey());
+            return null;
+        }
+        try (var in = Files.newInputStream(path)) {
+            return Deps.Dependencies.parseFrom(in)
+                    .getDependencyList()
+                    .stream()
+                    .filter(
+                        d -> (d.getKind() == Deps.Dependency.Kind.EXPLICIT)
+                                || (d.getKind() == Deps.Dependency.Kind.IMPLICIT))
+                    .map(Deps.Dependency::getPath)
+                    .toList();
+        } catch (IOException e) {
+            LOG.warn("Unable to read jdeps file '{}': {}", path, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * {@return the absolute path of the given artifact}
+     */
+    public Path resolve(ArtifactLocation location) {
+        if (location.isMainWorkspaceSourceArtifact()) {
+            return workspaceRoot.resolve(location.getRelativePath());
+        }
+        return executionRoot.resolve(location.getExecutionRootRelativePath());
+    }
+}
@@ -0,0 +1,473 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A lightweight lexical scanner for Java source files.
+ * <p>
+ * The scanner does not attribute sources (there is no compiler involved). It only extracts what is needed to build an
+ * index of types: the package, the imports, the declared (possibly nested) types and all identifiers together with the
+ * qualifier they are used with. Resolving identifiers to types is left to the {@link ScipIndexBuilder}, which has the
+ * global view of all declared types.
+ * </p>
+ * <p>
+ * All positions are zero based. Columns are counted in UTF-16 code units, which is what the Language Server Protocol
+ * and SCIP use by default.
+ * </p>
+ */
+public class JavaSourceScanner {
+
+    /**
+     * An identifier found in source.
+     *
+     * @param name
+     *            the identifier
+     * @param qualifier
+     *            the dotted chain of identifiers preceding the identifier (eg. <code>java.util</code> for
+     *            <code>java.util.List</code>), empty if unqualified
+     * @param line
+     *            the line
+     * @param startColumn
+     *            the start column (inclusive)
+     * @param endColumn
+     *            the end column (exclusive)
+     */
+    public record Identifier(String name, String qualifier, int line, int startColumn, int endColumn) {
+    }
+
+    /**
+     * The result of scanning a Java source file.
+     *
+     * @param packageName
+     *            the package name (empty for the default package)
+     * @param imports
+     *            single type imports (fully qualified names)
+     * @param wildcardImports
+     *            on-demand imports (the imported package or type without the trailing <code>.*</code>)
+     * @param types
+     *            the declared types in order of declaration
+     * @param identifiers
+     *            all identifiers which are not part of a declaration name or the package declaration
+     */
+    public record ScannedSource(
+            String packageName,
+            List<String> imports,
+            List<String> wildcardImports,
+            List<TypeDeclaration> types,
+            List<Identifier> identifiers) {
+    }
+
+    /**
+     * A type declared in source.
+     *
+     * @param packageName
+     *            the package name (empty for the default package)
+     * @param typeNames
+     *            the simple names of the type and its enclosing types (outermost first)
+     * @param line
+     *            the line of the type name
+     * @param startColumn
+     *            the start column of the type name (inclusive)
+     * @param endColumn
+     *            the end column of the type name (exclusive)
+     * @param signature
+     *            the declaration as written in source (up to the opening brace)
+     * @param javadoc
+     *            the Javadoc comment text preceding the declaration (may be <code>null</code>)
+     */
+    public record TypeDeclaration(
+            String packageName,
+            List<String> typeNames,
+            int line,
+            int startColumn,
+            int endColumn,
+            String signature,
+            String javadoc) {
+
+        /**
+         * {@return the canonical name of the type, eg. <code>com.example.Outer.Inner</code>}
+         */
+        public String qualifiedName() {
+            var name = String.join(".", typeNames);
+            return packageName.isEmpty() ? name : packageName + "." + name;
+        }
+
+        /**
+         * {@return the simple name of the type}
+         */
+        public String simpleName() {
+            return typeNames.get(typeNames.size() - 1);
+        }
+    }
+
+    private enum TokenKind {
+        IDENTIFIER, SYMBOL
+    }
+
+    private record Token(TokenKind kind, String text, int line, int column, String javadoc) {
+
+        boolean is(String s) {
+            return text.equals(s);
+        }
+    }
+
+    private record OpenType(List<String> typeNames, int depth) {
+    }
+
+    private static final Set<String> TYPE_KEYWORDS = Set.of("class", "interface", "enum", "record");
+
+    private static final Set<String> KEYWORDS = Set.of(
+        "abstract",
+        "assert",
+        "boolean",
+        "break",
+        "byte",
+        "case",
+        "catch",
+        "char",
+        "class",
+        "const",
+        "continue",
+        "default",
+        "do",
+        "double",
+        "else",
+        "enum",
+        "extends",
+        "final",
+        "finally",
+        "float",
+        "for",
+        "goto",
+        "if",
+        "implements",
+        "import",
+        "instanceof",
+        "int",
+        "interface",
+        "long",
+        "native",
+        "new",
+        "package",
+        "private",
+        "protected",
+        "public",
+        "return",
+        "short",
+        "static",
+        "strictfp",
+        "super",
+        "switch",
+        "synchronized",
+        "this",
+        "throw",
+        "throws",
+        "transient",
+        "try",
+        "void",
+        "volatile",
+        "while",
+        "true",
+        "false",
+        "null",
+        "var",
+        "record",
+        "sealed",
+        "permits",
+        "non",
+        "yield");
+
+    private static String cleanJavadoc(String comment) {
+        var result = new StringBuilder();
+        for (String line : comment.substring(3, comment.length() - 2).split("\r?\n")) {
+            var trimmed = line.strip();
+            if (trimmed.startsWith("*")) {
+                trimmed = trimmed.substring(1).strip();
+            }
+            if (!result.isEmpty() || !trimmed.isEmpty()) {
+                result.append(trimmed).append('\n');
+            }
+        }
+        return result.toString().strip();
+    }
+
+    private final String source;
+    private final List<Token> tokens = new ArrayList<>();
+    private final List<String> lines;
+
+    /**
+     * @param source
+     *            the Java source to scan
+     */
+    public JavaSourceScanner(String source) {
+        this.source = source;
+        lines = source.lines().toList();
+    }
+
+    private String qualifierBefore(int index) {
+        var qualifier = new ArrayDeque<String>();
+        var i = index - 1;
+        while ((i >= 1) && tokens.get(i).is(".") && (tokens.get(i - 1).kind() == TokenKind.IDENTIFIER)) {
+            qualifier.addFirst(tokens.get(i - 1).text());
+            i -= 2;
+        }
+        return String.join(".", qualifier);
+    }
+
+    private String readDottedName(int start, int end) {
+        var name = new StringBuilder();
+        for (var i = start; i < end; i++) {
+            name.append(tokens.get(i).text());
+        }
+        return name.toString();
+    }
+
+    /**
+     * Scans the source.
+     *
+     * @return the scan result
+     */
+    public ScannedSource scan() {
+        tokenize();
+
+        var packageName = "";
+        List<String> imports = new ArrayList<>();
+        List<String> wildcardImports = new ArrayList<>();
+        List<TypeDeclaration> types = new ArrayList<>();
+        List<Identifier> identifiers = new ArrayList<>();
+
+        Deque<OpenType> openTypes = new ArrayDeque<>();
+        List<String> pendingType = null;
+        var depth = 0;
+
+        for (var i = 0; i < tokens.size(); i++) {
+            var token = tokens.get(i);
+            if (token.kind() == TokenKind.SYMBOL) {
+                if (token.is("{")) {
+                    depth++;
+                    if (pendingType != null) {
+                        openTypes.push(new OpenType(pendingType, depth));
+                        pendingType = null;
+                    }
+                } else if (token.is("}")) {
+                    depth--;
+                    while (!openTypes.isEmpty() && (openTypes.peek().depth() > depth)) {
+                        openTypes.pop();
+                    }
+                }
+                continue;
+            }
+
+            if ((depth == 0) && (token.is("package") || token.is("import"))) {
+                var end = i + 1;
+                while ((end < tokens.size()) && !tokens.get(end).is(";")) {
+                    end++;
+                }
+                if (token.is("package")) {
+                    packageName = readDottedName(i + 1, end);
+                    i = end;
+                    continue;
+                }
+                var start = i + 1;
+                if ((start < end) && tokens.get(start).is("static")) {
+                    start++;
+                }
+                var imported = readDottedName(start, end);
+                if (imported.endsWith(".*")) {
+                    wildcardImports.add(imported.substring(0, imported.length() - 2));
+                } else if (!tokens.get(i + 1).is("static")) {
+                    imports.add(imported);
+                }
+                // the identifiers of the imported name are references
+                for (var j = start; j < end; j++) {
+                    var t = tokens.get(j);
+                    if (t.kind() == TokenKind.IDENTIFIER) {
+                        identifiers.add(
+                            new Identifier(
+                                    t.text(),
+                                    qualifierBefore(j),
+                                    t.line(),
+                                    t.column(),
+                                    t.column() + t.text().length()));
+                    }
+                }
+                i = end;
+                continue;
+            }
+
+            var previousIsDot = (i > 0) && tokens.get(i - 1).is(".");
+            if (TYPE_KEYWORDS.contains(token.text()) && !previousIsDot && ((i + 1) < tokens.size())
+                    && (tokens.get(i + 1).kind() == TokenKind.IDENTIFIER)
+                    && !KEYWORDS.contains(tokens.get(i + 1).text())) {
+                // record is a contextual keyword; only treat it as a declaration when followed by a name and '('
+                if (token.is("record") && (((i + 2) >= tokens.size()) || !tokens.get(i + 2).is("("))) {
+                    continue;
+                }
+                var name = tokens.get(++i);
+                List<String> typeNames = new ArrayList<>();
+                if (!openTypes.isEmpty()) {
+                    typeNames.addAll(openTypes.peek().typeNames());
+                }
+                typeNames.add(name.text());
+                types.add(
+                    new TypeDeclaration(
+                            packageName,
+                            List.copyOf(typeNames),
+                            name.line(),
+                            name.column(),
+                            name.column() + name.text().length(),
+                            signatureAt(name.line()),
+                            token.javadoc()));
+                pendingType = typeNames;
+                continue;
+            }
+
+            if (!KEYWORDS.contains(token.text())) {
+                identifiers.add(
+                    new Identifier(
+                            token.text(),
+                            qualifierBefore(i),
+                            token.line(),
+                            token.column(),
+                            token.column() + token.text().length()));
+            }
+        }
+
+        return new ScannedSource(
+                packageName,
+                List.copyOf(imports),
+                List.copyOf(wildcardImports),
+                List.copyOf(types),
+                List.copyOf(identifiers));
+    }
+
+    private String signatureAt(int line) {
+        if (line >= lines.size()) {
+            return "";
+        }
+        var text = lines.get(line);
+        var brace = text.indexOf('{');
+        return (brace >= 0 ? text.substring(0, brace) : text).strip();
+    }
+
+    private void tokenize() {
+        var length = source.length();
+        var line = 0;
+        var lineStart = 0;
+        String javadoc = null;
+        var i = 0;
+        while (i < length) {
+            var c = source.charAt(i);
+            if (c == '\n') {
+                line++;
+                lineStart = ++i;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if ((c == '/') && ((i + 1) < length) && (source.charAt(i + 1) == '/')) {
+                while ((i < length) && (source.charAt(i) != '\n')) {
+                    i++;
+                }
+                continue;
+            }
+            if ((c == '/') && ((i + 1) < length) && (source.charAt(i + 1) == '*')) {
+                var end = source.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                var comment = source.substring(i, end);
+                if (comment.startsWith("/**") && (comment.length() > 4)) {
+                    javadoc = cleanJavadoc(comment);
+                }
+                for (var j = i; j < end; j++) {
+                    if (source.charAt(j) == '\n') {
+                        line++;
+                        lineStart = j + 1;
+                    }
+                }
+                i = end;
+                continue;
+            }
+            if ((c == '"') || (c == '\'')) {
+                var textBlock = (c == '"') && source.startsWith("\"\"\"", i);
+                var j = i + (textBlock ? 3 : 1);
+                while (j < length) {
+                    var d = source.charAt(j);
+                    if (d == '\\') {
+                        j += 2;
+                        continue;
+                    }
+                    if (d == '\n') {
+                        if (!textBlock) {
+                            break;
+                        }
+                        line++;
+                        lineStart = j + 1;
+                    } else if (textBlock ? source.startsWith("\"\"\"", j) : d == c) {
+                        j += textBlock ? 3 : 1;
+                        break;
+                    }
+                    j++;
+                }
+                i = Math.min(j, length);
+                continue;
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                var j = i + 1;
+                while ((j < length) && Character.isJavaIdentifierPart(source.charAt(j))) {
+                    j++;
+                }
+                var text = source.substring(i, j);
+                tokens.add(new Token(TokenKind.IDENTIFIER, text, line, i - lineStart, javadoc));
+                i = j;
+                continue;
+            }
+            if (Character.isDigit(c)) {
+                // numeric literal (including suffixes, hex digits and underscores)
+                var j = i + 1;
+                while ((j < length) && (Character.isLetterOrDigit(source.charAt(j)) || (source.charAt(j) == '_')
+                        || ((source.charAt(j) == '.') && ((j + 1) < length)
+                                && Character.isDigit(source.charAt(j + 1))))) {
+                    j++;
+                }
+                i = j;
+                continue;
+            }
+            if ((c == '.') && source.startsWith("...", i)) {
+                tokens.add(new Token(TokenKind.SYMBOL, "...", line, i - lineStart, null));
+                i += 3;
+                continue;
+            }
+            if ((c == '.') && ((i + 1) < length) && (source.charAt(i + 1) == '*')) {
+                tokens.add(new Token(TokenKind.SYMBOL, ".", line, i - lineStart, null));
+                tokens.add(new Token(TokenKind.SYMBOL, "*", line, i - lineStart + 1, null));
+                i += 2;
+                continue;
+            }
+            tokens.add(new Token(TokenKind.SYMBOL, String.valueOf(c), line, i - lineStart, null));
+            if ((c == ';') || (c == '{') || (c == '}')) {
+                // a Javadoc comment only belongs to the next declaration
+                javadoc = null;
+            }
+            i++;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls.index;
+
+import static com.salesforce.bazel.scipls.index.ScipIndexBuilder.SOURCE_JAR_ENTRY_SEPARATOR;
+import static java.util.Objects.requireNonNull;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sourcegraph.Scip;
+
+/**
+ * A queryable view of a SCIP index.
+ * <p>
+ * The index keeps the occurrences of each document for finding the symbol at a position as well as all definitions
+ * and references of each symbol. Documents are identified by their relative path in the index. Use
+ * {@link #toRelativePath(URI)} and {@link #toUri(String)} for converting between relative paths and URIs.
+ * </p>
+ * <p>
+ * Instances are immutable and thread safe.
+ * </p>
+ */
+public class ScipIndex {
+
+    /**
+     * The location of an occurrence in a document.
+     *
+     * @param relativePath
+     *            the relative path of the document
+     * @param startLine
+     *            the start line (zero based)
+     * @param startColumn
+     *            the start column (zero based)
+     * @param endLine
+     *            the end line (zero based)
+     * @param endColumn
+     *            the end column (zero based, exclusive)
+     */
+    public record ScipLocation(String relativePath, int startLine, int startColumn, int endLine, int endColumn) {
+
+        static ScipLocation of(String relativePath, List<Integer> range) {
+            // SCIP ranges have three elements when start and end line are equal
+            if (range.size() == 3) {
+                return new ScipLocation(relativePath, range.get(0), range.get(1), range.get(0), range.get(2));
+            }
+            return new ScipLocation(relativePath, range.get(0), range.get(1), range.get(2), range.get(3));
+        }
+
+        boolean contains(int line, int column) {
+            if ((line < startLine) || (line > endLine)) {
+                return false;
+            }
+            if ((line == startLine) && (column < startColumn)) {
+                return false;
+            }
+            // the end is inclusive so that a cursor placed right after an identifier still finds it
+            return (line != endLine) || (column <= endColumn);
+        }
+    }
+
+    private record Occurrence(ScipLocation location, String symbol) {
+    }
+
+    private final Path workspaceRoot;
+    private final Path executionRoot;
+
+    private final Map<String, List<Occurrence>> occurrencesByDocument = new HashMap<>();
+    private final Map<String, List<ScipLocation>> definitionsBySymbol = new HashMap<>();
+    private final Map<String, List<ScipLocation>> referencesBySymbol = new HashMap<>();
+    private final Map<String, List<String>> documentationBySymbol = new HashMap<>();
+
+    /**
+     * @param index
+     *            the SCIP index
+     * @param workspaceRoot
+     *            the workspace root (for resolving documents of workspace sources)
+     * @param executionRoot
+     *            the execution root (for resolving documents of source jar entries)
+     */
+    public ScipIndex(Scip.Index index, Path workspaceRoot, Path executionRoot) {
+        this.workspaceRoot = requireNonNull(workspaceRoot);
+        this.executionRoot = requireNonNull(executionRoot);
+
+        for (Scip.Document document : index.getDocumentsList()) {
+            var relativePath = document.getRelativePath();
+            List<Occurrence> occurrences = new ArrayList<>(document.getOccurrencesCount());
+            for (Scip.Occurrence occurrence : document.getOccurrencesList()) {
+                var location = ScipLocation.of(relativePath, occurrence.getRangeList());
+                occurrences.add(new Occurrence(location, occurrence.getSymbol()));
+                var definition = (occurrence.getSymbolRoles() & Scip.SymbolRole.Definition_VALUE) != 0;
+                (definition ? definitionsBySymbol : referencesBySymbol)
+                        .computeIfAbsent(occurrence.getSymbol(), s -> new ArrayList<>())
+                        .add(location);
+            }
+            occurrencesByDocument.put(relativePath, occurrences);
+            for (Scip.SymbolInformation information : document.getSymbolsList()) {
+                documentationBySymbol.putIfAbsent(information.getSymbol(), information.getDocumentationList());
+            }
+        }
+    }
+
+    /**
+     * Finds the symbol at the given position.
+     *
+     * @param relativePath
+     *            the relative path of the document
+     * @param line
+     *            the line (zero based)
+     * @param column
+     *            the column (zero based)
+     * @return the symbol (<code>null</code> if there is no occurrence at the position)
+     */
+    public String findSymbol(String relativePath, int line, int column) {
+        var occurrences = occurrencesByDocument.get(relativePath);
+        if (occurrences == null) {
+            return null;
+        }
+        for (Occurrence occurrence : occurrences) {
+            if (occurrence.location().contains(line, column)) {
+                return occurrence.symbol();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@return the locations defining the symbol (never <code>null</code>)}
+     */
+    public List<ScipLocation> getDefinitions(String symbol) {
+        return definitionsBySymbol.getOrDefault(symbol, List.of());
+    }
+
+    /**
+     * {@return the documentation (Markdown) of the symbol (never <code>null</code>)}
+     */
+    public List<String> getDocumentation(String symbol) {
+        return documentationBySymbol.getOrDefault(symbol, List.of());
+    }
+
+    /**
+     * Returns all references of a symbol.
+     *
+     * @param symbol
+     *            the symbol
+     * @param includeDefinitions
+     *            <code>true</code> to include the definitions
+     * @return the locations referencing (and possibly defining) the symbol (never <code>null</code>)
+     */
+    public List<ScipLocation> getReferences(String symbol, boolean includeDefinitions) {
+        List<ScipLocation> result = new ArrayList<>();
+        if (includeDefinitions) {
+            result.addAll(getDefinitions(symbol));
+        }
+        result.addAll(referencesBySymbol.getOrDefault(symbol, List.of()));
+        return result;
+    }
+
+    /**
+     * Converts a document URI into a relative path of this index.
+     *
+     * @param uri
+     *            a <code>file:</code> URI of a workspace source or a <code>jar:</code> URI of a source jar entry
+     * @return the relative path (<code>null</code> if the URI does not point into the workspace or execution root)
+     */
+    public String toRelativePath(URI uri) {
+        if ("jar".equals(uri.getScheme())) {
+            var specific = uri.getSchemeSpecificPart();
+            var separator = specific.indexOf(SOURCE_JAR_ENTRY_SEPARATOR);
+            if (separator < 0) {
+                return null;
+            }
+            var jar = Path.of(URI.create(specific.substring(0, separator)));
+            if (!jar.startsWith(executionRoot)) {
+                return null;
+            }
+            return toPortablePath(executionRoot.relativize(jar)) + specific.substring(separator);
+        }
+        if (!"file".equals(uri.getScheme())) {
+            return null;
+        }
+        var path = Path.of(uri);
+        if (!path.startsWith(workspaceRoot)) {
+            return null;
+        }
+        return toPortablePath(workspaceRoot.relativize(path));
+    }
+
+    private String toPortablePath(Path path) {
+        return path.toString().replace('\\', '/');
+    }
+
+    /**
+     * {@return the URI of a document identified by its relative path in this index}
+     */
+    public URI toUri(String relativePath) {
+        var separator = relativePath.indexOf(SOURCE_JAR_ENTRY_SEPARATOR);
+        if (separator >= 0) {
+            var jar = executionRoot.resolve(relativePath.substring(0, separator)).toUri();
+            return URI.create("jar:" + jar + relativePath.substring(separator));
+        }
+        return workspaceRoot.resolve(relativePath).toUri();
+    }
+}
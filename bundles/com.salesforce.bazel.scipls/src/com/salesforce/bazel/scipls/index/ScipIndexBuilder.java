@@ -0,0 +1,293 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls.index;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.idea.blaze.base.ideinfo.ArtifactLocation;
+import com.google.idea.blaze.base.ideinfo.TargetIdeInfo;
+import com.salesforce.bazel.scipls.index.JavaSourceScanner.Identifier;
+import com.salesforce.bazel.scipls.index.JavaSourceScanner.ScannedSource;
+import com.salesforce.bazel.scipls.index.JavaSourceScanner.TypeDeclaration;
+import com.sourcegraph.Scip;
+
+/**
+ * Builds a SCIP index from the outputs of a build with the IntelliJ aspects.
+ * <p>
+ * One SCIP document is created for every Java source file of a workspace target and for every Java file inside the
+ * source jars of libraries the workspace targets were compiled against (as recorded in their <code>jdeps</code>
+ * files). Documents of source jar entries use <code>&lt;source jar&gt;!/&lt;entry&gt;</code> as relative path, where
+ * the source jar path is relative to the execution root.
+ * </p>
+ * <p>
+ * Sources are not compiled. Instead they are {@link JavaSourceScanner scanned} and identifiers are resolved to types
+ * using the usual Java scoping rules for type names (types of the same file, single type imports, same package,
+ * on-demand imports). Symbols use the <code>semanticdb maven . .</code> scheme of scip-java so that indexes are
+ * compatible with other SCIP tooling.
+ * </p>
+ */
+public class ScipIndexBuilder {
+
+    private record ScannedDocument(String relativePath, ScannedSource source) {
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(ScipIndexBuilder.class);
+
+    static final String SOURCE_JAR_ENTRY_SEPARATOR = "!/";
+
+    static final String SYMBOL_PREFIX = "semanticdb maven . . ";
+
+    /**
+     * {@return the SCIP symbol of a type declaration}
+     */
+    static String symbolOf(TypeDeclaration type) {
+        var symbol = new StringBuilder(SYMBOL_PREFIX);
+        if (type.packageName().isEmpty()) {
+            symbol.append("_empty_/");
+        } else {
+            symbol.append(type.packageName().replace('.', '/')).append('/');
+        }
+        for (String name : type.typeNames()) {
+            symbol.append(name).append('#');
+        }
+        return symbol.toString();
+    }
+
+    private final AspectOutputs aspectOutputs;
+
+    /** known types by canonical name */
+    private final Map<String, TypeDeclaration> typesByName = new HashMap<>();
+
+    private Set<String> usedSourceJars;
+
+    /**
+     * @param aspectOutputs
+     *            the aspect outputs to index
+     */
+    public ScipIndexBuilder(AspectOutputs aspectOutputs) {
+        this.aspectOutputs = requireNonNull(aspectOutputs);
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @return the index
+     */
+    public Scip.Index build() {
+        List<ScannedDocument> documents = new ArrayList<>();
+        for (Path sourceFile : getWorkspaceSourceFiles()) {
+            var relativePath = toRelativePath(aspectOutputs.getWorkspaceRoot().relativize(sourceFile));
+            try {
+                documents.add(new ScannedDocument(relativePath, scan(Files.readString(sourceFile, UTF_8))));
+            } catch (CharacterCodingException e) {
+                LOG.debug("Ignoring source file '{}' with invalid encoding", sourceFile);
+            } catch (IOException e) {
+                LOG.warn("Unable to read source file '{}': {}", sourceFile, e.getMessage(), e);
+            }
+        }
+        for (String sourceJar : getUsedSourceJars()) {
+            scanSourceJar(sourceJar, documents);
+        }
+
+        var index = Scip.Index.newBuilder()
+                .setMetadata(
+                    Scip.Metadata.newBuilder()
+                            .setProjectRoot(aspectOutputs.getWorkspaceRoot().toUri().toString())
+                            .setToolInfo(Scip.ToolInfo.newBuilder().setName("scipls").setVersion("1.0.0")));
+        for (ScannedDocument document : documents) {
+            index.addDocuments(createDocument(document));
+        }
+        LOG.info(
+            "Indexed {} documents with {} types from {} aspect outputs",
+            documents.size(),
+            typesByName.size(),
+            aspectOutputs.getAspectFiles().size());
+        return index.build();
+    }
+
+    private Scip.Document createDocument(ScannedDocument scanned) {
+        var document = Scip.Document.newBuilder().setRelativePath(scanned.relativePath());
+        var source = scanned.source();
+
+        for (TypeDeclaration type : source.types()) {
+            var symbol = symbolOf(type);
+            document.addOccurrences(
+                Scip.Occurrence.newBuilder()
+                        .addRange(type.line())
+                        .addRange(type.startColumn())
+                        .addRange(type.endColumn())
+                        .setSymbol(symbol)
+                        .setSymbolRoles(Scip.SymbolRole.Definition_VALUE));
+
+            var information = Scip.SymbolInformation.newBuilder().setSymbol(symbol);
+            information.addDocumentation("```java\n" + type.signature() + "\n```");
+            if ((type.javadoc() != null) && !type.javadoc().isBlank()) {
+                information.addDocumentation(type.javadoc());
+            }
+            document.addSymbols(information);
+        }
+
+        for (Identifier identifier : source.identifiers()) {
+            var type = resolve(source, identifier);
+            if (type == null) {
+                continue;
+            }
+            document.addOccurrences(
+                Scip.Occurrence.newBuilder()
+                        .addRange(identifier.line())
+                        .addRange(identifier.startColumn())
+                        .addRange(identifier.endColumn())
+                        .setSymbol(symbolOf(type)));
+        }
+        return document.build();
+    }
+
+    /**
+     * {@return all files the index is built from (aspect outputs, workspace sources and used source jars)}
+     */
+    public List<Path> getInputFiles() {
+        Set<Path> result = new LinkedHashSet<>(aspectOutputs.getAspectFiles());
+        result.addAll(getWorkspaceSourceFiles());
+        for (String sourceJar : getUsedSourceJars()) {
+            result.add(aspectOutputs.getExecutionRoot().resolve(sourceJar));
+        }
+        return List.copyOf(result);
+    }
+
+    private Set<String> getUsedSourceJars() {
+        if (usedSourceJars == null) {
+            usedSourceJars = aspectOutputs.getUsedLibrarySourceJars();
+        }
+        return usedSourceJars;
+    }
+
+    private Set<Path> getWorkspaceSourceFiles() {
+        Set<Path> result = new LinkedHashSet<>();
+        for (TargetIdeInfo target : aspectOutputs.getWorkspaceTargets()) {
+            for (ArtifactLocation source : target.getSources()) {
+                if (source.isMainWorkspaceSourceArtifact() && source.getRelativePath().endsWith(".java")) {
+                    result.add(aspectOutputs.resolve(source));
+                }
+            }
+        }
+        return result;
+    }
+
+    private TypeDeclaration resolve(ScannedSource source, Identifier identifier) {
+        if (!identifier.qualifier().isEmpty()) {
+            // fully qualified name
+            var type = typesByName.get(identifier.qualifier() + "." + identifier.name());
+            if (type != null) {
+                return type;
+            }
+
+            // member type of a type (eg. Outer.Inner)
+            var qualifier = identifier.qualifier().split("\\.");
+            var outer = resolveSimpleName(source, qualifier[0]);
+            for (var i = 1; (outer != null) && (i < qualifier.length); i++) {
+                outer = typesByName.get(outer.qualifiedName() + "." + qualifier[i]);
+            }
+            return outer != null ? typesByName.get(outer.qualifiedName() + "." + identifier.name()) : null;
+        }
+        return resolveSimpleName(source, identifier.name());
+    }
+
+    private TypeDeclaration resolveSimpleName(ScannedSource source, String name) {
+        // types declared in the same file (includes member types)
+        for (TypeDeclaration type : source.types()) {
+            if (type.simpleName().equals(name)) {
+                return type;
+            }
+        }
+
+        // single type imports
+        for (String imported : source.imports()) {
+            if (imported.equals(name) || imported.endsWith("." + name)) {
+                return typesByName.get(imported);
+            }
+        }
+
+        // same package
+        var type = typesByName.get(source.packageName().isEmpty() ? name : source.packageName() + "." + name);
+        if (type != null) {
+            return type;
+        }
+
+        // on-demand imports
+        for (String imported : source.wildcardImports()) {
+            type = typesByName.get(imported + "." + name);
+            if (type != null) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private ScannedSource scan(String content) {
+        var source = new JavaSourceScanner(content).scan();
+        for (TypeDeclaration type : source.types()) {
+            typesByName.putIfAbsent(type.qualifiedName(), type);
+        }
+        return source;
+    }
+
+    private void scanSourceJar(String sourceJar, List<ScannedDocument> documents) {
+        var path = aspectOutputs.getExecutionRoot().resolve(sourceJar);
+        if (!Files.isReadable(path)) {
+            LOG.debug("Source jar '{}' does not exist", path);
+            return;
+        }
+        try (var zip = new ZipFile(path.toFile(), UTF_8)) {
+            Map<String, String> contents = new LinkedHashMap<>();
+            var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(".java")) {
+                    try (var in = zip.getInputStream(entry)) {
+                        contents.put(entry.getName(), new String(in.readAllBytes(), UTF_8));
+                    }
+                }
+            }
+            for (Map.Entry<String, String> entry : contents.entrySet()) {
+                documents.add(
+                    new ScannedDocument(
+                            toRelativePath(Path.of(sourceJar)) + SOURCE_JAR_ENTRY_SEPARATOR + entry.getKey(),
+                            scan(entry.getValue())));
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to read source jar '{}': {}", path, e.getMessage(), e);
+        }
+    }
+
+    private String toRelativePath(Path path) {
+        return path.toString().replace('\\', '/');
+    }
+}
@@ -0,0 +1,116 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.scipls.index;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sourcegraph.Scip;
+
+/**
+ * Stores a SCIP index on disk (in the standard <code>index.scip</code> protobuf format).
+ */
+public class ScipIndexStore {
+
+    private static Logger LOG = LoggerFactory.getLogger(ScipIndexStore.class);
+
+    private final Path indexFile;
+
+    /**
+     * @param indexFile
+     *            the file to store the index in
+     */
+    public ScipIndexStore(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    public Path getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Checks whether the stored index is newer than all the given input files.
+     *
+     * @param inputFiles
+     *            the files the index was built from
+     * @return <code>true</code> if an index exists and no input file was modified after it was written,
+     *         <code>false</code> otherwise
+     */
+    public boolean isUpToDate(Collection<Path> inputFiles) {
+        try {
+            if (!Files.isRegularFile(indexFile)) {
+                return false;
+            }
+            var indexModified = Files.getLastModifiedTime(indexFile);
+            for (Path inputFile : inputFiles) {
+                if (Files.exists(inputFile) && (Files.getLastModifiedTime(inputFile).compareTo(indexModified) > 0)) {
+                    LOG.debug("Index '{}' is outdated: '{}' was modified", indexFile, inputFile);
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            LOG.debug("Unable to check index '{}': {}", indexFile, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the stored index.
+     *
+     * @return the index
+     * @throws IOException
+     *             if the index cannot be read
+     */
+    public Scip.Index read() throws IOException {
+        try (var in = new BufferedInputStream(Files.newInputStream(indexFile))) {
+            return Scip.Index.parseFrom(in);
+        }
+    }
+
+    /**
+     * Writes the index.
+     * <p>
+     * The index is written to a temporary file first, which is then moved into place. Concurrent readers therefore
+     * never see a partially written index.
+     * </p>
+     *
+     * @param index
+     *            the index to write
+     * @throws IOException
+     *             if the index cannot be written
+     */
+    public void write(Scip.Index index) throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        var tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                index.writeTo(out);
+            }
+            Files.move(tempFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
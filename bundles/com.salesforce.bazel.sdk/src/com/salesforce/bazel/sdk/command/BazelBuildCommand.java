@@ -6,6 +6,7 @@ import static java.nio.file.Files.deleteIfExists;
 import static java.nio.file.Files.newInputStream;
 import static java.util.Objects.requireNonNull;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
@@ -30,6 +31,7 @@ public class BazelBuildCommand extends BazelCommand<ParsedBepOutput> {
 
     private Path bepFile;
     private Interner<String> interner;
+    private BuildDiagnosticsCollector diagnosticsCollector;
     private final boolean keepGoing;
     private final List<BazelLabel> targets;
     private final BlazeInfo blazeInfo;
@@ -49,9 +51,13 @@ public class BazelBuildCommand extends BazelCommand<ParsedBepOutput> {
 
     @Override
     public ParsedBepOutput generateResult(int exitCode) throws IOException {
-        try (var in = newInputStream(
-            requireNonNull(bepFile, "unusual code flow; prepareCommandLine not called or overridden incorrectly?"))) {
-            return ParsedBepOutput.parseBepArtifacts(BuildEventStreamProvider.fromInputStream(in), blazeInfo, interner);
+        try (var in = new BufferedInputStream(newInputStream(
+            requireNonNull(bepFile, "unusual code flow; prepareCommandLine not called or overridden incorrectly?")))) {
+            var stream = BuildEventStreamProvider.fromInputStream(in);
+            if (diagnosticsCollector != null) {
+                stream = diagnosticsCollector.observe(stream);
+            }
+            return ParsedBepOutput.parseBepArtifacts(stream, blazeInfo, interner);
         } finally {
             try {
                 if (deleteIfExists(bepFile)) {
@@ -88,6 +94,15 @@ public class BazelBuildCommand extends BazelCommand<ParsedBepOutput> {
         return commandLine;
     }
 
+    /**
+     * @param diagnosticsCollector
+     *            a collector to feed all build events into when generating the {@link ParsedBepOutput result} (maybe
+     *            <code>null</code>)
+     */
+    public void setDiagnosticsCollector(BuildDiagnosticsCollector diagnosticsCollector) {
+        this.diagnosticsCollector = diagnosticsCollector;
+    }
+
     /**
      * @param interner
      *            the interner to use when generating the {@link ParsedBepOutput result}
@@ -1,11 +1,11 @@
 package com.salesforce.bazel.sdk.command;
 
 import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.readString;
 import static java.nio.file.Files.writeString;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.List;
@@ -28,16 +28,12 @@ public class BazelCQueryWithStarlarkExpressionCommand extends BazelCQueryCommand
     }
 
     @Override
-    protected String doGenerateResult() throws IOException {
-        return readString(getStdOutFile(), Charset.defaultCharset());
+    protected String parseStdOut(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), Charset.defaultCharset());
     }
 
     @Override
     public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
-        // redirect output to file for parsing
-        var stdoutFile = createTempFile("bazel_cquery_stdout_", ".starlark.txt");
-        setRedirectStdOutToFile(stdoutFile);
-
         // save expression into file
         var starlarkFile = createTempFile("bazel_cquery_starlark_file_", ".starlark.txt");
         writeString(starlarkFile, starlarkExpression);
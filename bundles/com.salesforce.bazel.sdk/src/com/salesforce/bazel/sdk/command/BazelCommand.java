@@ -1,17 +1,24 @@
 package com.salesforce.bazel.sdk.command;
 
 import static java.lang.String.format;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newInputStream;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.salesforce.bazel.sdk.BazelVersion;
 
 /**
@@ -33,18 +40,48 @@ import com.salesforce.bazel.sdk.BazelVersion;
  * It's expected that the command is only modified till its executed. Command objects must not be hold on for a longer
  * time.
  * </p>
+ * <p>
+ * Commands producing output to be parsed should implement {@link #parseStdOut(InputStream)} and select
+ * {@link StdOutChannel#PIPE}. The executor will then feed the process output directly into the parser while the
+ * process is running, or spool it into a file when piping is not possible.
+ * </p>
  *
  * @param <R>
  *            the command result
  */
 public abstract class BazelCommand<R> {
 
+    /**
+     * How standard out of the process is consumed.
+     */
+    public enum StdOutChannel {
+        /**
+         * Output is forwarded to the console (or redirected into {@link BazelCommand#getStdOutFile() a file} for the
+         * command to read in {@link BazelCommand#doGenerateResult()})
+         */
+        CONSOLE,
+
+        /**
+         * Output is parsed directly from the process pipe while the process is running
+         */
+        PIPE,
+
+        /**
+         * Output is spooled into a temporary file, which is parsed after the process terminated
+         */
+        SPOOL_FILE
+    }
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelCommand.class);
+
     private final String command;
     private final Path workingDirectory;
 
     private List<String> startupArgs;
     private List<String> commandArgs;
     private Path stdOutFile;
+    private StdOutChannel stdOutChannel = StdOutChannel.CONSOLE;
+    private R parsedStdOut;
     private BazelBinary bazelBinary;
     private final String purpose;
 
@@ -94,11 +131,36 @@ public abstract class BazelCommand<R> {
      * <p>
      * Implementors are expected to read the command output (either {@link #getStdOutFile()} or some other output
      * produced by the command) and process is into the desired result.
+     * </p>
+     * <p>
+     * The default implementation returns the output parsed by {@link #parseStdOut(InputStream)}. Commands using
+     * {@link StdOutChannel#CONSOLE} must override.
+     * </p>
      *
      * @return the command result (never <code>null</code>)
      * @throws IOException
      */
-    protected abstract R doGenerateResult() throws IOException;
+    protected R doGenerateResult() throws IOException {
+        return switch (stdOutChannel) {
+            case PIPE -> requireNonNull(
+                parsedStdOut,
+                "no output parsed; check executor logic - it must call readStdOut while the process is running");
+            case SPOOL_FILE -> {
+                var spoolFile = requireNonNull(stdOutFile, "no spool file; check executor logic");
+                try (var in = new BufferedInputStream(newInputStream(spoolFile))) {
+                    yield parseStdOut(in);
+                } finally {
+                    try {
+                        deleteIfExists(spoolFile);
+                    } catch (IOException e) {
+                        LOG.warn("Error deleting '{}'. Please delete manually to save some space.", spoolFile, e);
+                    }
+                }
+            }
+            case CONSOLE -> throw new IllegalStateException(
+                    format("Invalid command implementation '%s'. doGenerateResult must be implemented.", getClass()));
+        };
+    }
 
     /**
      * {@return the Bazel binary to use (never <code>null</code>)
@@ -156,6 +218,13 @@ public abstract class BazelCommand<R> {
         return args != null ? args : emptyList();
     }
 
+    /**
+     * {@return how standard out of the process is consumed}
+     */
+    public StdOutChannel getStdOutChannel() {
+        return stdOutChannel;
+    }
+
     /**
      * {@return an optional, human readable text why the command should be executed (may be <code>null</code>)}
      */
@@ -215,6 +284,42 @@ public abstract class BazelCommand<R> {
         return commandLine;
     }
 
+    /**
+     * Parses standard out of the process into the command result.
+     * <p>
+     * Called when the command uses {@link StdOutChannel#PIPE} or {@link StdOutChannel#SPOOL_FILE}. Implementors must
+     * consume the stream until the end of the output. The stream must not be closed.
+     * </p>
+     * <p>
+     * The default implementation throws {@link IllegalStateException}.
+     * </p>
+     *
+     * @param in
+     *            the output (never <code>null</code>)
+     * @return the result (never <code>null</code>)
+     * @throws IOException
+     *             in case of errors reading or parsing the output
+     */
+    protected R parseStdOut(InputStream in) throws IOException {
+        throw new IllegalStateException(
+                format("Invalid command implementation '%s'. parseStdOut must be implemented.", getClass()));
+    }
+
+    /**
+     * Called by the executor when using {@link StdOutChannel#PIPE} to parse the output while the process is running.
+     * <p>
+     * The result is kept and returned by {@link #doGenerateResult()} once the process terminated successfully.
+     * </p>
+     *
+     * @param in
+     *            the process standard out (never <code>null</code>)
+     * @throws IOException
+     *             in case of errors reading or parsing the output
+     */
+    void readStdOut(InputStream in) throws IOException {
+        parsedStdOut = parseStdOut(in);
+    }
+
     /**
      * Sets an optional {@link BazelBinary} to use.
      * <p>
@@ -268,6 +373,20 @@ public abstract class BazelCommand<R> {
         this.stdOutFile = stdOutFile;
     }
 
+    /**
+     * Sets how standard out of the process is consumed.
+     * <p>
+     * Commands parsing their output select {@link StdOutChannel#PIPE} on construction. An executor may switch to
+     * {@link StdOutChannel#SPOOL_FILE} before {@link #prepareCommandLine(BazelVersion)} if it cannot pipe the output.
+     * </p>
+     *
+     * @param stdOutChannel
+     *            the channel (must not be <code>null</code>)
+     */
+    public void setStdOutChannel(StdOutChannel stdOutChannel) {
+        this.stdOutChannel = requireNonNull(stdOutChannel);
+    }
+
     /**
      * Sets the startup arguments to use for this command.
      * <p>
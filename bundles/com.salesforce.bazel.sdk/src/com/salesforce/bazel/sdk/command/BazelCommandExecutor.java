@@ -13,10 +13,30 @@ public interface BazelCommandExecutor {
 
     /**
      * Functional interface to allow cancellation of an execution.
+     * <p>
+     * By default executors poll {@link #isCanceled()}. Implementations able to notify about cancellation should
+     * implement {@link #onCancel(Runnable)} (see {@link CancelationSignal}).
+     * </p>
      */
     @FunctionalInterface
     interface CancelationCallback {
         boolean isCanceled();
+
+        /**
+         * Registers a listener to be called once when the execution is cancelled.
+         * <p>
+         * The listener is called immediately if the execution is already cancelled. The default implementation does
+         * not support notifications and returns <code>false</code>.
+         * </p>
+         *
+         * @param listener
+         *            the listener (must not be <code>null</code>)
+         * @return <code>true</code> if the listener will be called, <code>false</code> if the caller must poll
+         *         {@link #isCanceled()}
+         */
+        default boolean onCancel(Runnable listener) {
+            return false;
+        }
     }
 
     /**
@@ -1,18 +1,17 @@
 package com.salesforce.bazel.sdk.command;
 
-import static java.io.File.createTempFile;
 import static java.lang.String.format;
-import static java.nio.file.Files.readAllLines;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import com.salesforce.bazel.sdk.BazelVersion;
-
 /**
  * <code>bazel info</code>
  */
@@ -20,6 +19,7 @@ public class BazelInfoCommand extends BazelCommand<Map<String, String>> {
 
     public BazelInfoCommand(Path workspaceRoot, String purpose) {
         super("info", workspaceRoot, purpose);
+        setStdOutChannel(StdOutChannel.PIPE);
     }
 
     @Override
@@ -28,15 +28,14 @@ public class BazelInfoCommand extends BazelCommand<Map<String, String>> {
     }
 
     @Override
-    protected Map<String, String> doGenerateResult() throws IOException {
+    protected Map<String, String> parseStdOut(InputStream in) throws IOException {
         var result = new HashMap<String, String>();
 
-        var lines = readAllLines(getStdOutFile());
-        if ((lines == null) || lines.isEmpty()) {
-            throw new IOException(format("No output from 'bazel info'"));
-        }
-
-        for (String line : lines) {
+        var reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+        var lines = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines++;
             var separatorPos = line.indexOf(':');
             if (separatorPos > 0) {
                 var key = line.substring(0, separatorPos).strip();
@@ -45,12 +44,10 @@ public class BazelInfoCommand extends BazelCommand<Map<String, String>> {
             }
         }
 
-        return result;
-    }
+        if (lines == 0) {
+            throw new IOException(format("No output from 'bazel info'"));
+        }
 
-    @Override
-    public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
-        setRedirectStdOutToFile(createTempFile("bazel_info_", ".txt").toPath());
-        return super.prepareCommandLine(bazelVersion);
+        return result;
     }
 }
@@ -2,18 +2,27 @@ package com.salesforce.bazel.sdk.command;
 
 import static java.lang.String.format;
 import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
 import static java.nio.file.Files.writeString;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.salesforce.bazel.sdk.BazelVersion;
 
 /**
  * <code>bazel query</code>
  * <p>
+ * The query output is {@link StdOutChannel#PIPE piped} into {@link #parseStdOut(InputStream)}, which subclasses must
+ * implement.
+ * </p>
+ * <p>
  * Uses <code>--query_file</code> to avoid escaping issues with the query.
  * </p>
  *
@@ -26,9 +35,13 @@ public abstract class BazelQueryCommand<R> extends BazelCommand<R> {
         query, cquery
     }
 
+    private static Logger LOG = LoggerFactory.getLogger(BazelQueryCommand.class);
+
     private final String query;
     private final boolean keepGoing;
 
+    private Path queryFile;
+
     public BazelQueryCommand(Path workspaceRoot, String query, boolean keepGoing, String purpose) {
         this(QueryCommand.query, workspaceRoot, query, keepGoing, purpose);
     }
@@ -38,6 +51,7 @@ public abstract class BazelQueryCommand<R> extends BazelCommand<R> {
         super(queryCommand.name(), workspaceRoot, purpose);
         this.query = query;
         this.keepGoing = keepGoing;
+        setStdOutChannel(StdOutChannel.PIPE);
     }
 
     @Override
@@ -46,10 +60,28 @@ public abstract class BazelQueryCommand<R> extends BazelCommand<R> {
         toStringCommandLine.add(getQuery());
     }
 
+    @Override
+    public R generateResult(int exitCode) throws IOException {
+        try {
+            return super.generateResult(exitCode);
+        } finally {
+            if (queryFile != null) {
+                try {
+                    deleteIfExists(queryFile);
+                } catch (IOException e) {
+                    LOG.warn("Error deleting '{}'. Please delete manually to save some space.", queryFile, e);
+                }
+            }
+        }
+    }
+
     public String getQuery() {
         return query;
     }
 
+    @Override
+    protected abstract R parseStdOut(InputStream in) throws IOException;
+
     @Override
     public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
         var commandLine = super.prepareCommandLine(bazelVersion);
@@ -63,7 +95,7 @@ public abstract class BazelQueryCommand<R> extends BazelCommand<R> {
 
         if (canUseQueryFile) {
             // write query into file and use that
-            var queryFile = createTempFile(format("bazel_%s_", getCommand()), ".query.txt");
+            queryFile = createTempFile(format("bazel_%s_", getCommand()), ".query.txt");
             writeString(queryFile, query);
 
             commandLine.add("--query_file");
@@ -0,0 +1,81 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.command;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.google.devtools.build.lib.query2.proto.proto2api.Build;
+import com.salesforce.bazel.sdk.command.querylight.BazelRuleAttribute;
+import com.salesforce.bazel.sdk.model.BazelDependencyGraph;
+
+/**
+ * <code>bazel query --output=streamed_proto</code> building a {@link BazelDependencyGraph}.
+ * <p>
+ * The query result is streamed directly into the graph builder. No intermediate target objects are kept in memory.
+ * </p>
+ */
+public class BazelQueryForDependencyGraphCommand extends BazelQueryCommand<BazelDependencyGraph> {
+
+    /**
+     * Query returning all rules and package groups in the workspace
+     */
+    public static final String ALL_RULES_AND_PACKAGE_GROUPS_QUERY = "kind(\"rule|package group\", //...)";
+
+    private static List<String> getVisibility(Build.Rule rule) {
+        for (Build.Attribute attribute : rule.getAttributeList()) {
+            if (BazelRuleAttribute.VISIBILITY.key.equals(attribute.getName())) {
+                return attribute.getStringListValueList();
+            }
+        }
+        return List.of();
+    }
+
+    public BazelQueryForDependencyGraphCommand(Path workspaceRoot, String query, boolean keepGoing, String purpose) {
+        super(workspaceRoot, query, keepGoing, purpose);
+        setCommandArgs(List.of("--output", "streamed_proto", "--order_output=no"));
+    }
+
+    @Override
+    protected BazelDependencyGraph parseStdOut(InputStream in) throws IOException {
+        var builder = new BazelDependencyGraph.Builder();
+        Build.Target target;
+        while ((target = Build.Target.parseDelimitedFrom(in)) != null) {
+            switch (target.getType()) {
+                case RULE -> {
+                    var rule = target.getRule();
+                    builder.addRule(
+                        rule.getName(),
+                        rule.getRuleClass(),
+                        getVisibility(rule),
+                        rule.getRuleInputList(),
+                        rule.getRuleOutputList());
+                }
+                case GENERATED_FILE -> builder.addGeneratedFile(
+                    target.getGeneratedFile().getName(),
+                    target.getGeneratedFile().getGeneratingRule());
+                case PACKAGE_GROUP -> builder.addPackageGroup(
+                    target.getPackageGroup().getName(),
+                    target.getPackageGroup().getContainedPackageList(),
+                    target.getPackageGroup().getIncludedPackageGroupList());
+                default -> {
+                    // source files and environment groups are not relevant
+                }
+            }
+        }
+        return builder.build();
+    }
+}
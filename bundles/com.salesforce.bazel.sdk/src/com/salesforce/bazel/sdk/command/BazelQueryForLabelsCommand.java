@@ -1,15 +1,16 @@
 package com.salesforce.bazel.sdk.command;
 
-import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.readAllLines;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-import com.salesforce.bazel.sdk.BazelVersion;
-
 /**
  * <code>bazel query --output label</code>
  */
@@ -21,17 +22,13 @@ public class BazelQueryForLabelsCommand extends BazelQueryCommand<Collection<Str
     }
 
     @Override
-    protected Collection<String> doGenerateResult() throws IOException {
-        return readAllLines(getStdOutFile());
-    }
-
-    @Override
-    public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
-        // redirect output to file for parsing
-        var stdoutFile = createTempFile("bazel_query_stdout_", ".bin");
-        setRedirectStdOutToFile(stdoutFile);
-
-        // prepare regular query command line
-        return super.prepareCommandLine(bazelVersion);
+    protected Collection<String> parseStdOut(InputStream in) throws IOException {
+        List<String> result = new ArrayList<>();
+        var reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            result.add(line);
+        }
+        return result;
     }
 }
@@ -1,20 +1,13 @@
 package com.salesforce.bazel.sdk.command;
 
-import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.deleteIfExists;
-import static java.nio.file.Files.newInputStream;
-
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import com.google.devtools.build.lib.query2.proto.proto2api.Build;
-import com.salesforce.bazel.sdk.BazelVersion;
 import com.salesforce.bazel.sdk.command.querylight.Target;
 
 /**
@@ -22,8 +15,6 @@ import com.salesforce.bazel.sdk.command.querylight.Target;
  */
 public class BazelQueryForTargetProtoCommand extends BazelQueryCommand<Collection<Target>> {
 
-    private static Logger LOG = LoggerFactory.getLogger(BazelQueryForTargetProtoCommand.class);
-
     public BazelQueryForTargetProtoCommand(Path workspaceRoot, String query, boolean keepGoing,
             List<String> additionalProtoArgs, String purpose) {
         super(workspaceRoot, query, keepGoing, purpose);
@@ -37,33 +28,15 @@ public class BazelQueryForTargetProtoCommand extends BazelQueryCommand<Collectio
     }
 
     @Override
-    protected Collection<Target> doGenerateResult() throws IOException {
+    protected Collection<Target> parseStdOut(InputStream in) throws IOException {
         List<Target> result = new ArrayList<>();
-        try (var in = newInputStream(getStdOutFile())) {
-            Build.Target target;
-            do {
-                target = Build.Target.parseDelimitedFrom(in);
-                if (target != null) {
-                    result.add(new Target(target));
-                }
-            } while (target != null);
-        } finally {
-            try {
-                deleteIfExists(getStdOutFile());
-            } catch (IOException e) {
-                LOG.warn("Error deleting '{}'. Please delete manually to save some space.", getStdOutFile(), e);
+        Build.Target target;
+        do {
+            target = Build.Target.parseDelimitedFrom(in);
+            if (target != null) {
+                result.add(new Target(target));
             }
-        }
+        } while (target != null);
         return result;
     }
-
-    @Override
-    public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
-        // redirect output to file for parsing
-        var stdoutFile = createTempFile("bazel_query_stdout_", ".bin");
-        setRedirectStdOutToFile(stdoutFile);
-
-        // prepare regular query command line
-        return super.prepareCommandLine(bazelVersion);
-    }
 }
@@ -0,0 +1,123 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.command;
+
+import static java.lang.String.format;
+import static java.nio.file.Files.createTempFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+/**
+ * <code>bazel test</code> with <code>--build_event_binary_file=bazel_test_bep.bin</code>
+ * <p>
+ * All targets are tested in a single invocation. The BEP file is written by Bazel while the tests are running. It can
+ * be followed with a {@link FollowingFileInputStream} for processing test results as soon as they are reported. The
+ * caller is responsible for deleting the BEP file.
+ * </p>
+ */
+public class BazelTestCommand extends BazelCommand<Integer> {
+
+    private static Logger LOG = LoggerFactory.getLogger(BazelTestCommand.class);
+
+    private final List<BazelLabel> targets;
+    private final List<String> testArgs;
+    private Path bepFile;
+
+    /**
+     * @param targets
+     *            the targets to test
+     * @param testArgs
+     *            arguments to pass to each test (will be passed as <code>--test_arg</code>)
+     * @param workspaceRoot
+     *            the workspace root
+     * @param purpose
+     *            the purpose
+     */
+    public BazelTestCommand(List<BazelLabel> targets, List<String> testArgs, Path workspaceRoot, String purpose) {
+        super("test", workspaceRoot, purpose);
+        this.targets = List.copyOf(targets);
+        this.testArgs = List.copyOf(testArgs);
+    }
+
+    @Override
+    protected Integer doGenerateResult() throws IOException {
+        throw new IllegalStateException("should not be called");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Failing tests are reported by Bazel with a non-zero exit code. Thus, no failure is raised but the exit code is
+     * returned as is.
+     * </p>
+     */
+    @Override
+    public Integer generateResult(int exitCode) throws IOException {
+        return exitCode;
+    }
+
+    /**
+     * {@return the BEP file Bazel writes to (<code>null</code> before the command line was prepared)}
+     */
+    public Path getBepFile() {
+        return bepFile;
+    }
+
+    /**
+     * @return the targets
+     */
+    public List<BazelLabel> getTargets() {
+        return targets;
+    }
+
+    /**
+     * @return the testArgs
+     */
+    public List<String> getTestArgs() {
+        return testArgs;
+    }
+
+    @Override
+    public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
+        var commandLine = super.prepareCommandLine(bazelVersion);
+
+        // collect BEP file for streaming test results
+        bepFile = createTempFile("bazel_test_bep_", ".bin");
+        commandLine.add(format("--build_event_binary_file=%s", bepFile));
+        LOG.debug("Collecting BEP to: {}", bepFile);
+
+        // instructs BEP to use local file paths (file://...)
+        commandLine.add("--nobuild_event_binary_file_path_conversion");
+
+        for (String testArg : testArgs) {
+            commandLine.add(format("--test_arg=%s", testArg));
+        }
+
+        // targets
+        commandLine.add("--");
+        for (BazelLabel target : targets) {
+            commandLine.add(target.toString());
+        }
+
+        return commandLine;
+    }
+}
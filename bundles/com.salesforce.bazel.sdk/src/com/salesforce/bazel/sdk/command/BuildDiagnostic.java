@@ -0,0 +1,36 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.command;
+
+import java.nio.file.Path;
+
+/**
+ * A compiler diagnostic reported during a Bazel build.
+ *
+ * @param file
+ *            the source file as reported by the compiler (usually relative to the execution root, which for source
+ *            files is the same as relative to the workspace root)
+ * @param line
+ *            the 1-based line number
+ * @param column
+ *            the 1-based column (<code>0</code> if unknown)
+ * @param error
+ *            <code>true</code> for errors, <code>false</code> for warnings
+ * @param message
+ *            the message
+ * @param label
+ *            the label of the target whose action reported the diagnostic (maybe <code>null</code> if unknown)
+ */
+public record BuildDiagnostic(Path file, int line, int column, boolean error, String message, String label) {
+}
@@ -0,0 +1,192 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.command;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEvent;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.File;
+import com.google.idea.blaze.base.command.buildresult.BuildEventStreamProvider;
+
+/**
+ * Collects {@link BuildDiagnostic compiler diagnostics} from the build event protocol (BEP).
+ * <p>
+ * Bazel reports the output of failed actions twice: as part of the progress events (the console output) and as
+ * <code>stderr</code> of the <code>ActionExecuted</code> event. The latter also carries the label of the target. Both
+ * are parsed and duplicates are merged, preferring the one with a label.
+ * </p>
+ * <p>
+ * Only diagnostics in the <code>javac</code> format (<code>File.java:12: error: message</code>) are recognized.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class BuildDiagnosticsCollector {
+
+    private static Logger LOG = LoggerFactory.getLogger(BuildDiagnosticsCollector.class);
+
+    private static final Pattern JAVAC_DIAGNOSTIC = Pattern.compile("^(.+\\.java):(\\d+): (error|warning): (.*)$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern ANSI_ESCAPE_SEQUENCE = Pattern.compile("\u001B\\[[;\\d]*[A-Za-z]");
+
+    /**
+     * Parses <code>javac</code> diagnostics from console output.
+     *
+     * @param output
+     *            the output (may contain ANSI color codes)
+     * @param label
+     *            the label of the target producing the output (maybe <code>null</code>)
+     * @return the list of diagnostics (never <code>null</code>)
+     */
+    static List<BuildDiagnostic> parseJavacOutput(String output, String label) {
+        List<BuildDiagnostic> result = new ArrayList<>();
+        if ((output == null) || output.isEmpty()) {
+            return result;
+        }
+
+        var lines = ANSI_ESCAPE_SEQUENCE.matcher(output).replaceAll("").split("\\R");
+        for (var i = 0; i < lines.length; i++) {
+            var matcher = JAVAC_DIAGNOSTIC.matcher(lines[i]);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            var message = new StringBuilder(matcher.group(4).trim());
+            var column = 0;
+
+            // javac prints the source line followed by a caret line and optional details (eg., symbol and location)
+            if (((i + 2) < lines.length) && lines[i + 2].trim().equals("^")) {
+                column = lines[i + 2].indexOf('^') + 1;
+                var j = i + 3;
+                for (; (j < lines.length) && lines[j].startsWith("  ")
+                        && !JAVAC_DIAGNOSTIC.matcher(lines[j]).matches(); j++) {
+                    message.append(' ').append(WHITESPACE.matcher(lines[j].trim()).replaceAll(" "));
+                }
+                i = j - 1;
+            }
+
+            result.add(
+                new BuildDiagnostic(
+                        Path.of(matcher.group(1)),
+                        Integer.parseInt(matcher.group(2)),
+                        column,
+                        "error".equals(matcher.group(3)),
+                        message.toString(),
+                        label));
+        }
+        return result;
+    }
+
+    private final Map<BuildDiagnostic, BuildDiagnostic> diagnostics = new LinkedHashMap<>();
+
+    /**
+     * Processes a build event.
+     *
+     * @param event
+     *            the event
+     */
+    public void accept(BuildEvent event) {
+        switch (event.getId().getIdCase()) {
+            case PROGRESS:
+                addAll(parseJavacOutput(event.getProgress().getStderr(), null));
+                break;
+            case ACTION_COMPLETED:
+                var action = event.getAction();
+                if (!action.getSuccess() && action.hasStderr()) {
+                    addAll(parseJavacOutput(read(action.getStderr()), event.getId().getActionCompleted().getLabel()));
+                }
+                break;
+            default: // ignore
+        }
+    }
+
+    private void addAll(List<BuildDiagnostic> parsed) {
+        for (BuildDiagnostic diagnostic : parsed) {
+            var key = new BuildDiagnostic(
+                    diagnostic.file(),
+                    diagnostic.line(),
+                    diagnostic.column(),
+                    diagnostic.error(),
+                    diagnostic.message(),
+                    null);
+            var existing = diagnostics.get(key);
+            if ((existing == null) || ((existing.label() == null) && (diagnostic.label() != null))) {
+                diagnostics.put(key, diagnostic);
+            }
+        }
+    }
+
+    /**
+     * {@return the collected diagnostics in the order they were reported}
+     */
+    public List<BuildDiagnostic> getDiagnostics() {
+        return List.copyOf(diagnostics.values());
+    }
+
+    /**
+     * Decorates a stream so that every event read from it is also {@link #accept(BuildEvent) processed} by this
+     * collector.
+     *
+     * @param stream
+     *            the stream to observe
+     * @return the observing stream
+     */
+    public BuildEventStreamProvider observe(BuildEventStreamProvider stream) {
+        return new BuildEventStreamProvider() {
+            @Override
+            public long getBytesConsumed() {
+                return stream.getBytesConsumed();
+            }
+
+            @Override
+            public BuildEvent getNext() throws BuildEventStreamException {
+                var event = stream.getNext();
+                if (event != null) {
+                    accept(event);
+                }
+                return event;
+            }
+        };
+    }
+
+    private String read(File file) {
+        if (!file.getContents().isEmpty()) {
+            return file.getContents().toString(UTF_8);
+        }
+        var uri = file.getUri();
+        if (!uri.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return Files.readString(Path.of(URI.create(uri)), UTF_8);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.debug("Unable to read action output '{}': {}", uri, e.getMessage(), e);
+            return null;
+        }
+    }
+}
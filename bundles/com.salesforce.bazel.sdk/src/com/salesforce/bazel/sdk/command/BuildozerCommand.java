@@ -6,12 +6,13 @@ package com.salesforce.bazel.sdk.command;
 import static java.io.File.createTempFile;
 import static java.lang.String.format;
 import static java.nio.file.Files.isRegularFile;
-import static java.nio.file.Files.newInputStream;
 import static java.nio.file.Files.write;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -25,6 +26,27 @@ import com.salesforce.bazel.sdk.BazelVersion;
  */
 public class BuildozerCommand extends BazelCommand<List<Output>> {
 
+    /**
+     * A set of buildozer commands to apply to a set of targets.
+     *
+     * @param commands
+     *            the list of buildozer commands (eg., <code>add deps //foo:bar</code>)
+     * @param targets
+     *            the list of targets to apply the commands to
+     */
+    public static record Edit(List<String> commands, List<String> targets) {
+
+        /**
+         * Converts this edit into lines suitable for a buildozer commands file (<code>command|target|target...</code>)
+         *
+         * @return the lines for a buildozer commands file
+         */
+        List<String> toCommandsFileLines() {
+            var targetsSuffix = "|" + String.join("|", targets);
+            return commands.stream().map(c -> c + targetsSuffix).toList();
+        }
+    }
+
     private static final String BUILDOZER = "buildozer";
     private static final Path DEFAULT_BUILDOZER_EXECUTABLE = Path.of(BUILDOZER);
 
@@ -50,20 +72,44 @@ public class BuildozerCommand extends BazelCommand<List<Output>> {
         super(BUILDOZER, workspaceRoot, purpose);
         this.buildozerCommands = buildozerCommands;
         this.targets = targets;
+        setStdOutChannel(StdOutChannel.PIPE);
+    }
+
+    /**
+     * Creates a new command applying many edits with a single buildozer invocation.
+     * <p>
+     * All edits are written into one commands file (passed to buildozer using <code>-f FILE</code>) with the targets
+     * embedded into each line. This allows buildozer to load and write each affected <code>BUILD</code> file only once
+     * regardless of the number of edits.
+     * </p>
+     *
+     * @param workspaceRoot
+     *            typically the workspace root
+     * @param edits
+     *            the edits to apply (must not be empty)
+     * @param purpose
+     *            a human readable description
+     */
+    public BuildozerCommand(Path workspaceRoot, Collection<Edit> edits, String purpose) {
+        super(BUILDOZER, workspaceRoot, purpose);
+        if (edits.isEmpty()) {
+            throw new IllegalArgumentException("At least one edit is required!");
+        }
+        this.buildozerCommands = edits.stream().map(Edit::toCommandsFileLines).flatMap(List::stream).toList();
+        this.targets = List.of(); // part of the commands file
+        setStdOutChannel(StdOutChannel.PIPE);
     }
 
     @Override
-    protected List<Output> doGenerateResult() throws IOException {
+    protected List<Output> parseStdOut(InputStream in) throws IOException {
         List<Output> result = new ArrayList<>();
-        try (var in = newInputStream(getStdOutFile())) {
-            Output output;
-            do {
-                output = Output.parseDelimitedFrom(in);
-                if (output != null) {
-                    result.add(output);
-                }
-            } while (output != null);
-        }
+        Output output;
+        do {
+            output = Output.parseDelimitedFrom(in);
+            if (output != null) {
+                result.add(output);
+            }
+        } while (output != null);
         return result;
     }
 
@@ -86,10 +132,9 @@ public class BuildozerCommand extends BazelCommand<List<Output>> {
         // we intentionally don't call super but override it to drop anything from the base class
         var commandLine = new ArrayList<String>();
 
-        setRedirectStdOutToFile(createTempFile("buildozer_", ".bin").toPath());
         commandLine.add("-output_proto");
 
-        if ((buildozerCommands.size() == 1) && (buildozerCommands.get(0).indexOf('\'') == -1)) {
+        if (!targets.isEmpty() && (buildozerCommands.size() == 1) && (buildozerCommands.get(0).indexOf('\'') == -1)) {
             // no single quote and just one line so let's add the command directly
             commandLine.add(buildozerCommands.get(0));
         } else {
@@ -0,0 +1,90 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.command;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.salesforce.bazel.sdk.command.BazelCommandExecutor.CancelationCallback;
+
+/**
+ * A {@link CancelationCallback} which is cancelled explicitly and notifies listeners.
+ * <p>
+ * Allows executors to react on cancellation immediately instead of polling.
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+public final class CancelationSignal implements CancelationCallback {
+
+    private static Logger LOG = LoggerFactory.getLogger(CancelationSignal.class);
+
+    private final List<Runnable> listeners = new ArrayList<>();
+    private boolean canceled;
+
+    /**
+     * Cancels and notifies all registered listeners.
+     * <p>
+     * Subsequent calls have no effect.
+     * </p>
+     */
+    public void cancel() {
+        List<Runnable> toNotify;
+        synchronized (listeners) {
+            if (canceled) {
+                return;
+            }
+            canceled = true;
+            toNotify = List.copyOf(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : toNotify) {
+            notify(listener);
+        }
+    }
+
+    @Override
+    public boolean isCanceled() {
+        synchronized (listeners) {
+            return canceled;
+        }
+    }
+
+    private void notify(Runnable listener) {
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            LOG.error("Error notifying cancelation listener: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean onCancel(Runnable listener) {
+        requireNonNull(listener);
+        synchronized (listeners) {
+            if (!canceled) {
+                listeners.add(listener);
+                return true;
+            }
+        }
+        notify(listener);
+        return true;
+    }
+}
@@ -1,23 +1,32 @@
 package com.salesforce.bazel.sdk.command;
 
 import static java.lang.String.format;
+import static java.nio.file.Files.createTempFile;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.salesforce.bazel.sdk.BazelJavaSdkPlugin;
+import com.salesforce.bazel.sdk.command.BazelCommand.StdOutChannel;
 import com.salesforce.bazel.sdk.command.shell.ShellUtil;
 import com.salesforce.bazel.sdk.util.SystemUtil;
 
@@ -33,6 +42,12 @@ import com.salesforce.bazel.sdk.util.SystemUtil;
  * executor is uses in an environment not matching a typical shell environment. For example, MacOS GUIs won't have a
  * shell environment. Thus, lots of items are not properly setup.
  * </p>
+ * <p>
+ * Output of commands using {@link BazelCommand.StdOutChannel#PIPE} is parsed directly from the process while Bazel is
+ * still writing it. This avoids writing and reading back the output and starts parsing before the command finished.
+ * Piping can be {@link #setPipeCommandOutput(boolean) disabled} to fall back to spooling the output into a temporary
+ * file.
+ * </p>
  */
 public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
 
@@ -42,29 +57,32 @@ public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
     }
 
     private static Logger LOG = LoggerFactory.getLogger(DefaultBazelCommandExecutor.class);
-    private static ThreadGroup pipesThreadGroup;
     private static ProcessStreamsProvider SYSOUT_ERR_PROVIDER = new ProcessStreamsProvider();
 
     /**
-     * This method is a workaround for https://github.com/salesforce/bazel-eclipse/issues/464.
-     * <p>
-     * For some reason the ThreadGroup gets automatically destroyed.
-     * </p>
-     *
-     * @return the thread group
+     * Interval for checking cancellation of callbacks not supporting push notifications
      */
-    @SuppressWarnings("removal")
-    private static synchronized ThreadGroup getPipesThreadGroup() {
-        if ((pipesThreadGroup == null) || pipesThreadGroup.isDestroyed()) {
-            // https://github.com/salesforce/bazel-eclipse/issues/464
-            return pipesThreadGroup = new ThreadGroup("Bazel Command Executor Pipes");
-        }
+    static final long CANCELATION_POLL_INTERVAL_MILLIS = 250L;
 
-        return pipesThreadGroup;
-    }
+    /**
+     * Maximum time to wait for pipes and parsers after the process terminated
+     */
+    private static final long PIPE_TIMEOUT_SECONDS = 60L;
 
-    protected static Thread pipe(final InputStream src, final OutputStream dest, String threadDetails) {
-        final var thread = new Thread(getPipesThreadGroup(), (Runnable) () -> {
+    /**
+     * Size of the buffer between the process pipe and the output parser
+     */
+    private static final int PARSER_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Starts a virtual thread forwarding process output.
+     *
+     * @return a future completing when the source is exhausted
+     */
+    protected static CompletableFuture<Void> pipe(final InputStream src, final OutputStream dest,
+            String threadDetails) {
+        final var done = new CompletableFuture<Void>();
+        Thread.ofVirtual().name(format("Bazel Command Executor Pipe (%s)", threadDetails)).start(() -> {
             // we don't close any streams as we expect this do be done outside
             try {
                 var transfered = src.transferTo(dest);
@@ -75,32 +93,139 @@ public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
                     threadDetails,
                     e.getMessage(),
                     e);
+            } finally {
+                done.complete(null);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Starts a virtual thread parsing the process output into the result of a command.
+     * <p>
+     * The parser reads through a bounded buffer. Any output not consumed by the parser is discarded so the process
+     * never blocks writing to a full pipe.
+     * </p>
+     *
+     * @return a future completing (exceptionally in case of parse errors) when the output is exhausted
+     */
+    protected static CompletableFuture<Void> parseOutput(final InputStream processOut, BazelCommand<?> command,
+            String threadDetails) {
+        final var done = new CompletableFuture<Void>();
+        Thread.ofVirtual().name(format("Bazel Command Executor Output Parser (%s)", threadDetails)).start(() -> {
+            // we don't close any streams as we expect this do be done outside
+            var src = new BufferedInputStream(processOut, PARSER_BUFFER_SIZE);
+            Throwable failure = null;
+            try {
+                command.readStdOut(src);
+            } catch (Throwable e) {
+                failure = e;
+            }
+
+            // keep draining (also after parse errors) so the process can terminate
+            try {
+                var discarded = src.transferTo(OutputStream.nullOutputStream());
+                if (discarded > 0) {
+                    LOG.warn("Discarded {} bytes not consumed by output parser in '{}'", discarded, threadDetails);
+                }
+            } catch (IOException e) {
+                LOG.debug("IO error draining command output in '{}': {}", threadDetails, e.getMessage(), e);
+            }
+
+            if (failure != null) {
+                done.completeExceptionally(failure);
+            } else {
+                done.complete(null);
             }
-        }, format("Bazel Command Executor Pipe (%s)", threadDetails));
-        thread.setDaemon(true);
-        thread.start();
+        });
+        return done;
+    }
+
+    /**
+     * Waits for an output parser started by {@link #parseOutput(InputStream, BazelCommand, String)}.
+     * <p>
+     * Parse errors are only reported for successful executions. A failed command usually produces incomplete output
+     * and is reported based on the exit code.
+     * </p>
+     */
+    protected static void waitForParserToFinish(Future<Void> parser, int exitCode)
+            throws IOException, InterruptedException {
+        try {
+            parser.get(PIPE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (exitCode != 0) {
+                LOG.debug("Ignoring output parse error of failed execution: {}", e.getCause().getMessage());
+                return;
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(format("Error parsing command output: %s", e.getCause().getMessage()), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Output parser did not finish within expected timeout!", e);
+        }
+    }
 
-        return thread;
+    /**
+     * Waits for pipes started by {@link #pipe(InputStream, OutputStream, String)}.
+     */
+    protected static void waitForPipesToFinish(List<CompletableFuture<Void>> pipes)
+            throws IOException, InterruptedException {
+        try {
+            CompletableFuture.allOf(pipes.toArray(CompletableFuture[]::new))
+                    .get(PIPE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException(format("Error forwarding command output: %s", e.getCause().getMessage()), e);
+        } catch (TimeoutException e) {
+            throw new IOException("Pipes did not finish writing within expected timeout!", e);
+        }
     }
 
-    protected static void waitForPipeToFinish(Thread pipe, CancelationCallback cancelationCallback)
+    /**
+     * Waits for the process to terminate.
+     * <p>
+     * If the cancelation callback {@link CancelationCallback#onCancel(Runnable) pushes cancellation} the process is
+     * destroyed by the listener and the wait does not poll at all. Otherwise the callback is polled every
+     * {@link #CANCELATION_POLL_INTERVAL_MILLIS} while the process is running. In both cases the wait returns as soon as
+     * the process exits.
+     * </p>
+     *
+     * @return <code>true</code> if the process was destroyed because of cancellation, <code>false</code> otherwise
+     */
+    protected static boolean waitForProcess(Process process, CancelationCallback cancelationCallback)
             throws IOException, InterruptedException {
-        var delay = 0L;
-        var sleepTime = 100L;
-        while (pipe.isAlive() && !cancelationCallback.isCanceled()) {
-            Thread.onSpinWait();
-            Thread.sleep(sleepTime);
-            if ((delay += sleepTime) >= 60000L) {
-                throw new IOException(
-                        format("Pipe '%s' did not finish writing within expected timeout!", pipe.getName()));
+        var canceled = new AtomicBoolean();
+        var exit = process.onExit();
+        try {
+            if (cancelationCallback.onCancel(() -> {
+                canceled.set(true);
+                process.destroyForcibly();
+            })) {
+                exit.get();
+            } else {
+                while (true) {
+                    try {
+                        exit.get(CANCELATION_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        if (cancelationCallback.isCanceled()) {
+                            canceled.set(true);
+                            process.destroyForcibly();
+                        }
+                    }
+                }
             }
+        } catch (ExecutionException e) {
+            throw new IOException(format("Error waiting for process: %s", e.getCause().getMessage()), e);
         }
+        return canceled.get();
     }
 
     private boolean wrapExecutionIntoShell = getSystemUtil().isMac(); // default is yes only on Mac to ensure proper path
     private final ShellUtil shellUtil = new ShellUtil(); // login shell change requires Eclipse restart
     private volatile Map<String, String> extraEnv;
     private volatile BazelBinary bazelBinary;
+    private volatile boolean pipeCommandOutput = true;
     protected volatile String cachedToolTagArgument;
 
     /**
@@ -136,43 +261,43 @@ public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
                 LOG.debug(fullCommandLine);
 
                 // redirect standard out (otherwise we will pipe to System.out after starting the process)
-                if (command.getStdOutFile() != null) {
+                var parseFromPipe = command.getStdOutChannel() == StdOutChannel.PIPE;
+                if (parseFromPipe) {
+                    processBuilder.redirectOutput(Redirect.PIPE);
+                } else if (command.getStdOutFile() != null) {
                     processBuilder.redirectOutput(command.getStdOutFile().toFile());
                 }
 
                 // start process
                 final var process = processBuilder.start();
 
-                // forward to console if not redirected to file
-                final var p1 = command.getStdOutFile() == null
-                        ? pipe(process.getInputStream(), streamProvider.getOutStream(), fullCommandLine) : null;
-                final var p2 = pipe(process.getErrorStream(), streamProvider.getErrorStream(), fullCommandLine);
+                // parse output directly from the process
+                final var parser =
+                        parseFromPipe ? parseOutput(process.getInputStream(), command, fullCommandLine) : null;
 
-                try {
-                    while (!process.waitFor(500L, TimeUnit.MILLISECONDS)) {
-                        Thread.onSpinWait();
-                        if (cancelationCallback.isCanceled()) {
-                            process.destroyForcibly();
-                            streamProvider.executionCanceled();
-                            throw new IOException("user cancelled");
-                        }
-                    }
+                // forward to console if not redirected to file
+                final List<CompletableFuture<Void>> pipes = new ArrayList<>(2);
+                if ((command.getStdOutFile() == null) && (parser == null)) {
+                    pipes.add(pipe(process.getInputStream(), streamProvider.getOutStream(), fullCommandLine));
+                }
+                pipes.add(pipe(process.getErrorStream(), streamProvider.getErrorStream(), fullCommandLine));
 
-                    // wait for pipes to finish
-                    if (p1 != null) {
-                        waitForPipeToFinish(p1, cancelationCallback);
-                    }
-                    waitForPipeToFinish(p2, cancelationCallback);
-                } finally {
-                    // interrupt pipe threads so they'll die
-                    if (p1 != null) {
-                        p1.interrupt();
-                    }
-                    p2.interrupt();
+                // wait for exit (or cancellation)
+                if (waitForProcess(process, cancelationCallback)) {
+                    streamProvider.executionCanceled();
+                    throw new IOException("user cancelled");
                 }
 
+                // wait for pipes to finish (the process closed its end already)
+                waitForPipesToFinish(pipes);
+
                 var result = process.exitValue();
 
+                // the parser finishes with the end of the output
+                if (parser != null) {
+                    waitForParserToFinish(parser, result);
+                }
+
                 // call provider hook
                 streamProvider.executionFinished(result);
 
@@ -201,9 +326,19 @@ public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
         // configure binary
         configureBazelBinary(command);
 
+        // configure output handling (must happen before the command line is prepared)
+        if (!isPipeCommandOutput() && (command.getStdOutChannel() == StdOutChannel.PIPE)) {
+            command.setStdOutChannel(StdOutChannel.SPOOL_FILE);
+        }
+
         // full command line
         var commandLine = prepareCommandLine(command);
 
+        // spool file (if necessary)
+        if ((command.getStdOutChannel() == StdOutChannel.SPOOL_FILE) && (command.getStdOutFile() == null)) {
+            command.setRedirectStdOutToFile(createTempFile(format("bazel_%s_stdout_", command.getCommand()), ".bin"));
+        }
+
         // start building the process
         var processBuilder = newProcessBuilder(commandLine.fullCommandLineWithOptionalShellWrappingAndBinary());
 
@@ -271,6 +406,13 @@ public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
         commandLine.add(injectPositionForNoneStartupOptions, getToolTagArgument());
     }
 
+    /**
+     * {@return <code>true</code> if command output is parsed directly from the process (the default)}
+     */
+    public boolean isPipeCommandOutput() {
+        return pipeCommandOutput;
+    }
+
     public boolean isWrapExecutionIntoShell() {
         return wrapExecutionIntoShell;
     }
@@ -357,6 +499,20 @@ public class DefaultBazelCommandExecutor implements BazelCommandExecutor {
         this.extraEnv = extraEnv;
     }
 
+    /**
+     * Enables or disables parsing command output directly from the process.
+     * <p>
+     * When disabled, output of commands using {@link StdOutChannel#PIPE} is spooled into a temporary file and parsed
+     * after the process terminated.
+     * </p>
+     *
+     * @param pipeCommandOutput
+     *            <code>true</code> to pipe, <code>false</code> to spool into a temporary file
+     */
+    public void setPipeCommandOutput(boolean pipeCommandOutput) {
+        this.pipeCommandOutput = pipeCommandOutput;
+    }
+
     public void setWrapExecutionIntoShell(boolean wrapExecutionIntoShell) {
         this.wrapExecutionIntoShell = wrapExecutionIntoShell;
     }
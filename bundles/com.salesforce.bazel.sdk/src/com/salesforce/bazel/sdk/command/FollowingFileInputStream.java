@@ -0,0 +1,100 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.command;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An {@link InputStream} following a file which is still being written by another process (similar to
+ * <code>tail -f</code>).
+ * <p>
+ * Reading blocks at the current end of the file until more content is appended. The end of the stream is reached when
+ * the writer is done and all content written by it has been read. This allows processing the build event protocol file
+ * while Bazel is still running.
+ * </p>
+ */
+public class FollowingFileInputStream extends InputStream {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    private final FileChannel channel;
+    private final BooleanSupplier writerDone;
+    private final ByteBuffer singleByte = ByteBuffer.allocate(1);
+
+    /**
+     * @param file
+     *            the file to follow (must exist)
+     * @param writerDone
+     *            returns <code>true</code> when the writer finished writing the file (eg., the process terminated)
+     * @throws IOException
+     *             if the file could not be opened
+     */
+    public FollowingFileInputStream(Path file, BooleanSupplier writerDone) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.writerDone = writerDone;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - channel.position()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public int read() throws IOException {
+        singleByte.clear();
+        var read = read(singleByte);
+        return read < 0 ? -1 : singleByte.get(0) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        return read(ByteBuffer.wrap(b, off, len));
+    }
+
+    private int read(ByteBuffer buffer) throws IOException {
+        while (true) {
+            // check before reading so nothing written right before the writer finished gets lost
+            var done = writerDone.getAsBoolean();
+            var read = channel.read(buffer);
+            if (read > 0) {
+                return read;
+            }
+            if (done) {
+                return -1;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for more content");
+            }
+        }
+    }
+}
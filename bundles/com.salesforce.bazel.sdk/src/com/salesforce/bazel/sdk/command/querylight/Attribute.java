@@ -26,4 +26,21 @@ public record Attribute(String stringValue, List<String> stringListValue, boolea
     Attribute(Build.Attribute from) {
         this(from.getStringValue(), from.getStringListValueList(), from.getBooleanValue(), from.getType());
     }
+
+    /**
+     * Converts this attribute back into its proto form (eg., for persisting it).
+     *
+     * @param name
+     *            the attribute name
+     * @return the proto
+     */
+    public Build.Attribute toProto(String name) {
+        return Build.Attribute.newBuilder()
+                .setName(name)
+                .setType(type)
+                .setStringValue(stringValue)
+                .addAllStringListValue(stringListValue)
+                .setBooleanValue(booleanValue)
+                .build();
+    }
 }
@@ -36,7 +36,9 @@ public enum BazelRuleAttribute {
     NAME("name"),
     VISIBILITY("visibility"),
     PATH("path"),
-    DEPS("deps");
+    DEPS("deps"),
+    MAIN_CLASS("main_class"),
+    JVM_FLAGS("jvm_flags");
 
     public static final Set<String> KNOWN_ATTRIBUTES =
             Arrays.stream(BazelRuleAttribute.values()).map(attr -> attr.key).collect(Collectors.toSet());
@@ -23,4 +23,11 @@ public record GeneratedFile(String name, String generatingRule) {
     GeneratedFile(Build.GeneratedFile file) {
         this(file.getName(), file.getGeneratingRule());
     }
+
+    /**
+     * {@return this file in its proto form (eg., for persisting it)}
+     */
+    public Build.GeneratedFile toProto() {
+        return Build.GeneratedFile.newBuilder().setName(name).setGeneratingRule(generatingRule).build();
+    }
 }
@@ -16,6 +16,7 @@ package com.salesforce.bazel.sdk.command.querylight;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import com.google.devtools.build.lib.query2.proto.proto2api.Build;
 
@@ -42,4 +43,13 @@ public record Rule(String name, String ruleClass, List<String> ruleOutputList, M
         return attributeMap.get(name);
     }
 
+    /**
+     * {@return this rule in its proto form (eg., for persisting it)}
+     */
+    public Build.Rule toProto() {
+        var builder = Build.Rule.newBuilder().setName(name).setRuleClass(ruleClass).addAllRuleOutput(ruleOutputList);
+        new TreeMap<>(attributeMap).forEach((name, attribute) -> builder.addAttribute(attribute.toProto(name)));
+        return builder.build();
+    }
+
 }
@@ -26,4 +26,20 @@ public record Target(Rule rule, GeneratedFile generatedFile) {
     public boolean hasRule() {
         return rule != null;
     }
+
+    /**
+     * {@return this target in its proto form (eg., for persisting it)}
+     */
+    public Build.Target toProto() {
+        var builder = Build.Target.newBuilder();
+        if (generatedFile != null) {
+            builder.setType(Build.Target.Discriminator.GENERATED_FILE).setGeneratedFile(generatedFile.toProto());
+        } else {
+            builder.setType(Build.Target.Discriminator.RULE);
+        }
+        if (rule != null) {
+            builder.setRule(rule.toProto());
+        }
+        return builder.build();
+    }
 }
@@ -0,0 +1,758 @@
+/*-
+ * Copyright (c) 2024 Salesforce and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *      Salesforce - initial implementation
+ */
+package com.salesforce.bazel.sdk.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, in-memory snapshot of the target graph of a Bazel workspace.
+ * <p>
+ * The graph is built from a single <code>bazel query</code> and allows answering questions which would otherwise
+ * require a full graph query each (eg., <code>visible(...)</code> or <code>rdeps(...)</code>). Targets are stored as
+ * nodes identified by an <code>int</code> index. Edges are stored as <code>int</code> arrays to keep the memory
+ * footprint low for large workspaces.
+ * </p>
+ * <p>
+ * Only rules are nodes in the graph. Edges to generated files are resolved to the generating rule. Edges to source
+ * files or targets outside of the snapshot are dropped.
+ * </p>
+ */
+public final class BazelDependencyGraph {
+
+    /**
+     * Collects targets and builds the {@link BazelDependencyGraph}.
+     * <p>
+     * Targets may be added in any order.
+     * </p>
+     */
+    public static final class Builder {
+
+        private record RawRule(String label, String ruleClass, List<String> visibility, Visibility resolvedVisibility,
+                List<String> inputs) {
+        }
+
+        private final Map<String, RawRule> rulesByLabel = new LinkedHashMap<>();
+        private final Map<String, String> generatingRuleByGeneratedFile = new HashMap<>();
+        private final Map<String, PackageGroup> packageGroupsByLabel = new HashMap<>();
+        private final Map<String, String> interned = new HashMap<>();
+
+        /**
+         * Adds a generated file.
+         *
+         * @param label
+         *            the label of the generated file
+         * @param generatingRule
+         *            the label of the rule generating the file
+         * @return this builder
+         */
+        public Builder addGeneratedFile(String label, String generatingRule) {
+            generatingRuleByGeneratedFile.put(label, generatingRule);
+            return this;
+        }
+
+        /**
+         * Adds a package group.
+         *
+         * @param label
+         *            the label of the package group
+         * @param containedPackages
+         *            the package specifications as reported by <code>bazel query</code> (eg. <code>//foo</code>,
+         *            <code>//foo/...</code> or <code>-//foo/bar</code>)
+         * @param includedPackageGroups
+         *            labels of included package groups
+         * @return this builder
+         */
+        public Builder addPackageGroup(String label, List<String> containedPackages,
+                List<String> includedPackageGroups) {
+            packageGroupsByLabel.put(
+                stripMainRepository(label),
+                new PackageGroup(List.copyOf(containedPackages), List.copyOf(includedPackageGroups)));
+            return this;
+        }
+
+        /**
+         * Adds a rule.
+         *
+         * @param label
+         *            the label of the rule
+         * @param ruleClass
+         *            the rule class (eg., <code>java_library</code>)
+         * @param visibility
+         *            the labels of the <code>visibility</code> attribute
+         * @param inputs
+         *            labels of all direct inputs (dependencies) of the rule
+         * @param outputs
+         *            labels of all outputs of the rule
+         * @return this builder
+         */
+        public Builder addRule(String label, String ruleClass, List<String> visibility, List<String> inputs,
+                List<String> outputs) {
+            rulesByLabel.put(
+                label,
+                new RawRule(label, intern(ruleClass), List.copyOf(visibility), null, List.copyOf(inputs)));
+            for (String output : outputs) {
+                generatingRuleByGeneratedFile.put(output, label);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the graph.
+         *
+         * @return the graph
+         */
+        public BazelDependencyGraph build() {
+            var rules = List.copyOf(rulesByLabel.values());
+            var size = rules.size();
+            var labels = new String[size];
+            var ruleClasses = new String[size];
+            var packages = new String[size];
+            var visibilities = new Visibility[size];
+            Map<String, Integer> indexByLabel = new HashMap<>(size * 2);
+            for (var i = 0; i < size; i++) {
+                var rule = rules.get(i);
+                labels[i] = rule.label();
+                ruleClasses[i] = rule.ruleClass();
+                packages[i] = intern(packageOf(rule.label()));
+                indexByLabel.put(rule.label(), i);
+            }
+
+            Map<List<String>, Visibility> visibilityCache = new HashMap<>();
+            var deps = new int[size][];
+            var rdepsCount = new int[size];
+            var edges = new LinkedHashSet<Integer>();
+            for (var i = 0; i < size; i++) {
+                var rule = rules.get(i);
+                visibilities[i] = rule.resolvedVisibility() != null ? rule.resolvedVisibility()
+                        : visibilityCache.computeIfAbsent(rule.visibility(), this::resolveVisibility);
+
+                edges.clear();
+                for (String input : rule.inputs()) {
+                    var dep = indexByLabel.get(generatingRuleByGeneratedFile.getOrDefault(input, input));
+                    if ((dep != null) && (dep != i)) {
+                        edges.add(dep);
+                    }
+                }
+                deps[i] = edges.stream().mapToInt(Integer::intValue).toArray();
+                for (int dep : deps[i]) {
+                    rdepsCount[dep]++;
+                }
+            }
+
+            var rdeps = new int[size][];
+            for (var i = 0; i < size; i++) {
+                rdeps[i] = new int[rdepsCount[i]];
+            }
+            var rdepsFill = new int[size];
+            for (var i = 0; i < size; i++) {
+                for (int dep : deps[i]) {
+                    rdeps[dep][rdepsFill[dep]++] = i;
+                }
+            }
+
+            return new BazelDependencyGraph(
+                    labels,
+                    ruleClasses,
+                    packages,
+                    visibilities,
+                    deps,
+                    rdeps,
+                    indexByLabel,
+                    Map.copyOf(packageGroupsByLabel));
+        }
+
+        private void copyRule(BazelDependencyGraph graph, int index) {
+            var label = graph.labels[index];
+            var inputs = Arrays.stream(graph.deps[index]).mapToObj(i -> graph.labels[i]).toList();
+            rulesByLabel.put(
+                label,
+                new RawRule(label, intern(graph.ruleClasses[index]), List.of(), graph.visibilities[index], inputs));
+        }
+
+        private String intern(String value) {
+            return interned.computeIfAbsent(value, v -> v);
+        }
+
+        private void resolvePackageGroup(String label, Visibility.Builder visibility, Set<String> visited) {
+            label = stripMainRepository(label);
+            if (!visited.add(label)) {
+                return; // cycle
+            }
+            var packageGroup = packageGroupsByLabel.get(label);
+            if (packageGroup == null) {
+                return; // unknown package group, grants nothing
+            }
+            for (String containedPackage : packageGroup.containedPackages()) {
+                visibility.addPackageSpecification(containedPackage);
+            }
+            for (String includedPackageGroup : packageGroup.includedPackageGroups()) {
+                resolvePackageGroup(includedPackageGroup, visibility, visited);
+            }
+        }
+
+        private Visibility resolveVisibility(List<String> visibilityLabels) {
+            var visibility = new Visibility.Builder();
+            for (String visibilityLabel : visibilityLabels) {
+                var normalized = stripMainRepository(visibilityLabel);
+                switch (normalized) {
+                    case "//visibility:public", "//visibility:legacy_public" -> visibility.setPublic();
+                    case "//visibility:private" -> {
+                        // nothing to add
+                    }
+                    default -> {
+                        // note: packages of other repositories cannot match anything in the main workspace
+                        if (normalized.endsWith(":__pkg__")) {
+                            if (isMainRepository(normalized)) {
+                                visibility.addPackage(packageOf(normalized));
+                            }
+                        } else if (normalized.endsWith(":__subpackages__")) {
+                            if (isMainRepository(normalized)) {
+                                visibility.addPackagePrefix(packageOf(normalized));
+                            }
+                        } else {
+                            resolvePackageGroup(normalized, visibility, new HashSet<>());
+                        }
+                    }
+                }
+            }
+            return visibility.build();
+        }
+    }
+
+    private record PackageGroup(List<String> containedPackages, List<String> includedPackageGroups) {
+    }
+
+    /**
+     * Set of packages a target is visible to.
+     */
+    private record Visibility(boolean isPublic, Set<String> packages, String[] packagePrefixes,
+            Set<String> excludedPackages, String[] excludedPackagePrefixes) {
+
+        static final class Builder {
+            private boolean isPublic;
+            private final Set<String> packages = new HashSet<>();
+            private final Set<String> packagePrefixes = new LinkedHashSet<>();
+            private final Set<String> excludedPackages = new HashSet<>();
+            private final Set<String> excludedPackagePrefixes = new LinkedHashSet<>();
+
+            void addPackage(String packagePath) {
+                packages.add(packagePath);
+            }
+
+            void addPackagePrefix(String packagePath) {
+                packagePrefixes.add(packagePath);
+            }
+
+            void addPackageSpecification(String specification) {
+                switch (specification) {
+                    case "public", "//..." -> setPublic();
+                    case "private" -> {
+                        // nothing to add
+                    }
+                    default -> {
+                        var exclude = specification.startsWith("-");
+                        var spec = stripMainRepository(exclude ? specification.substring(1) : specification);
+                        if (!spec.startsWith("//")) {
+                            return; // other repository, cannot match anything in the main workspace
+                        }
+                        if (spec.endsWith("/...")) {
+                            var packagePath = spec.substring(2, spec.length() - 4);
+                            (exclude ? excludedPackagePrefixes : packagePrefixes).add(packagePath);
+                        } else {
+                            var packagePath = spec.substring(2);
+                            (exclude ? excludedPackages : packages).add(packagePath);
+                        }
+                    }
+                }
+            }
+
+            Visibility build() {
+                return new Visibility(
+                        isPublic,
+                        Set.copyOf(packages),
+                        packagePrefixes.toArray(new String[packagePrefixes.size()]),
+                        Set.copyOf(excludedPackages),
+                        excludedPackagePrefixes.toArray(new String[excludedPackagePrefixes.size()]));
+            }
+
+            void setPublic() {
+                isPublic = true;
+            }
+        }
+
+        private static boolean matchesPrefix(String packagePath, String[] prefixes) {
+            for (String prefix : prefixes) {
+                if (prefix.isEmpty() || packagePath.equals(prefix)
+                        || (packagePath.startsWith(prefix) && (packagePath.charAt(prefix.length()) == '/'))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean contains(String packagePath) {
+            if (excludedPackages.contains(packagePath) || matchesPrefix(packagePath, excludedPackagePrefixes)) {
+                return false;
+            }
+            return isPublic || packages.contains(packagePath) || matchesPrefix(packagePath, packagePrefixes);
+        }
+    }
+
+    /**
+     * Returns the package path of a label (eg. <code>foo/bar</code> for <code>//foo/bar:baz</code>).
+     *
+     * @param label
+     *            the label
+     * @return the package path
+     */
+    static String packageOf(String label) {
+        var normalized = stripMainRepository(label);
+        var start = normalized.indexOf("//");
+        var colon = normalized.indexOf(':', start);
+        return normalized.substring(start + 2, colon >= 0 ? colon : normalized.length());
+    }
+
+    private static boolean isMainRepository(String label) {
+        return label.startsWith("//") || label.startsWith("@//") || label.startsWith("@@//");
+    }
+
+    /**
+     * Removes the main repository name (<code>@//</code> or <code>@@//</code>) from a label.
+     *
+     * @param label
+     *            the label
+     * @return the label starting with <code>//</code> if it's in the main repository, otherwise the label unchanged
+     */
+    static String stripMainRepository(String label) {
+        if (label.startsWith("@@//")) {
+            return label.substring(2);
+        }
+        return label.startsWith("@//") ? label.substring(1) : label;
+    }
+
+    /**
+     * Breadth-first traversal of the dependencies of a target reusing its buffers across traversals.
+     * <p>
+     * Visited targets are stamped with the number of the current traversal so nothing needs to be cleared in between.
+     * </p>
+     */
+    private final class DependencyTraversal {
+
+        private final int[] visitedInTraversal = new int[labels.length];
+        private final int[] queue = new int[labels.length];
+        private int traversal;
+
+        /**
+         * @param target
+         *            the target index
+         * @param filter
+         *            the target indexes to count (<code>null</code> to count all)
+         * @return the number of targets in the transitive closure of the target (including itself) matching the
+         *         filter
+         */
+        int count(int target, BitSet filter) {
+            traversal++;
+            var tail = 0;
+            var count = 0;
+            visitedInTraversal[target] = traversal;
+            queue[tail++] = target;
+            for (var head = 0; head < tail; head++) {
+                var current = queue[head];
+                if ((filter == null) || filter.get(current)) {
+                    count++;
+                }
+                for (int dep : deps[current]) {
+                    if (visitedInTraversal[dep] != traversal) {
+                        visitedInTraversal[dep] = traversal;
+                        queue[tail++] = dep;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private final String[] labels;
+    private final String[] ruleClasses;
+    private final String[] packages;
+    private final Visibility[] visibilities;
+    private final int[][] deps;
+    private final int[][] rdeps;
+    private final Map<String, Integer> indexByLabel;
+    private final Map<String, PackageGroup> packageGroupsByLabel;
+
+    private BazelDependencyGraph(String[] labels, String[] ruleClasses, String[] packages, Visibility[] visibilities,
+            int[][] deps, int[][] rdeps, Map<String, Integer> indexByLabel,
+            Map<String, PackageGroup> packageGroupsByLabel) {
+        this.labels = labels;
+        this.ruleClasses = ruleClasses;
+        this.packages = packages;
+        this.visibilities = visibilities;
+        this.deps = deps;
+        this.rdeps = rdeps;
+        this.indexByLabel = indexByLabel;
+        this.packageGroupsByLabel = packageGroupsByLabel;
+    }
+
+    /**
+     * Indicates if the graph contains any target of the given package in the main repository.
+     *
+     * @param packagePath
+     *            the package path (eg. <code>foo/bar</code>)
+     * @return <code>true</code> if the graph contains at least one target of the package, <code>false</code> otherwise
+     */
+    public boolean containsPackage(String packagePath) {
+        for (var i = 0; i < packages.length; i++) {
+            if (packages[i].equals(packagePath) && isMainRepository(labels[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the paths of all packages of the main repository with targets in this graph}
+     */
+    public Set<String> getMainRepositoryPackages() {
+        Set<String> result = new HashSet<>();
+        for (var i = 0; i < packages.length; i++) {
+            if (isMainRepository(labels[i])) {
+                result.add(packages[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the transitive dependencies of the given targets up to the given depth (bounded breadth-first search).
+     * <p>
+     * The result is equivalent to <code>kind(ruleClass, deps(targets, maxDepth))</code> with the difference that
+     * generated files are not counted as a level on their own. A <code>maxDepth</code> of <code>0</code> or less
+     * computes the full transitive closure. The given targets are included in the result if they match the filter.
+     * </p>
+     *
+     * @param targets
+     *            the labels of the targets (must all be {@link #contains(String) contained} in this graph)
+     * @param maxDepth
+     *            the maximum depth (<code>1</code> for direct dependencies only, <code>0</code> or less for no limit)
+     * @param ruleClassFilter
+     *            filter for rule classes to include in the result
+     * @return the labels in breadth-first order (never <code>null</code>)
+     * @throws IllegalArgumentException
+     *             if any target is not contained in the graph
+     */
+    public Set<String> findDependencies(Collection<String> targets, int maxDepth, Predicate<String> ruleClassFilter) {
+        var visited = new BitSet(labels.length);
+        var queue = new int[labels.length];
+        var tail = 0;
+        for (int target : indexesOf(targets)) {
+            if (!visited.get(target)) {
+                visited.set(target);
+                queue[tail++] = target;
+            }
+        }
+
+        var head = 0;
+        for (var depth = 0; ((maxDepth <= 0) || (depth < maxDepth)) && (head < tail); depth++) {
+            var levelEnd = tail;
+            for (; head < levelEnd; head++) {
+                for (int dep : deps[queue[head]]) {
+                    if (!visited.get(dep)) {
+                        visited.set(dep);
+                        queue[tail++] = dep;
+                    }
+                }
+            }
+        }
+
+        var result = new LinkedHashSet<String>();
+        for (var i = 0; i < tail; i++) {
+            if (ruleClassFilter.test(ruleClasses[queue[i]])) {
+                result.add(labels[queue[i]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all targets transitively depending on the given targets.
+     * <p>
+     * The result is equivalent to <code>rdeps(//..., targets)</code> within the universe of this graph.
+     * </p>
+     *
+     * @param targets
+     *            the labels of the targets (must all be {@link #contains(String) contained} in this graph)
+     * @return the labels including the given targets (never <code>null</code>)
+     * @throws IllegalArgumentException
+     *             if any target is not contained in the graph
+     */
+    public Set<String> findReverseDependencies(Collection<String> targets) {
+        var reverseDependencies = reverseDependencies(indexesOf(targets));
+        var result = new LinkedHashSet<String>();
+        reverseDependencies.stream().forEach(i -> result.add(labels[i]));
+        return result;
+    }
+
+    /**
+     * Splits the given targets into partitions of targets sharing most of their transitive dependencies.
+     * <p>
+     * Partitions are formed greedily. The remaining target with the largest transitive closure seeds a partition.
+     * It is then filled with the remaining targets whose transitive dependencies overlap the most with the seed's
+     * closure. Building such partitions together maximizes reuse of Bazel's analysis and action cache.
+     * </p>
+     * <p>
+     * Closures are not retained per target. Only the closure of the current seed is materialized, the overlap of each
+     * candidate is counted by traversing its dependencies again. Memory use is linear in the size of the graph.
+     * </p>
+     *
+     * @param targets
+     *            the labels of the targets (must all be {@link #contains(String) contained} in this graph)
+     * @param maxPartitionSize
+     *            the maximum number of targets per partition (must be greater than zero)
+     * @return the partitions with the labels as given (never <code>null</code>)
+     * @throws IllegalArgumentException
+     *             if any target is not contained in the graph
+     */
+    public List<List<String>> partitionBySharedDependencies(List<String> targets, int maxPartitionSize) {
+        if (maxPartitionSize <= 0) {
+            throw new IllegalArgumentException("maxPartitionSize must be greater than zero");
+        }
+
+        var targetIndexes = indexesOf(targets);
+        var traversal = new DependencyTraversal();
+        var closureSizes = new int[targetIndexes.length];
+        for (var i = 0; i < targetIndexes.length; i++) {
+            closureSizes[i] = traversal.count(targetIndexes[i], null);
+        }
+
+        List<List<String>> result = new ArrayList<>();
+        List<Integer> remaining = new ArrayList<>();
+        for (var i = 0; i < targetIndexes.length; i++) {
+            remaining.add(i);
+        }
+        while (!remaining.isEmpty()) {
+            var seed = remaining.get(0);
+            for (Integer candidate : remaining) {
+                if (closureSizes[candidate] > closureSizes[seed]) {
+                    seed = candidate;
+                }
+            }
+            remaining.remove(seed);
+
+            var seedClosure = dependencies(targetIndexes[seed]);
+            var overlap = new int[targetIndexes.length];
+            for (Integer candidate : remaining) {
+                overlap[candidate] = traversal.count(targetIndexes[candidate], seedClosure);
+            }
+            remaining.sort((a, b) -> Integer.compare(overlap[b], overlap[a]));
+
+            var partitionSize = Math.min(maxPartitionSize - 1, remaining.size());
+            List<String> partition = new ArrayList<>(partitionSize + 1);
+            partition.add(targets.get(seed));
+            for (Integer member : remaining.subList(0, partitionSize)) {
+                partition.add(targets.get(member));
+            }
+            result.add(partition);
+
+            // keep input order for the next round to remain predictable
+            remaining = new ArrayList<>(remaining.subList(partitionSize, remaining.size()));
+            remaining.sort(null);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the targets of rule classes which are visible to all given targets but do not depend on any of them.
+     * <p>
+     * The result is equivalent to
+     * <code>kind(pattern, visible(targets, //...)) except kind(pattern, rdeps(//..., targets))</code> if the filter
+     * matches rule classes like the <code>kind</code> pattern does.
+     * </p>
+     *
+     * @param ruleClassFilter
+     *            the filter for rule classes to include
+     * @param targets
+     *            the labels of the targets (must all be {@link #contains(String) contained} in this graph)
+     * @return the labels sorted lexicographically (never <code>null</code>)
+     * @throws IllegalArgumentException
+     *             if any target is not contained in the graph
+     */
+    public List<String> findVisibleExceptReverseDependencies(Predicate<String> ruleClassFilter,
+            Collection<String> targets) {
+        var targetIndexes = indexesOf(targets);
+        var consumerPackages = Arrays.stream(targetIndexes).mapToObj(i -> packages[i]).distinct().toList();
+        var reverseDependencies = reverseDependencies(targetIndexes);
+
+        var result = new ArrayList<String>();
+        nextCandidate: for (var candidate = 0; candidate < labels.length; candidate++) {
+            if (!ruleClassFilter.test(ruleClasses[candidate]) || reverseDependencies.get(candidate)) {
+                continue;
+            }
+            for (String consumerPackage : consumerPackages) {
+                if (!isVisibleTo(candidate, consumerPackage)) {
+                    continue nextCandidate;
+                }
+            }
+            result.add(labels[candidate]);
+        }
+        result.sort(null);
+        return result;
+    }
+
+    /**
+     * @param label
+     *            the label of a target
+     * @return <code>true</code> if the graph contains the target, <code>false</code> otherwise
+     */
+    public boolean contains(String label) {
+        return indexByLabel.containsKey(stripMainRepository(label));
+    }
+
+    /**
+     * @param label
+     *            the label of a target
+     * @return the direct dependencies of the given target (never <code>null</code>)
+     * @throws IllegalArgumentException
+     *             if the target is not contained in the graph
+     */
+    public List<String> getDirectDependencies(String label) {
+        return Arrays.stream(deps[indexOf(label)]).mapToObj(i -> labels[i]).toList();
+    }
+
+    /**
+     * @param label
+     *            the label of a target
+     * @return the rule class of the given target
+     * @throws IllegalArgumentException
+     *             if the target is not contained in the graph
+     */
+    public String getRuleClass(String label) {
+        return ruleClasses[indexOf(label)];
+    }
+
+    private BitSet dependencies(int target) {
+        var visited = new BitSet(labels.length);
+        var queue = new int[labels.length];
+        var tail = 0;
+        visited.set(target);
+        queue[tail++] = target;
+        for (var head = 0; head < tail; head++) {
+            for (int dep : deps[queue[head]]) {
+                if (!visited.get(dep)) {
+                    visited.set(dep);
+                    queue[tail++] = dep;
+                }
+            }
+        }
+        return visited;
+    }
+
+    private int indexOf(String label) {
+        var index = indexByLabel.get(stripMainRepository(requireNonNull(label)));
+        if (index == null) {
+            throw new IllegalArgumentException("Target not found in graph: " + label);
+        }
+        return index;
+    }
+
+    private int[] indexesOf(Collection<String> targets) {
+        return targets.stream().mapToInt(this::indexOf).toArray();
+    }
+
+    private boolean isVisibleTo(int target, String consumerPackage) {
+        // targets are always visible within their own package
+        return packages[target].equals(consumerPackage) || visibilities[target].contains(consumerPackage);
+    }
+
+    /**
+     * Computes all targets transitively depending on any of the given targets (including the targets themselves).
+     *
+     * @param targets
+     *            the target indexes
+     * @return the set of target indexes
+     */
+    private BitSet reverseDependencies(int[] targets) {
+        var visited = new BitSet(labels.length);
+        var queue = new int[labels.length];
+        var tail = 0;
+        for (int target : targets) {
+            if (!visited.get(target)) {
+                visited.set(target);
+                queue[tail++] = target;
+            }
+        }
+        for (var head = 0; head < tail; head++) {
+            for (int rdep : rdeps[queue[head]]) {
+                if (!visited.get(rdep)) {
+                    visited.set(rdep);
+                    queue[tail++] = rdep;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Creates a new graph combining this graph with an update.
+     * <p>
+     * All targets of the update replace existing targets with the same label. Targets of this graph in packages of
+     * the main repository matching the given predicate are removed (unless they are part of the update). This allows
+     * to incrementally update a graph after <code>BUILD</code> files changed by querying only the changed packages.
+     * </p>
+     *
+     * @param update
+     *            the graph with updated targets
+     * @param removedPackages
+     *            predicate matching package paths (eg. <code>foo/bar</code>) for which existing targets should be
+     *            discarded
+     * @return the merged graph
+     */
+    public BazelDependencyGraph merge(BazelDependencyGraph update, Predicate<String> removedPackages) {
+        var builder = new Builder();
+        builder.packageGroupsByLabel.putAll(packageGroupsByLabel);
+        builder.packageGroupsByLabel.putAll(update.packageGroupsByLabel);
+        for (var i = 0; i < labels.length; i++) {
+            if (isMainRepository(labels[i]) && removedPackages.test(packages[i])) {
+                continue;
+            }
+            if (!update.indexByLabel.containsKey(labels[i])) {
+                builder.copyRule(this, i);
+            }
+        }
+        for (var i = 0; i < update.labels.length; i++) {
+            builder.copyRule(update, i);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of targets in the graph
+     */
+    public int size() {
+        return labels.length;
+    }
+}
@@ -0,0 +1,381 @@
+package com.salesforce.bazel.eclipse.core.builder;
+
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.BUILD_PROBLEM_MARKER;
+import static com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.MARKER_ATTRIBUTE_BAZEL_TARGET;
+import static com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.collectChanges;
+import static com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.replaceMarkers;
+import static com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.selectAffectedTargets;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.ActionExecuted;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEvent;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.ActionCompletedId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.BuildFinishedId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.BuildStartedId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildFinished;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildStarted;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.File;
+import com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.Changes;
+import com.salesforce.bazel.eclipse.core.builder.BazelProjectBuilder.TargetSources;
+import com.salesforce.bazel.eclipse.core.model.BazelModel;
+import com.salesforce.bazel.eclipse.core.model.BazelTarget;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.command.BazelBinary;
+import com.salesforce.bazel.sdk.command.BazelBuildCommand;
+import com.salesforce.bazel.sdk.command.BuildDiagnostic;
+import com.salesforce.bazel.sdk.command.BuildDiagnosticsCollector;
+import com.salesforce.bazel.sdk.command.DefaultBazelCommandExecutor;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+public class BazelProjectBuilderTest {
+
+    /**
+     * In-memory marker store of a fake project and its files.
+     */
+    static class FakeProject {
+
+        final List<Map<String, Object>> markers = new ArrayList<>();
+        final Map<URI, IFile> files = new HashMap<>();
+        final IProject project;
+
+        FakeProject() {
+            var root = (IWorkspaceRoot) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] { IWorkspaceRoot.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findFilesForLocationURI" -> files.containsKey(args[0])
+                            ? new IFile[] { files.get(args[0]) } : new IFile[0];
+                    default -> null;
+                });
+            var workspace = (IWorkspace) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] { IWorkspace.class },
+                (proxy, method, args) -> "getRoot".equals(method.getName()) ? root : null);
+            project = (IProject) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] { IProject.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getName" -> "pkg";
+                    case "getWorkspace" -> workspace;
+                    case "findMarkers" -> markers.stream().map(this::marker).toArray(IMarker[]::new);
+                    case "createMarker" -> createMarker((IResource) proxy, args);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+        }
+
+        void addFile(Path location) {
+            addFile(location, project);
+        }
+
+        void addFile(Path location, IProject owner) {
+            var file = (IFile) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] { IFile.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isAccessible" -> true;
+                    case "getProject" -> owner;
+                    case "getName" -> location.getFileName().toString();
+                    case "createMarker" -> createMarker((IResource) proxy, args);
+                    default -> null;
+                });
+            files.put(location.toUri(), file);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object createMarker(IResource resource, Object[] args) {
+            assertEquals(BUILD_PROBLEM_MARKER, args[0]);
+            Map<String, Object> attributes = new HashMap<>((Map<String, Object>) args[1]);
+            attributes.put("resource", resource);
+            markers.add(attributes);
+            return marker(attributes);
+        }
+
+        void existingMarker(String message, String target) {
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put(IMarker.MESSAGE, message);
+            if (target != null) {
+                attributes.put(MARKER_ATTRIBUTE_BAZEL_TARGET, target);
+            }
+            attributes.put("resource", project);
+            markers.add(attributes);
+        }
+
+        private IMarker marker(Map<String, Object> attributes) {
+            return (IMarker) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] { IMarker.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getAttribute" -> attributes.getOrDefault(args[0], args.length > 1 ? args[1] : null);
+                    case "getResource" -> attributes.get("resource");
+                    case "delete" -> {
+                        markers.remove(attributes);
+                        yield null;
+                    }
+                    default -> null;
+                });
+        }
+
+        List<String> messages() {
+            return markers.stream().map(m -> (String) m.get(IMarker.MESSAGE)).toList();
+        }
+    }
+
+    private static final String JAVAC_OUTPUT = """
+            pkg/src/Foo.java:5: error: cannot find symbol
+            pkg/Generated.java:1: warning: generated code
+            """;
+
+    private static final BazelModel model = new BazelModel(null);
+
+    private static IResourceDelta delta(IResource resource, IResourceDelta... children) {
+        return (IResourceDelta) Proxy.newProxyInstance(
+            BazelProjectBuilderTest.class.getClassLoader(),
+            new Class<?>[] { IResourceDelta.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getResource" -> resource;
+                case "accept" -> {
+                    if (((IResourceDeltaVisitor) args[0]).visit((IResourceDelta) proxy)) {
+                        for (IResourceDelta child : children) {
+                            child.accept((IResourceDeltaVisitor) args[0]);
+                        }
+                    }
+                    yield null;
+                }
+                default -> null;
+            });
+    }
+
+    private static IResourceDelta fileDelta(IPath location, int kind) {
+        var file = (IFile) Proxy.newProxyInstance(
+            BazelProjectBuilderTest.class.getClassLoader(),
+            new Class<?>[] { IFile.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getType" -> IResource.FILE;
+                case "isDerived" -> false;
+                case "getName" -> location.lastSegment();
+                case "getFileExtension" -> location.getFileExtension();
+                case "getLocation" -> location;
+                default -> null;
+            });
+        return (IResourceDelta) Proxy.newProxyInstance(
+            BazelProjectBuilderTest.class.getClassLoader(),
+            new Class<?>[] { IResourceDelta.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getResource" -> file;
+                case "getKind" -> kind;
+                case "accept" -> {
+                    ((IResourceDeltaVisitor) args[0]).visit((IResourceDelta) proxy);
+                    yield null;
+                }
+                default -> null;
+            });
+    }
+
+    private static IResourceDelta projectDelta(IResourceDelta... children) {
+        var folder = (IResource) Proxy.newProxyInstance(
+            BazelProjectBuilderTest.class.getClassLoader(),
+            new Class<?>[] { IResource.class },
+            (proxy, method, args) -> "getType".equals(method.getName()) ? IResource.PROJECT : null);
+        return delta(folder, children);
+    }
+
+    @TempDir
+    private Path tempDir;
+
+    private final BazelWorkspace workspace = new BazelWorkspace(IPath.forPosix("/ws"), model);
+    private final BazelTarget foo = workspace.getBazelPackage(IPath.forPosix("pkg")).getBazelTarget("foo");
+    private final BazelTarget bar = workspace.getBazelPackage(IPath.forPosix("pkg")).getBazelTarget("bar");
+
+    private List<TargetSources> projectTargets() {
+        var packageLocation = IPath.forPosix("/ws/pkg");
+        return List.of(
+            new TargetSources(foo, packageLocation, List.of("src/Foo.java", "//pkg:src/Removed.java")),
+            new TargetSources(bar, packageLocation, List.of(":src/Bar.java")));
+    }
+
+    @Test
+    void selectAffectedTargets_build_file_change_selects_all_targets() throws Exception {
+        var changes = collectChanges(
+            projectDelta(
+                fileDelta(IPath.forPosix("/ws/pkg/src/Foo.java"), IResourceDelta.CHANGED),
+                fileDelta(IPath.forPosix("/ws/pkg/BUILD.bazel"), IResourceDelta.CHANGED)));
+
+        assertTrue(changes.buildFileChanged());
+        assertEquals(List.of(foo, bar), selectAffectedTargets(changes, projectTargets()));
+    }
+
+    @Test
+    void selectAffectedTargets_includes_owners_of_removed_files() throws Exception {
+        var changes = collectChanges(
+            projectDelta(
+                fileDelta(IPath.forPosix("/ws/pkg/src/Removed.java"), IResourceDelta.REMOVED),
+                fileDelta(IPath.forPosix("/ws/pkg/README.md"), IResourceDelta.CHANGED)));
+
+        assertFalse(changes.buildFileChanged());
+        assertEquals(List.of(IPath.forPosix("/ws/pkg/src/Removed.java")), changes.javaFiles());
+        assertEquals(List.of(foo), selectAffectedTargets(changes, projectTargets()));
+    }
+
+    @Test
+    void selectAffectedTargets_maps_files_to_owning_targets() throws Exception {
+        var changes = new Changes(false, List.of(IPath.forPosix("/ws/pkg/src/Bar.java")));
+        assertEquals(List.of(bar), selectAffectedTargets(changes, projectTargets()));
+
+        changes = new Changes(false, List.of());
+        assertTrue(selectAffectedTargets(changes, projectTargets()).isEmpty());
+    }
+
+    @Test
+    void selectAffectedTargets_unmapped_file_selects_all_targets() throws Exception {
+        var changes = new Changes(
+                false,
+                List.of(IPath.forPosix("/ws/pkg/src/Bar.java"), IPath.forPosix("/ws/pkg/src/Unknown.java")));
+        assertEquals(List.of(foo, bar), selectAffectedTargets(changes, projectTargets()));
+    }
+
+    @Test
+    void markers_for_files_of_other_projects_reported_on_built_project() throws Exception {
+        var fake = new FakeProject();
+        var otherProject = new FakeProject().project;
+        var otherFile = tempDir.resolve("other/src/Other.java");
+        fake.addFile(otherFile, otherProject);
+        var diagnostic = new BuildDiagnostic(otherFile, 3, 1, true, "incompatible types", "//pkg:foo");
+
+        replaceMarkers(fake.project, tempDir, List.of("//pkg:foo"), List.of(diagnostic), null);
+
+        // never placed on the other project because its markers are not cleared by builds of this project
+        assertEquals(List.of(otherFile + ":3: incompatible types"), fake.messages());
+        assertSame(fake.project, fake.markers.get(0).get("resource"));
+
+        replaceMarkers(fake.project, tempDir, List.of("//pkg:foo"), List.of(), null);
+        assertTrue(fake.markers.isEmpty());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS) // fake binary is a shell script
+    void markers_of_built_targets_replaced_with_diagnostics_of_fake_bazel_build() throws Exception {
+        // canned action output and BEP reporting the label with an explicit main repository prefix
+        var actionStderr = writeString(tempDir.resolve("stderr-1"), JAVAC_OUTPUT);
+        var cannedBep = tempDir.resolve("canned.bep");
+        try (var out = newOutputStream(cannedBep)) {
+            BuildEvent.newBuilder()
+                    .setId(BuildEventId.newBuilder().setStarted(BuildStartedId.getDefaultInstance()))
+                    .setStarted(BuildStarted.newBuilder().setUuid("test-build"))
+                    .build()
+                    .writeDelimitedTo(out);
+            BuildEvent.newBuilder()
+                    .setId(
+                        BuildEventId.newBuilder()
+                                .setActionCompleted(
+                                    ActionCompletedId.newBuilder()
+                                            .setLabel("@@//pkg:foo")
+                                            .setPrimaryOutput("bazel-out/k8-fastbuild/bin/pkg/libfoo.jar")))
+                    .setAction(
+                        ActionExecuted.newBuilder()
+                                .setSuccess(false)
+                                .setStderr(
+                                    File.newBuilder().setName("stderr").setUri(actionStderr.toUri().toString())))
+                    .build()
+                    .writeDelimitedTo(out);
+            BuildEvent.newBuilder()
+                    .setId(BuildEventId.newBuilder().setBuildFinished(BuildFinishedId.getDefaultInstance()))
+                    .setFinished(
+                        BuildFinished.newBuilder()
+                                .setExitCode(BuildFinished.ExitCode.newBuilder().setCode(1).setName("BUILD_FAILURE")))
+                    .build()
+                    .writeDelimitedTo(out);
+        }
+
+        var fakeBazel = writeString(tempDir.resolve("fake-bazel"), """
+                #!/bin/sh
+                for arg in "$@"; do
+                  case "$arg" in
+                    --build_event_binary_file=*) cp "%s" "${arg#--build_event_binary_file=}" ;;
+                  esac
+                done
+                exit 1
+                """.formatted(cannedBep));
+        fakeBazel.toFile().setExecutable(true);
+
+        var executor = new DefaultBazelCommandExecutor() {
+            @Override
+            protected String getToolTagArgument() {
+                return "--tool_tag=java:core:test";
+            }
+        };
+        executor.setBazelBinary(new BazelBinary(fakeBazel, new BazelVersion(999, 999, 999)));
+
+        var command = new BazelBuildCommand(
+                List.of(new BazelLabel("//pkg:foo")),
+                tempDir,
+                null,
+                true /* keep going */,
+                "testing");
+        var collector = new BuildDiagnosticsCollector();
+        command.setDiagnosticsCollector(collector);
+        executor.execute(command, () -> false);
+        List<BuildDiagnostic> diagnostics = collector.getDiagnostics();
+        assertEquals(2, diagnostics.size());
+
+        var fake = new FakeProject();
+        fake.addFile(tempDir.resolve("pkg/src/Foo.java"));
+        fake.existingMarker("old foo problem", "//pkg:foo");
+        fake.existingMarker("bar problem", "//pkg:bar");
+        fake.existingMarker("unlabeled problem", null);
+
+        replaceMarkers(fake.project, tempDir, List.of("//pkg:foo"), diagnostics, null);
+
+        // markers of other targets are kept
+        assertEquals(
+            List.of("bar problem", "cannot find symbol", "pkg/Generated.java:1: generated code"),
+            fake.messages());
+
+        // label is normalized so the markers are replaced by the next build of the target
+        var onFile = fake.markers.get(1);
+        assertEquals("//pkg:foo", onFile.get(MARKER_ATTRIBUTE_BAZEL_TARGET));
+        assertEquals(5, onFile.get(IMarker.LINE_NUMBER));
+        assertEquals(IMarker.SEVERITY_ERROR, onFile.get(IMarker.SEVERITY));
+        assertSame(fake.files.get(tempDir.resolve("pkg/src/Foo.java").toUri()), onFile.get("resource"));
+
+        // file not in workspace is reported on the project
+        var onProject = fake.markers.get(2);
+        assertSame(fake.project, onProject.get("resource"));
+        assertEquals(IMarker.SEVERITY_WARNING, onProject.get(IMarker.SEVERITY));
+        assertEquals("//pkg:foo", onProject.get(MARKER_ATTRIBUTE_BAZEL_TARGET));
+
+        // a rebuild without problems removes them
+        replaceMarkers(fake.project, tempDir, List.of("//pkg:foo"), List.of(), null);
+        assertEquals(List.of("bar problem"), fake.messages());
+    }
+}
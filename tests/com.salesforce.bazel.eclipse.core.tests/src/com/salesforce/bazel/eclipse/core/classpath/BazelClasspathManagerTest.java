@@ -0,0 +1,169 @@
+package com.salesforce.bazel.eclipse.core.classpath;
+
+import static com.salesforce.bazel.eclipse.core.BazelCoreSharedContstants.CLASSPATH_CONTAINER_ID;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.salesforce.bazel.eclipse.core.model.BazelModel;
+import com.salesforce.bazel.eclipse.core.model.BazelProject;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+import com.salesforce.bazel.eclipse.core.model.discovery.classpath.ClasspathEntry;
+
+public class BazelClasspathManagerTest {
+
+    private static final BazelModel model = new BazelModel(null);
+
+    private static CompileAndRuntimeClasspath classpath(String... libraries) {
+        List<ClasspathEntry> entries = new ArrayList<>();
+        entries.add(new ClasspathEntry(IPath.forPosix("/other"), IClasspathEntry.CPE_PROJECT));
+        for (String library : libraries) {
+            entries.add(ClasspathEntry.newLibraryEntry(IPath.forPosix(library), null, null, false));
+        }
+        return new CompileAndRuntimeClasspath(entries, List.of());
+    }
+
+    private static BazelProject project(String name, IPath location, IPath workspaceRoot) {
+        var project = (IProject) Proxy.newProxyInstance(
+            BazelClasspathManagerTest.class.getClassLoader(),
+            new Class<?>[] { IProject.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName", "toString" -> name;
+                case "getLocation" -> location;
+                case "getPersistentProperty" -> workspaceRoot.toString();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+        return new BazelProject(project, model);
+    }
+
+    private static Set<String> toStrings(Collection<IPath> paths) {
+        return paths.stream().map(IPath::toString).collect(toSet());
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private BazelClasspathManager classpathManager;
+    private BazelWorkspace workspace;
+
+    @BeforeEach
+    void setup() {
+        classpathManager = new BazelClasspathManager(tempDir.toFile(), null);
+        workspace = new BazelWorkspace(IPath.fromPath(tempDir.resolve("ws")), model);
+    }
+
+    @Test
+    void getMaterializedWorkspaceLibraries_collects_on_demand_and_used_libraries() throws Exception {
+        var workspaceRoot = workspace.getLocation();
+        var workspaceProject = project("ws", workspaceRoot, workspaceRoot);
+        var computedProject = project("a", workspaceRoot.append("a"), workspaceRoot);
+        var savedProject = project("b", workspaceRoot.append("b"), workspaceRoot);
+        var unknownProject = project("c", workspaceRoot.append("c"), workspaceRoot);
+
+        // saved container of a project without freshly computed classpath
+        try (var out = new FileOutputStream(classpathManager.getContainerStateFile(savedProject.getProject()))) {
+            new BazelClasspathContainerSaveHelper().writeContainer(
+                new BazelClasspathContainer(
+                        IPath.forPosix(CLASSPATH_CONTAINER_ID),
+                        new IClasspathEntry[] { JavaCore.newLibraryEntry(IPath.forPosix("/ws/b.jar"), null, null) },
+                        new IClasspathEntry[0]),
+                out);
+        }
+        classpathManager.addOnDemandWorkspaceLibraries(workspace, List.of(IPath.forPosix("/ws/ondemand.jar")));
+
+        var libraries = classpathManager.getMaterializedWorkspaceLibraries(
+            workspace,
+            List.of(workspaceProject, computedProject, savedProject, unknownProject),
+            Map.of(computedProject, classpath("/ws/a.jar"), workspaceProject, classpath("/ws/ignored.jar")));
+
+        assertEquals(Set.of("/ws/ondemand.jar", "/ws/a.jar", "/ws/b.jar"), toStrings(libraries));
+    }
+
+    @Test
+    void pruneOnDemandWorkspaceLibraries_forgets_libraries_no_longer_discovered() throws Exception {
+        classpathManager.addOnDemandWorkspaceLibraries(
+            workspace,
+            List.of(IPath.forPosix("/ws/a.jar"), IPath.forPosix("/ws/b.jar"), IPath.forPosix("/ws/c.jar")));
+
+        classpathManager.pruneOnDemandWorkspaceLibraries(workspace, classpath("/ws/a.jar", "/ws/c.jar", "/ws/d.jar"));
+
+        assertEquals(
+            Set.of("/ws/a.jar", "/ws/c.jar"),
+            toStrings(classpathManager.getOnDemandWorkspaceLibraries(workspace)));
+    }
+
+    @Test
+    void on_demand_workspace_libraries_added_concurrently_are_retained() throws Exception {
+        var threads = 8;
+        var librariesPerThread = 20;
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (var t = 0; t < threads; t++) {
+                var thread = t;
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < librariesPerThread; i++) {
+                        classpathManager.addOnDemandWorkspaceLibraries(
+                            workspace,
+                            List.of(IPath.forPosix(format("/ws/lib%d_%d.jar", thread, i))));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * librariesPerThread, classpathManager.getOnDemandWorkspaceLibraries(workspace).size());
+    }
+
+    @Test
+    void getDefaultClasspath_keeps_bazel_attachments_and_strips_custom_ones() throws Exception {
+        var bazelAttached = JavaCore.newLibraryEntry(
+            IPath.forPosix("/ws/libfoo.jar"),
+            IPath.forPosix("/ws/libfoo-src.jar"),
+            null,
+            true);
+        var customAttached =
+                JavaCore.newLibraryEntry(IPath.forPosix("/ws/libbar.jar"), IPath.forPosix("/home/bar-src.jar"), null);
+        var customAttachments = new Properties();
+        customAttachments.setProperty("/ws/libbar.jar.srcPath", "/home/bar-src.jar");
+
+        List<ClasspathEntry> defaultClasspath = List.copyOf(
+            classpathManager
+                    .getDefaultClasspath(new IClasspathEntry[] { bazelAttached, customAttached }, customAttachments));
+
+        assertEquals(2, defaultClasspath.size());
+        assertEquals(bazelAttached, defaultClasspath.get(0).build());
+        assertTrue(defaultClasspath.get(0).isExported());
+        assertEquals(IPath.forPosix("/ws/libbar.jar"), defaultClasspath.get(1).getPath());
+        assertNull(defaultClasspath.get(1).getSourceAttachmentPath());
+    }
+}
@@ -0,0 +1,130 @@
+package com.salesforce.bazel.eclipse.core.classpath;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.salesforce.bazel.eclipse.core.util.trace.TracingSubMonitor;
+
+public class ClasspathRefreshSchedulerTest {
+
+    /**
+     * Records refreshed batches instead of running Bazel.
+     */
+    static class RecordingScheduler extends ClasspathRefreshScheduler {
+
+        final List<List<IProject>> refreshedBatches = new CopyOnWriteArrayList<>();
+        final CountDownLatch refreshed = new CountDownLatch(1);
+        volatile long refreshDelay = 60_000L;
+        volatile Set<IProject> projectsWithOpenEditors = Set.of();
+
+        RecordingScheduler() {
+            super(null);
+        }
+
+        @Override
+        Set<IProject> getProjectsWithOpenEditors() {
+            return projectsWithOpenEditors;
+        }
+
+        @Override
+        long getRefreshDelay() {
+            return refreshDelay;
+        }
+
+        @Override
+        void refreshClasspath(List<IProject> projects, TracingSubMonitor monitor, MultiStatus status) {
+            if (!projects.isEmpty()) {
+                refreshedBatches.add(List.copyOf(projects));
+                refreshed.countDown();
+            }
+        }
+    }
+
+    private static IProject project(String name) {
+        return (IProject) Proxy.newProxyInstance(
+            ClasspathRefreshSchedulerTest.class.getClassLoader(),
+            new Class<?>[] { IProject.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName", "toString" -> name;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    private RecordingScheduler scheduler;
+
+    @AfterEach
+    void cancelScheduler() {
+        if (scheduler != null) {
+            scheduler.cancel();
+        }
+    }
+
+    @Test
+    void auto_refresh_is_disabled_by_default() throws Exception {
+        scheduler = new RecordingScheduler();
+        assertFalse(scheduler.isAutoRefreshEnabled());
+    }
+
+    @Test
+    void requests_are_coalesced_into_one_refresh() throws Exception {
+        scheduler = new RecordingScheduler();
+        var a = project("a");
+        var b = project("b");
+        var c = project("c");
+        scheduler.projectsWithOpenEditors = Set.of(c);
+
+        scheduler.requestRefresh(List.of(a, b));
+        scheduler.requestRefresh(List.of(b, c));
+        assertEquals(Job.SLEEPING, scheduler.getState());
+
+        scheduler.runInWorkspace(new NullProgressMonitor());
+
+        // projects with open editors first
+        assertEquals(List.of(List.of(c), List.of(a, b)), scheduler.refreshedBatches);
+
+        // nothing left for the next run
+        scheduler.refreshedBatches.clear();
+        scheduler.runInWorkspace(new NullProgressMonitor());
+        assertTrue(scheduler.refreshedBatches.isEmpty());
+    }
+
+    @Test
+    void requests_within_delay_postpone_refresh() throws Exception {
+        scheduler = new RecordingScheduler();
+        scheduler.refreshDelay = 1000L;
+        var projects = List.of(project("a"), project("b"), project("c"), project("d"));
+
+        var lastRequest = 0L;
+        for (IProject project : projects) {
+            lastRequest = System.nanoTime();
+            scheduler.requestRefresh(List.of(project));
+            Thread.sleep(100L);
+        }
+
+        assertTrue(scheduler.refreshed.await(10, SECONDS));
+        var refreshedAfterLastRequest = (System.nanoTime() - lastRequest) / 1_000_000L;
+
+        // a single refresh of all projects no earlier than the delay after the last request
+        assertEquals(List.of(projects), scheduler.refreshedBatches);
+        assertTrue(
+            refreshedAfterLastRequest >= scheduler.refreshDelay,
+            () -> "refreshed after " + refreshedAfterLastRequest + "ms");
+    }
+}
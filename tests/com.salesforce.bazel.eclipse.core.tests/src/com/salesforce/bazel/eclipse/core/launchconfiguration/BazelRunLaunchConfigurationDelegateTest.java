@@ -0,0 +1,43 @@
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelRunLaunchConfigurationDelegate.getRunfilesDirectory;
+import static com.salesforce.bazel.eclipse.core.launchconfiguration.BazelRunLaunchConfigurationDelegate.getRunfilesEnvironment;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+public class BazelRunLaunchConfigurationDelegateTest {
+
+    @Test
+    void getRunfilesDirectory_located_next_to_binary() throws Exception {
+        var bazelBin = Path.of("/out/execroot/_main/bazel-out/k8-fastbuild/bin");
+
+        assertEquals(
+            bazelBin.resolve("foo/bar/app.runfiles"),
+            getRunfilesDirectory(bazelBin, new BazelLabel("//foo/bar:app")));
+        assertEquals(bazelBin.resolve("app.runfiles"), getRunfilesDirectory(bazelBin, new BazelLabel("//:app")));
+    }
+
+    @Test
+    void getRunfilesEnvironment_matches_bazel_run() throws Exception {
+        var runfiles = Path.of("/bin/foo/app.runfiles");
+        var workspaceRoot = Path.of("/ws");
+
+        assertEquals(
+            Map.of(
+                "JAVA_RUNFILES",
+                runfiles.toString(),
+                "RUNFILES_DIR",
+                runfiles.toString(),
+                "BUILD_WORKSPACE_DIRECTORY",
+                workspaceRoot.toString(),
+                "BUILD_WORKING_DIRECTORY",
+                workspaceRoot.toString()),
+            getRunfilesEnvironment(runfiles, workspaceRoot));
+    }
+}
@@ -0,0 +1,136 @@
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.File;
+import com.google.idea.blaze.base.command.buildresult.BuildEventStreamProvider;
+import com.salesforce.bazel.eclipse.core.launchconfiguration.TestXmlReport.Outcome;
+import com.salesforce.bazel.sdk.command.FollowingFileInputStream;
+
+/**
+ * Tests the reporter against a checked-in BEP file of a <code>bazel test</code> invocation.
+ */
+public class BazelTestResultReporterTest {
+
+    private static final Path TESTDATA = Path.of("testdata/bazel_test").toAbsolutePath();
+    private static final String TESTLOGS_URI = "file:///execroot/bazel-out/k8-fastbuild/testlogs/";
+
+    private static BazelTestResultReporter newReporter(StringWriter output) {
+        return new BazelTestResultReporter(output) {
+            @Override
+            protected Path toLocalPath(File file) {
+                assertTrue(file.getUri().startsWith(TESTLOGS_URI), file.getUri());
+                return TESTDATA.resolve("testlogs").resolve(file.getUri().substring(TESTLOGS_URI.length()));
+            }
+        };
+    }
+
+    @Test
+    void bep_mapped_to_remote_test_runner_protocol() throws Exception {
+        var output = new StringWriter();
+        var reporter = newReporter(output);
+        reporter.testRunStarted();
+        try (var in = Files.newInputStream(TESTDATA.resolve("test.bep"))) {
+            reporter.consume(BuildEventStreamProvider.fromInputStream(in));
+        }
+        reporter.testRunEnded(1234);
+
+        assertEquals(6, reporter.getReportedTestCount());
+        assertEquals(List.of(
+            "%TESTC  0 v2",
+            // //app:AppTest
+            "%TSTTREE1,//app:AppTest,true,1,false,-1,//app:AppTest,,",
+            "%TSTTREE2,com.example.app.AppTest,true,3,false,-1,com.example.app.AppTest,,",
+            "%TSTTREE3,greets(com.example.app.AppTest),false,1,false,-1,greets,,",
+            "%TSTTREE4,greetsLoudly(com.example.app.AppTest),false,1,false,-1,greetsLoudly,,",
+            "%TSTTREE5,greetsPolitely(com.example.app.AppTest),false,1,false,-1,greetsPolitely,,",
+            "%TESTS  3,greets(com.example.app.AppTest)",
+            "%TESTE  3,greets(com.example.app.AppTest)",
+            "%TESTS  4,greetsLoudly(com.example.app.AppTest)",
+            "%FAILED 4,greetsLoudly(com.example.app.AppTest)",
+            "%TRACES ",
+            "org.opentest4j.AssertionFailedError: expected: <HELLO, WORLD!> but was: <Hello, World!>",
+            "\tat com.example.app.AppTest.greetsLoudly(AppTest.java:17)",
+            "%TRACEE ",
+            "%TESTE  4,greetsLoudly(com.example.app.AppTest)",
+            "%TESTS  5,@Ignore: greetsPolitely(com.example.app.AppTest)",
+            "%TESTE  5,@Ignore: greetsPolitely(com.example.app.AppTest)",
+            // //lib:LibTest
+            "%TSTTREE6,//lib:LibTest,true,2,false,-1,//lib:LibTest,,",
+            "%TSTTREE7,com.example.lib.GreeterTest,true,1,false,-1,com.example.lib.GreeterTest,,",
+            "%TSTTREE8,format\\, with comma(com.example.lib.GreeterTest),false,1,false,-1,format\\, with comma,,",
+            "%TSTTREE9,com.example.lib.StringsTest,true,1,false,-1,com.example.lib.StringsTest,,",
+            "%TSTTREE10,blank(com.example.lib.StringsTest),false,1,false,-1,blank,,",
+            "%TESTS  8,format, with comma(com.example.lib.GreeterTest)",
+            "%TESTE  8,format, with comma(com.example.lib.GreeterTest)",
+            "%TESTS  10,blank(com.example.lib.StringsTest)",
+            "%TESTE  10,blank(com.example.lib.StringsTest)",
+            // //broken:BrokenTest has only a summary
+            "%TSTTREE11,//broken:BrokenTest,true,1,false,-1,//broken:BrokenTest,,",
+            "%TSTTREE12,//broken:BrokenTest,true,1,false,-1,//broken:BrokenTest,,",
+            "%TSTTREE13,//broken:BrokenTest,false,1,false,-1,//broken:BrokenTest,,",
+            "%TESTS  13,//broken:BrokenTest",
+            "%ERROR  13,//broken:BrokenTest",
+            "%TRACES ",
+            "//broken:BrokenTest failed to build",
+            "%TRACEE ",
+            "%TESTE  13,//broken:BrokenTest",
+            "%RUNTIME1234"), output.toString().lines().toList());
+    }
+
+    @Test
+    void bep_followed_while_written(@TempDir Path tempDir) throws Exception {
+        var content = Files.readAllBytes(TESTDATA.resolve("test.bep"));
+        var bepFile = tempDir.resolve("test.bep");
+        Files.write(bepFile, new byte[0]);
+
+        var writerDone = new AtomicBoolean();
+        var writer = new Thread(() -> {
+            try (var out = Files.newOutputStream(bepFile)) {
+                // write in small chunks so events are split across reads
+                for (var i = 0; i < content.length; i += 50) {
+                    out.write(content, i, Math.min(50, content.length - i));
+                    out.flush();
+                    Thread.sleep(10);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                writerDone.set(true);
+            }
+        });
+        writer.start();
+
+        var output = new StringWriter();
+        var reporter = newReporter(output);
+        try (var in = new FollowingFileInputStream(bepFile, writerDone::get)) {
+            reporter.consume(BuildEventStreamProvider.fromInputStream(in));
+        }
+        writer.join();
+
+        assertEquals(6, reporter.getReportedTestCount());
+    }
+
+    @Test
+    void test_xml_parsed() throws Exception {
+        var report = TestXmlReport.parse(TESTDATA.resolve("testlogs/app/AppTest/test.xml"));
+        assertEquals(1, report.testSuites().size());
+        assertEquals(3, report.getTestCount());
+
+        var testCases = report.testSuites().get(0).testCases();
+        assertEquals(
+            List.of(Outcome.PASSED, Outcome.FAILED, Outcome.SKIPPED),
+            testCases.stream().map(TestXmlReport.TestCase::outcome).toList());
+        assertTrue(testCases.get(1).trace().startsWith("org.opentest4j.AssertionFailedError: expected:"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.salesforce.bazel.eclipse.core.launchconfiguration;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.salesforce.bazel.eclipse.core.launchconfiguration.JavaLaunchInfoCache.JavaLaunchInfo;
+
+public class JavaLaunchInfoCacheTest {
+
+    private static final String APP = "//app:app";
+    private static final List<String> DEPENDENCIES = List.of("//lib:lib", "@maven//:guava");
+
+    @TempDir
+    private Path tempDir;
+
+    private Path workspaceRoot;
+    private JavaLaunchInfo launchInfo;
+
+    private String digest() throws Exception {
+        return JavaLaunchInfoCache.dependencyDigest(workspaceRoot, APP, DEPENDENCIES, List.of());
+    }
+
+    private JavaLaunchInfoCache newCache() {
+        return new JavaLaunchInfoCache(tempDir.resolve("cache"));
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        workspaceRoot = createDirectories(tempDir.resolve("workspace"));
+        writeString(workspaceRoot.resolve("MODULE.bazel"), "module(name = \"test\")\n");
+        writeString(createDirectories(workspaceRoot.resolve("app")).resolve("BUILD"), "java_binary(name = \"app\")\n");
+        writeString(createDirectories(workspaceRoot.resolve("lib")).resolve("BUILD.bazel"), "java_library()\n");
+
+        var jars = createDirectories(tempDir.resolve("bazel-out"));
+        launchInfo = new JavaLaunchInfo(
+                "com.example.App",
+                List.of(writeString(jars.resolve("app.jar"), "app"), writeString(jars.resolve("lib.jar"), "lib")),
+                List.of("-Xmx1g", "-Dfoo=bar"));
+    }
+
+    @Test
+    void dependency_digest_covers_build_files_and_dependencies() throws Exception {
+        var digest = digest();
+        assertEquals(digest, digest());
+
+        writeString(workspaceRoot.resolve("lib/BUILD.bazel"), "java_library(deps = [])\n");
+        var changedBuildFile = digest();
+        assertNotEquals(digest, changedBuildFile);
+
+        writeString(workspaceRoot.resolve("MODULE.bazel"), "module(name = \"other\")\n");
+        assertNotEquals(changedBuildFile, digest());
+
+        var withFlags = JavaLaunchInfoCache.dependencyDigest(workspaceRoot, APP, DEPENDENCIES, List.of("--config=x"));
+        assertNotEquals(digest(), withFlags);
+
+        var otherDependencies = JavaLaunchInfoCache.dependencyDigest(workspaceRoot, APP, List.of("//lib:lib"), List.of());
+        assertNotEquals(digest(), otherDependencies);
+    }
+
+    @Test
+    void launch_info_validated_by_digest() throws Exception {
+        var digest = digest();
+        newCache().put(workspaceRoot, APP, digest, launchInfo);
+        assertEquals(launchInfo, newCache().get(workspaceRoot, APP, digest));
+
+        // other target or digest
+        assertNull(newCache().get(workspaceRoot, "//app:other", digest));
+        assertNull(newCache().get(workspaceRoot, APP, "changed"));
+
+        newCache().invalidate(workspaceRoot, APP);
+        assertNull(newCache().get(workspaceRoot, APP, digest));
+    }
+
+    @Test
+    void launch_info_requires_classpath_entries() throws Exception {
+        var digest = digest();
+        newCache().put(workspaceRoot, APP, digest, launchInfo);
+
+        // eg. bazel clean
+        delete(launchInfo.classpath().get(1));
+        assertNull(newCache().get(workspaceRoot, APP, digest));
+    }
+
+    @Test
+    void main_repository_package() throws Exception {
+        assertEquals("app", JavaLaunchInfoCache.toMainRepositoryPackage("//app:app"));
+        assertEquals("a/b", JavaLaunchInfoCache.toMainRepositoryPackage("@//a/b"));
+        assertEquals("", JavaLaunchInfoCache.toMainRepositoryPackage("@@//:root"));
+        assertNull(JavaLaunchInfoCache.toMainRepositoryPackage("@maven//:guava"));
+    }
+}
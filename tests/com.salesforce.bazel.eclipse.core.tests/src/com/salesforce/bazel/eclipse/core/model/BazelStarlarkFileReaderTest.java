@@ -0,0 +1,61 @@
+package com.salesforce.bazel.eclipse.core.model;
+
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BazelStarlarkFileReaderTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private BazelStarlarkFileReader read(Path file) throws IOException {
+        var reader = new BazelStarlarkFileReader(file);
+        reader.read();
+        return reader;
+    }
+
+    @Test
+    void parse_result_reused_until_file_changes() throws Exception {
+        var buildFile = writeString(tempDir.resolve("BUILD.bazel"), """
+                load("@rules_java//java:defs.bzl", "java_library")
+                package(default_visibility = ["//visibility:public"])
+                java_library(name = "foo", srcs = glob(["src/**/*.java"]))
+                """);
+
+        var first = read(buildFile);
+        assertEquals(1, first.getLoadStatements().size());
+        assertEquals(2, first.getMacroCalls().size());
+
+        assertSame(first.getMacroCalls(), read(buildFile).getMacroCalls());
+
+        writeString(buildFile, """
+                java_library(name = "bar")
+                """);
+        var changed = read(buildFile);
+        assertNotSame(first.getMacroCalls(), changed.getMacroCalls());
+        assertEquals(1, changed.getMacroCalls().size());
+        assertNull(changed.getPackageCall());
+    }
+
+    @Test
+    void preload_ignores_errors() throws Exception {
+        var good = writeString(tempDir.resolve("BUILD"), "java_library(name = 'foo')\n");
+        var bad = writeString(tempDir.resolve("BUILD.bazel"), "java_library(name = \n");
+
+        BazelStarlarkFileReader.preload(List.of(good, bad, tempDir.resolve("missing/BUILD")));
+
+        assertEquals(1, read(good).getMacroCalls().size());
+        assertThrows(IOException.class, () -> read(bad));
+    }
+}
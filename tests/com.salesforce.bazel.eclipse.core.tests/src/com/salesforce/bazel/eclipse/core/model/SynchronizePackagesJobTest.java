@@ -0,0 +1,142 @@
+package com.salesforce.bazel.eclipse.core.model;
+
+import static com.salesforce.bazel.eclipse.core.model.BazelProject.PROJECT_PROPERTY_OWNER;
+import static com.salesforce.bazel.eclipse.core.model.SynchronizePackagesJob.findObsoleteProjects;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.jupiter.api.Test;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+import com.google.idea.blaze.base.model.primitives.TargetExpression;
+import com.salesforce.bazel.eclipse.core.classpath.BazelClasspathScope;
+import com.salesforce.bazel.eclipse.core.classpath.CompileAndRuntimeClasspath;
+import com.salesforce.bazel.eclipse.core.model.discovery.TargetProvisioningStrategy;
+
+public class SynchronizePackagesJobTest {
+
+    /**
+     * Records the targets of partial provisioning and fails on full provisioning.
+     */
+    static class PartialProvisioningStrategy implements TargetProvisioningStrategy {
+
+        final List<TargetExpression> provisionedTargets = new ArrayList<>();
+        final List<BazelProject> projects;
+
+        PartialProvisioningStrategy(BazelProject... projects) {
+            this.projects = List.of(projects);
+        }
+
+        @Override
+        public Map<BazelProject, CompileAndRuntimeClasspath> computeClasspaths(Collection<BazelProject> bazelProjects,
+                BazelWorkspace workspace, BazelClasspathScope scope, IProgressMonitor monitor) {
+            return fail("classpath computation is not part of provisioning");
+        }
+
+        @Override
+        public List<BazelProject> provisionProjectsForChangedPackages(Collection<TargetExpression> targets,
+                BazelWorkspace workspace, IProgressMonitor progress) {
+            provisionedTargets.addAll(targets);
+            return projects;
+        }
+
+        @Override
+        public List<BazelProject> provisionProjectsForSelectedTargets(Collection<TargetExpression> targets,
+                BazelWorkspace workspace, IProgressMonitor progress) {
+            return fail("a package change must not provision the whole workspace");
+        }
+    }
+
+    private static final BazelModel model = new BazelModel(null);
+
+    private static BazelProject project(String name, String owner) {
+        var project = (IProject) Proxy.newProxyInstance(
+            SynchronizePackagesJobTest.class.getClassLoader(),
+            new Class<?>[] { IProject.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName", "toString" -> name;
+                case "getPersistentProperty" -> PROJECT_PROPERTY_OWNER.equals(args[0]) ? owner : null;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+        return new BazelProject(project, model);
+    }
+
+    private final BazelWorkspace workspace = new BazelWorkspace(IPath.forPosix("/ws"), model);
+
+    private final BazelProject workspaceProject = project("ws", null);
+    private final BazelProject fooA = project("foo-a", "//foo:a");
+    private final BazelProject fooB = project("foo-b", "//foo:b");
+    private final BazelProject bar = project("bar", "//bar");
+    private final BazelProject other = project("other", "//foo/other:a");
+
+    @Test
+    void findObsoleteProjects_returns_projects_of_packages_not_provisioned_again() throws Exception {
+        var existingProjects = List.of(workspaceProject, fooA, fooB, bar, other);
+        var packageLabels = Set.of(
+            workspace.getBazelPackage(IPath.forPosix("foo")).getLabel(),
+            workspace.getBazelPackage(IPath.forPosix("bar")).getLabel());
+
+        // target removed from package
+        assertEquals(List.of(fooB), findObsoleteProjects(existingProjects, packageLabels, List.of(fooA, bar)));
+
+        // package switched from package project to target projects
+        assertEquals(List.of(bar), findObsoleteProjects(existingProjects, packageLabels, List.of(fooA, fooB)));
+    }
+
+    @Test
+    void provisionPackages_provisions_only_targets_of_changed_package() throws Exception {
+        var job = new SynchronizePackagesJob(workspace, List.of(workspace.getBazelPackage(IPath.forPosix("foo"))));
+        var strategy = new PartialProvisioningStrategy(fooA, fooB);
+        List<TargetExpression> fooTargets = List.of(Label.create("//foo:a"), Label.create("//foo:b"));
+
+        var provisionedProjects = job.provisionPackages(
+            strategy,
+            fooTargets,
+            List.of(workspaceProject, fooA, fooB, bar, other),
+            new NullProgressMonitor());
+
+        assertEquals(fooTargets, strategy.provisionedTargets);
+        assertEquals(List.of(fooA, fooB), provisionedProjects);
+    }
+
+    @Test
+    void provisionPackages_requires_full_synchronization_for_structural_change() throws Exception {
+        var job = new SynchronizePackagesJob(workspace, List.of(workspace.getBazelPackage(IPath.forPosix("foo"))));
+
+        // target removed from package, its project can only be deleted by a full synchronization
+        var strategy = new PartialProvisioningStrategy(fooA);
+        assertNull(
+            job.provisionPackages(
+                strategy,
+                List.of(Label.create("//foo:a")),
+                List.of(workspaceProject, fooA, fooB, bar, other),
+                new NullProgressMonitor()));
+    }
+
+    @Test
+    void findObsoleteProjects_returns_nothing_for_subset() throws Exception {
+        var existingProjects = List.of(workspaceProject, fooA, bar, other);
+        var packageLabels = Set.of(workspace.getBazelPackage(IPath.forPosix("foo")).getLabel());
+
+        // new target in package
+        assertTrue(findObsoleteProjects(existingProjects, packageLabels, List.of(fooA, fooB)).isEmpty());
+
+        // projects of other packages are ignored
+        assertTrue(findObsoleteProjects(existingProjects, packageLabels, List.of(fooA)).isEmpty());
+    }
+}
@@ -0,0 +1,39 @@
+package com.salesforce.bazel.eclipse.core.model;
+
+import static com.salesforce.bazel.eclipse.core.model.SynchronizeWorkspacesJob.DEFAULT_MAX_CONCURRENT_WORKSPACES;
+import static com.salesforce.bazel.eclipse.core.model.SynchronizeWorkspacesJob.DEFAULT_MEMORY_PER_WORKSPACE_MB;
+import static com.salesforce.bazel.eclipse.core.model.SynchronizeWorkspacesJob.getMaxConcurrentWorkspaces;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class SynchronizeWorkspacesJobTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    @Test
+    void getMaxConcurrentWorkspaces_limited_by_free_memory() throws Exception {
+        assertEquals(1, getMaxConcurrentWorkspaces(4, 4096, 6000 * MB));
+        assertEquals(3, getMaxConcurrentWorkspaces(4, 4096, 3 * 4096 * MB));
+        assertEquals(4, getMaxConcurrentWorkspaces(4, 4096, 64 * 1024 * MB));
+        assertEquals(
+            DEFAULT_MAX_CONCURRENT_WORKSPACES,
+            getMaxConcurrentWorkspaces(
+                DEFAULT_MAX_CONCURRENT_WORKSPACES,
+                DEFAULT_MEMORY_PER_WORKSPACE_MB,
+                DEFAULT_MAX_CONCURRENT_WORKSPACES * DEFAULT_MEMORY_PER_WORKSPACE_MB * MB));
+    }
+
+    @Test
+    void getMaxConcurrentWorkspaces_is_at_least_one() throws Exception {
+        assertEquals(1, getMaxConcurrentWorkspaces(4, 4096, 100 * MB));
+        assertEquals(1, getMaxConcurrentWorkspaces(0, 4096, -1L));
+        assertEquals(1, getMaxConcurrentWorkspaces(-3, 0, 64 * 1024 * MB));
+    }
+
+    @Test
+    void getMaxConcurrentWorkspaces_unlimited_by_unknown_memory() throws Exception {
+        assertEquals(4, getMaxConcurrentWorkspaces(4, 4096, -1L));
+        assertEquals(4, getMaxConcurrentWorkspaces(4, 0, 100 * MB));
+    }
+}
@@ -0,0 +1,154 @@
+package com.salesforce.bazel.eclipse.core.model.cache;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.devtools.build.lib.query2.proto.proto2api.Build;
+import com.salesforce.bazel.eclipse.core.model.cache.BazelModelSnapshot.PackageTargets;
+import com.salesforce.bazel.sdk.command.querylight.Target;
+
+public class BazelModelSnapshotTest {
+
+    private static Target javaLibrary(String label, String... srcs) {
+        return new Target(
+                Build.Target.newBuilder()
+                        .setType(Build.Target.Discriminator.RULE)
+                        .setRule(
+                            Build.Rule.newBuilder()
+                                    .setName(label)
+                                    .setRuleClass("java_library")
+                                    .addAttribute(
+                                        Build.Attribute.newBuilder()
+                                                .setName("srcs")
+                                                .setType(Build.Attribute.Discriminator.LABEL_LIST)
+                                                .addAllStringListValue(List.of(srcs))))
+                        .build());
+    }
+
+    @TempDir
+    private Path tempDir;
+
+    private Path workspaceRoot;
+    private Path buildFile;
+
+    private BazelModelSnapshot newSnapshot() {
+        return new BazelModelSnapshot(tempDir.resolve("snapshot"));
+    }
+
+    private PackageTargets packageTargets(String packagePath, Path buildFile, Target... targets) throws Exception {
+        return new PackageTargets(
+                packagePath,
+                buildFile,
+                BazelModelSnapshot.digest(buildFile),
+                BazelModelSnapshot.workspaceFingerprint(workspaceRoot),
+                List.of(targets));
+    }
+
+    private void save(Target... targets) throws Exception {
+        newSnapshot().save(workspaceRoot, List.of(packageTargets("foo", buildFile, targets)));
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        workspaceRoot = createDirectories(tempDir.resolve("workspace"));
+        writeString(workspaceRoot.resolve("MODULE.bazel"), "module(name = \"test\")\n");
+        buildFile = writeString(createDirectories(workspaceRoot.resolve("foo")).resolve("BUILD"), "# foo\n");
+    }
+
+    @Test
+    void targets_restored_once_per_session() throws Exception {
+        var lib = javaLibrary("//foo:lib", "//foo:Lib.java");
+        save(lib, javaLibrary("//foo:util"));
+
+        var snapshot = newSnapshot();
+        var targets = snapshot.getTargets(workspaceRoot, "foo", buildFile);
+        assertNotNull(targets);
+        assertEquals(2, targets.size());
+        assertEquals(lib, targets.get("lib"));
+        assertEquals(List.of("//foo:Lib.java"), targets.get("lib").rule().getAttribute("srcs").stringListValue());
+
+        // later loads in the same session must query Bazel
+        assertNull(snapshot.getTargets(workspaceRoot, "foo", buildFile));
+        assertNull(snapshot.getTargets(workspaceRoot, "bar", workspaceRoot.resolve("bar/BUILD")));
+    }
+
+    @Test
+    void targets_validated_by_build_file() throws Exception {
+        save(javaLibrary("//foo:lib"));
+        writeString(buildFile, "# foo changed\n");
+        assertNull(newSnapshot().getTargets(workspaceRoot, "foo", buildFile));
+
+        // package moved to a different BUILD file
+        save(javaLibrary("//foo:lib"));
+        var buildBazelFile = writeString(workspaceRoot.resolve("foo/BUILD.bazel"), "# foo changed\n");
+        assertNull(newSnapshot().getTargets(workspaceRoot, "foo", buildBazelFile));
+    }
+
+    @Test
+    void targets_validated_by_build_file_digest_taken_at_query_time() throws Exception {
+        // BUILD file modified after the query but before saving
+        var queried = packageTargets("foo", buildFile, javaLibrary("//foo:lib"));
+        writeString(buildFile, "# foo changed\n");
+        newSnapshot().save(workspaceRoot, List.of(queried));
+        assertNull(newSnapshot().getTargets(workspaceRoot, "foo", buildFile));
+
+        // packages without digest are not persisted
+        var barBuildFile = writeString(createDirectories(workspaceRoot.resolve("bar")).resolve("BUILD"), "# bar\n");
+        newSnapshot().save(
+            workspaceRoot,
+            List.of(
+                new PackageTargets(
+                        "bar",
+                        barBuildFile,
+                        null,
+                        BazelModelSnapshot.workspaceFingerprint(workspaceRoot),
+                        List.of(javaLibrary("//bar:lib")))));
+        assertNull(newSnapshot().getTargets(workspaceRoot, "bar", barBuildFile));
+    }
+
+    @Test
+    void snapshot_discarded_when_workspace_changes() throws Exception {
+        save(javaLibrary("//foo:lib"));
+        writeString(workspaceRoot.resolve(".bazelversion"), "7.1.0\n");
+        assertNull(newSnapshot().getTargets(workspaceRoot, "foo", buildFile));
+    }
+
+    @Test
+    void entries_dropped_when_workspace_changes_between_load_and_save() throws Exception {
+        save(javaLibrary("//foo:lib"));
+        var barBuildFile = writeString(createDirectories(workspaceRoot.resolve("bar")).resolve("BUILD"), "# bar\n");
+
+        // load the snapshot and query a package before MODULE.bazel changes
+        var snapshot = newSnapshot();
+        assertNull(snapshot.getTargets(workspaceRoot, "bar", barBuildFile));
+        var queried = packageTargets("bar", barBuildFile, javaLibrary("//bar:lib"));
+        writeString(workspaceRoot.resolve("MODULE.bazel"), "module(name = \"changed\")\n");
+        snapshot.save(workspaceRoot, List.of(queried));
+
+        snapshot = newSnapshot();
+        assertNull(snapshot.getTargets(workspaceRoot, "foo", buildFile));
+        assertNull(snapshot.getTargets(workspaceRoot, "bar", barBuildFile));
+    }
+
+    @Test
+    void unused_entries_retained_on_save() throws Exception {
+        save(javaLibrary("//foo:lib"));
+
+        var barBuildFile = writeString(createDirectories(workspaceRoot.resolve("bar")).resolve("BUILD"), "# bar\n");
+        newSnapshot().save(workspaceRoot, List.of(packageTargets("bar", barBuildFile)));
+
+        var snapshot = newSnapshot();
+        assertNotNull(snapshot.getTargets(workspaceRoot, "foo", buildFile));
+        assertEquals(0, snapshot.getTargets(workspaceRoot, "bar", barBuildFile).size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.salesforce.bazel.eclipse.core.model.cache;
+
+import static com.salesforce.bazel.eclipse.core.model.cache.BazelElementInfoWeigher.MODEL_INFO_WEIGHT;
+import static com.salesforce.bazel.eclipse.core.model.cache.BazelElementInfoWeigher.TARGET_INFO_WEIGHT;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IPath;
+import org.junit.jupiter.api.Test;
+
+import com.salesforce.bazel.eclipse.core.model.BazelElement;
+import com.salesforce.bazel.eclipse.core.model.BazelModel;
+import com.salesforce.bazel.eclipse.core.model.BazelModelInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelTarget;
+import com.salesforce.bazel.eclipse.core.model.BazelTargetInfo;
+import com.salesforce.bazel.eclipse.core.model.BazelWorkspace;
+
+public class CaffeineBasedBazelElementInfoCacheTest {
+
+    private static final BazelModel model = new BazelModel(null);
+
+    private static Set<String> labels(Collection<BazelElement<?, ?>> elements) {
+        return elements.stream().map(e -> e.getLabel().toString()).collect(toSet());
+    }
+
+    private static List<BazelTargetInfo> putTargets(CaffeineBasedBazelElementInfoCache cache,
+            BazelWorkspace workspace, int count) {
+        var bazelPackage = workspace.getBazelPackage(IPath.forPosix("foo"));
+        List<BazelTargetInfo> infos = new ArrayList<>();
+        for (var i = 0; i < count; i++) {
+            var target = bazelPackage.getBazelTarget("t" + i);
+            infos.add(cache.putOrGetCached(target, new BazelTargetInfo(target.getTargetName(), target)));
+        }
+        return infos;
+    }
+
+    private static BazelWorkspace workspace(String root) {
+        return new BazelWorkspace(IPath.forPosix(root), model);
+    }
+
+    @Test
+    void getAll_returns_only_elements_of_workspace() throws Exception {
+        var cache = new CaffeineBasedBazelElementInfoCache(100);
+        var ws1 = workspace("/ws1");
+        var ws2 = workspace("/ws2");
+        putTargets(cache, ws1, 3);
+        putTargets(cache, ws2, 2);
+
+        assertEquals(Set.of("//foo:t0", "//foo:t1", "//foo:t2"), labels(cache.getAll(ws1)));
+        assertEquals(Set.of("//foo:t0", "//foo:t1"), labels(cache.getAll(ws2)));
+        assertTrue(cache.getAll(workspace("/ws3")).isEmpty());
+
+        cache.invalidate(ws1.getBazelPackage(IPath.forPosix("foo")).getBazelTarget("t1"));
+        assertEquals(Set.of("//foo:t0", "//foo:t2"), labels(cache.getAll(ws1)));
+        assertEquals(2, cache.getAll(ws2).size());
+    }
+
+    @Test
+    void invalidateAll_clears_cache_demoted_entries_and_segments() throws Exception {
+        var cache = new CaffeineBasedBazelElementInfoCache(2L * TARGET_INFO_WEIGHT, Duration.ofMinutes(5), true);
+        var ws = workspace("/ws");
+        var infos = putTargets(cache, ws, 5);
+        cache.getCache().cleanUp();
+        assertTrue(cache.getDemotedCache().estimatedSize() > 0);
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.getCache().estimatedSize());
+        assertEquals(0, cache.getDemotedCache().estimatedSize());
+        assertTrue(cache.getAll(ws).isEmpty());
+        for (BazelTargetInfo info : infos) {
+            assertNull(cache.getIfPresent(info.getOwner()));
+        }
+    }
+
+    @Test
+    void invalidateAll_keeps_segments_consistent_with_concurrent_puts() throws Exception {
+        var cache = new CaffeineBasedBazelElementInfoCache(10_000);
+        var ws = workspace("/ws");
+        var writer = new Thread(() -> {
+            for (var round = 0; round < 200; round++) {
+                putTargets(cache, ws, 20);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            cache.invalidateAll();
+        }
+        writer.join();
+
+        // every cached target must still be reachable through the workspace segment
+        assertEquals(cache.getCache().asMap().size(), cache.getAll(ws).size());
+    }
+
+    @Test
+    void weighted_cache_demotes_and_promotes_evicted_entries() throws Exception {
+        var cache = new CaffeineBasedBazelElementInfoCache(2L * TARGET_INFO_WEIGHT, Duration.ofMinutes(5), true);
+        var ws = workspace("/ws");
+        var infos = putTargets(cache, ws, 5);
+        cache.getCache().cleanUp();
+
+        assertTrue(cache.getCache().estimatedSize() <= 2);
+        assertEquals(5, cache.getCache().estimatedSize() + cache.getDemotedCache().estimatedSize());
+
+        // still strongly reachable so nothing was collected
+        assertEquals(5, cache.getAll(ws).size());
+        for (BazelTargetInfo info : infos) {
+            assertSame(info, cache.getIfPresent(info.getOwner()));
+        }
+    }
+
+    @Test
+    void weighted_cache_without_demotion_discards_evicted_entries() throws Exception {
+        var cache = new CaffeineBasedBazelElementInfoCache(2L * TARGET_INFO_WEIGHT, Duration.ofMinutes(5), false);
+        var ws = workspace("/ws");
+        putTargets(cache, ws, 5);
+        cache.getCache().cleanUp();
+
+        assertNull(cache.getDemotedCache());
+        assertTrue(cache.getCache().estimatedSize() <= 2);
+        assertEquals(cache.getCache().estimatedSize(), cache.getAll(ws).size());
+    }
+
+    @Test
+    void weigher_uses_estimated_sizes() throws Exception {
+        var weigher = new BazelElementInfoWeigher();
+        var target = new BazelTarget(workspace("/ws").getBazelPackage(IPath.forPosix("foo")), "t");
+
+        assertEquals(MODEL_INFO_WEIGHT, weigher.weigh("", new BazelModelInfo(model)));
+        assertEquals(TARGET_INFO_WEIGHT, weigher.weigh("key", new BazelTargetInfo("t", target)));
+    }
+}
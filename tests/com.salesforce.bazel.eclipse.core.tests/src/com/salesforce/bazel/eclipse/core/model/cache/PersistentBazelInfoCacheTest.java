@@ -0,0 +1,135 @@
+package com.salesforce.bazel.eclipse.core.model.cache;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createSymbolicLink;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.setLastModifiedTime;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.command.BazelBinary;
+
+public class PersistentBazelInfoCacheTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path binary;
+    private Path workspaceRoot;
+    private Path outputBase;
+    private Map<String, String> info;
+    private Path workingDirectory;
+    private Map<String, String> environment;
+
+    private PersistentBazelInfoCache newCache() {
+        return new PersistentBazelInfoCache(
+                tempDir.resolve("cache"),
+                tempDir.resolve("home"),
+                workingDirectory,
+                environment);
+    }
+
+    @BeforeEach
+    void setup() throws Exception {
+        binary = writeString(createDirectories(tempDir.resolve("bin")).resolve("bazel"), "#!/bin/sh\n");
+        workspaceRoot = createDirectories(tempDir.resolve("workspace"));
+        outputBase = createDirectories(tempDir.resolve("output_base"));
+        info = Map.of("output_base", outputBase.toString(), "release", "release 7.1.0");
+        workingDirectory = createDirectories(tempDir.resolve("cwd"));
+        environment = new HashMap<>();
+    }
+
+    @Test
+    void binary_version_validated_by_binary() throws Exception {
+        newCache().putBinaryVersion(binary, new BazelVersion(7, 1, 0));
+        assertEquals(new BazelVersion(7, 1, 0), newCache().getBinaryVersion(binary));
+
+        // binary replaced
+        setLastModifiedTime(binary, FileTime.fromMillis(1000));
+        assertNull(newCache().getBinaryVersion(binary));
+
+        // unknown binaries are not cached
+        newCache().putBinaryVersion(tempDir.resolve("bin/missing"), new BazelVersion(7, 1, 0));
+        assertNull(newCache().getBinaryVersion(tempDir.resolve("bin/missing")));
+    }
+
+    @Test
+    void binary_version_validated_by_version_selection() throws Exception {
+        newCache().putBinaryVersion(binary, new BazelVersion(7, 1, 0));
+        assertEquals(new BazelVersion(7, 1, 0), newCache().getBinaryVersion(binary));
+
+        // USE_BAZEL_VERSION set
+        environment.put("USE_BAZEL_VERSION", "7.2.0");
+        assertNull(newCache().getBinaryVersion(binary));
+        newCache().putBinaryVersion(binary, new BazelVersion(7, 2, 0));
+        assertEquals(new BazelVersion(7, 2, 0), newCache().getBinaryVersion(binary));
+
+        // .bazelversion in working directory added
+        writeString(workingDirectory.resolve(".bazelversion"), "6.5.0");
+        assertNull(newCache().getBinaryVersion(binary));
+    }
+
+    @Test
+    void bazelisk_version_not_cached() throws Exception {
+        var bazelisk = writeString(tempDir.resolve("bin/bazelisk"), "#!/bin/sh\n");
+        newCache().putBinaryVersion(bazelisk, new BazelVersion(7, 1, 0));
+        assertNull(newCache().getBinaryVersion(bazelisk));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS) // symbolic links require special privileges
+    void bazelisk_version_not_cached_when_linked_as_bazel() throws Exception {
+        var bazelisk = writeString(tempDir.resolve("bin/bazelisk"), "#!/bin/sh\n");
+        var link = createSymbolicLink(createDirectories(tempDir.resolve("link")).resolve("bazel"), bazelisk);
+        newCache().putBinaryVersion(link, new BazelVersion(7, 1, 0));
+        assertNull(newCache().getBinaryVersion(link));
+    }
+
+    @Test
+    void workspace_info_validated_by_bazelrc_and_bazelversion() throws Exception {
+        var bazelBinary = new BazelBinary(binary, new BazelVersion(7, 1, 0));
+        newCache().putWorkspaceInfo(workspaceRoot, bazelBinary, info);
+        assertEquals(info, newCache().getWorkspaceInfo(workspaceRoot, bazelBinary));
+
+        // different version
+        assertNull(newCache().getWorkspaceInfo(workspaceRoot, new BazelBinary(binary, new BazelVersion(7, 2, 0))));
+
+        // .bazelrc added
+        writeString(workspaceRoot.resolve(".bazelrc"), "build --foo");
+        assertNull(newCache().getWorkspaceInfo(workspaceRoot, bazelBinary));
+        newCache().putWorkspaceInfo(workspaceRoot, bazelBinary, info);
+        assertEquals(info, newCache().getWorkspaceInfo(workspaceRoot, bazelBinary));
+
+        // .bazelversion added
+        writeString(workspaceRoot.resolve(".bazelversion"), "7.2.0");
+        assertNull(newCache().getWorkspaceInfo(workspaceRoot, bazelBinary));
+    }
+
+    @Test
+    void workspace_info_requires_output_base() throws Exception {
+        var bazelBinary = new BazelBinary(binary, new BazelVersion(7, 1, 0));
+        var cache = newCache();
+        cache.putWorkspaceInfo(workspaceRoot, bazelBinary, info);
+        delete(outputBase);
+        assertNull(cache.getWorkspaceInfo(workspaceRoot, bazelBinary));
+
+        // explicit invalidation
+        createDirectories(outputBase);
+        assertEquals(info, cache.getWorkspaceInfo(workspaceRoot, bazelBinary));
+        cache.invalidateWorkspaceInfo(workspaceRoot);
+        assertNull(cache.getWorkspaceInfo(workspaceRoot, bazelBinary));
+    }
+}
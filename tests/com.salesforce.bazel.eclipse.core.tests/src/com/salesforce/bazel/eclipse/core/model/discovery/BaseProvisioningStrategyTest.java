@@ -0,0 +1,31 @@
+package com.salesforce.bazel.eclipse.core.model.discovery;
+
+import static com.salesforce.bazel.eclipse.core.model.discovery.BaseProvisioningStrategy.JAVA_IMPORT_KIND;
+import static com.salesforce.bazel.eclipse.core.model.discovery.BaseProvisioningStrategy.JAVA_LIBRARY_KIND;
+import static com.salesforce.bazel.eclipse.core.model.discovery.BaseProvisioningStrategy.ruleClassesOfKind;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BaseProvisioningStrategyTest {
+
+    @Test
+    void ruleClassesOfKind_matches_like_kind_query_function() throws Exception {
+        var javaLibraries = ruleClassesOfKind(JAVA_LIBRARY_KIND);
+        assertTrue(javaLibraries.test("java_library"));
+        assertTrue(javaLibraries.test("custom_java_library"));
+        assertFalse(javaLibraries.test("java_import"));
+        assertFalse(javaLibraries.test("java_binary"));
+
+        var javaLibrariesAndImports = ruleClassesOfKind(JAVA_LIBRARY_KIND, JAVA_IMPORT_KIND);
+        assertTrue(javaLibrariesAndImports.test("java_library"));
+        assertTrue(javaLibrariesAndImports.test("java_import"));
+        assertTrue(javaLibrariesAndImports.test("java_import_external"));
+        assertFalse(javaLibrariesAndImports.test("java_test"));
+
+        // patterns are matched against "<rule class> rule" like in bazel query
+        assertTrue(ruleClassesOfKind("^java_library rule$").test("java_library"));
+        assertFalse(ruleClassesOfKind("^java_library rule$").test("custom_java_library"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.salesforce.bazel.eclipse.core.model.discovery;
+
+import static com.salesforce.bazel.eclipse.core.model.discovery.ProjectPerPackageProvisioningStrategy.packIntoShards;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ProjectPerPackageProvisioningStrategyTest {
+
+    @Test
+    void packIntoShards_fills_shards_without_splitting_groups() throws Exception {
+        var targetsByPackage = Map.of(
+            "foo",
+            List.of("b", "a"),
+            "bar",
+            List.of("a", "b", "c"),
+            "baz",
+            List.of("a"),
+            "large",
+            List.of("a", "b", "c", "d", "e"));
+
+        var shards =
+                packIntoShards(targetsByPackage, Comparator.<String> naturalOrder(), Comparator.naturalOrder(), 4);
+
+        assertEquals(3, shards.size());
+        assertEquals(List.of("bar", "baz"), List.copyOf(shards.get(0).keySet()));
+        assertEquals(List.of("a", "b", "c"), List.copyOf(shards.get(0).get("bar")));
+        assertEquals(List.of("foo"), List.copyOf(shards.get(1).keySet()));
+        assertEquals(List.of("a", "b"), List.copyOf(shards.get(1).get("foo")));
+
+        // groups larger than the shard size are never split
+        assertEquals(List.of("large"), List.copyOf(shards.get(2).keySet()));
+        assertEquals(5, shards.get(2).get("large").size());
+    }
+}
@@ -0,0 +1,61 @@
+package com.salesforce.bazel.eclipse.core.model.discovery;
+
+import static com.salesforce.bazel.eclipse.core.model.discovery.ProjectPerTargetProvisioningStrategy.MAX_SHARDS_PENDING_ANALYSIS;
+import static com.salesforce.bazel.eclipse.core.model.discovery.ProjectPerTargetProvisioningStrategy.newShardAnalysisExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class ProjectPerTargetProvisioningStrategyTest {
+
+    @Test
+    void shard_analysis_executor_is_bounded_and_dedicated() throws Exception {
+        var executor = newShardAnalysisExecutor();
+        try {
+            assertEquals(MAX_SHARDS_PENDING_ANALYSIS, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+
+            var running = new AtomicInteger();
+            var maxRunning = new AtomicInteger();
+            var release = new CountDownLatch(1);
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            List<CompletableFuture<Void>> analyses = new ArrayList<>();
+            for (var i = 0; i < 2 * MAX_SHARDS_PENDING_ANALYSIS; i++) {
+                analyses.add(CompletableFuture.runAsync(() -> {
+                    threads.add(Thread.currentThread());
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await(10, SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                }, executor));
+            }
+            release.countDown();
+            CompletableFuture.allOf(analyses.toArray(CompletableFuture[]::new)).get(10, SECONDS);
+
+            assertTrue(maxRunning.get() <= MAX_SHARDS_PENDING_ANALYSIS);
+            for (Thread thread : threads) {
+                assertTrue(thread.isDaemon());
+                assertTrue(thread.getName().startsWith("Bazel Aspect Analysis"));
+                assertFalse(thread instanceof ForkJoinWorkerThread);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, SECONDS));
+    }
+}
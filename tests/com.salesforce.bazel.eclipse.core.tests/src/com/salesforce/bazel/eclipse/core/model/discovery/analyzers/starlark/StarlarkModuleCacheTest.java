@@ -0,0 +1,58 @@
+package com.salesforce.bazel.eclipse.core.model.discovery.analyzers.starlark;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+
+import org.eclipse.core.runtime.CoreException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.starlark.java.eval.StarlarkSemantics;
+
+public class StarlarkModuleCacheTest {
+
+    @TempDir
+    private Path workspaceRoot;
+
+    private final StarlarkModuleCache cache = new StarlarkModuleCache(StarlarkSemantics.DEFAULT);
+
+    @Test
+    void cycle_detected() throws Exception {
+        var a = writeString(workspaceRoot.resolve("a.bzl"), "load(':b.bzl', 'b')\na = 1\n");
+        writeString(workspaceRoot.resolve("b.bzl"), "load(':a.bzl', 'a')\nb = 1\n");
+
+        assertThrows(CoreException.class, () -> cache.getModule(workspaceRoot, a));
+    }
+
+    @Test
+    void module_reused_until_loaded_file_changes() throws Exception {
+        createDirectories(workspaceRoot.resolve("tools"));
+        var constants = writeString(workspaceRoot.resolve("tools/constants.bzl"), "VALUE = 'one'\n");
+        var analyzer = writeString(workspaceRoot.resolve("tools/analyzer.bzl"), """
+                load("//tools:constants.bzl", "VALUE")
+                RESULT = VALUE
+                """);
+
+        var module = cache.getModule(workspaceRoot, analyzer);
+        assertEquals("one", module.getGlobal("RESULT"));
+        assertSame(module, cache.getModule(workspaceRoot, analyzer));
+
+        writeString(constants, "VALUE = 'two'\n");
+        var updated = cache.getModule(workspaceRoot, analyzer);
+        assertNotSame(module, updated);
+        assertEquals("two", updated.getGlobal("RESULT"));
+    }
+
+    @Test
+    void unsupported_load_reported() throws Exception {
+        var file = writeString(workspaceRoot.resolve("a.bzl"), "load('@rules_java//java:defs.bzl', 'java_library')\n");
+
+        assertThrows(CoreException.class, () -> cache.getModule(workspaceRoot, file));
+    }
+}
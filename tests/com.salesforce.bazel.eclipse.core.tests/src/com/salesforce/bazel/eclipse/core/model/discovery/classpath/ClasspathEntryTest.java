@@ -0,0 +1,43 @@
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.jupiter.api.Test;
+
+public class ClasspathEntryTest {
+
+    private static IClasspathEntry newLibraryEntryWithSources() {
+        return JavaCore.newLibraryEntry(
+            IPath.forPosix("/ws/libfoo.jar"),
+            IPath.forPosix("/ws/libfoo-src.jar"),
+            IPath.forPosix("src"),
+            new IAccessRule[] { JavaCore.newAccessRule(IPath.forPosix("com/example/**"), IAccessRule.K_ACCESSIBLE) },
+            new IClasspathAttribute[] { JavaCore.newClasspathAttribute(IClasspathAttribute.TEST, "true") },
+            true);
+    }
+
+    @Test
+    void copyOf_retains_source_attachment_and_exported_flag() throws Exception {
+        var entry = newLibraryEntryWithSources();
+        assertEquals(entry, ClasspathEntry.copyOf(entry).build());
+    }
+
+    @Test
+    void fromExisting_drops_source_attachment_and_exported_flag() throws Exception {
+        var copy = ClasspathEntry.fromExisting(newLibraryEntryWithSources());
+
+        assertEquals(IPath.forPosix("/ws/libfoo.jar"), copy.getPath());
+        assertNull(copy.getSourceAttachmentPath());
+        assertNull(copy.getSourceAttachmentRootPath());
+        assertFalse(copy.isExported());
+        assertEquals(1, copy.getAccessRules().size());
+        assertEquals("true", copy.getExtraAttributes().get(IClasspathAttribute.TEST));
+    }
+}
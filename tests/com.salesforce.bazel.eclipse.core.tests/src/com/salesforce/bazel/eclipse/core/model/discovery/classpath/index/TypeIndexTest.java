@@ -0,0 +1,143 @@
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath.index;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.idea.blaze.base.model.primitives.Label;
+
+public class TypeIndexTest {
+
+    private static Path createJar(Path jar, String targetLabel, String... entries) throws IOException {
+        var manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (targetLabel != null) {
+            manifest.getMainAttributes().putValue("Target-Label", targetLabel);
+        }
+        try (var out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void lookup_types_packages_and_jars() throws Exception {
+        var fooJar = createJar(
+            tempDir.resolve("libfoo.jar"),
+            "//foo:foo",
+            "com/example/foo/Foo.class",
+            "com/example/foo/Foo$Inner.class",
+            "com/example/foo/package-info.class",
+            "META-INF/versions/11/com/example/foo/Foo.class",
+            "module-info.class");
+        var barJar = createJar(
+            tempDir.resolve("libbar.jar"),
+            null,
+            "com/example/bar/Bar.class",
+            "com/example/foo/Foo.class");
+
+        var writer = new TypeIndexWriter(null);
+        writer.addJar(fooJar, null, null);
+        writer.addJar(barJar, Label.create("//bar:bar"), tempDir.resolve("libbar-src.jar"));
+        var indexFile = tempDir.resolve("test.typeindex");
+        writer.write(indexFile);
+
+        var index = TypeIndex.open(indexFile);
+        assertThat(index.getJarCount(), equalTo(2));
+        assertThat(index.getTypeCount(), equalTo(3));
+
+        assertThat(
+            index.findJarsContainingType("com.example.foo.Foo").stream().map(IndexedJar::jar).collect(toList()),
+            containsInAnyOrder(fooJar, barJar));
+        assertThat(
+            index.findJarsContainingType("com.example.bar.Bar").stream().map(IndexedJar::targetLabel).collect(toList()),
+            contains(Label.create("//bar:bar")));
+        assertThat(index.findJarsContainingType("com.example.foo.Foo.Inner"), empty());
+        assertThat(index.findJarsContainingType("com.example.Missing"), empty());
+
+        assertThat(
+            index.findJarsContainingPackage("com.example.foo").stream().map(IndexedJar::jar).collect(toList()),
+            containsInAnyOrder(fooJar, barJar));
+        assertThat(
+            index.findTypesBySimpleName("Bar").stream().map(IndexedType::fullyQualifiedName).collect(toList()),
+            contains("com.example.bar.Bar"));
+
+        var indexedFooJar = index.findJar(fooJar);
+        assertThat(indexedFooJar.targetLabel(), equalTo(Label.create("//foo:foo")));
+        assertThat(indexedFooJar.sourceJar(), nullValue());
+        assertThat(index.findJar(barJar).sourceJar(), equalTo(tempDir.resolve("libbar-src.jar")));
+        assertThat(index.findJar(tempDir.resolve("unknown.jar")), nullValue());
+    }
+
+    @Test
+    void incremental_update_carries_over_unchanged_and_drops_deleted_jars() throws Exception {
+        var fooJar = createJar(tempDir.resolve("libfoo.jar"), "//foo:foo", "com/example/foo/Foo.class");
+        var barJar = createJar(tempDir.resolve("libbar.jar"), "//bar:bar", "com/example/bar/Bar.class");
+
+        var writer = new TypeIndexWriter(null);
+        writer.addJar(fooJar, null, null);
+        writer.addJar(barJar, null, null);
+        var indexFile = tempDir.resolve("test.typeindex");
+        writer.write(indexFile);
+
+        // delete bar, add baz, leave foo untouched
+        Files.delete(barJar);
+        var bazJar = createJar(tempDir.resolve("libbaz.jar"), "//baz:baz", "com/example/baz/Baz.class");
+
+        writer = new TypeIndexWriter(TypeIndex.open(indexFile));
+        writer.addJar(bazJar, null, null);
+        writer.removeMissingJars();
+        var nextIndexFile = tempDir.resolve("test.2.typeindex");
+        writer.write(nextIndexFile);
+
+        var index = TypeIndex.open(nextIndexFile);
+        assertThat(index.getJarCount(), equalTo(2));
+        assertThat(index.findJarsContainingType("com.example.bar.Bar"), empty());
+        assertThat(
+            index.findJarsContainingType("com.example.foo.Foo").stream().map(IndexedJar::targetLabel).collect(toList()),
+            contains(Label.create("//foo:foo")));
+        assertThat(
+            index.findJarsContainingType("com.example.baz.Baz").stream().map(IndexedJar::targetLabel).collect(toList()),
+            contains(Label.create("//baz:baz")));
+    }
+
+    @Test
+    void indexed_jar_is_outdated_after_change() throws Exception {
+        var fooJar = createJar(tempDir.resolve("libfoo.jar"), "//foo:foo", "com/example/foo/Foo.class");
+
+        var writer = new TypeIndexWriter(null);
+        writer.addJar(fooJar, null, null);
+        var indexFile = tempDir.resolve("test.typeindex");
+        writer.write(indexFile);
+
+        var index = TypeIndex.open(indexFile);
+        assertThat(index.findJar(fooJar).isUpToDate(), equalTo(true));
+
+        createJar(fooJar, "//foo:foo", "com/example/foo/Foo.class", "com/example/foo/Bar.class");
+        assertThat(index.findJar(fooJar).isUpToDate(), equalTo(false));
+
+        Files.delete(fooJar);
+        assertThat(index.findJar(fooJar).isUpToDate(), equalTo(false));
+    }
+}
@@ -0,0 +1,70 @@
+package com.salesforce.bazel.eclipse.core.model.discovery.classpath.util;
+
+import static com.salesforce.bazel.eclipse.core.model.discovery.classpath.util.TypeLocator.isPublicType;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.eclipse.jdt.core.Flags;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TypeLocatorTest {
+
+    /**
+     * {@return a minimal class file (no fields, methods or attributes)}
+     */
+    private static byte[] classFile(String binaryName, int accessFlags) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0); // minor
+            out.writeShort(52); // major (Java 8)
+            out.writeShort(5); // constant pool count
+            out.writeByte(7); // #1 class
+            out.writeShort(2);
+            out.writeByte(1); // #2 utf8
+            out.writeUTF(binaryName);
+            out.writeByte(7); // #3 class
+            out.writeShort(4);
+            out.writeByte(1); // #4 utf8
+            out.writeUTF("java/lang/Object");
+            out.writeShort(accessFlags);
+            out.writeShort(1); // this class
+            out.writeShort(3); // super class
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(0); // methods
+            out.writeShort(0); // attributes
+        }
+        return bytes.toByteArray();
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void isPublicType_reads_access_flags_of_class_file() throws Exception {
+        var jar = tempDir.resolve("libfoo.jar");
+        try (var out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("com/example/PublicType.class"));
+            out.write(classFile("com/example/PublicType", Flags.AccPublic | Flags.AccSuper));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("com/example/PackagePrivateType.class"));
+            out.write(classFile("com/example/PackagePrivateType", Flags.AccSuper));
+            out.closeEntry();
+        }
+
+        assertTrue(isPublicType(jar, "com.example.PublicType"));
+        assertFalse(isPublicType(jar, "com.example.PackagePrivateType"));
+        assertFalse(isPublicType(jar, "com.example.Missing"));
+        assertFalse(isPublicType(tempDir.resolve("missing.jar"), "com.example.PublicType"));
+    }
+}
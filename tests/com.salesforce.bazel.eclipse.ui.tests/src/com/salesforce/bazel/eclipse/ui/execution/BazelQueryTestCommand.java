@@ -1,15 +1,13 @@
 package com.salesforce.bazel.eclipse.ui.execution;
 
-import static java.nio.file.Files.createTempFile;
-import static java.nio.file.Files.readAllLines;
-
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.List;
 
-import com.salesforce.bazel.sdk.BazelVersion;
 import com.salesforce.bazel.sdk.command.BazelQueryCommand;
 
 /**
@@ -22,17 +20,7 @@ public class BazelQueryTestCommand extends BazelQueryCommand<Collection<String>>
     }
 
     @Override
-    protected Collection<String> doGenerateResult() throws IOException {
-        return readAllLines(getStdOutFile(), Charset.defaultCharset());
-    }
-
-    @Override
-    public List<String> prepareCommandLine(BazelVersion bazelVersion) throws IOException {
-        // redirect output to file for parsing
-        var stdoutFile = createTempFile("bazel_test_query_stdout_", ".bin");
-        setRedirectStdOutToFile(stdoutFile);
-
-        // prepare regular query command line
-        return super.prepareCommandLine(bazelVersion);
+    protected Collection<String> parseStdOut(InputStream in) throws IOException {
+        return new BufferedReader(new InputStreamReader(in, Charset.defaultCharset())).lines().toList();
     }
 }
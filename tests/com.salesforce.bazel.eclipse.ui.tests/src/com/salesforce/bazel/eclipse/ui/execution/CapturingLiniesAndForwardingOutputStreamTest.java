@@ -5,8 +5,15 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -37,6 +44,55 @@ public class CapturingLiniesAndForwardingOutputStreamTest {
         return lines;
     }
 
+    @Test
+    void console_writes_are_batched() throws Exception {
+        var forwarded = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            forwarded.write(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(messageConsoleStream).write(any(byte[].class), anyInt(), anyInt());
+
+        var lines = generateLines(1000);
+        try (var stream =
+                new CapturingLiniesAndForwardingOutputStream(messageConsoleStream, UTF_8, 4, errorPrefixFilter)) {
+            for (String line : lines) {
+                writeLineToStream(stream, line, UTF_8);
+            }
+        }
+
+        var expected = String.join("\n", lines) + "\n";
+        assertEquals(expected, forwarded.toString(UTF_8));
+        verify(messageConsoleStream, atMost(lines.size() / 10)).write(any(byte[].class), anyInt(), anyInt());
+    }
+
+    @Test
+    void flush_forwards_pending_output() throws Exception {
+        try (var stream =
+                new CapturingLiniesAndForwardingOutputStream(messageConsoleStream, UTF_8, 4, errorPrefixFilter)) {
+            stream.write("pending".getBytes(UTF_8));
+            stream.flush();
+            verify(messageConsoleStream).write(any(byte[].class), eq(0), eq(7));
+        }
+    }
+
+    @Test
+    void lines_split_across_writes_and_carriage_returns() throws Exception {
+        try (var stream =
+                new CapturingLiniesAndForwardingOutputStream(messageConsoleStream, UTF_8, 4, errorPrefixFilter)) {
+            stream.write("ERR".getBytes(UTF_8));
+            stream.write("OR: first\r\nINFO: progress\rINFO: done\n\nERROR: sec".getBytes(UTF_8));
+            stream.write("ond".getBytes(UTF_8));
+
+            assertThat(
+                stream.getCapturedLines(),
+                IsIterableContainingInOrder
+                        .contains("ERROR: first", "INFO: progressINFO: done", "", "ERROR: second"));
+            assertThat(
+                stream.getCapturedLinesFiltered(),
+                IsIterableContainingInOrder.contains("ERROR: first", "ERROR: second"));
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(ints = { 0, -1, -300 })
     void invalid_number_of_lines(int numberOfLines) throws Exception {
@@ -0,0 +1,87 @@
+package com.salesforce.bazel.scipls.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.salesforce.bazel.scipls.index.JavaSourceScanner.Identifier;
+import com.salesforce.bazel.scipls.index.JavaSourceScanner.TypeDeclaration;
+
+public class JavaSourceScannerTest {
+
+    @Test
+    void comments_and_literals_ignored() throws Exception {
+        var source = new JavaSourceScanner("""
+                package p;
+
+                class A {
+                    // class Commented {}
+                    String s = "class InString {}";
+                    char c = '{';
+                    String t = \"""
+                        class InTextBlock {
+                        \""";
+                    /* class InBlock {} */
+                    Object o = A.class;
+                }
+                """).scan();
+
+        assertEquals(List.of("p.A"), source.types().stream().map(TypeDeclaration::qualifiedName).toList());
+        var names = source.identifiers().stream().map(Identifier::name).toList();
+        assertFalse(names.contains("Commented"));
+        assertFalse(names.contains("InString"));
+        assertFalse(names.contains("InTextBlock"));
+        assertTrue(names.contains("String"));
+    }
+
+    @Test
+    void declarations_and_identifiers() throws Exception {
+        var source = new JavaSourceScanner("""
+                package com.example;
+
+                import java.util.List;
+                import java.util.concurrent.*;
+                import static java.util.Objects.requireNonNull;
+
+                /**
+                 * Outer type.
+                 */
+                public class Outer<T> {
+                    /** Inner type. */
+                    static class Inner {
+                    }
+
+                    record Point(int x, int y) {
+                    }
+
+                    List<java.util.Map.Entry<String, T>> entries;
+                }
+
+                interface Second {
+                }
+                """).scan();
+
+        assertEquals("com.example", source.packageName());
+        assertEquals(List.of("java.util.List"), source.imports());
+        assertEquals(List.of("java.util.concurrent"), source.wildcardImports());
+
+        assertEquals(
+            List.of("com.example.Outer", "com.example.Outer.Inner", "com.example.Outer.Point", "com.example.Second"),
+            source.types().stream().map(TypeDeclaration::qualifiedName).toList());
+
+        var outer = source.types().get(0);
+        assertEquals(9, outer.line());
+        assertEquals(13, outer.startColumn());
+        assertEquals(18, outer.endColumn());
+        assertEquals("public class Outer<T>", outer.signature());
+        assertEquals("Outer type.", outer.javadoc());
+        assertEquals("Inner type.", source.types().get(1).javadoc());
+
+        assertTrue(source.identifiers().contains(new Identifier("Entry", "java.util.Map", 17, 23, 28)));
+        assertTrue(source.identifiers().contains(new Identifier("List", "java.util", 2, 17, 21)));
+    }
+}
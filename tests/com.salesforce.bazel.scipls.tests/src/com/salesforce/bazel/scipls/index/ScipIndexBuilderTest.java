@@ -0,0 +1,120 @@
+package com.salesforce.bazel.scipls.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.salesforce.bazel.scipls.index.ScipIndex.ScipLocation;
+import com.sourcegraph.Scip;
+
+/**
+ * Tests the index against the checked-in sample workspace with pre-recorded aspect outputs.
+ */
+public class ScipIndexBuilderTest {
+
+    private static final String APP_JAVA = "app/src/com/example/app/App.java";
+    private static final String GREETER_JAVA = "lib/src/com/example/lib/Greeter.java";
+    private static final String STRINGS_JAVA = "external/maven/ext-1.0-sources.jar!/com/example/ext/Strings.java";
+
+    private static final String GREETER = "semanticdb maven . . com/example/lib/Greeter#";
+    private static final String GREETER_STYLE = "semanticdb maven . . com/example/lib/Greeter#Style#";
+    private static final String STRINGS = "semanticdb maven . . com/example/ext/Strings#";
+
+    private static Path workspaceRoot;
+    private static Path executionRoot;
+    private static ScipIndexBuilder builder;
+    private static Scip.Index scipIndex;
+    private static ScipIndex index;
+
+    @BeforeAll
+    static void buildIndex() throws Exception {
+        workspaceRoot = Path.of("testdata/sample_workspace").toAbsolutePath();
+        executionRoot = Path.of("testdata/sample_execroot").toAbsolutePath();
+        var aspectFiles = AspectOutputs.findAspectFiles(executionRoot.resolve("bazel-out"));
+        assertEquals(3, aspectFiles.size());
+
+        builder = new ScipIndexBuilder(AspectOutputs.read(workspaceRoot, executionRoot, aspectFiles));
+        scipIndex = builder.build();
+        index = new ScipIndex(scipIndex, workspaceRoot, executionRoot);
+    }
+
+    @Test
+    void definition_in_other_target() throws Exception {
+        assertEquals(GREETER, index.findSymbol(APP_JAVA, 8, 27));
+        assertEquals(List.of(new ScipLocation(GREETER_JAVA, 5, 13, 5, 20)), index.getDefinitions(GREETER));
+    }
+
+    @Test
+    void definition_in_source_jar() throws Exception {
+        assertEquals(STRINGS, index.findSymbol(APP_JAVA, 9, 30));
+        var definitions = index.getDefinitions(STRINGS);
+        assertEquals(List.of(new ScipLocation(STRINGS_JAVA, 5, 19, 5, 26)), definitions);
+
+        var uri = index.toUri(STRINGS_JAVA);
+        assertEquals("jar", uri.getScheme());
+        assertTrue(uri.toString().endsWith("ext-1.0-sources.jar!/com/example/ext/Strings.java"));
+        assertEquals(STRINGS_JAVA, index.toRelativePath(uri));
+        assertEquals(APP_JAVA, index.toRelativePath(index.toUri(APP_JAVA)));
+    }
+
+    @Test
+    void hover_documentation() throws Exception {
+        assertEquals(
+            List.of("```java\npublic class Greeter\n```", "Creates greetings."),
+            index.getDocumentation(GREETER));
+        assertEquals(
+            List.of("```java\npublic enum Style\n```", "The greeting style."),
+            index.getDocumentation(GREETER_STYLE));
+    }
+
+    @Test
+    void index_stored_on_disk(@TempDir Path tempDir) throws Exception {
+        var store = new ScipIndexStore(tempDir.resolve("scipls/index.scip"));
+        var inputFiles = builder.getInputFiles();
+        assertFalse(store.isUpToDate(inputFiles));
+
+        store.write(scipIndex);
+        assertTrue(store.isUpToDate(inputFiles));
+
+        var stored = new ScipIndex(store.read(), workspaceRoot, executionRoot);
+        assertEquals(index.getReferences(GREETER, true), stored.getReferences(GREETER, true));
+
+        Files.setLastModifiedTime(store.getIndexFile(), FileTime.from(Instant.EPOCH));
+        assertFalse(store.isUpToDate(inputFiles));
+    }
+
+    @Test
+    void references_of_member_type() throws Exception {
+        assertEquals(GREETER_STYLE, index.findSymbol(APP_JAVA, 9, 74));
+        assertEquals(
+            List.of(
+                new ScipLocation(APP_JAVA, 9, 72, 9, 77),
+                new ScipLocation(GREETER_JAVA, 12, 37, 12, 42),
+                new ScipLocation(GREETER_JAVA, 13, 24, 13, 29)),
+            index.getReferences(GREETER_STYLE, false));
+    }
+
+    @Test
+    void references_across_targets() throws Exception {
+        assertEquals(
+            List.of(
+                new ScipLocation(GREETER_JAVA, 5, 13, 5, 20),
+                new ScipLocation(APP_JAVA, 3, 23, 3, 30),
+                new ScipLocation(APP_JAVA, 8, 26, 8, 33),
+                new ScipLocation(APP_JAVA, 9, 64, 9, 71)),
+            index.getReferences(GREETER, true));
+
+        // the source jar is indexed because the jdeps file of app lists the jar of its library
+        assertTrue(builder.getInputFiles().contains(executionRoot.resolve("external/maven/ext-1.0-sources.jar")));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.app;
+
+import com.example.ext.Strings;
+import com.example.lib.Greeter;
+
+public class App {
+
+    public static void main(String[] args) {
+        var greeter = new Greeter();
+        System.out.println(Strings.upper(greeter.greet("Bazel", Greeter.Style.CASUAL)));
+    }
+}
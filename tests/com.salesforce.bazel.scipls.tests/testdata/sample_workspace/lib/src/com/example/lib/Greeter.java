@@ -0,0 +1,16 @@
+package com.example.lib;
+
+/**
+ * Creates greetings.
+ */
+public class Greeter {
+
+    /** The greeting style. */
+    public enum Style {
+        FORMAL, CASUAL
+    }
+
+    public String greet(String name, Style style) {
+        return style == Style.FORMAL ? "Good day, " + name : "Hi " + name;
+    }
+}
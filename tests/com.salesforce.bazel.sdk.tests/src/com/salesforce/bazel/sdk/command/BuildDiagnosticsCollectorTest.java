@@ -0,0 +1,161 @@
+package com.salesforce.bazel.sdk.command;
+
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.Files.writeString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.ActionExecuted;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEvent;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.ActionCompletedId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.BuildFinishedId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.BuildStartedId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildEventId.ProgressId;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildFinished;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.BuildStarted;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.File;
+import com.google.devtools.build.lib.buildeventstream.BuildEventStreamProtos.Progress;
+import com.google.idea.blaze.base.command.buildresult.BuildResult;
+import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.model.BazelLabel;
+
+public class BuildDiagnosticsCollectorTest {
+
+    private static final String JAVAC_OUTPUT = """
+            \u001B[31m\u001B[1mERROR: \u001B[0m/ws/pkg/BUILD:3:13: Building pkg/libfoo.jar (1 source file) failed: (Exit 1)
+            pkg/src/Foo.java:5: error: cannot find symbol
+                Bar bar;
+                ^
+              symbol:   class Bar
+              location: class Foo
+            pkg/src/Foo.java:9: warning: [removal] finalize() in Object has been deprecated
+                protected void finalize() {}
+                               ^
+            pkg/src/Foo.java:12: error: ';' expected
+            1 error
+            """;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS) // fake binary is a shell script
+    void diagnostics_from_fake_bazel_build() throws Exception {
+        // canned action output and BEP
+        var actionStderr = writeString(tempDir.resolve("stderr-1"), JAVAC_OUTPUT);
+        var cannedBep = tempDir.resolve("canned.bep");
+        try (var out = newOutputStream(cannedBep)) {
+            BuildEvent.newBuilder()
+                    .setId(BuildEventId.newBuilder().setStarted(BuildStartedId.getDefaultInstance()))
+                    .setStarted(BuildStarted.newBuilder().setUuid("test-build"))
+                    .build()
+                    .writeDelimitedTo(out);
+            BuildEvent.newBuilder()
+                    .setId(BuildEventId.newBuilder().setProgress(ProgressId.newBuilder().setOpaqueCount(1)))
+                    .setProgress(Progress.newBuilder().setStderr(JAVAC_OUTPUT))
+                    .build()
+                    .writeDelimitedTo(out);
+            BuildEvent.newBuilder()
+                    .setId(
+                        BuildEventId.newBuilder()
+                                .setActionCompleted(
+                                    ActionCompletedId.newBuilder()
+                                            .setLabel("//pkg:foo")
+                                            .setPrimaryOutput("bazel-out/k8-fastbuild/bin/pkg/libfoo.jar")))
+                    .setAction(
+                        ActionExecuted.newBuilder()
+                                .setSuccess(false)
+                                .setStderr(
+                                    File.newBuilder().setName("stderr").setUri(actionStderr.toUri().toString())))
+                    .build()
+                    .writeDelimitedTo(out);
+            BuildEvent.newBuilder()
+                    .setId(BuildEventId.newBuilder().setBuildFinished(BuildFinishedId.getDefaultInstance()))
+                    .setFinished(
+                        BuildFinished.newBuilder()
+                                .setExitCode(BuildFinished.ExitCode.newBuilder().setCode(1).setName("BUILD_FAILURE")))
+                    .build()
+                    .writeDelimitedTo(out);
+        }
+
+        // fake binary copying the canned BEP and failing like a real build
+        var fakeBazel = writeString(tempDir.resolve("fake-bazel"), """
+                #!/bin/sh
+                for arg in "$@"; do
+                  case "$arg" in
+                    --build_event_binary_file=*) cp "%s" "${arg#--build_event_binary_file=}" ;;
+                  esac
+                done
+                cat "%s" >&2
+                exit 1
+                """.formatted(cannedBep, actionStderr));
+        fakeBazel.toFile().setExecutable(true);
+
+        var executor = new DefaultBazelCommandExecutor() {
+            @Override
+            protected String getToolTagArgument() {
+                return "--tool_tag=java:sdk:test";
+            }
+        };
+        executor.setBazelBinary(new BazelBinary(fakeBazel, new BazelVersion(999, 999, 999)));
+
+        var command = new BazelBuildCommand(
+                List.of(new BazelLabel("//pkg:foo")),
+                tempDir,
+                null,
+                true /* keep going */,
+                "testing");
+        var collector = new BuildDiagnosticsCollector();
+        command.setDiagnosticsCollector(collector);
+
+        var result = executor.execute(command, () -> false);
+        assertEquals(BuildResult.Status.BUILD_ERROR, result.getBuildResult().status);
+
+        // progress and action output are merged, preferring the labeled one
+        var diagnostics = collector.getDiagnostics();
+        assertEquals(3, diagnostics.size());
+        assertTrue(diagnostics.stream().allMatch(d -> "//pkg:foo".equals(d.label())));
+    }
+
+    @Test
+    void javac_output_parsed() throws Exception {
+        var diagnostics = BuildDiagnosticsCollector.parseJavacOutput(JAVAC_OUTPUT, "//pkg:foo");
+
+        assertEquals(
+            List.of(
+                new BuildDiagnostic(
+                        Path.of("pkg/src/Foo.java"),
+                        5,
+                        5,
+                        true,
+                        "cannot find symbol symbol: class Bar location: class Foo",
+                        "//pkg:foo"),
+                new BuildDiagnostic(
+                        Path.of("pkg/src/Foo.java"),
+                        9,
+                        20,
+                        false,
+                        "[removal] finalize() in Object has been deprecated",
+                        "//pkg:foo"),
+                new BuildDiagnostic(Path.of("pkg/src/Foo.java"), 12, 0, true, "';' expected", "//pkg:foo")),
+            diagnostics);
+    }
+
+    @Test
+    void no_diagnostics_in_regular_output() throws Exception {
+        assertFalse(
+            BuildDiagnosticsCollector.parseJavacOutput("INFO: Build completed successfully, 1 total action", null)
+                    .iterator()
+                    .hasNext());
+    }
+}
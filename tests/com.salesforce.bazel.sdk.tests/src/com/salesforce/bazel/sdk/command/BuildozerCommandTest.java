@@ -0,0 +1,51 @@
+package com.salesforce.bazel.sdk.command;
+
+import static java.nio.file.Files.readAllLines;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.command.BuildozerCommand.Edit;
+
+public class BuildozerCommandTest {
+
+    private static final BazelVersion bazelVersion = new BazelVersion(999, 999, 999);
+
+    @Test
+    void batched_edits_use_single_commands_file() throws Exception {
+        var command = new BuildozerCommand(
+                Path.of("."),
+                List.of(
+                    new Edit(List.of("add deps //foo", "add deps @bar"), List.of("//a:a", "//a:b")),
+                    new Edit(List.of("add deps //baz"), List.of("//b"))),
+                "test");
+
+        var commandLine = command.prepareCommandLine(bazelVersion);
+        assertEquals(3, commandLine.size());
+        assertEquals("-output_proto", commandLine.get(0));
+        assertEquals("-f", commandLine.get(1));
+
+        assertEquals(
+            List.of("add deps //foo|//a:a|//a:b", "add deps @bar|//a:a|//a:b", "add deps //baz|//b"),
+            readAllLines(Path.of(commandLine.get(2))));
+    }
+
+    @Test
+    void batched_edits_must_not_be_empty() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> new BuildozerCommand(Path.of("."), List.of(), "test"));
+    }
+
+    @Test
+    void single_command_passed_directly() throws Exception {
+        var command = new BuildozerCommand(Path.of("."), List.of("add deps //foo"), List.of("//a:a"), "test");
+
+        assertEquals(
+            List.of("-output_proto", "add deps //foo", "//a:a"),
+            command.prepareCommandLine(bazelVersion));
+    }
+}
@@ -0,0 +1,35 @@
+package com.salesforce.bazel.sdk.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CancelationSignalTest {
+
+    @Test
+    void listeners_notified_once() throws Exception {
+        var signal = new CancelationSignal();
+        var notifications = new AtomicInteger();
+
+        assertTrue(signal.onCancel(notifications::incrementAndGet));
+        assertTrue(signal.onCancel(() -> {
+            throw new IllegalStateException("must not prevent other listeners");
+        }));
+        assertTrue(signal.onCancel(notifications::incrementAndGet));
+        assertFalse(signal.isCanceled());
+        assertEquals(0, notifications.get());
+
+        signal.cancel();
+        signal.cancel();
+        assertTrue(signal.isCanceled());
+        assertEquals(2, notifications.get());
+
+        // late listener is called immediately
+        assertTrue(signal.onCancel(notifications::incrementAndGet));
+        assertEquals(3, notifications.get());
+    }
+}
@@ -1,13 +1,24 @@
 package com.salesforce.bazel.sdk.command;
 
+import static java.nio.file.Files.exists;
 import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,11 +27,23 @@ import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.io.TempDir;
 
 import com.salesforce.bazel.sdk.BazelVersion;
+import com.salesforce.bazel.sdk.command.BazelCommand.StdOutChannel;
 
 public class DefaultBazelCommandExecutorTest {
 
     static final BazelBinary bazelBinary = new BazelBinary(Path.of("echo"), new BazelVersion(999, 999, 999));
 
+    private static void assertQueryFileUsed(Collection<String> result) {
+        assertEquals(1, result.size());
+        var commandLine = result.iterator().next();
+        assertTrue(
+            commandLine.startsWith("query --tool_tag=java:sdk:test --output label --query_file "),
+            commandLine);
+
+        // query file is removed
+        assertFalse(exists(Path.of(commandLine.substring(commandLine.lastIndexOf(' ') + 1))));
+    }
+
     private DefaultBazelCommandExecutor executor;
 
     @TempDir
@@ -52,6 +75,68 @@ public class DefaultBazelCommandExecutorTest {
         assertEquals("dummy --tool_tag=java:sdk:test" + System.lineSeparator(), output);
     }
 
+    @Test
+    void query_output_spooled() throws Exception {
+        var command = new BazelQueryForLabelsCommand(tempDir, "//foo:bar", false, "testing");
+
+        executor.setPipeCommandOutput(false);
+        var result = executor.execute(command, () -> false);
+        assertQueryFileUsed(result);
+        assertEquals(StdOutChannel.SPOOL_FILE, command.getStdOutChannel());
+
+        // spool file is removed
+        assertNotNull(command.getStdOutFile());
+        assertFalse(exists(command.getStdOutFile()));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS) // uses a shell script as binary
+    void cancel_pushed_without_polling() throws Exception {
+        var sleepingBinary = writeString(tempDir.resolve("sleeping-bazel"), "#!/bin/sh\nexec sleep 30\n");
+        sleepingBinary.toFile().setExecutable(true);
+        executor.setBazelBinary(new BazelBinary(sleepingBinary, new BazelVersion(999, 999, 999)));
+
+        var signal = new CancelationSignal();
+        var canceler = CompletableFuture.runAsync(signal::cancel, CompletableFuture.delayedExecutor(200, MILLISECONDS));
+
+        var start = System.nanoTime();
+        var e = assertThrows(IOException.class, () -> executor.execute(new TestCommand(tempDir), signal));
+        assertEquals("user cancelled", e.getMessage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 10);
+        canceler.join();
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS) // uses a shell script as binary
+    void cancel_polled() throws Exception {
+        var sleepingBinary = writeString(tempDir.resolve("sleeping-bazel"), "#!/bin/sh\nexec sleep 30\n");
+        sleepingBinary.toFile().setExecutable(true);
+        executor.setBazelBinary(new BazelBinary(sleepingBinary, new BazelVersion(999, 999, 999)));
+
+        var cancelAt = System.nanoTime() + MILLISECONDS.toNanos(200);
+        var e = assertThrows(
+            IOException.class,
+            () -> executor.execute(new TestCommand(tempDir), () -> System.nanoTime() > cancelAt));
+        assertEquals("user cancelled", e.getMessage());
+    }
+
+    @Test
+    void query_file_used_for_short_queries() throws Exception {
+        // must not be passed on the command line, which may be wrapped into a shell
+        var command = new BazelQueryForLabelsCommand(tempDir, "deps(//foo:bar)", false, "testing");
+
+        assertQueryFileUsed(executor.execute(command, () -> false));
+    }
+
+    @Test
+    void query_output_streamed() throws Exception {
+        var command = new BazelQueryForLabelsCommand(tempDir, "//foo:bar", false, "testing");
+
+        var result = executor.execute(command, () -> false);
+        assertQueryFileUsed(result);
+        assertNull(command.getStdOutFile());
+    }
+
     @BeforeEach
     void setup() {
         executor = new DefaultBazelCommandExecutor() {
@@ -0,0 +1,172 @@
+package com.salesforce.bazel.sdk.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class BazelDependencyGraphTest {
+
+    private static BazelDependencyGraph createGraph() {
+        return new BazelDependencyGraph.Builder()
+                .addPackageGroup("//groups:friends", List.of("//friends/...", "-//friends/enemy"), List.of())
+                .addRule("//a:a", "java_library", List.of("//visibility:public"), List.of("//a:A.java"), List.of())
+                .addRule(
+                    "//b:b",
+                    "java_library",
+                    List.of("//visibility:public"),
+                    List.of("//a:a", "//c:gen.jar"),
+                    List.of("//b:libb.jar"))
+                .addRule("//c:gen", "genrule", List.of("//visibility:public"), List.of(), List.of())
+                .addGeneratedFile("//c:gen.jar", "//c:gen")
+                .addRule("//d:d", "java_library", List.of("//visibility:public"), List.of("//b:libb.jar"), List.of())
+                .addRule("//e:e", "java_library", List.of("//e/sub:__subpackages__"), List.of(), List.of())
+                .addRule("//f:f", "java_library", List.of("//groups:friends"), List.of(), List.of())
+                .addRule("//g:g", "java_library", List.of("//visibility:private"), List.of(), List.of())
+                .addRule("//g:h", "java_library", List.of(), List.of(), List.of())
+                .addRule("//e/sub:x", "java_library", List.of(), List.of(), List.of())
+                .addRule("//friends/foo:y", "java_library", List.of(), List.of(), List.of())
+                .addRule("//friends/enemy:z", "java_library", List.of(), List.of(), List.of())
+                .build();
+    }
+
+    @Test
+    void dependencies_resolve_generated_files() throws Exception {
+        var graph = createGraph();
+
+        assertEquals(List.of("//a:a", "//c:gen"), graph.getDirectDependencies("//b:b"));
+        assertEquals(List.of("//b:b"), graph.getDirectDependencies("//d:d"));
+        assertEquals("genrule", graph.getRuleClass("//c:gen"));
+        assertTrue(graph.contains("@//a:a"));
+        assertFalse(graph.contains("//a:A.java"));
+    }
+
+    @Test
+    void dependencies_with_depth() throws Exception {
+        var graph = createGraph();
+
+        assertEquals(Set.of("//d:d", "//b:b"), graph.findDependencies(List.of("//d:d"), 1, "java_library"::equals));
+        assertEquals(
+            List.of("//d:d", "//b:b", "//a:a", "//c:gen"),
+            List.copyOf(graph.findDependencies(List.of("//d:d"), 2, rc -> true)));
+        assertEquals(
+            Set.of("//d:d", "//b:b", "//a:a"),
+            graph.findDependencies(List.of("//d:d"), 0, "java_library"::equals));
+        assertEquals(Set.of("//d:d", "//b:b", "//a:a"), graph.findReverseDependencies(List.of("//a:a")));
+    }
+
+    @Test
+    void merge_replaces_changed_packages() throws Exception {
+        var graph = createGraph();
+
+        // //b no longer depends on //a and //b:b2 was added; //c:gen was deleted
+        var update = new BazelDependencyGraph.Builder()
+                .addRule("//b:b", "java_library", List.of("//visibility:public"), List.of(), List.of())
+                .addRule("//b:b2", "java_library", List.of("//visibility:public"), List.of("//b:b"), List.of())
+                .build();
+        var merged = graph.merge(update, p -> p.equals("b") || p.equals("c"));
+
+        assertEquals(graph.size(), merged.size());
+        assertFalse(merged.contains("//c:gen"));
+        assertTrue(graph.getMainRepositoryPackages().contains("c"));
+        assertFalse(merged.getMainRepositoryPackages().contains("c"));
+        assertEquals(List.of(), merged.getDirectDependencies("//b:b"));
+        assertEquals(List.of("//b:b"), merged.getDirectDependencies("//d:d"));
+        assertEquals(Set.of("//d:d", "//b:b"), merged.findDependencies(List.of("//d:d"), 0, rc -> true));
+
+        // visibility resolved in the original graph is preserved
+        assertEquals(
+            List.of("//a:a", "//b:b", "//b:b2", "//d:d", "//f:f"),
+            merged.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//friends/foo:y")));
+    }
+
+    @Test
+    void missing_target_is_rejected() throws Exception {
+        var graph = createGraph();
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//unknown")));
+    }
+
+    @Test
+    void partition_by_shared_dependencies() throws Exception {
+        var graph = new BazelDependencyGraph.Builder()
+                .addRule("//common:big", "java_library", List.of(), List.of(), List.of())
+                .addRule("//other:lib", "java_library", List.of(), List.of(), List.of())
+                .addRule("//x:a", "java_library", List.of(), List.of("//common:big"), List.of())
+                .addRule("//x:b", "java_library", List.of(), List.of("//other:lib"), List.of())
+                .addRule("//x:c", "java_library", List.of(), List.of("//common:big", "//x:a"), List.of())
+                .addRule("//x:d", "java_library", List.of(), List.of("//other:lib"), List.of())
+                .build();
+
+        // //x:c has the largest closure and shares //common:big with //x:a
+        assertEquals(
+            List.of(List.of("//x:c", "//x:a"), List.of("//x:b", "//x:d")),
+            graph.partitionBySharedDependencies(List.of("//x:a", "//x:b", "//x:c", "//x:d"), 2));
+        assertEquals(
+            List.of(List.of("//x:c", "//x:a", "//x:b")),
+            graph.partitionBySharedDependencies(List.of("//x:a", "//x:b", "//x:c"), 10));
+        assertThrows(IllegalArgumentException.class, () -> graph.partitionBySharedDependencies(List.of("//x:a"), 0));
+    }
+
+    @Test
+    void visible_except_reverse_dependencies() throws Exception {
+        var graph = createGraph();
+
+        // //d depends on //b which depends on //a
+        assertEquals(List.of(), graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//a:a")));
+        assertEquals(
+            List.of("//a:a", "//b:b"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//d:d")));
+        assertEquals(
+            List.of("//a:a"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//b:b", "//d:d")));
+
+        // sub packages
+        assertEquals(
+            List.of("//a:a", "//b:b", "//d:d", "//e:e"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//e/sub:x")));
+
+        // package groups with exclusions
+        assertEquals(
+            List.of("//a:a", "//b:b", "//d:d", "//f:f"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//friends/foo:y")));
+        assertEquals(
+            List.of("//a:a", "//b:b", "//d:d"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//friends/enemy:z")));
+
+        // same package is always visible
+        assertEquals(
+            List.of("//a:a", "//b:b", "//d:d", "//g:h"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//g:g")));
+    }
+
+    @Test
+    void visibility_labels_with_repository_names() throws Exception {
+        var graph = new BazelDependencyGraph.Builder()
+                .addPackageGroup("@@//groups:friends", List.of("//friends/..."), List.of())
+                .addRule("//a:a", "java_library", List.of("@//visibility:public"), List.of(), List.of())
+                .addRule("//b:b", "java_library", List.of("@//x:__subpackages__"), List.of(), List.of())
+                .addRule("//c:c", "java_library", List.of("@@//x/y:__pkg__"), List.of(), List.of())
+                .addRule("//d:d", "java_library", List.of("@//groups:friends"), List.of(), List.of())
+                .addRule("//e:e", "java_library", List.of("@other//x:__subpackages__"), List.of(), List.of())
+                .addRule("//f:f", "java_library_wrapper", List.of("//visibility:public"), List.of(), List.of())
+                .addRule("//x/y:z", "java_library", List.of(), List.of(), List.of())
+                .addRule("//friends/foo:y", "java_library", List.of(), List.of(), List.of())
+                .build();
+
+        // rule classes must match exactly
+        assertEquals(
+            List.of("//a:a", "//b:b", "//c:c"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//x/y:z")));
+        assertEquals(
+            List.of("//a:a", "//d:d"),
+            graph.findVisibleExceptReverseDependencies("java_library"::equals, List.of("//friends/foo:y")));
+    }
+}